@@ -0,0 +1,118 @@
+package com.budget.control.backend.benchmark;
+
+import com.budget.control.backend.deserializer.TransactionExpenseTypeDeserializer;
+import com.budget.control.backend.type.EnumLookup;
+import com.budget.control.backend.type.TransactionExpenseType;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Case-insensitive enum lookups of the names sent by clients, over the largest enum
+// stream: upper-case then a stream over values(), the deserializers before EnumLookup
+// valueOf: upper-case then Enum.valueOf, the request params before EnumLookup
+// table: EnumLookup
+// lookup measures a name alone, deserialize a JSON string token read by the deserializer, run with -prof gc for the allocations
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class EnumLookupBenchmark {
+
+    private static final int NAMES = 1024;
+
+    @Param({"stream", "valueOf", "table"})
+    public String implementation;
+
+    private final EnumLookup<TransactionExpenseType> lookup = EnumLookup.of(TransactionExpenseType.class);
+    private final JsonFactory jsonFactory = new JsonFactory();
+    private String[] names;
+    private byte[][] documents;
+    private JsonDeserializer<TransactionExpenseType> deserializer;
+    private DeserializationContext context;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        // Names as clients send them: upper, lower or mixed case, sometimes padded
+        TransactionExpenseType[] values = TransactionExpenseType.values();
+        Random random = new Random(42);
+        names = new String[NAMES];
+        documents = new byte[NAMES][];
+        for (int i = 0; i < NAMES; i++) {
+            String name = values[random.nextInt(values.length)].name();
+            name = switch (random.nextInt(4)) {
+                case 0 -> name;
+                case 1 -> name.toLowerCase();
+                case 2 -> Character.toUpperCase(name.charAt(0)) + name.substring(1).toLowerCase();
+                default -> " " + name.toLowerCase() + " ";
+            };
+            names[i] = name;
+            documents[i] = ("\"" + name + "\"").getBytes();
+        }
+        deserializer = "table".equals(implementation)
+                ? new TransactionExpenseTypeDeserializer()
+                : new JsonDeserializer<>() {
+                    @Override
+                    public TransactionExpenseType deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+                        return find(p.getText());
+                    }
+                };
+        context = new ObjectMapper().getDeserializationContext();
+    }
+
+    @Benchmark
+    public TransactionExpenseType lookup() {
+        return find(nextName());
+    }
+
+    @Benchmark
+    public void deserialize(Blackhole blackhole) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(documents[nextIndex()])) {
+            parser.nextToken();
+            blackhole.consume(deserializer.deserialize(parser, context));
+        }
+    }
+
+    private TransactionExpenseType find(String name) {
+        return switch (implementation) {
+            case "stream" -> {
+                String value = name.trim().toUpperCase();
+                yield Arrays.stream(TransactionExpenseType.values())
+                        .filter(e -> e.name().equalsIgnoreCase(value))
+                        .findFirst()
+                        .orElseThrow();
+            }
+            case "valueOf" -> TransactionExpenseType.valueOf(name.trim().toUpperCase());
+            default -> lookup.parse(name);
+        };
+    }
+
+    private String nextName() {
+        return names[nextIndex()];
+    }
+
+    private int nextIndex() {
+        return next = (next + 1) & (NAMES - 1);
+    }
+}
@@ -0,0 +1,62 @@
+package com.budget.control.backend.benchmark;
+
+import com.budget.control.backend.controller.dto.request.TransactionExpenseRequestDTO;
+import com.budget.control.backend.controller.dto.response.TransactionExpenseResponseDTO;
+import com.budget.control.backend.mappers.TransactionExpenseMapper;
+import com.budget.control.backend.mappers.TransactionExpenseMapperImpl;
+import com.budget.control.backend.model.TransactionExpenseModel;
+import com.budget.control.backend.type.TransactionExpenseType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// The MapStruct mapper of the expense endpoints, a request DTO to the entity and the entity to the response DTO
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class TransactionExpenseMapperBenchmark {
+
+    private final TransactionExpenseMapper mapper = new TransactionExpenseMapperImpl();
+    private TransactionExpenseRequestDTO request;
+    private TransactionExpenseModel model;
+
+    @Setup
+    public void setUp() {
+        request = new TransactionExpenseRequestDTO(TransactionExpenseType.GROCERY, "Weekly groceries",
+                new BigDecimal("152.37"), LocalDate.of(2025, 3, 14), false, null, null);
+
+        LocalDateTime createdAt = LocalDateTime.of(2025, 3, 14, 18, 42, 7, 123_456_000);
+        model = mapper.toRequestEntity(request);
+        model.setId(UUID.randomUUID());
+        model.setUserId(UUID.randomUUID());
+        model.setCreatedAt(createdAt);
+        model.setUpdatedAt(createdAt);
+        model.setVersion(3L);
+    }
+
+    @Benchmark
+    public TransactionExpenseModel toRequestEntity() {
+        return mapper.toRequestEntity(request);
+    }
+
+    @Benchmark
+    public TransactionExpenseResponseDTO toResponseDTO() {
+        return mapper.toResponseDTO(model);
+    }
+}
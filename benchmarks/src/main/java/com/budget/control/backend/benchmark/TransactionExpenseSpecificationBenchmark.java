@@ -0,0 +1,83 @@
+package com.budget.control.backend.benchmark;
+
+import com.budget.control.backend.model.TransactionExpenseModel;
+import com.budget.control.backend.pagination.KeysetCursor;
+import com.budget.control.backend.service.TransactionExpenseService;
+import com.budget.control.backend.type.TransactionExpenseType;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.registry.StandardServiceRegistry;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// The filtered reads: the Specification of the params built and turned into the criteria predicate, cursor included
+// name: the name filter alone, all: every filter of the search
+// Hibernate boots without a database, only the metamodel of the entity is needed to build criteria
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class TransactionExpenseSpecificationBenchmark {
+
+    @Param({"name", "all"})
+    public String filters;
+
+    private final TransactionExpenseService service = new TransactionExpenseService(null, null, null, null, null, null, null, null, null);
+    private final KeysetCursor cursor = new KeysetCursor(LocalDate.of(2025, 3, 14), UUID.randomUUID());
+    private SessionFactory sessionFactory;
+    private CriteriaBuilder criteriaBuilder;
+
+    @Setup
+    public void setUp() {
+        StandardServiceRegistry registry = new StandardServiceRegistryBuilder()
+                .applySetting("hibernate.dialect", PostgreSQLDialect.class.getName())
+                .applySetting("hibernate.boot.allow_jdbc_metadata_access", false)
+                .build();
+        sessionFactory = new MetadataSources(registry)
+                .addAnnotatedClass(TransactionExpenseModel.class)
+                .buildMetadata()
+                .buildSessionFactory();
+        criteriaBuilder = sessionFactory.getCriteriaBuilder();
+    }
+
+    @TearDown
+    public void tearDown() {
+        sessionFactory.close();
+    }
+
+    @Benchmark
+    public Predicate buildPredicate() {
+        var specification = filters.equals("name")
+                ? service.buildSpecification(TransactionExpenseType.GROCERY, null, null, null, null, null, null)
+                : service.buildSpecification(TransactionExpenseType.GROCERY, "market", new BigDecimal("152.37"), null,
+                        LocalDate.of(2025, 1, 1), LocalDate.of(2025, 12, 31), false);
+        specification = specification.and(cursor.after());
+
+        CriteriaQuery<TransactionExpenseModel> query = criteriaBuilder.createQuery(TransactionExpenseModel.class);
+        Root<TransactionExpenseModel> root = query.from(TransactionExpenseModel.class);
+        return specification.toPredicate(root, query, criteriaBuilder);
+    }
+}
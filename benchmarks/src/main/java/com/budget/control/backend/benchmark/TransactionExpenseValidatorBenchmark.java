@@ -0,0 +1,69 @@
+package com.budget.control.backend.benchmark;
+
+import com.budget.control.backend.model.TransactionExpenseModel;
+import com.budget.control.backend.type.TransactionExpenseType;
+import com.budget.control.backend.validator.request.TransactionExpenseValidatorRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// TransactionExpenseValidatorRequest on valid expenses: validate for POST and PUT, validatePatch (the amount bounds alone) for PATCH
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class TransactionExpenseValidatorBenchmark {
+
+    private static final int MODELS = 1024;
+
+    private final TransactionExpenseValidatorRequest validator = new TransactionExpenseValidatorRequest();
+    private TransactionExpenseModel[] models;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        // Amounts as clients send them, with zero, one or two decimal places
+        Random random = new Random(42);
+        models = new TransactionExpenseModel[MODELS];
+        for (int i = 0; i < MODELS; i++) {
+            TransactionExpenseModel model = new TransactionExpenseModel();
+            model.setName(TransactionExpenseType.GROCERY);
+            model.setAmount(BigDecimal.valueOf(1 + random.nextInt(10_000_000), random.nextInt(3)));
+            model.setDate(LocalDate.of(2025, 3, 14));
+            model.setRecurrent(false);
+            models[i] = model;
+        }
+    }
+
+    @Benchmark
+    public TransactionExpenseModel validate() {
+        TransactionExpenseModel model = nextModel();
+        validator.validate(model);
+        return model;
+    }
+
+    @Benchmark
+    public TransactionExpenseModel validatePatch() {
+        TransactionExpenseModel model = nextModel();
+        validator.validatePatch(model);
+        return model;
+    }
+
+    private TransactionExpenseModel nextModel() {
+        return models[next = (next + 1) & (MODELS - 1)];
+    }
+}
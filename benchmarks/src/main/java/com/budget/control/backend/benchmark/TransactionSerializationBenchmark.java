@@ -0,0 +1,90 @@
+package com.budget.control.backend.benchmark;
+
+import com.budget.control.backend.controller.dto.response.PageResponseDTO;
+import com.budget.control.backend.controller.dto.response.TransactionExpenseResponseDTO;
+import com.budget.control.backend.serializer.TransactionResponseModule;
+import com.budget.control.backend.type.TransactionExpenseType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// A page of expense responses written to a byte buffer, as the list endpoints do
+// default: the ObjectMapper as Spring Boot configured it before, blackbird: with BlackbirdModule,
+// dedicated: BlackbirdModule and TransactionResponseModule, the configuration of JacksonConfig
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class TransactionSerializationBenchmark {
+
+    @Param({"default", "blackbird", "dedicated"})
+    public String serializer;
+
+    @Param({"1000"})
+    public int size;
+
+    private ObjectWriter writer;
+    private PageResponseDTO<TransactionExpenseResponseDTO> page;
+    private ByteArrayOutputStream output;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        if (!serializer.equals("default")) {
+            objectMapper.registerModule(new BlackbirdModule());
+        }
+        if (serializer.equals("dedicated")) {
+            objectMapper.registerModule(new TransactionResponseModule());
+        }
+        writer = objectMapper.writer();
+
+        Random random = new Random(42);
+        TransactionExpenseType[] names = TransactionExpenseType.values();
+        List<TransactionExpenseResponseDTO> content = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            LocalDate date = LocalDate.of(2025, 1, 1).plusDays(random.nextInt(365));
+            LocalDateTime createdAt = date.atTime(random.nextInt(24), random.nextInt(60), random.nextInt(60), random.nextInt(1_000_000) * 1_000);
+            content.add(new TransactionExpenseResponseDTO(
+                    UUID.randomUUID(), names[random.nextInt(names.length)], "Expense " + i,
+                    BigDecimal.valueOf(random.nextInt(1_000_000), 2), date, false, createdAt, createdAt,
+                    UUID.randomUUID(), null, null, null, null));
+        }
+        page = new PageResponseDTO<>(content, size, null);
+        output = new ByteArrayOutputStream(256 * size);
+    }
+
+    @Benchmark
+    public int writePage() throws IOException {
+        output.reset();
+        writer.writeValue(output, page);
+        return output.size();
+    }
+}
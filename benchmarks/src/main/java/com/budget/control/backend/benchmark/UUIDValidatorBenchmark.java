@@ -0,0 +1,56 @@
+package com.budget.control.backend.benchmark;
+
+import com.budget.control.backend.exception.InvalidUUIDException;
+import com.budget.control.backend.validator.UUIDValidator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// UUIDValidator.validateUUID on the path variables, valid ids and malformed ones answered with a 400
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class UUIDValidatorBenchmark {
+
+    private static final int IDS = 1024;
+
+    @Param({"valid", "invalid"})
+    public String input;
+
+    private final UUIDValidator validator = new UUIDValidator();
+    private String[] ids;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        ids = new String[IDS];
+        for (int i = 0; i < IDS; i++) {
+            String id = UUID.randomUUID().toString();
+            ids[i] = input.equals("valid") ? id : id.substring(0, 35) + "z";
+        }
+    }
+
+    @Benchmark
+    public boolean validateUUID() {
+        try {
+            validator.validateUUID(ids[next = (next + 1) & (IDS - 1)]);
+            return true;
+        } catch (InvalidUUIDException e) {
+            return false;
+        }
+    }
+}
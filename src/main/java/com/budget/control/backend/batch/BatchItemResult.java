@@ -0,0 +1,29 @@
+package com.budget.control.backend.batch;
+
+import org.springframework.http.HttpStatus;
+
+import java.util.UUID;
+
+// Outcome of one item of a batch, index is the position of the item in the request
+public record BatchItemResult(int index, int status, UUID id, String message) {
+
+    public static BatchItemResult created(int index, UUID id) {
+        return new BatchItemResult(index, HttpStatus.CREATED.value(), id, null);
+    }
+
+    public static BatchItemResult duplicated(int index, String message) {
+        return new BatchItemResult(index, HttpStatus.CONFLICT.value(), null, message);
+    }
+
+    public static BatchItemResult nullField(int index, String message) {
+        return new BatchItemResult(index, HttpStatus.UNPROCESSABLE_ENTITY.value(), null, message);
+    }
+
+    public static BatchItemResult invalidField(int index, String message) {
+        return new BatchItemResult(index, HttpStatus.BAD_REQUEST.value(), null, message);
+    }
+
+    public boolean isCreated() {
+        return status == HttpStatus.CREATED.value();
+    }
+}
@@ -0,0 +1,34 @@
+package com.budget.control.backend.batch;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+public final class Batches {
+
+    // Keys bound per IN (...) lookup, well below the PostgreSQL limit of 32767 bind parameters
+    public static final int LOOKUP_CHUNK_SIZE = 1000;
+
+    private Batches() {
+    }
+
+    // Run a set based lookup over many keys, one query per chunk of keys
+    public static Set<String> lookupInChunks(Collection<String> keys, Function<Collection<String>, Collection<String>> lookup) {
+        Set<String> found = new HashSet<>();
+        List<String> chunk = new ArrayList<>(Math.min(keys.size(), LOOKUP_CHUNK_SIZE));
+        for (String key : keys) {
+            chunk.add(key);
+            if (chunk.size() == LOOKUP_CHUNK_SIZE) {
+                found.addAll(lookup.apply(chunk));
+                chunk = new ArrayList<>(LOOKUP_CHUNK_SIZE);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            found.addAll(lookup.apply(chunk));
+        }
+        return found;
+    }
+}
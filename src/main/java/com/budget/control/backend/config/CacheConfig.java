@@ -0,0 +1,45 @@
+package com.budget.control.backend.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    // Cache names, one bounded cache per entity type
+    public static final String TRANSACTION_EXPENSE = "transactionExpense";
+    public static final String TRANSACTION_INCOME = "transactionIncome";
+    public static final String TRANSACTION_BENEFIT = "transactionBenefit";
+    public static final String USER = "user";
+    public static final String GROUP = "group";
+    // Forecast inputs per user, evicted on every transaction write of the user
+    public static final String FORECAST = "forecast";
+
+    // Responses of the lookups by id (DTO and entity tag, never the entities) cached in memory, size and time bounded
+    // Statistics are recorded so the hit, miss and eviction counts show up in the actuator cache metrics
+    // Puts and evictions are delayed until the surrounding transaction commits, so a concurrent read
+    // cannot cache a row that is about to change
+    @Bean
+    public CacheManager cacheManager(
+            @Value("${budget.cache.maximum-size:10000}") long maximumSize,
+            @Value("${budget.cache.expire-after-write:10m}") Duration expireAfterWrite
+    ) {
+        CaffeineCacheManager caffeineCacheManager = new CaffeineCacheManager(
+                TRANSACTION_EXPENSE, TRANSACTION_INCOME, TRANSACTION_BENEFIT, USER, GROUP, FORECAST);
+        caffeineCacheManager.setCaffeine(Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats());
+        caffeineCacheManager.setAllowNullValues(false);
+        return new TransactionAwareCacheManagerProxy(caffeineCacheManager);
+    }
+}
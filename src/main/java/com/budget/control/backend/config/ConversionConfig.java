@@ -0,0 +1,26 @@
+package com.budget.control.backend.config;
+
+import com.budget.control.backend.deserializer.EnumLookupConverter;
+import com.budget.control.backend.type.ReportGroupByType;
+import com.budget.control.backend.type.TransactionBenefitType;
+import com.budget.control.backend.type.TransactionExpenseType;
+import com.budget.control.backend.type.TransactionIncomeType;
+import com.budget.control.backend.type.UserRoleType;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.format.FormatterRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+// Request params of the enum types go through the same lookup as the JSON bodies
+// A value that is not a constant fails the binding with the InvalidFieldException message, see GlobalExceptionHandler
+@Configuration
+public class ConversionConfig implements WebMvcConfigurer {
+
+    @Override
+    public void addFormatters(FormatterRegistry registry) {
+        registry.addConverter(String.class, TransactionExpenseType.class, new EnumLookupConverter<>(TransactionExpenseType.class));
+        registry.addConverter(String.class, TransactionIncomeType.class, new EnumLookupConverter<>(TransactionIncomeType.class));
+        registry.addConverter(String.class, TransactionBenefitType.class, new EnumLookupConverter<>(TransactionBenefitType.class));
+        registry.addConverter(String.class, UserRoleType.class, new EnumLookupConverter<>(UserRoleType.class));
+        registry.addConverter(String.class, ReportGroupByType.class, new EnumLookupConverter<>(ReportGroupByType.class));
+    }
+}
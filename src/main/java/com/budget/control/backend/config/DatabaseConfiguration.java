@@ -1,11 +1,15 @@
 package com.budget.control.backend.config;
 
 import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 import javax.sql.DataSource;
+import java.time.Duration;
 
 @Configuration
 public class DatabaseConfiguration {
@@ -20,8 +24,26 @@ public class DatabaseConfiguration {
     @Value("${spring.datasource.driver-class-name}")
     String driver;
 
+    //Connection pool values configuration
+    @Value("${spring.datasource.hikari.maximum-pool-size:10}")
+    int maximumPoolSize;
+    @Value("${spring.datasource.hikari.minimum-idle:1}")
+    int minimumIdle;
+    @Value("${spring.datasource.hikari.max-lifetime:30m}")
+    Duration maxLifetime;
+    @Value("${spring.datasource.hikari.connection-timeout:30s}")
+    Duration connectionTimeout;
+
+    //Connection limiter values configuration, on by default when the requests run on virtual threads
+    @Value("${budget.datasource.limiter.enabled:${spring.threads.virtual.enabled:false}}")
+    boolean limiterEnabled;
+    @Value("${budget.datasource.limiter.max-waiting:200}")
+    int limiterMaxWaiting;
+    @Value("${budget.datasource.limiter.acquire-timeout:2s}")
+    Duration limiterAcquireTimeout;
+
     @Bean
-    public DataSource hikariDataSource(){
+    public DataSource hikariDataSource(MeterRegistry meterRegistry){
         // HikariConfig is a class that allows you to configure the connection pool settings
         HikariConfig config = new HikariConfig();
         config.setUsername(username);
@@ -29,13 +51,35 @@ public class DatabaseConfiguration {
         config.setJdbcUrl(url);
         config.setDriverClassName(driver);
 
-        config.setMaximumPoolSize(10); // Maximum number of connections in the pool
-        config.setMinimumIdle(1); // Minimum number of connections in the pool
+        config.setMaximumPoolSize(maximumPoolSize); // Maximum number of connections in the pool, default 10
+        config.setMinimumIdle(minimumIdle); // Minimum number of connections in the pool, default 1
         config.setPoolName("budget-control-db-pool"); // Name of the pool
-        config.setMaxLifetime(1800000); // Maximum lifetime of a connection in the pool 1.8m ms = 30m
-        config.setConnectionTimeout(30000); // Maximum time to wait for a connection from the pool 30s
+        config.setMaxLifetime(maxLifetime.toMillis()); // Maximum lifetime of a connection in the pool, default 30m
+        config.setConnectionTimeout(connectionTimeout.toMillis()); // Maximum time to wait for a connection from the pool, default 30s
         config.setConnectionTestQuery("SELECT 1"); // Query to test the connection
+        config.addDataSourceProperty("reWriteBatchedInserts", true); // PostgreSQL driver sends a JDBC batch of inserts as multi-row inserts
+        // Pool gauges and timers as hikaricp.* tagged pool=budget-control-db-pool: active, idle, pending, acquire, usage
+        // Set before the pool starts, so it is instrumented whether or not ConnectionLimitingDataSource wraps it
+        config.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
 
-        return new com.zaxxer.hikari.HikariDataSource(config);
+        com.zaxxer.hikari.HikariDataSource hikariDataSource = new com.zaxxer.hikari.HikariDataSource(config);
+        if (!limiterEnabled) {
+            return hikariDataSource;
+        }
+        // One permit per pooled connection, the callers beyond that wait briefly or fail fast with a 503
+        return new ConnectionLimitingDataSource(hikariDataSource, maximumPoolSize, limiterMaxWaiting, limiterAcquireTimeout);
+    }
+
+    // JDBC batching for the batch endpoints, only applied when not set in the configuration
+    // Inserts are ordered by entity so rows of the same table end up in the same batch
+    @Bean
+    public HibernatePropertiesCustomizer jdbcBatchingCustomizer(
+            @Value("${budget.batch.jdbc-batch-size:500}") int jdbcBatchSize
+    ) {
+        return hibernateProperties -> {
+            hibernateProperties.putIfAbsent("hibernate.jdbc.batch_size", jdbcBatchSize);
+            hibernateProperties.putIfAbsent("hibernate.order_inserts", true);
+            hibernateProperties.putIfAbsent("hibernate.order_updates", true);
+        };
     }
 }
@@ -0,0 +1,24 @@
+package com.budget.control.backend.config;
+
+import com.budget.control.backend.serializer.TransactionResponseModule;
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// Modules added to the ObjectMapper Spring Boot builds, every Module bean is registered on it
+@Configuration
+public class JacksonConfig {
+
+    // Replaces the reflective getter calls and constructor calls of the bean (de)serializers with generated lambdas
+    @Bean
+    public Module blackbirdModule() {
+        return new BlackbirdModule();
+    }
+
+    // Dedicated serializers of the transaction responses, see TransactionResponseModule
+    @Bean
+    public Module transactionResponseModule() {
+        return new TransactionResponseModule();
+    }
+}
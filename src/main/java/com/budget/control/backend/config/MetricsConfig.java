@@ -0,0 +1,40 @@
+package com.budget.control.backend.config;
+
+import com.budget.control.backend.metrics.EntityLoadCountingIntegrator;
+import com.budget.control.backend.metrics.RequestStatisticsSessionListener;
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+// Metrics published at /actuator/prometheus, on top of the ones Spring Boot binds by itself
+// (http.server.requests per endpoint, hikaricp.* of budget-control-db-pool, hibernate.*, cache.*, jvm.*)
+@Configuration
+public class MetricsConfig {
+
+    // Times the public methods of the classes annotated with @Timed, the services are, as budget.service
+    // tagged with the class, the method and the exception thrown
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+
+    // Hibernate statistics: the session factory totals bound by Spring Boot as hibernate.*,
+    // and the statements, entity loads and flushes of each request, see HibernateRequestMetricsFilter
+    @Bean
+    public HibernatePropertiesCustomizer hibernateStatisticsCustomizer(
+            @Value("${budget.metrics.hibernate-statistics:true}") boolean hibernateStatistics
+    ) {
+        return hibernateProperties -> {
+            hibernateProperties.putIfAbsent("hibernate.generate_statistics", hibernateStatistics);
+            hibernateProperties.putIfAbsent("hibernate.session.events.auto", RequestStatisticsSessionListener.class.getName());
+            hibernateProperties.put("hibernate.integrator_provider",
+                    (IntegratorProvider) () -> List.of(new EntityLoadCountingIntegrator()));
+        };
+    }
+}
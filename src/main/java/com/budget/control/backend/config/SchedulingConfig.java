@@ -0,0 +1,10 @@
+package com.budget.control.backend.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// Turns on the @Scheduled jobs, see RecurringTransactionService
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
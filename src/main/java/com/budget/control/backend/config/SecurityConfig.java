@@ -1,12 +1,20 @@
 package com.budget.control.backend.config;
 
+import com.budget.control.backend.security.TokenAuthenticationFilter;
+import com.budget.control.backend.security.TokenService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.util.matcher.RequestMatcher;
 
 @Configuration
 @EnableWebSecurity
@@ -14,19 +22,45 @@ public class SecurityConfig {
 
     //Security configuration for the application
     //Allowing for tests
+    //Requests are authenticated by the signed access token issued at login, no HTTP session is kept
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain securityFilterChain(
+            HttpSecurity http,
+            TokenService tokenService,
+            ObjectMapper objectMapper,
+            @Value("${server.port:8080}") int serverPort,
+            @Value("${management.server.port:-1}") int managementPort
+    ) throws Exception {
+        // Requests received on a separate management port, which is only reachable from the internal network
+        RequestMatcher managementPortRequest = request ->
+                managementPort > 0 && managementPort != serverPort && request.getLocalPort() == managementPort;
+
         http
                 .authorizeHttpRequests(authorizeRequests ->
                         authorizeRequests
+                                // Bulk writes are scoped to the owner of the token, they are refused without one
+                                .requestMatchers(HttpMethod.PATCH, "/transaction-income/bulk", "/transaction-expense/bulk", "/transaction-benefit/bulk").authenticated()
+                                .requestMatchers(HttpMethod.DELETE, "/transaction-income", "/transaction-expense", "/transaction-benefit").authenticated()
                                 .requestMatchers("/transaction-income/**").permitAll()
                                 .requestMatchers("/transaction-expense/**").permitAll()
                                 .requestMatchers("/transaction-benefit/**").permitAll()
                                 .requestMatchers("/user/**").permitAll()
                                 .requestMatchers("/auth/**").permitAll()
                                 .requestMatchers("/groups/**").permitAll()
+                                // Recomputes the whole monthly_rollup table, an admin operation
+                                .requestMatchers(HttpMethod.POST, "/reports/rollups/rebuild").hasRole("ADMIN")
+                                .requestMatchers("/reports/**").permitAll()
+                                .requestMatchers("/ledger/**").permitAll()
+                                .requestMatchers("/import/**").permitAll()
+                                .requestMatchers("/forecast/**").permitAll()
+                                // Metrics and caches describe the whole system: an ADMIN token, or the management port
+                                .requestMatchers("/actuator/health").permitAll()
+                                .requestMatchers(managementPortRequest).permitAll()
+                                .requestMatchers("/actuator/**").hasRole("ADMIN")
                                 .anyRequest().authenticated()
                 )
+                .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                .addFilterBefore(new TokenAuthenticationFilter(tokenService, objectMapper), UsernamePasswordAuthenticationFilter.class)
                 .csrf(csrf -> csrf.disable()); // Disable CSRF for testing purposes
 
         return http.build();
@@ -0,0 +1,50 @@
+package com.budget.control.backend.controller;
+
+import com.budget.control.backend.controller.dto.error.ErrorResponse;
+import com.budget.control.backend.controller.dto.response.ForecastResponseDTO;
+import com.budget.control.backend.exception.InvalidFieldException;
+import com.budget.control.backend.security.AuthenticatedUser;
+import com.budget.control.backend.service.ForecastService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/forecast")
+@RequiredArgsConstructor
+public class ForecastController {
+
+    // Dependency Injection
+    private final ForecastService forecastService;
+
+    // Day by day projected balance of a user for the coming months, 12 by default
+    // Built from the expense templates, the monthly income patterns, the per category averages
+    // of the last months and the transactions already dated in the future
+    @GetMapping
+    public ResponseEntity<Object> getForecast(
+            @RequestParam(value = "months", required = false, defaultValue = "12") int months,
+            @RequestParam(value = "userId", required = false) UUID userId
+    ) {
+        try {
+            if (months < 1 || months > ForecastService.MAX_MONTHS) {
+                throw new InvalidFieldException("months must be between 1 and " + ForecastService.MAX_MONTHS + ".");
+            }
+            // The authenticated user is forecast, the userId parameter is used otherwise
+            UUID owner = AuthenticatedUser.current().map(AuthenticatedUser::id).orElse(userId);
+            if (owner == null) {
+                throw new InvalidFieldException("userId is required.");
+            }
+
+            ForecastResponseDTO response = forecastService.getForecast(owner, months);
+            return ResponseEntity.ok(response);
+        } catch (InvalidFieldException e) {
+            var errorDTO = ErrorResponse.invalidFieldResponse(e.getMessage());
+            return ResponseEntity.status(errorDTO.status()).body(errorDTO);
+        }
+    }
+}
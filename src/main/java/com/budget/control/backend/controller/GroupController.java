@@ -5,6 +5,7 @@ import com.budget.control.backend.controller.dto.request.GroupRequestDTO;
 import com.budget.control.backend.controller.dto.request.UserRequestDTO;
 import com.budget.control.backend.controller.dto.response.GroupResponseDTO;
 import com.budget.control.backend.controller.dto.response.UserResponseDTO;
+import com.budget.control.backend.etag.EntityTags;
 import com.budget.control.backend.exception.*;
 import com.budget.control.backend.mappers.GroupMapper;
 import com.budget.control.backend.model.GroupModel;
@@ -14,6 +15,8 @@ import com.budget.control.backend.type.UserRoleType;
 import com.budget.control.backend.validator.UUIDValidator;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
@@ -54,15 +57,25 @@ public class GroupController {
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<?> getGroupById(@PathVariable("id") String id) {
+    public ResponseEntity<?> getGroupById(
+            @PathVariable("id") String id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
         try {
             uuidValidator.validateUUID(id);
             UUID groupID = UUID.fromString(id);
-            return groupService.getGroupById(groupID)
-                    .map(group -> {
-                        GroupResponseDTO groupResponseDTO = groupMapper.toResponseDTO(group);
-                        return ResponseEntity.ok(groupResponseDTO);
-                    }).orElseGet(() -> ResponseEntity.notFound().build());
+
+            // Answer 304 from the validator alone when the client copy is still current
+            if (ifNoneMatch != null) {
+                Optional<String> entityTag = groupService.getGroupTag(groupID);
+                if (entityTag.isPresent() && EntityTags.matches(ifNoneMatch, entityTag.get())) {
+                    return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(entityTag.get()).build();
+                }
+            }
+
+            return groupService.getGroupResponseById(groupID)
+                    .map(response -> ResponseEntity.ok().eTag(response.entityTag()).body(response.body()))
+                    .orElseGet(() -> ResponseEntity.notFound().build());
         } catch (InvalidUUIDException e) {
             var errorDTO = ErrorResponse.invalidFieldResponse(e.getMessage());
             return ResponseEntity.status(errorDTO.status()).body(errorDTO);
@@ -73,9 +86,18 @@ public class GroupController {
     public ResponseEntity<Object> getGroupByParams(
             @RequestParam(value = "name", required = false) String name,
             @RequestParam(value = "user_id", required = false) UUID userId,
-            @RequestParam(value = "reference_id", required = false) UUID referenceId
+            @RequestParam(value = "reference_id", required = false) UUID referenceId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
     ) {
         try {
+            // Answer 304 from the validator alone when the client copy of the list is still current
+            // Without If-None-Match there is nothing to compare, the tag is then taken from the rows that are read anyway
+            if (ifNoneMatch != null) {
+                String entityTag = groupService.getGroupListTag(name, userId, referenceId);
+                if (EntityTags.matches(ifNoneMatch, entityTag)) {
+                    return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(entityTag).build();
+                }
+            }
             List<GroupModel> result = groupService
                     .getGroupByNameOrUserIdOrReferenceId(
                             name, userId, referenceId);
@@ -85,7 +107,7 @@ public class GroupController {
             if (response.isEmpty()) {
                 return ResponseEntity.notFound().build();
             }
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok().eTag(EntityTags.forList(result, GroupModel::getUpdatedAt)).body(response);
         } catch (InvalidFieldException e) {
             var errorDTO = ErrorResponse.invalidFieldResponse(e.getMessage());
             return ResponseEntity.status(errorDTO.status()).body(errorDTO);
@@ -95,13 +117,17 @@ public class GroupController {
     @PutMapping("/{id}")
     public ResponseEntity<Object> updateGroupById(
             @PathVariable("id") String id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @RequestBody GroupRequestDTO groupRequestDTO
     ) {
         try {
             UUID groupID = UUID.fromString(id);
-            Optional<GroupModel> groupModelOptional = groupService.getGroupById(groupID);
+            Optional<GroupModel> groupModelOptional = groupService.getGroupByIdForUpdate(groupID);
             if (groupModelOptional.isPresent()) {
                 GroupModel existingGroup = groupModelOptional.get();
+
+                // The client must send the version it read, an edit made meanwhile by another client is not overwritten
+                EntityTags.requireMatch(ifMatch, existingGroup.getId(), existingGroup.getVersion());
                 if (groupRequestDTO.name() != null) {
                     existingGroup.setName(groupRequestDTO.name());
                 }
@@ -120,6 +146,12 @@ public class GroupController {
         } catch (DuplicatedRegisterException e) {
             var errorDTO = ErrorResponse.conflictResponse(e.getMessage());
             return ResponseEntity.status(errorDTO.status()).body(errorDTO);
+        } catch (PreconditionRequiredException e) {
+            var errorDTO = ErrorResponse.preconditionRequiredResponse(e.getMessage());
+            return ResponseEntity.status(errorDTO.status()).body(errorDTO);
+        } catch (PreconditionFailedException e) {
+            var errorDTO = ErrorResponse.preconditionFailedResponse(e.getMessage());
+            return ResponseEntity.status(errorDTO.status()).body(errorDTO);
         } catch (Exception e) {
             var errorDTO = ErrorResponse.unexpectedErrorResponse("An unexpected error occurred.");
             return ResponseEntity.status(errorDTO.status()).body(errorDTO);
@@ -130,7 +162,7 @@ public class GroupController {
     public ResponseEntity<Object> deleteGroupById(@PathVariable("id") String id) {
         try {
             UUID groupID = UUID.fromString(id);
-            Optional<GroupModel> groupModelOptional = groupService.getGroupById(groupID);
+            Optional<GroupModel> groupModelOptional = groupService.getGroupByIdForUpdate(groupID);
             if (groupModelOptional.isEmpty()) {
                 return ResponseEntity.notFound().build();
             }
@@ -0,0 +1,193 @@
+package com.budget.control.backend.controller;
+
+import com.budget.control.backend.controller.dto.error.ErrorResponse;
+import com.budget.control.backend.controller.dto.response.ImportJobResponseDTO;
+import com.budget.control.backend.controller.dto.response.ImportResponseDTO;
+import com.budget.control.backend.exception.DuplicatedRegisterException;
+import com.budget.control.backend.exception.InvalidFieldException;
+import com.budget.control.backend.exception.InvalidUUIDException;
+import com.budget.control.backend.importer.ColumnMapping;
+import com.budget.control.backend.importer.ImportOptions;
+import com.budget.control.backend.importer.ImportSummary;
+import com.budget.control.backend.importer.StatementFormat;
+import com.budget.control.backend.model.ImportJobModel;
+import com.budget.control.backend.security.AuthenticatedUser;
+import com.budget.control.backend.service.ImportJobService;
+import com.budget.control.backend.service.StatementImportService;
+import com.budget.control.backend.type.TransactionExpenseType;
+import com.budget.control.backend.type.TransactionIncomeType;
+import com.budget.control.backend.validator.UUIDValidator;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/import")
+@RequiredArgsConstructor
+public class ImportController {
+
+    // Dependency Injection
+    private final StatementImportService statementImportService;
+    private final ImportJobService importJobService;
+    private final UUIDValidator uuidValidator;
+
+    // Import a bank statement file (CSV or OFX) as expense and income transactions
+    // Negative amounts are expenses, positive amounts are incomes
+    // CSV columns are found by header name, see ColumnMapping for the defaults
+    // The request waits for the whole file, large files should go through POST /import/jobs
+    @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<Object> importStatement(
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(value = "format", required = false) String format,
+            @RequestParam(value = "userId", required = false) UUID userId,
+            @RequestParam(value = "charset", required = false) String charset,
+            @RequestParam(value = "dateColumn", required = false) String dateColumn,
+            @RequestParam(value = "amountColumn", required = false) String amountColumn,
+            @RequestParam(value = "descriptionColumn", required = false) String descriptionColumn,
+            @RequestParam(value = "categoryColumn", required = false) String categoryColumn,
+            @RequestParam(value = "dateFormat", required = false) String dateFormat,
+            @RequestParam(value = "delimiter", required = false) String delimiter,
+            @RequestParam(value = "decimalSeparator", required = false) String decimalSeparator,
+            @RequestParam(value = "defaultExpenseCategory", required = false) TransactionExpenseType defaultExpenseCategory,
+            @RequestParam(value = "defaultIncomeCategory", required = false) TransactionIncomeType defaultIncomeCategory
+    ) {
+        try {
+            if (file.isEmpty()) {
+                throw new InvalidFieldException("The file is empty.");
+            }
+            ImportOptions importOptions = new ImportOptions(
+                    toCharset(charset),
+                    StatementFormat.from(format, file.getOriginalFilename()),
+                    ColumnMapping.of(dateColumn, amountColumn, descriptionColumn, categoryColumn, dateFormat, delimiter, decimalSeparator),
+                    owner(userId),
+                    defaultExpenseCategory,
+                    defaultIncomeCategory);
+
+            ImportSummary importSummary = statementImportService.importStatement(file.getInputStream(), importOptions);
+            return ResponseEntity.ok(ImportResponseDTO.of(importSummary));
+        } catch (InvalidFieldException e) {
+            var errorDTO = ErrorResponse.invalidFieldResponse(e.getMessage());
+            return ResponseEntity.status(errorDTO.status()).body(errorDTO);
+        } catch (DuplicatedRegisterException e) {
+            var errorDTO = ErrorResponse.conflictResponse(e.getMessage());
+            return ResponseEntity.status(errorDTO.status()).body(errorDTO);
+        } catch (IOException e) {
+            var errorDTO = ErrorResponse.invalidFieldResponse("Could not read the file.");
+            return ResponseEntity.status(errorDTO.status()).body(errorDTO);
+        }
+    }
+
+    // Start a background import of a bank statement file, same parameters as POST /import
+    // Answers 202 with the job right away, its progress is read at GET /import/{jobId}
+    // A user with too many imports in progress gets a 429 with a Retry-After header
+    @PostMapping(value = "/jobs", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<Object> submitImportJob(
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(value = "format", required = false) String format,
+            @RequestParam(value = "userId", required = false) UUID userId,
+            @RequestParam(value = "charset", required = false) String charset,
+            @RequestParam(value = "dateColumn", required = false) String dateColumn,
+            @RequestParam(value = "amountColumn", required = false) String amountColumn,
+            @RequestParam(value = "descriptionColumn", required = false) String descriptionColumn,
+            @RequestParam(value = "categoryColumn", required = false) String categoryColumn,
+            @RequestParam(value = "dateFormat", required = false) String dateFormat,
+            @RequestParam(value = "delimiter", required = false) String delimiter,
+            @RequestParam(value = "decimalSeparator", required = false) String decimalSeparator,
+            @RequestParam(value = "defaultExpenseCategory", required = false) TransactionExpenseType defaultExpenseCategory,
+            @RequestParam(value = "defaultIncomeCategory", required = false) TransactionIncomeType defaultIncomeCategory
+    ) {
+        try {
+            if (file.isEmpty()) {
+                throw new InvalidFieldException("The file is empty.");
+            }
+            ImportJobModel importJobModel = new ImportJobModel();
+            importJobModel.setUserId(owner(userId));
+            importJobModel.setFileName(file.getOriginalFilename());
+            importJobModel.setFormat(StatementFormat.from(format, file.getOriginalFilename()));
+            importJobModel.setCharset(toCharset(charset).name());
+            importJobModel.setDateColumn(dateColumn);
+            importJobModel.setAmountColumn(amountColumn);
+            importJobModel.setDescriptionColumn(descriptionColumn);
+            importJobModel.setCategoryColumn(categoryColumn);
+            importJobModel.setDateFormat(dateFormat);
+            importJobModel.setDelimiter(delimiter);
+            importJobModel.setDecimalSeparator(decimalSeparator);
+            importJobModel.setDefaultExpenseCategory(defaultExpenseCategory);
+            importJobModel.setDefaultIncomeCategory(defaultIncomeCategory);
+
+            ImportJobModel queuedJob;
+            try (InputStream content = file.getInputStream()) {
+                queuedJob = importJobService.submit(content, importJobModel);
+            }
+
+            URI location = ServletUriComponentsBuilder
+                    .fromCurrentContextPath()
+                    .path("/import/{jobId}")
+                    .buildAndExpand(queuedJob.getId())
+                    .toUri();
+            return ResponseEntity.status(HttpStatus.ACCEPTED).location(location).body(ImportJobResponseDTO.of(queuedJob));
+        } catch (InvalidFieldException e) {
+            var errorDTO = ErrorResponse.invalidFieldResponse(e.getMessage());
+            return ResponseEntity.status(errorDTO.status()).body(errorDTO);
+        } catch (IOException e) {
+            var errorDTO = ErrorResponse.invalidFieldResponse("Could not read the file.");
+            return ResponseEntity.status(errorDTO.status()).body(errorDTO);
+        }
+    }
+
+    // Progress of an import job: status, share of the file read, counts, throughput and the first rejections
+    @GetMapping("/{jobId}")
+    public ResponseEntity<?> getImportJob(@PathVariable("jobId") String jobId) {
+        try {
+            // Validate the UUID format
+            uuidValidator.validateUUID(jobId);
+
+            UUID importJobId = UUID.fromString(jobId);
+            UUID currentUserId = AuthenticatedUser.current().map(AuthenticatedUser::id).orElse(null);
+
+            // Jobs of other users are not found for an authenticated user
+            return importJobService
+                    .getImportJobById(importJobId)
+                    .filter(importJob -> currentUserId == null || Objects.equals(currentUserId, importJob.getUserId()))
+                    .map(importJob -> ResponseEntity.ok(ImportJobResponseDTO.of(importJob)))
+                    .orElseGet(() -> ResponseEntity.notFound().build());
+        } catch (InvalidUUIDException e) {
+            //If the UUID is invalid, return a 400 status code with an error message invalid format
+            var errorDTO = ErrorResponse.invalidUUIDResponse(e.getMessage());
+            return ResponseEntity.status(errorDTO.status()).body(errorDTO);
+        }
+    }
+
+    // The authenticated user owns the imported transactions, the userId parameter is used otherwise
+    private UUID owner(UUID userId) {
+        return AuthenticatedUser.current().map(AuthenticatedUser::id).orElse(userId);
+    }
+
+    private Charset toCharset(String charset) {
+        if (charset == null || charset.isBlank()) {
+            return StandardCharsets.UTF_8;
+        }
+        try {
+            return Charset.forName(charset.trim());
+        } catch (IllegalArgumentException e) {
+            throw new InvalidFieldException("Invalid charset: " + charset);
+        }
+    }
+}
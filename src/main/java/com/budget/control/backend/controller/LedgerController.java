@@ -0,0 +1,60 @@
+package com.budget.control.backend.controller;
+
+import com.budget.control.backend.controller.dto.error.ErrorResponse;
+import com.budget.control.backend.controller.dto.response.LedgerResponseDTO;
+import com.budget.control.backend.exception.InvalidFieldException;
+import com.budget.control.backend.pagination.KeysetPage;
+import com.budget.control.backend.pagination.LedgerCursor;
+import com.budget.control.backend.security.AuthenticatedUser;
+import com.budget.control.backend.service.LedgerService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/ledger")
+@RequiredArgsConstructor
+public class LedgerController {
+
+    // Dependency Injection
+    private final LedgerService ledgerService;
+
+    // Chronological statement of income, expense and benefit with a running balance
+    // Defaults to the current month
+    @GetMapping
+    public ResponseEntity<Object> getLedger(
+            @RequestParam(value = "from", required = false) LocalDate from,
+            @RequestParam(value = "to", required = false) LocalDate to,
+            @RequestParam(value = "userId", required = false) UUID userId,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam(value = "cursor", required = false) String cursor
+    ) {
+        try {
+            LocalDate start = from != null ? from : LocalDate.now().withDayOfMonth(1);
+            LocalDate end = to != null ? to : start.with(TemporalAdjusters.lastDayOfMonth());
+            if (start.isAfter(end)) {
+                throw new InvalidFieldException("Start date cannot be after end date.");
+            }
+
+            // The ledger of the authenticated user, the userId parameter is used otherwise
+            UUID owner = AuthenticatedUser.current().map(AuthenticatedUser::id).orElse(userId);
+            if (owner == null) {
+                throw new InvalidFieldException("userId is required.");
+            }
+
+            LedgerResponseDTO response = ledgerService.getLedger(
+                    start, end, owner, LedgerCursor.decode(cursor), KeysetPage.resolveLimit(limit));
+            return ResponseEntity.ok(response);
+        } catch (InvalidFieldException e) {
+            var errorDTO = ErrorResponse.invalidFieldResponse(e.getMessage());
+            return ResponseEntity.status(errorDTO.status()).body(errorDTO);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.budget.control.backend.controller;
+
+import com.budget.control.backend.controller.dto.error.ErrorResponse;
+import com.budget.control.backend.controller.dto.response.ReportSummaryResponseDTO;
+import com.budget.control.backend.exception.InvalidFieldException;
+import com.budget.control.backend.security.AuthenticatedUser;
+import com.budget.control.backend.service.MonthlyRollupService;
+import com.budget.control.backend.service.ReportService;
+import com.budget.control.backend.type.ReportGroupByType;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/reports")
+@RequiredArgsConstructor
+public class ReportController {
+
+    // Dependency Injection
+    private final ReportService reportService;
+    private final MonthlyRollupService monthlyRollupService;
+
+    // Summary of income, expense and benefit totals grouped by category, month or day
+    // Defaults to the last twelve whole months grouped by month
+    @GetMapping("/summary")
+    public ResponseEntity<Object> getSummary(
+            @RequestParam(value = "from", required = false) LocalDate from,
+            @RequestParam(value = "to", required = false) LocalDate to,
+            @RequestParam(value = "groupBy", required = false) ReportGroupByType groupBy,
+            @RequestParam(value = "userId", required = false) UUID userId
+    ) {
+        try {
+            // Bound by the registered converter, an invalid value is answered with 400 before reaching here
+            ReportGroupByType reportGroupByType = groupBy != null ? groupBy : ReportGroupByType.MONTH;
+
+            LocalDate end = to != null ? to : LocalDate.now().with(TemporalAdjusters.lastDayOfMonth());
+            LocalDate start = from != null ? from : end.withDayOfMonth(1).minusMonths(11);
+            if (start.isAfter(end)) {
+                throw new InvalidFieldException("Start date cannot be after end date.");
+            }
+
+            // The authenticated user is reported, the userId parameter is used otherwise
+            UUID owner = AuthenticatedUser.current().map(AuthenticatedUser::id).orElse(userId);
+            if (owner == null) {
+                throw new InvalidFieldException("userId is required.");
+            }
+
+            ReportSummaryResponseDTO response = reportService.getSummary(start, end, reportGroupByType, owner);
+            return ResponseEntity.ok(response);
+        } catch (InvalidFieldException e) {
+            var errorDTO = ErrorResponse.invalidFieldResponse(e.getMessage());
+            return ResponseEntity.status(errorDTO.status()).body(errorDTO);
+        }
+    }
+
+    // Recompute the monthly rollups from the transaction tables, for repair, restricted to the ADMIN role
+    @PostMapping("/rollups/rebuild")
+    public ResponseEntity<Object> rebuildRollups() {
+        monthlyRollupService.rebuild();
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -1,20 +1,35 @@
 package com.budget.control.backend.controller;
 
+import com.budget.control.backend.batch.BatchItemResult;
 import com.budget.control.backend.controller.dto.error.ErrorResponse;
 import com.budget.control.backend.controller.dto.request.TransactionBenefitRequestDTO;
+import com.budget.control.backend.controller.dto.response.BatchResponseDTO;
+import com.budget.control.backend.controller.dto.response.BulkResultDTO;
+import com.budget.control.backend.controller.dto.response.PageResponseDTO;
 import com.budget.control.backend.controller.dto.response.TransactionBenefitResponseDTO;
+import com.budget.control.backend.etag.EntityTags;
 import com.budget.control.backend.exception.*;
+import com.budget.control.backend.export.ExportFormat;
+import com.budget.control.backend.export.TransactionExportWriter;
 import com.budget.control.backend.mappers.TransactionBenefitMapper;
 import com.budget.control.backend.model.TransactionBenefitModel;
+import com.budget.control.backend.pagination.KeysetCursor;
+import com.budget.control.backend.pagination.KeysetPage;
+import com.budget.control.backend.security.AuthenticatedUser;
 import com.budget.control.backend.service.TransactionBenefitService;
 import com.budget.control.backend.type.TransactionBenefitType;
 import com.budget.control.backend.validator.UUIDValidator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import java.math.BigDecimal;
@@ -34,6 +49,10 @@ public class TransactionBenefitController {
     private final TransactionBenefitService transactionBenefitService;
     private final UUIDValidator uuidValidator;
     private final TransactionBenefitMapper transactionBenefitMapper;
+    private final ObjectMapper objectMapper;
+
+    @Value("${budget.batch.max-size:5000}")
+    private int maxBatchSize;
 
     //Saving a benefit transaction in the database
     @PostMapping
@@ -63,9 +82,39 @@ public class TransactionBenefitController {
         }
     }
 
+    // Saving many benefit transactions in one request
+    // Every item gets its own status, valid items are saved even when others are rejected
+    @PostMapping("/batch")
+    public ResponseEntity<Object> saveBenefitTransactionBatch(@RequestBody List<TransactionBenefitRequestDTO> transactionBenefitRequestDTOs) {
+        try {
+            if (transactionBenefitRequestDTOs == null || transactionBenefitRequestDTOs.isEmpty()) {
+                throw new InvalidFieldException("The batch must have at least one transaction.");
+            }
+            if (transactionBenefitRequestDTOs.size() > maxBatchSize) {
+                throw new InvalidFieldException("The batch cannot have more than " + maxBatchSize + " transactions.");
+            }
+
+            // Map the DTOs to entities, validation happens per item in the service
+            List<TransactionBenefitModel> transactionBenefitModels = transactionBenefitRequestDTOs.stream()
+                    .map(transactionBenefitMapper::toRequestEntity)
+                    .toList();
+            List<BatchItemResult> results = transactionBenefitService.saveTransactionBenefitBatch(transactionBenefitModels);
+            return ResponseEntity.ok(BatchResponseDTO.of(results));
+        } catch (InvalidFieldException e) {
+            var errorDTO = ErrorResponse.invalidFieldResponse(e.getMessage());
+            return ResponseEntity.status(errorDTO.status()).body(errorDTO);
+        } catch (DuplicatedRegisterException e) {
+            var errorDTO = ErrorResponse.conflictResponse(e.getMessage());
+            return ResponseEntity.status(errorDTO.status()).body(errorDTO);
+        }
+    }
+
     // Getting a benefit transaction by id
     @GetMapping("/{id}")
-    public ResponseEntity<?> getBenefitTransactionById(@PathVariable("id") String id) {
+    public ResponseEntity<?> getBenefitTransactionById(
+            @PathVariable("id") String id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
 
         try {
             // Validate the UUID format
@@ -75,16 +124,19 @@ public class TransactionBenefitController {
             // Get the benefit transaction by id from string to UUID
             UUID transactionIncomeID = UUID.fromString(id);
 
-            // Receives an Optional of TransactionBenefitModel case the ID does not exist
-            Optional<TransactionBenefitModel> transactionBenefitModelOptional = transactionBenefitService.getTransactionBenefitById(transactionIncomeID);
+            // Answer 304 from the validator alone when the client copy is still current
+            if (ifNoneMatch != null) {
+                Optional<String> entityTag = transactionBenefitService.getTransactionBenefitTag(transactionIncomeID);
+                if (entityTag.isPresent() && EntityTags.matches(ifNoneMatch, entityTag.get())) {
+                    return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(entityTag.get()).build();
+                }
+            }
 
             // If the ID exists, map the entity to the DTO and return it
             return transactionBenefitService
-                    .getTransactionBenefitById(transactionIncomeID)
-                    .map(transaction -> {
-                        TransactionBenefitResponseDTO transactionBenefitResponseDTO = transactionBenefitMapper.toResponseDTO(transaction);
-                        return ResponseEntity.ok(transactionBenefitResponseDTO);
-                    }).orElseGet(() -> ResponseEntity.notFound().build());
+                    .getTransactionBenefitResponseById(transactionIncomeID)
+                    .map(response -> ResponseEntity.ok().eTag(response.entityTag()).body(response.body()))
+                    .orElseGet(() -> ResponseEntity.notFound().build());
         }catch (InvalidUUIDException e) {
             var errorDTO = ErrorResponse.invalidFieldResponse(e.getMessage());
             return ResponseEntity.status(errorDTO.status()).body(errorDTO);
@@ -94,47 +146,52 @@ public class TransactionBenefitController {
     // Getting benefit with params - name or description or amount or date
     @GetMapping
     public ResponseEntity<Object> getBenefitTransactionByParams(
-            @RequestParam(value = "name", required = false) String name,
+            @RequestParam(value = "name", required = false) TransactionBenefitType transactionBenefitType,
             @RequestParam(value = "description", required = false) String description,
             @RequestParam(value = "amount", required = false) BigDecimal amount,
             @RequestParam(value = "date", required = false) LocalDate date,
             @RequestParam(value = "startDate", required = false) LocalDate startDate,
-            @RequestParam(value = "endDate", required = false) LocalDate endDate
+            @RequestParam(value = "endDate", required = false) LocalDate endDate,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
     ) {
         try {
-            TransactionBenefitType transactionBenefitType = null;
-
-            // Verify if the param 'name' has been provided and if is valid
-            if (name != null && !name.isEmpty()) {
-                try {
-                    // Try to convert the value 'name' to enum, if not possible, throw an error.
-                    transactionBenefitType = TransactionBenefitType.valueOf(name.trim().toUpperCase());
-                } catch (IllegalArgumentException e) {
-                    throw new InvalidFieldException("Invalid value provided for TransactionBenefitType: " + name);
-                }
-            }
-
             // Validate date range
             if (startDate != null && endDate != null && startDate.isAfter(endDate)) {
                 throw new InvalidFieldException("Start date cannot be after end date.");
             }
 
-            // Call the service to find the transactions with the provided params
-            List<TransactionBenefitModel> result = transactionBenefitService
-                    .getTransactionBenefitByNameOrDescriptionOrAmountOrDate(transactionBenefitType, description, amount, date, startDate, endDate);
+            // Resolve the page size and the position to continue from
+            int pageLimit = KeysetPage.resolveLimit(limit);
+            KeysetCursor keysetCursor = KeysetCursor.decode(cursor);
 
-            // Map the found fields to a List of DTO to return a response of fields
-            List<TransactionBenefitResponseDTO> response = result.stream()
-                    .map(transactionBenefitMapper::toResponseDTO)
-                    .toList();
+            // Answer 304 from the validator of the page alone when the client copy of the page is still current
+            // Without If-None-Match there is nothing to compare, the tag is then taken from the page that is read anyway
+            if (ifNoneMatch != null) {
+                String entityTag = transactionBenefitService.getTransactionBenefitPageTag(
+                        transactionBenefitType, description, amount, date, startDate, endDate, keysetCursor, pageLimit);
+                if (EntityTags.matches(ifNoneMatch, entityTag)) {
+                    return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(entityTag).build();
+                }
+            }
+
+            // Call the service to find a page of transactions with the provided params
+            KeysetPage<TransactionBenefitModel> result = transactionBenefitService
+                    .getTransactionBenefitByNameOrDescriptionOrAmountOrDate(transactionBenefitType, description, amount, date, startDate, endDate, keysetCursor, pageLimit);
+
+            // Map the found fields to a page of DTO to return a response of fields
+            PageResponseDTO<TransactionBenefitResponseDTO> response = PageResponseDTO.of(result.map(transactionBenefitMapper::toResponseDTO));
 
             // If no fields were found, throw a Response Entity of Not Found 404
-            if (response.isEmpty()) {
+            if (response.content().isEmpty()) {
                 return ResponseEntity.notFound().build();
             }
 
             // If fields were found, throw a Response Entity OK 200
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok()
+                    .eTag(EntityTags.forPage(result.content(), result.nextCursor() != null, TransactionBenefitModel::getId, TransactionBenefitModel::getUpdatedAt))
+                    .body(response);
         }// Invalid name field catch Exception
         catch (InvalidFieldException e) {
             var errorDTO = ErrorResponse.invalidFieldResponse(e.getMessage());
@@ -145,10 +202,48 @@ public class TransactionBenefitController {
         }
     }
 
+    // Export benefit transactions with params as NDJSON or CSV
+    // Rows are streamed from the database straight to the response, the result is never held in memory
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportBenefitTransactions(
+            @RequestParam(value = "name", required = false) TransactionBenefitType transactionBenefitType,
+            @RequestParam(value = "description", required = false) String description,
+            @RequestParam(value = "amount", required = false) BigDecimal amount,
+            @RequestParam(value = "date", required = false) LocalDate date,
+            @RequestParam(value = "startDate", required = false) LocalDate startDate,
+            @RequestParam(value = "endDate", required = false) LocalDate endDate,
+            @RequestParam(value = "format", required = false) String format
+    ) {
+        if (startDate != null && endDate != null && startDate.isAfter(endDate)) {
+            throw new InvalidFieldException("Start date cannot be after end date.");
+        }
+        ExportFormat exportFormat = ExportFormat.from(format);
+
+        // Invalid params are rejected above, before the response is committed
+        TransactionBenefitType filterName = transactionBenefitType;
+        StreamingResponseBody body = outputStream -> {
+            try (TransactionExportWriter<TransactionBenefitResponseDTO> writer =
+                         new TransactionExportWriter<>(exportFormat, TransactionBenefitResponseDTO.class, outputStream, objectMapper)) {
+                transactionBenefitService.streamTransactionBenefitByNameOrDescriptionOrAmountOrDate(
+                        filterName, description, amount, date, startDate, endDate,
+                        transaction -> writer.write(transactionBenefitMapper.toResponseDTO(transaction)));
+            }
+        };
+
+        return ResponseEntity.ok()
+                .contentType(exportFormat.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("transaction-benefit." + exportFormat.getExtension())
+                        .build()
+                        .toString())
+                .body(body);
+    }
+
     // Update transaction benefit by id
     @PutMapping("/{id}")
     public ResponseEntity<Object> updateTransactionBenefitById(
             @PathVariable("id") String id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @RequestBody TransactionBenefitRequestDTO transactionBenefitRequestDTO
     ) {
         try {
@@ -157,12 +252,15 @@ public class TransactionBenefitController {
 
             // Retrieve existing transaction with an Optional
             Optional<TransactionBenefitModel> transactionBenefitModelOptional =
-                    transactionBenefitService.getTransactionBenefitById(transactionBenefitId);
+                    transactionBenefitService.getTransactionBenefitByIdForUpdate(transactionBenefitId);
 
             if (transactionBenefitModelOptional.isPresent()) {
                 // Creates a Model object with the found values
                 TransactionBenefitModel existingTransaction = transactionBenefitModelOptional.get();
 
+                // The client must send the version it read, an edit made meanwhile by another client is not overwritten
+                EntityTags.requireMatch(ifMatch, existingTransaction.getId(), existingTransaction.getVersion());
+
                 // Update only fields provided in the request body
                 if (transactionBenefitRequestDTO.name() != null) {
                     existingTransaction.setName(transactionBenefitRequestDTO.name());
@@ -199,12 +297,96 @@ public class TransactionBenefitController {
         } catch (DuplicatedRegisterException e) {
             var errorDTO = ErrorResponse.conflictResponse(e.getMessage());
             return ResponseEntity.status(errorDTO.status()).body(errorDTO);
+        } catch (PreconditionRequiredException e) {
+            var errorDTO = ErrorResponse.preconditionRequiredResponse(e.getMessage());
+            return ResponseEntity.status(errorDTO.status()).body(errorDTO);
+        } catch (PreconditionFailedException e) {
+            var errorDTO = ErrorResponse.preconditionFailedResponse(e.getMessage());
+            return ResponseEntity.status(errorDTO.status()).body(errorDTO);
         } catch (Exception e) {
             var errorDTO = ErrorResponse.unexpectedErrorResponse("An unexpected error occurred.");
             return ResponseEntity.status(errorDTO.status()).body(errorDTO);
         }
     }
 
+    // Partial update of a benefit transaction, only the fields present in the body are written
+    // One UPDATE statement, no entity is loaded; 404 when the id does not exist or belongs to another user
+    @PatchMapping("/{id}")
+    public ResponseEntity<Object> patchTransactionBenefitById(
+            @PathVariable("id") String id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestBody TransactionBenefitRequestDTO transactionBenefitRequestDTO
+    ) {
+        try {
+            // Validate the UUID format
+            uuidValidator.validateUUID(id);
+            UUID transactionBenefitId = UUID.fromString(id);
+
+            // The authenticated user can only patch its own transactions
+            UUID userId = AuthenticatedUser.current().map(AuthenticatedUser::id).orElse(null);
+
+            // The update only applies to the version the client read (If-Match)
+            Long expectedVersion = EntityTags.expectedVersion(ifMatch, transactionBenefitId);
+
+            TransactionBenefitModel patch = transactionBenefitMapper.toRequestEntity(transactionBenefitRequestDTO);
+            if (transactionBenefitService.patchTransactionBenefitById(transactionBenefitId, userId, expectedVersion, patch)) {
+                return ResponseEntity.noContent().build();
+            }
+            return ResponseEntity.notFound().build();
+        } catch (InvalidUUIDException e) {
+            var errorDTO = ErrorResponse.invalidUUIDResponse(e.getMessage());
+            return ResponseEntity.status(errorDTO.status()).body(errorDTO);
+        } catch (InvalidFieldException e) {
+            var errorDTO = ErrorResponse.invalidFieldResponse(e.getMessage());
+            return ResponseEntity.status(errorDTO.status()).body(errorDTO);
+        } catch (DuplicatedRegisterException e) {
+            var errorDTO = ErrorResponse.conflictResponse(e.getMessage());
+            return ResponseEntity.status(errorDTO.status()).body(errorDTO);
+        } catch (PreconditionRequiredException e) {
+            var errorDTO = ErrorResponse.preconditionRequiredResponse(e.getMessage());
+            return ResponseEntity.status(errorDTO.status()).body(errorDTO);
+        } catch (PreconditionFailedException e) {
+            var errorDTO = ErrorResponse.preconditionFailedResponse(e.getMessage());
+            return ResponseEntity.status(errorDTO.status()).body(errorDTO);
+        }
+    }
+
+    // Partial update of every transaction benefit matching the filters, the same filters as the search
+    @PatchMapping("/bulk")
+    public ResponseEntity<Object> patchTransactionBenefitByFilters(
+            @RequestParam(value = "name", required = false) TransactionBenefitType transactionBenefitType,
+            @RequestParam(value = "description", required = false) String description,
+            @RequestParam(value = "amount", required = false) BigDecimal amount,
+            @RequestParam(value = "date", required = false) LocalDate date,
+            @RequestParam(value = "startDate", required = false) LocalDate startDate,
+            @RequestParam(value = "endDate", required = false) LocalDate endDate,
+            @RequestParam(value = "dryRun", defaultValue = "false") boolean dryRun,
+            @RequestBody TransactionBenefitRequestDTO transactionBenefitRequestDTO
+    ) {
+        try {
+            validateDateRange(startDate, endDate);
+
+            // The authenticated user can only patch its own transactions, without a token the filters would match every user
+            Optional<AuthenticatedUser> authenticatedUser = AuthenticatedUser.current();
+            if (authenticatedUser.isEmpty()) {
+                var errorDTO = ErrorResponse.unauthorizedResponse("Bulk writes require an authenticated user.");
+                return ResponseEntity.status(errorDTO.status()).body(errorDTO);
+            }
+            UUID userId = authenticatedUser.get().id();
+
+            TransactionBenefitModel patch = transactionBenefitMapper.toRequestEntity(transactionBenefitRequestDTO);
+            long affected = transactionBenefitService.patchTransactionBenefitByFilters(
+                    transactionBenefitType, description, amount, date, startDate, endDate, userId, patch, dryRun);
+            return ResponseEntity.ok(new BulkResultDTO(affected, dryRun));
+        } catch (InvalidFieldException e) {
+            var errorDTO = ErrorResponse.invalidFieldResponse(e.getMessage());
+            return ResponseEntity.status(errorDTO.status()).body(errorDTO);
+        } catch (DuplicatedRegisterException e) {
+            var errorDTO = ErrorResponse.conflictResponse(e.getMessage());
+            return ResponseEntity.status(errorDTO.status()).body(errorDTO);
+        }
+    }
+
     //Delete transaction benefit
     @DeleteMapping("/{id}")
     public ResponseEntity<Object> deleteTransactionIncomeById(@PathVariable("id") String id){
@@ -212,7 +394,7 @@ public class TransactionBenefitController {
             // States de ID from string
             UUID transactionIncomeID = UUID.fromString(id);
             // Create an Optional Object from the id provided
-            Optional<TransactionBenefitModel> transactionBenefitModelOptional = transactionBenefitService.getTransactionBenefitById(transactionIncomeID);
+            Optional<TransactionBenefitModel> transactionBenefitModelOptional = transactionBenefitService.getTransactionBenefitByIdForUpdate(transactionIncomeID);
 
             // If the object does not return values, throw a not found
             if (transactionBenefitModelOptional.isEmpty()) {
@@ -232,4 +414,41 @@ public class TransactionBenefitController {
             return ResponseEntity.status(errorDTO.status()).body(errorDTO);
         }
     }
+
+    // Delete every transaction benefit matching the filters, the same filters as the search
+    @DeleteMapping
+    public ResponseEntity<Object> deleteTransactionBenefitByFilters(
+            @RequestParam(value = "name", required = false) TransactionBenefitType transactionBenefitType,
+            @RequestParam(value = "description", required = false) String description,
+            @RequestParam(value = "amount", required = false) BigDecimal amount,
+            @RequestParam(value = "date", required = false) LocalDate date,
+            @RequestParam(value = "startDate", required = false) LocalDate startDate,
+            @RequestParam(value = "endDate", required = false) LocalDate endDate,
+            @RequestParam(value = "dryRun", defaultValue = "false") boolean dryRun
+    ) {
+        try {
+            validateDateRange(startDate, endDate);
+
+            // The authenticated user can only delete its own transactions, without a token the filters would match every user
+            Optional<AuthenticatedUser> authenticatedUser = AuthenticatedUser.current();
+            if (authenticatedUser.isEmpty()) {
+                var errorDTO = ErrorResponse.unauthorizedResponse("Bulk writes require an authenticated user.");
+                return ResponseEntity.status(errorDTO.status()).body(errorDTO);
+            }
+            UUID userId = authenticatedUser.get().id();
+
+            long affected = transactionBenefitService.deleteTransactionBenefitByFilters(
+                    transactionBenefitType, description, amount, date, startDate, endDate, userId, dryRun);
+            return ResponseEntity.ok(new BulkResultDTO(affected, dryRun));
+        } catch (InvalidFieldException e) {
+            var errorDTO = ErrorResponse.invalidFieldResponse(e.getMessage());
+            return ResponseEntity.status(errorDTO.status()).body(errorDTO);
+        }
+    }
+
+    private void validateDateRange(LocalDate startDate, LocalDate endDate) {
+        if (startDate != null && endDate != null && startDate.isAfter(endDate)) {
+            throw new InvalidFieldException("Start date cannot be after end date.");
+        }
+    }
 }
@@ -1,19 +1,35 @@
 package com.budget.control.backend.controller;
 
+import com.budget.control.backend.batch.BatchItemResult;
 import com.budget.control.backend.controller.dto.error.ErrorResponse;
 import com.budget.control.backend.controller.dto.request.TransactionExpenseRequestDTO;
+import com.budget.control.backend.controller.dto.response.BatchResponseDTO;
+import com.budget.control.backend.controller.dto.response.BulkResultDTO;
+import com.budget.control.backend.controller.dto.response.PageResponseDTO;
 import com.budget.control.backend.controller.dto.response.TransactionExpenseResponseDTO;
+import com.budget.control.backend.etag.EntityTags;
 import com.budget.control.backend.exception.*;
+import com.budget.control.backend.export.ExportFormat;
+import com.budget.control.backend.export.TransactionExportWriter;
 import com.budget.control.backend.mappers.TransactionExpenseMapper;
 import com.budget.control.backend.model.TransactionExpenseModel;
+import com.budget.control.backend.pagination.KeysetCursor;
+import com.budget.control.backend.pagination.KeysetPage;
+import com.budget.control.backend.security.AuthenticatedUser;
 import com.budget.control.backend.service.TransactionExpenseService;
 import com.budget.control.backend.type.TransactionExpenseType;
 import com.budget.control.backend.validator.UUIDValidator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import java.math.BigDecimal;
@@ -33,6 +49,10 @@ public class TransactionExpenseController {
     private final TransactionExpenseService transactionExpenseService;
     private final UUIDValidator uuidValidator;
     private final TransactionExpenseMapper transactionExpenseMapper;
+    private final ObjectMapper objectMapper;
+
+    @Value("${budget.batch.max-size:5000}")
+    private int maxBatchSize;
 
     // Saving an expense transaction in the database
     @PostMapping
@@ -59,9 +79,39 @@ public class TransactionExpenseController {
         }
     }
 
+    // Saving many expense transactions in one request
+    // Every item gets its own status, valid items are saved even when others are rejected
+    @PostMapping("/batch")
+    public ResponseEntity<Object> saveExpenseTransactionBatch(@RequestBody List<TransactionExpenseRequestDTO> transactionExpenseRequestDTOs) {
+        try {
+            if (transactionExpenseRequestDTOs == null || transactionExpenseRequestDTOs.isEmpty()) {
+                throw new InvalidFieldException("The batch must have at least one transaction.");
+            }
+            if (transactionExpenseRequestDTOs.size() > maxBatchSize) {
+                throw new InvalidFieldException("The batch cannot have more than " + maxBatchSize + " transactions.");
+            }
+
+            // Map the DTOs to entities, validation happens per item in the service
+            List<TransactionExpenseModel> transactionExpenseModels = transactionExpenseRequestDTOs.stream()
+                    .map(transactionExpenseMapper::toRequestEntity)
+                    .toList();
+            List<BatchItemResult> results = transactionExpenseService.saveTransactionExpenseBatch(transactionExpenseModels);
+            return ResponseEntity.ok(BatchResponseDTO.of(results));
+        } catch (InvalidFieldException e) {
+            var errorDTO = ErrorResponse.invalidFieldResponse(e.getMessage());
+            return ResponseEntity.status(errorDTO.status()).body(errorDTO);
+        } catch (DuplicatedRegisterException e) {
+            var errorDTO = ErrorResponse.conflictResponse(e.getMessage());
+            return ResponseEntity.status(errorDTO.status()).body(errorDTO);
+        }
+    }
+
     // Getting an expense transaction by id
     @GetMapping("/{id}")
-    public ResponseEntity<?> getExpenseTransactionById(@PathVariable("id") String id) {
+    public ResponseEntity<?> getExpenseTransactionById(
+            @PathVariable("id") String id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
         try {
             // Validate the UUID format
             uuidValidator.validateUUID(id);
@@ -69,15 +119,18 @@ public class TransactionExpenseController {
             // Get the expense transaction by id from string to UUID
             UUID transactionExpenseId = UUID.fromString(id);
 
-            // Receives an Optional of TransactionExpenseModel case the ID does not exist
-            Optional<TransactionExpenseModel> transactionExpenseModelOptional = transactionExpenseService.getTransactionExpenseById(transactionExpenseId);
+            // Answer 304 from the validator alone when the client copy is still current
+            if (ifNoneMatch != null) {
+                Optional<String> entityTag = transactionExpenseService.getTransactionExpenseTag(transactionExpenseId);
+                if (entityTag.isPresent() && EntityTags.matches(ifNoneMatch, entityTag.get())) {
+                    return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(entityTag.get()).build();
+                }
+            }
 
             return transactionExpenseService
-                    .getTransactionExpenseById(transactionExpenseId)
-                    .map(transaction -> {
-                        TransactionExpenseResponseDTO transactionExpenseResponseDTO = transactionExpenseMapper.toResponseDTO(transaction);
-                        return ResponseEntity.ok(transactionExpenseResponseDTO);
-                    }).orElseGet(() -> ResponseEntity.notFound().build());
+                    .getTransactionExpenseResponseById(transactionExpenseId)
+                    .map(response -> ResponseEntity.ok().eTag(response.entityTag()).body(response.body()))
+                    .orElseGet(() -> ResponseEntity.notFound().build());
 
         }catch (InvalidUUIDException e) {
             //If the UUID is invalid, return a 400 status code with an error message invalid format
@@ -89,48 +142,53 @@ public class TransactionExpenseController {
     // Getting expense with params - name or description or amount or date ou recurrent
     @GetMapping
     public ResponseEntity<Object> getExpenseTransactionByParams(
-            @RequestParam(value = "name", required = false) String name,
+            @RequestParam(value = "name", required = false) TransactionExpenseType transactionExpenseType,
             @RequestParam(value = "description", required = false) String description,
             @RequestParam(value = "amount", required = false) BigDecimal amount,
             @RequestParam(value = "date", required = false) LocalDate date,
             @RequestParam(value = "startDate", required = false) LocalDate startDate,
             @RequestParam(value = "endDate", required = false) LocalDate endDate,
-            @RequestParam(value = "recurrent", required = false) Boolean recurrent
+            @RequestParam(value = "recurrent", required = false) Boolean recurrent,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
     ) {
         try {
-            TransactionExpenseType transactionExpenseType = null;
-
-            // Verify if the param 'name' has been provided and if is valid
-            if (name != null && !name.isEmpty()) {
-                try {
-                    // Try to convert the value 'name' to enum, if not possible, throw an error.
-                    transactionExpenseType = TransactionExpenseType.valueOf(name.trim().toUpperCase());
-                }catch (IllegalArgumentException e) {
-                    throw new InvalidFieldException("Invalid value provided for TransactionExpenseType: " + name);
-                }
-            }
-
             // Validate date range
             if (startDate != null && endDate != null && startDate.isAfter(endDate)) {
                 throw new InvalidFieldException("Start date cannot be after end date.");
             }
 
-            // Call the service to find the transactions with the provided params
-            List<TransactionExpenseModel> result = transactionExpenseService
-                    .getTransactionExpenseByNameOrDescriptionOrAmountOrDateOrRecurrent(transactionExpenseType, description, amount, date, startDate, endDate, recurrent);
+            // Resolve the page size and the position to continue from
+            int pageLimit = KeysetPage.resolveLimit(limit);
+            KeysetCursor keysetCursor = KeysetCursor.decode(cursor);
 
-            // Map the found fields to a List of DTO to return a response of fields
-            List<TransactionExpenseResponseDTO> response = result.stream()
-                    .map(transactionExpenseMapper::toResponseDTO)
-                    .toList();
+            // Answer 304 from the validator of the page alone when the client copy of the page is still current
+            // Without If-None-Match there is nothing to compare, the tag is then taken from the page that is read anyway
+            if (ifNoneMatch != null) {
+                String entityTag = transactionExpenseService.getTransactionExpensePageTag(
+                        transactionExpenseType, description, amount, date, startDate, endDate, recurrent, keysetCursor, pageLimit);
+                if (EntityTags.matches(ifNoneMatch, entityTag)) {
+                    return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(entityTag).build();
+                }
+            }
+
+            // Call the service to find a page of transactions with the provided params
+            KeysetPage<TransactionExpenseModel> result = transactionExpenseService
+                    .getTransactionExpenseByNameOrDescriptionOrAmountOrDateOrRecurrent(transactionExpenseType, description, amount, date, startDate, endDate, recurrent, keysetCursor, pageLimit);
+
+            // Map the found fields to a page of DTO to return a response of fields
+            PageResponseDTO<TransactionExpenseResponseDTO> response = PageResponseDTO.of(result.map(transactionExpenseMapper::toResponseDTO));
 
             //If no fields were found. throw a Response Entity of Not Found 404
-            if (response.isEmpty()) {
+            if (response.content().isEmpty()) {
                 return ResponseEntity.notFound().build();
             }
 
             //If fields were found, throw a Response Entity OK 200
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok()
+                    .eTag(EntityTags.forPage(result.content(), result.nextCursor() != null, TransactionExpenseModel::getId, TransactionExpenseModel::getUpdatedAt))
+                    .body(response);
         }
         //Invalid name field catch Exception
         catch (InvalidFieldException e) {
@@ -143,10 +201,49 @@ public class TransactionExpenseController {
         }
     }
 
+    // Export expense transactions with params as NDJSON or CSV
+    // Rows are streamed from the database straight to the response, the result is never held in memory
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportExpenseTransactions(
+            @RequestParam(value = "name", required = false) TransactionExpenseType transactionExpenseType,
+            @RequestParam(value = "description", required = false) String description,
+            @RequestParam(value = "amount", required = false) BigDecimal amount,
+            @RequestParam(value = "date", required = false) LocalDate date,
+            @RequestParam(value = "startDate", required = false) LocalDate startDate,
+            @RequestParam(value = "endDate", required = false) LocalDate endDate,
+            @RequestParam(value = "recurrent", required = false) Boolean recurrent,
+            @RequestParam(value = "format", required = false) String format
+    ) {
+        if (startDate != null && endDate != null && startDate.isAfter(endDate)) {
+            throw new InvalidFieldException("Start date cannot be after end date.");
+        }
+        ExportFormat exportFormat = ExportFormat.from(format);
+
+        // Invalid params are rejected above, before the response is committed
+        TransactionExpenseType filterName = transactionExpenseType;
+        StreamingResponseBody body = outputStream -> {
+            try (TransactionExportWriter<TransactionExpenseResponseDTO> writer =
+                         new TransactionExportWriter<>(exportFormat, TransactionExpenseResponseDTO.class, outputStream, objectMapper)) {
+                transactionExpenseService.streamTransactionExpenseByNameOrDescriptionOrAmountOrDateOrRecurrent(
+                        filterName, description, amount, date, startDate, endDate, recurrent,
+                        transaction -> writer.write(transactionExpenseMapper.toResponseDTO(transaction)));
+            }
+        };
+
+        return ResponseEntity.ok()
+                .contentType(exportFormat.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("transaction-expense." + exportFormat.getExtension())
+                        .build()
+                        .toString())
+                .body(body);
+    }
+
     //Update transaction income by id
     @PutMapping("/{id}")
     public ResponseEntity<Object> updateTransactionExpenseById(
             @PathVariable("id") String id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @RequestBody TransactionExpenseRequestDTO transactionExpenseRequestDTO
     ) {
         try {
@@ -155,13 +252,16 @@ public class TransactionExpenseController {
 
             // Retrieve existing transaction with an Optional
             Optional<TransactionExpenseModel> transactionExpenseModelOptional =
-                    transactionExpenseService.getTransactionExpenseById(transactionExpenseId);
+                    transactionExpenseService.getTransactionExpenseByIdForUpdate(transactionExpenseId);
 
             if (transactionExpenseModelOptional.isPresent()) {
 
                 // Creates a Model object with the found values
                 TransactionExpenseModel existingTransaction = transactionExpenseModelOptional.get();
 
+                // The client must send the version it read, an edit made meanwhile by another client is not overwritten
+                EntityTags.requireMatch(ifMatch, existingTransaction.getId(), existingTransaction.getVersion());
+
                 // Update only fields provided in the request body
                 if (transactionExpenseRequestDTO.name() != null) {
                     existingTransaction.setName(transactionExpenseRequestDTO.name());
@@ -184,6 +284,15 @@ public class TransactionExpenseController {
                 if (transactionExpenseRequestDTO.recurrent() != null) {
                     existingTransaction.setRecurrent(transactionExpenseRequestDTO.recurrent());
                 }
+                // A new recurrence rule is scheduled again from the template date
+                if (transactionExpenseRequestDTO.recurrenceFrequency() != null) {
+                    existingTransaction.setRecurrenceFrequency(transactionExpenseRequestDTO.recurrenceFrequency());
+                    existingTransaction.setNextOccurrence(null);
+                }
+                if (transactionExpenseRequestDTO.recurrenceDay() != null) {
+                    existingTransaction.setRecurrenceDay(transactionExpenseRequestDTO.recurrenceDay());
+                    existingTransaction.setNextOccurrence(null);
+                }
 
                 // Call the service to update
                 transactionExpenseService.updateTransactionExpense(existingTransaction);
@@ -201,12 +310,97 @@ public class TransactionExpenseController {
         } catch (DuplicatedRegisterException e) {
             var errorDTO = ErrorResponse.conflictResponse(e.getMessage());
             return ResponseEntity.status(errorDTO.status()).body(errorDTO);
+        } catch (PreconditionRequiredException e) {
+            var errorDTO = ErrorResponse.preconditionRequiredResponse(e.getMessage());
+            return ResponseEntity.status(errorDTO.status()).body(errorDTO);
+        } catch (PreconditionFailedException e) {
+            var errorDTO = ErrorResponse.preconditionFailedResponse(e.getMessage());
+            return ResponseEntity.status(errorDTO.status()).body(errorDTO);
         } catch (Exception e) {
             var errorDTO = ErrorResponse.unexpectedErrorResponse("An unexpected error occurred.");
             return ResponseEntity.status(errorDTO.status()).body(errorDTO);
         }
     }
 
+    // Partial update of a expense transaction, only the fields present in the body are written
+    // One UPDATE statement, no entity is loaded; 404 when the id does not exist or belongs to another user
+    @PatchMapping("/{id}")
+    public ResponseEntity<Object> patchTransactionExpenseById(
+            @PathVariable("id") String id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestBody TransactionExpenseRequestDTO transactionExpenseRequestDTO
+    ) {
+        try {
+            // Validate the UUID format
+            uuidValidator.validateUUID(id);
+            UUID transactionExpenseId = UUID.fromString(id);
+
+            // The authenticated user can only patch its own transactions
+            UUID userId = AuthenticatedUser.current().map(AuthenticatedUser::id).orElse(null);
+
+            // The update only applies to the version the client read (If-Match)
+            Long expectedVersion = EntityTags.expectedVersion(ifMatch, transactionExpenseId);
+
+            TransactionExpenseModel patch = transactionExpenseMapper.toRequestEntity(transactionExpenseRequestDTO);
+            if (transactionExpenseService.patchTransactionExpenseById(transactionExpenseId, userId, expectedVersion, patch)) {
+                return ResponseEntity.noContent().build();
+            }
+            return ResponseEntity.notFound().build();
+        } catch (InvalidUUIDException e) {
+            var errorDTO = ErrorResponse.invalidUUIDResponse(e.getMessage());
+            return ResponseEntity.status(errorDTO.status()).body(errorDTO);
+        } catch (InvalidFieldException e) {
+            var errorDTO = ErrorResponse.invalidFieldResponse(e.getMessage());
+            return ResponseEntity.status(errorDTO.status()).body(errorDTO);
+        } catch (DuplicatedRegisterException e) {
+            var errorDTO = ErrorResponse.conflictResponse(e.getMessage());
+            return ResponseEntity.status(errorDTO.status()).body(errorDTO);
+        } catch (PreconditionRequiredException e) {
+            var errorDTO = ErrorResponse.preconditionRequiredResponse(e.getMessage());
+            return ResponseEntity.status(errorDTO.status()).body(errorDTO);
+        } catch (PreconditionFailedException e) {
+            var errorDTO = ErrorResponse.preconditionFailedResponse(e.getMessage());
+            return ResponseEntity.status(errorDTO.status()).body(errorDTO);
+        }
+    }
+
+    // Partial update of every transaction expense matching the filters, the same filters as the search
+    @PatchMapping("/bulk")
+    public ResponseEntity<Object> patchTransactionExpenseByFilters(
+            @RequestParam(value = "name", required = false) TransactionExpenseType transactionExpenseType,
+            @RequestParam(value = "description", required = false) String description,
+            @RequestParam(value = "amount", required = false) BigDecimal amount,
+            @RequestParam(value = "date", required = false) LocalDate date,
+            @RequestParam(value = "startDate", required = false) LocalDate startDate,
+            @RequestParam(value = "endDate", required = false) LocalDate endDate,
+            @RequestParam(value = "recurrent", required = false) Boolean recurrent,
+            @RequestParam(value = "dryRun", defaultValue = "false") boolean dryRun,
+            @RequestBody TransactionExpenseRequestDTO transactionExpenseRequestDTO
+    ) {
+        try {
+            validateDateRange(startDate, endDate);
+
+            // The authenticated user can only patch its own transactions, without a token the filters would match every user
+            Optional<AuthenticatedUser> authenticatedUser = AuthenticatedUser.current();
+            if (authenticatedUser.isEmpty()) {
+                var errorDTO = ErrorResponse.unauthorizedResponse("Bulk writes require an authenticated user.");
+                return ResponseEntity.status(errorDTO.status()).body(errorDTO);
+            }
+            UUID userId = authenticatedUser.get().id();
+
+            TransactionExpenseModel patch = transactionExpenseMapper.toRequestEntity(transactionExpenseRequestDTO);
+            long affected = transactionExpenseService.patchTransactionExpenseByFilters(
+                    transactionExpenseType, description, amount, date, startDate, endDate, recurrent, userId, patch, dryRun);
+            return ResponseEntity.ok(new BulkResultDTO(affected, dryRun));
+        } catch (InvalidFieldException e) {
+            var errorDTO = ErrorResponse.invalidFieldResponse(e.getMessage());
+            return ResponseEntity.status(errorDTO.status()).body(errorDTO);
+        } catch (DuplicatedRegisterException e) {
+            var errorDTO = ErrorResponse.conflictResponse(e.getMessage());
+            return ResponseEntity.status(errorDTO.status()).body(errorDTO);
+        }
+    }
+
     // Delete transaction expense
     @DeleteMapping("/{id}")
     public ResponseEntity<Object> deleteTransactionExpenseById(@PathVariable("id") String id) {
@@ -214,7 +408,7 @@ public class TransactionExpenseController {
             // States the ID from string to a var
             UUID transactionExpenseId = UUID.fromString(id);
             //Create an Optional Object from the provided id
-            Optional<TransactionExpenseModel> transactionExpenseModelOptional = transactionExpenseService.getTransactionExpenseById(transactionExpenseId);
+            Optional<TransactionExpenseModel> transactionExpenseModelOptional = transactionExpenseService.getTransactionExpenseByIdForUpdate(transactionExpenseId);
 
             // If the object does not return values, throw a not found
             if (transactionExpenseModelOptional.isEmpty()) {
@@ -234,4 +428,42 @@ public class TransactionExpenseController {
             return ResponseEntity.status(errorDTO.status()).body(errorDTO);
         }
     }
+
+    // Delete every transaction expense matching the filters, the same filters as the search
+    @DeleteMapping
+    public ResponseEntity<Object> deleteTransactionExpenseByFilters(
+            @RequestParam(value = "name", required = false) TransactionExpenseType transactionExpenseType,
+            @RequestParam(value = "description", required = false) String description,
+            @RequestParam(value = "amount", required = false) BigDecimal amount,
+            @RequestParam(value = "date", required = false) LocalDate date,
+            @RequestParam(value = "startDate", required = false) LocalDate startDate,
+            @RequestParam(value = "endDate", required = false) LocalDate endDate,
+            @RequestParam(value = "recurrent", required = false) Boolean recurrent,
+            @RequestParam(value = "dryRun", defaultValue = "false") boolean dryRun
+    ) {
+        try {
+            validateDateRange(startDate, endDate);
+
+            // The authenticated user can only delete its own transactions, without a token the filters would match every user
+            Optional<AuthenticatedUser> authenticatedUser = AuthenticatedUser.current();
+            if (authenticatedUser.isEmpty()) {
+                var errorDTO = ErrorResponse.unauthorizedResponse("Bulk writes require an authenticated user.");
+                return ResponseEntity.status(errorDTO.status()).body(errorDTO);
+            }
+            UUID userId = authenticatedUser.get().id();
+
+            long affected = transactionExpenseService.deleteTransactionExpenseByFilters(
+                    transactionExpenseType, description, amount, date, startDate, endDate, recurrent, userId, dryRun);
+            return ResponseEntity.ok(new BulkResultDTO(affected, dryRun));
+        } catch (InvalidFieldException e) {
+            var errorDTO = ErrorResponse.invalidFieldResponse(e.getMessage());
+            return ResponseEntity.status(errorDTO.status()).body(errorDTO);
+        }
+    }
+
+    private void validateDateRange(LocalDate startDate, LocalDate endDate) {
+        if (startDate != null && endDate != null && startDate.isAfter(endDate)) {
+            throw new InvalidFieldException("Start date cannot be after end date.");
+        }
+    }
 }
@@ -1,19 +1,35 @@
 package com.budget.control.backend.controller;
 
+import com.budget.control.backend.batch.BatchItemResult;
 import com.budget.control.backend.controller.dto.error.ErrorResponse;
 import com.budget.control.backend.controller.dto.request.TransactionIncomeRequestDTO;
+import com.budget.control.backend.controller.dto.response.BatchResponseDTO;
+import com.budget.control.backend.controller.dto.response.BulkResultDTO;
+import com.budget.control.backend.controller.dto.response.PageResponseDTO;
 import com.budget.control.backend.controller.dto.response.TransactionIncomeResponseDTO;
+import com.budget.control.backend.etag.EntityTags;
 import com.budget.control.backend.exception.*;
+import com.budget.control.backend.export.ExportFormat;
+import com.budget.control.backend.export.TransactionExportWriter;
 import com.budget.control.backend.mappers.TransactionIncomeMapper;
 import com.budget.control.backend.model.TransactionIncomeModel;
+import com.budget.control.backend.pagination.KeysetCursor;
+import com.budget.control.backend.pagination.KeysetPage;
+import com.budget.control.backend.security.AuthenticatedUser;
 import com.budget.control.backend.service.TransactionIncomeService;
 import com.budget.control.backend.type.TransactionIncomeType;
 import com.budget.control.backend.validator.UUIDValidator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import java.math.BigDecimal;
@@ -33,6 +49,10 @@ public class TransactionIncomeController {
     private final TransactionIncomeService transactionIncomeService;
     private final UUIDValidator uuidValidator;
     private final TransactionIncomeMapper transactionIncomeMapper;
+    private final ObjectMapper objectMapper;
+
+    @Value("${budget.batch.max-size:5000}")
+    private int maxBatchSize;
 
     //Saving an income transaction in the database
     @PostMapping
@@ -60,9 +80,39 @@ public class TransactionIncomeController {
         }
     }
 
+    //Saving many income transactions in one request
+    //Every item gets its own status, valid items are saved even when others are rejected
+    @PostMapping("/batch")
+    public ResponseEntity<Object> saveIncomeTransactionBatch(@RequestBody List<TransactionIncomeRequestDTO> transactionIncomeRequestDTOs) {
+        try {
+            if (transactionIncomeRequestDTOs == null || transactionIncomeRequestDTOs.isEmpty()) {
+                throw new InvalidFieldException("The batch must have at least one transaction.");
+            }
+            if (transactionIncomeRequestDTOs.size() > maxBatchSize) {
+                throw new InvalidFieldException("The batch cannot have more than " + maxBatchSize + " transactions.");
+            }
+
+            //Map the DTOs to entities, validation happens per item in the service
+            List<TransactionIncomeModel> transactionIncomeModels = transactionIncomeRequestDTOs.stream()
+                    .map(transactionIncomeMapper::toRequestEntity)
+                    .toList();
+            List<BatchItemResult> results = transactionIncomeService.saveTransactionIncomeBatch(transactionIncomeModels);
+            return ResponseEntity.ok(BatchResponseDTO.of(results));
+        } catch (InvalidFieldException e) {
+            var errorDTO = ErrorResponse.invalidFieldResponse(e.getMessage());
+            return ResponseEntity.status(errorDTO.status()).body(errorDTO);
+        } catch (DuplicatedRegisterException e) {
+            var errorDTO = ErrorResponse.conflictResponse(e.getMessage());
+            return ResponseEntity.status(errorDTO.status()).body(errorDTO);
+        }
+    }
+
     //Getting an income transaction by id
     @GetMapping("/{id}")
-    public ResponseEntity<?> getIncomeTransactionById(@PathVariable("id") String id) {
+    public ResponseEntity<?> getIncomeTransactionById(
+            @PathVariable("id") String id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
         try {
             //Validate the UUID format
             uuidValidator.validateUUID(id);
@@ -70,15 +120,18 @@ public class TransactionIncomeController {
             //Get the income transaction by id from string to UUID
             UUID transactionIncomeID = UUID.fromString(id);
 
-            //Receives an Optional of TransactionIncomeModel case the ID does not exist
-            Optional<TransactionIncomeModel> transactionIncomeModelOptional = transactionIncomeService.getTransactionIncomeById(transactionIncomeID);
+            // Answer 304 from the validator alone when the client copy is still current
+            if (ifNoneMatch != null) {
+                Optional<String> entityTag = transactionIncomeService.getTransactionIncomeTag(transactionIncomeID);
+                if (entityTag.isPresent() && EntityTags.matches(ifNoneMatch, entityTag.get())) {
+                    return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(entityTag.get()).build();
+                }
+            }
 
             return transactionIncomeService
-                    .getTransactionIncomeById(transactionIncomeID)
-                    .map(transaction -> {
-                        TransactionIncomeResponseDTO transactionIncomeResponseDTO = transactionIncomeMapper.toResponseDTO(transaction);
-                        return ResponseEntity.ok(transactionIncomeResponseDTO);
-                    }).orElseGet(() -> ResponseEntity.notFound().build());
+                    .getTransactionIncomeResponseById(transactionIncomeID)
+                    .map(response -> ResponseEntity.ok().eTag(response.entityTag()).body(response.body()))
+                    .orElseGet(() -> ResponseEntity.notFound().build());
         }catch (InvalidUUIDException e) {
             //If the UUID is invalid, return a 400 status code with an error message invalid format
             var errorDTO = ErrorResponse.invalidUUIDResponse(e.getMessage());
@@ -89,47 +142,52 @@ public class TransactionIncomeController {
     //Getting income with params - name or description or amount or date
     @GetMapping
     public ResponseEntity<Object> getIncomeTransactionByParams(
-            @RequestParam(value = "name", required = false) String name,
+            @RequestParam(value = "name", required = false) TransactionIncomeType transactionIncomeType,
             @RequestParam(value = "description", required = false) String description,
             @RequestParam(value = "amount", required = false) BigDecimal amount,
             @RequestParam(value = "date", required = false) LocalDate date,
             @RequestParam(value = "startDate", required = false) LocalDate startDate,
-            @RequestParam(value = "endDate", required = false) LocalDate endDate
+            @RequestParam(value = "endDate", required = false) LocalDate endDate,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
     ) {
         try {
-            TransactionIncomeType transactionIncomeType = null;
-
-            // Verify if the param 'name' has been provided and if is valid
-            if (name != null && !name.isEmpty()) {
-                try {
-                    //Try to convert the value 'name' to enum, if not possible, throw an error.
-                    transactionIncomeType = TransactionIncomeType.valueOf(name.trim().toUpperCase());
-                } catch (IllegalArgumentException e) {
-                    throw new InvalidFieldException("Invalid value provided for TransactionIncomeType: " + name);
-                }
-            }
-
             // Validate date range
             if (startDate != null && endDate != null && startDate.isAfter(endDate)) {
                 throw new InvalidFieldException("Start date cannot be after end date.");
             }
 
-            // Call the service to find the transactions with the provided params
-            List<TransactionIncomeModel> result = transactionIncomeService
-                    .getTransactionIncomeByNameOrDescriptionOrAmountOrDate(transactionIncomeType, description, amount, date, startDate, endDate);
+            // Resolve the page size and the position to continue from
+            int pageLimit = KeysetPage.resolveLimit(limit);
+            KeysetCursor keysetCursor = KeysetCursor.decode(cursor);
 
-            // Map the found fields to a List of DTO to return a response of fields
-            List<TransactionIncomeResponseDTO> response = result.stream()
-                    .map(transactionIncomeMapper::toResponseDTO)
-                    .toList();
+            // Answer 304 from the validator of the page alone when the client copy of the page is still current
+            // Without If-None-Match there is nothing to compare, the tag is then taken from the page that is read anyway
+            if (ifNoneMatch != null) {
+                String entityTag = transactionIncomeService.getTransactionIncomePageTag(
+                        transactionIncomeType, description, amount, date, startDate, endDate, keysetCursor, pageLimit);
+                if (EntityTags.matches(ifNoneMatch, entityTag)) {
+                    return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(entityTag).build();
+                }
+            }
+
+            // Call the service to find a page of transactions with the provided params
+            KeysetPage<TransactionIncomeModel> result = transactionIncomeService
+                    .getTransactionIncomeByNameOrDescriptionOrAmountOrDate(transactionIncomeType, description, amount, date, startDate, endDate, keysetCursor, pageLimit);
+
+            // Map the found fields to a page of DTO to return a response of fields
+            PageResponseDTO<TransactionIncomeResponseDTO> response = PageResponseDTO.of(result.map(transactionIncomeMapper::toResponseDTO));
 
             //If no fields were found. throw a Response Entity of Not Found 404
-            if (response.isEmpty()) {
+            if (response.content().isEmpty()) {
                 return ResponseEntity.notFound().build();
             }
 
             //If fields were found, throw a Response Entity OK 200
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok()
+                    .eTag(EntityTags.forPage(result.content(), result.nextCursor() != null, TransactionIncomeModel::getId, TransactionIncomeModel::getUpdatedAt))
+                    .body(response);
 
         }
         //Invalid name field catch Exception
@@ -143,10 +201,48 @@ public class TransactionIncomeController {
         }
     }
 
+    //Export income transactions with params as NDJSON or CSV
+    //Rows are streamed from the database straight to the response, the result is never held in memory
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportIncomeTransactions(
+            @RequestParam(value = "name", required = false) TransactionIncomeType transactionIncomeType,
+            @RequestParam(value = "description", required = false) String description,
+            @RequestParam(value = "amount", required = false) BigDecimal amount,
+            @RequestParam(value = "date", required = false) LocalDate date,
+            @RequestParam(value = "startDate", required = false) LocalDate startDate,
+            @RequestParam(value = "endDate", required = false) LocalDate endDate,
+            @RequestParam(value = "format", required = false) String format
+    ) {
+        if (startDate != null && endDate != null && startDate.isAfter(endDate)) {
+            throw new InvalidFieldException("Start date cannot be after end date.");
+        }
+        ExportFormat exportFormat = ExportFormat.from(format);
+
+        //Invalid params are rejected above, before the response is committed
+        TransactionIncomeType filterName = transactionIncomeType;
+        StreamingResponseBody body = outputStream -> {
+            try (TransactionExportWriter<TransactionIncomeResponseDTO> writer =
+                         new TransactionExportWriter<>(exportFormat, TransactionIncomeResponseDTO.class, outputStream, objectMapper)) {
+                transactionIncomeService.streamTransactionIncomeByNameOrDescriptionOrAmountOrDate(
+                        filterName, description, amount, date, startDate, endDate,
+                        transaction -> writer.write(transactionIncomeMapper.toResponseDTO(transaction)));
+            }
+        };
+
+        return ResponseEntity.ok()
+                .contentType(exportFormat.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("transaction-income." + exportFormat.getExtension())
+                        .build()
+                        .toString())
+                .body(body);
+    }
+
     //Update transaction income by id
     @PutMapping("/{id}")
     public ResponseEntity<Object> updateTransactionIncomeById(
             @PathVariable("id") String id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @RequestBody TransactionIncomeRequestDTO transactionIncomeRequestDTO){
         try{
             // State the id from string
@@ -154,13 +250,16 @@ public class TransactionIncomeController {
 
             // Retrieve existing transaction with an Optional
             Optional<TransactionIncomeModel> transactionIncomeModelOptional =
-                    transactionIncomeService.getTransactionIncomeById(transactionIncomeId);
+                    transactionIncomeService.getTransactionIncomeByIdForUpdate(transactionIncomeId);
 
             if (transactionIncomeModelOptional.isPresent()){
 
                 // Creates a Model object with the found values
                 TransactionIncomeModel existingTransaction = transactionIncomeModelOptional.get();
 
+                // The client must send the version it read, an edit made meanwhile by another client is not overwritten
+                EntityTags.requireMatch(ifMatch, existingTransaction.getId(), existingTransaction.getVersion());
+
                 //Update only fields provided in the request body
                 if (transactionIncomeRequestDTO.name() != null) {
                     existingTransaction.setName(transactionIncomeRequestDTO.name());
@@ -198,12 +297,96 @@ public class TransactionIncomeController {
         } catch (DuplicatedRegisterException e) {
             var errorDTO = ErrorResponse.conflictResponse(e.getMessage());
             return ResponseEntity.status(errorDTO.status()).body(errorDTO);
+        } catch (PreconditionRequiredException e) {
+            var errorDTO = ErrorResponse.preconditionRequiredResponse(e.getMessage());
+            return ResponseEntity.status(errorDTO.status()).body(errorDTO);
+        } catch (PreconditionFailedException e) {
+            var errorDTO = ErrorResponse.preconditionFailedResponse(e.getMessage());
+            return ResponseEntity.status(errorDTO.status()).body(errorDTO);
         } catch (Exception e) {
             var errorDTO = ErrorResponse.unexpectedErrorResponse("An unexpected error occurred.");
             return ResponseEntity.status(errorDTO.status()).body(errorDTO);
         }
     }
 
+    // Partial update of a income transaction, only the fields present in the body are written
+    // One UPDATE statement, no entity is loaded; 404 when the id does not exist or belongs to another user
+    @PatchMapping("/{id}")
+    public ResponseEntity<Object> patchTransactionIncomeById(
+            @PathVariable("id") String id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestBody TransactionIncomeRequestDTO transactionIncomeRequestDTO
+    ) {
+        try {
+            // Validate the UUID format
+            uuidValidator.validateUUID(id);
+            UUID transactionIncomeId = UUID.fromString(id);
+
+            // The authenticated user can only patch its own transactions
+            UUID userId = AuthenticatedUser.current().map(AuthenticatedUser::id).orElse(null);
+
+            // The update only applies to the version the client read (If-Match)
+            Long expectedVersion = EntityTags.expectedVersion(ifMatch, transactionIncomeId);
+
+            TransactionIncomeModel patch = transactionIncomeMapper.toRequestEntity(transactionIncomeRequestDTO);
+            if (transactionIncomeService.patchTransactionIncomeById(transactionIncomeId, userId, expectedVersion, patch)) {
+                return ResponseEntity.noContent().build();
+            }
+            return ResponseEntity.notFound().build();
+        } catch (InvalidUUIDException e) {
+            var errorDTO = ErrorResponse.invalidUUIDResponse(e.getMessage());
+            return ResponseEntity.status(errorDTO.status()).body(errorDTO);
+        } catch (InvalidFieldException e) {
+            var errorDTO = ErrorResponse.invalidFieldResponse(e.getMessage());
+            return ResponseEntity.status(errorDTO.status()).body(errorDTO);
+        } catch (DuplicatedRegisterException e) {
+            var errorDTO = ErrorResponse.conflictResponse(e.getMessage());
+            return ResponseEntity.status(errorDTO.status()).body(errorDTO);
+        } catch (PreconditionRequiredException e) {
+            var errorDTO = ErrorResponse.preconditionRequiredResponse(e.getMessage());
+            return ResponseEntity.status(errorDTO.status()).body(errorDTO);
+        } catch (PreconditionFailedException e) {
+            var errorDTO = ErrorResponse.preconditionFailedResponse(e.getMessage());
+            return ResponseEntity.status(errorDTO.status()).body(errorDTO);
+        }
+    }
+
+    // Partial update of every transaction income matching the filters, the same filters as the search
+    @PatchMapping("/bulk")
+    public ResponseEntity<Object> patchTransactionIncomeByFilters(
+            @RequestParam(value = "name", required = false) TransactionIncomeType transactionIncomeType,
+            @RequestParam(value = "description", required = false) String description,
+            @RequestParam(value = "amount", required = false) BigDecimal amount,
+            @RequestParam(value = "date", required = false) LocalDate date,
+            @RequestParam(value = "startDate", required = false) LocalDate startDate,
+            @RequestParam(value = "endDate", required = false) LocalDate endDate,
+            @RequestParam(value = "dryRun", defaultValue = "false") boolean dryRun,
+            @RequestBody TransactionIncomeRequestDTO transactionIncomeRequestDTO
+    ) {
+        try {
+            validateDateRange(startDate, endDate);
+
+            // The authenticated user can only patch its own transactions, without a token the filters would match every user
+            Optional<AuthenticatedUser> authenticatedUser = AuthenticatedUser.current();
+            if (authenticatedUser.isEmpty()) {
+                var errorDTO = ErrorResponse.unauthorizedResponse("Bulk writes require an authenticated user.");
+                return ResponseEntity.status(errorDTO.status()).body(errorDTO);
+            }
+            UUID userId = authenticatedUser.get().id();
+
+            TransactionIncomeModel patch = transactionIncomeMapper.toRequestEntity(transactionIncomeRequestDTO);
+            long affected = transactionIncomeService.patchTransactionIncomeByFilters(
+                    transactionIncomeType, description, amount, date, startDate, endDate, userId, patch, dryRun);
+            return ResponseEntity.ok(new BulkResultDTO(affected, dryRun));
+        } catch (InvalidFieldException e) {
+            var errorDTO = ErrorResponse.invalidFieldResponse(e.getMessage());
+            return ResponseEntity.status(errorDTO.status()).body(errorDTO);
+        } catch (DuplicatedRegisterException e) {
+            var errorDTO = ErrorResponse.conflictResponse(e.getMessage());
+            return ResponseEntity.status(errorDTO.status()).body(errorDTO);
+        }
+    }
+
     //Delete transaction income
     @DeleteMapping("/{id}")
     public ResponseEntity<Object> deleteTransactionIncomeById(@PathVariable("id") String id){
@@ -211,7 +394,7 @@ public class TransactionIncomeController {
             // States de ID from string to a var
             UUID transactionIncomeId = UUID.fromString(id);
             // Create an Optional Object from the id provided
-            Optional<TransactionIncomeModel> transactionIncomeModelOptional = transactionIncomeService.getTransactionIncomeById(transactionIncomeId);
+            Optional<TransactionIncomeModel> transactionIncomeModelOptional = transactionIncomeService.getTransactionIncomeByIdForUpdate(transactionIncomeId);
 
             // If the object does not return values, throw a not found
             if (transactionIncomeModelOptional.isEmpty()){
@@ -232,4 +415,40 @@ public class TransactionIncomeController {
         }
     }
 
+    // Delete every transaction income matching the filters, the same filters as the search
+    @DeleteMapping
+    public ResponseEntity<Object> deleteTransactionIncomeByFilters(
+            @RequestParam(value = "name", required = false) TransactionIncomeType transactionIncomeType,
+            @RequestParam(value = "description", required = false) String description,
+            @RequestParam(value = "amount", required = false) BigDecimal amount,
+            @RequestParam(value = "date", required = false) LocalDate date,
+            @RequestParam(value = "startDate", required = false) LocalDate startDate,
+            @RequestParam(value = "endDate", required = false) LocalDate endDate,
+            @RequestParam(value = "dryRun", defaultValue = "false") boolean dryRun
+    ) {
+        try {
+            validateDateRange(startDate, endDate);
+
+            // The authenticated user can only delete its own transactions, without a token the filters would match every user
+            Optional<AuthenticatedUser> authenticatedUser = AuthenticatedUser.current();
+            if (authenticatedUser.isEmpty()) {
+                var errorDTO = ErrorResponse.unauthorizedResponse("Bulk writes require an authenticated user.");
+                return ResponseEntity.status(errorDTO.status()).body(errorDTO);
+            }
+            UUID userId = authenticatedUser.get().id();
+
+            long affected = transactionIncomeService.deleteTransactionIncomeByFilters(
+                    transactionIncomeType, description, amount, date, startDate, endDate, userId, dryRun);
+            return ResponseEntity.ok(new BulkResultDTO(affected, dryRun));
+        } catch (InvalidFieldException e) {
+            var errorDTO = ErrorResponse.invalidFieldResponse(e.getMessage());
+            return ResponseEntity.status(errorDTO.status()).body(errorDTO);
+        }
+    }
+
+    private void validateDateRange(LocalDate startDate, LocalDate endDate) {
+        if (startDate != null && endDate != null && startDate.isAfter(endDate)) {
+            throw new InvalidFieldException("Start date cannot be after end date.");
+        }
+    }
 }
@@ -2,17 +2,23 @@ package com.budget.control.backend.controller;
 
 import com.budget.control.backend.controller.dto.error.ErrorResponse;
 import com.budget.control.backend.controller.dto.request.AuthRequestDTO;
+import com.budget.control.backend.controller.dto.request.RefreshTokenRequestDTO;
 import com.budget.control.backend.controller.dto.request.UserRequestDTO;
 import com.budget.control.backend.controller.dto.response.AuthResponseDTO;
 import com.budget.control.backend.controller.dto.response.UserResponseDTO;
+import com.budget.control.backend.etag.EntityTags;
 import com.budget.control.backend.exception.*;
 import com.budget.control.backend.mappers.UserMapper;
 import com.budget.control.backend.model.UserModel;
+import com.budget.control.backend.security.TokenService;
+import com.budget.control.backend.security.TokenService.IssuedTokens;
+import com.budget.control.backend.security.TokenService.TokenClaims;
 import com.budget.control.backend.service.UserService;
 import com.budget.control.backend.type.UserRoleType;
 import com.budget.control.backend.validator.UUIDValidator;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -33,6 +39,7 @@ public class UserController {
     private final UserService userService;
     private final UUIDValidator uuidValidator;
     private final UserMapper userMapper;
+    private final TokenService tokenService;
 
     @PostMapping
     public ResponseEntity<Object> saveUser(@RequestBody @Valid UserRequestDTO userRequestDTO) {
@@ -54,15 +61,25 @@ public class UserController {
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<?> getUserById(@PathVariable("id") String id) {
+    public ResponseEntity<?> getUserById(
+            @PathVariable("id") String id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
         try {
             uuidValidator.validateUUID(id);
             UUID userID = UUID.fromString(id);
-            return userService.getUserById(userID)
-                    .map(user -> {
-                        UserResponseDTO userResponseDTO = userMapper.toResponseDTO(user);
-                        return ResponseEntity.ok(userResponseDTO);
-                    }).orElseGet(() -> ResponseEntity.notFound().build());
+
+            // Answer 304 from the validator alone when the client copy is still current
+            if (ifNoneMatch != null) {
+                Optional<String> entityTag = userService.getUserTag(userID);
+                if (entityTag.isPresent() && EntityTags.matches(ifNoneMatch, entityTag.get())) {
+                    return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(entityTag.get()).build();
+                }
+            }
+
+            return userService.getUserResponseById(userID)
+                    .map(response -> ResponseEntity.ok().eTag(response.entityTag()).body(response.body()))
+                    .orElseGet(() -> ResponseEntity.notFound().build());
         } catch (InvalidUUIDException e) {
             var errorDTO = ErrorResponse.invalidFieldResponse(e.getMessage());
             return ResponseEntity.status(errorDTO.status()).body(errorDTO);
@@ -76,15 +93,16 @@ public class UserController {
             @RequestParam(value = "email", required = false) String email,
             @RequestParam(value = "cpf", required = false) String cpf,
             @RequestParam(value = "dateOfBirth", required = false) LocalDate dateOfBirth,
-            @RequestParam(value = "role", required = false) String role
+            @RequestParam(value = "role", required = false) UserRoleType userRoleType,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
     ) {
         try {
-            UserRoleType userRoleType = null;
-            if (role != null && !role.isEmpty()) {
-                try {
-                    userRoleType = UserRoleType.valueOf(role.trim().toUpperCase());
-                } catch (IllegalArgumentException e) {
-                    throw new InvalidFieldException("Invalid value provided for UserRoleType: " + role);
+            // Answer 304 from the validator alone when the client copy of the list is still current
+            // Without If-None-Match there is nothing to compare, the tag is then taken from the rows that are read anyway
+            if (ifNoneMatch != null) {
+                String entityTag = userService.getUserListTag(firstName, lastName, email, cpf, dateOfBirth, userRoleType);
+                if (EntityTags.matches(ifNoneMatch, entityTag)) {
+                    return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(entityTag).build();
                 }
             }
             List<UserModel> result = userService
@@ -96,7 +114,7 @@ public class UserController {
             if (response.isEmpty()) {
                 return ResponseEntity.notFound().build();
             }
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok().eTag(EntityTags.forList(result, UserModel::getUpdatedAt)).body(response);
         } catch (InvalidFieldException e) {
             var errorDTO = ErrorResponse.invalidFieldResponse(e.getMessage());
             return ResponseEntity.status(errorDTO.status()).body(errorDTO);
@@ -108,13 +126,17 @@ public class UserController {
     @PutMapping("/{id}")
     public ResponseEntity<Object> updateUserById(
             @PathVariable("id") String id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @RequestBody UserRequestDTO userRequestDTO
     ) {
         try {
             UUID userID = UUID.fromString(id);
-            Optional<UserModel> userModelOptional = userService.getUserById(userID);
+            Optional<UserModel> userModelOptional = userService.getUserByIdForUpdate(userID);
             if (userModelOptional.isPresent()) {
                 UserModel existingUser = userModelOptional.get();
+
+                // The client must send the version it read, an edit made meanwhile by another client is not overwritten
+                EntityTags.requireMatch(ifMatch, existingUser.getId(), existingUser.getVersion());
                 if (userRequestDTO.firstName() != null) {
                     existingUser.setFirstName(userRequestDTO.firstName());
                 }
@@ -133,6 +155,12 @@ public class UserController {
         } catch (DuplicatedRegisterException e) {
             var errorDTO = ErrorResponse.conflictResponse(e.getMessage());
             return ResponseEntity.status(errorDTO.status()).body(errorDTO);
+        } catch (PreconditionRequiredException e) {
+            var errorDTO = ErrorResponse.preconditionRequiredResponse(e.getMessage());
+            return ResponseEntity.status(errorDTO.status()).body(errorDTO);
+        } catch (PreconditionFailedException e) {
+            var errorDTO = ErrorResponse.preconditionFailedResponse(e.getMessage());
+            return ResponseEntity.status(errorDTO.status()).body(errorDTO);
         } catch (Exception e) {
             var errorDTO = ErrorResponse.unexpectedErrorResponse("An unexpected error occurred.");
             return ResponseEntity.status(errorDTO.status()).body(errorDTO);
@@ -143,7 +171,7 @@ public class UserController {
     public ResponseEntity<Object> deleteUserById(@PathVariable("id") String id) {
         try {
             UUID userID = UUID.fromString(id);
-            Optional<UserModel> userModelOptional = userService.getUserById(userID);
+            Optional<UserModel> userModelOptional = userService.getUserByIdForUpdate(userID);
             if (userModelOptional.isEmpty()) {
                 return ResponseEntity.notFound().build();
             }
@@ -163,11 +191,39 @@ public class UserController {
         Optional<UserModel> user = userService.authenticateUser(authRequestDTO.email(), authRequestDTO.password());
 
         if (user.isPresent()) {
-            return ResponseEntity.ok("Login successful");
+            // The password is only verified here, later requests send the signed access token
+            return ResponseEntity.ok(toAuthResponseDTO(user.get(), tokenService.issue(user.get())));
         } else {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Username or password is incorrect");
         }
     }
 
+    @PostMapping("/auth/refresh")
+    public ResponseEntity<?> refresh(@RequestBody @Valid RefreshTokenRequestDTO refreshTokenRequestDTO) {
+        try {
+            TokenClaims claims = tokenService.verify(refreshTokenRequestDTO.refreshToken(), TokenService.REFRESH);
+            // The user is read again so a deleted user cannot keep refreshing and role changes are picked up
+            Optional<UserModel> user = userService.getUserById(claims.sub());
+            if (user.isEmpty()) {
+                var errorDTO = ErrorResponse.unauthorizedResponse("User no longer exists.");
+                return ResponseEntity.status(errorDTO.status()).body(errorDTO);
+            }
+            return ResponseEntity.ok(toAuthResponseDTO(user.get(), tokenService.issue(user.get())));
+        } catch (InvalidTokenException e) {
+            var errorDTO = ErrorResponse.unauthorizedResponse(e.getMessage());
+            return ResponseEntity.status(errorDTO.status()).body(errorDTO);
+        }
+    }
+
+    private AuthResponseDTO toAuthResponseDTO(UserModel userModel, IssuedTokens issuedTokens) {
+        return new AuthResponseDTO(
+                issuedTokens.accessToken(),
+                issuedTokens.refreshToken(),
+                issuedTokens.expiresIn(),
+                userModel.getFirstName(),
+                userModel.getLastName(),
+                userModel.getRole() != null ? userModel.getRole().name() : null);
+    }
+
 
 }
\ No newline at end of file
@@ -30,6 +30,26 @@ public record ErrorResponse(int status, String message, List<ErrorField> errors)
         return new ErrorResponse(HttpStatus.BAD_REQUEST.value(), message, List.of());
     }
 
+    public static ErrorResponse unauthorizedResponse(String message) {
+        return new ErrorResponse(HttpStatus.UNAUTHORIZED.value(), message, List.of());
+    }
+
+    public static ErrorResponse preconditionFailedResponse(String message) {
+        return new ErrorResponse(HttpStatus.PRECONDITION_FAILED.value(), message, List.of());
+    }
+
+    public static ErrorResponse preconditionRequiredResponse(String message) {
+        return new ErrorResponse(HttpStatus.PRECONDITION_REQUIRED.value(), message, List.of());
+    }
+
+    public static ErrorResponse tooManyRequestsResponse(String message) {
+        return new ErrorResponse(HttpStatus.TOO_MANY_REQUESTS.value(), message, List.of());
+    }
+
+    public static ErrorResponse serviceUnavailableResponse(String message) {
+        return new ErrorResponse(HttpStatus.SERVICE_UNAVAILABLE.value(), message, List.of());
+    }
+
     public static ErrorResponse unexpectedErrorResponse(String message) {
         return  new ErrorResponse(HttpStatus.INTERNAL_SERVER_ERROR.value(), message, List.of());
     }
@@ -0,0 +1,9 @@
+package com.budget.control.backend.controller.dto.request;
+
+import jakarta.validation.constraints.NotNull;
+
+public record RefreshTokenRequestDTO(
+        @NotNull(message = "Required field.")
+        String refreshToken
+) {
+}
@@ -1,6 +1,7 @@
 package com.budget.control.backend.controller.dto.request;
 
 import com.budget.control.backend.model.TransactionExpenseModel;
+import com.budget.control.backend.type.RecurrenceFrequencyType;
 import com.budget.control.backend.type.TransactionExpenseType;
 import jakarta.validation.constraints.NotNull;
 
@@ -16,7 +17,10 @@ public record TransactionExpenseRequestDTO(
         @NotNull(message = "Required field.")
         LocalDate date,
         @NotNull(message = "Required field.")
-        Boolean recurrent
+        Boolean recurrent,
+        // Optional, makes a recurrent expense a template copied on every occurrence
+        RecurrenceFrequencyType recurrenceFrequency,
+        Integer recurrenceDay
 ) {
 
 }
@@ -6,6 +6,10 @@ public record AuthResponseDTO(
         @NotNull(message = "Required field.")
         String token,
         @NotNull(message = "Required field.")
+        String refreshToken,
+        // Lifetime of the access token in seconds
+        long expiresIn,
+        @NotNull(message = "Required field.")
         String firstName,
         @NotNull(message = "Required field.")
         String lastName,
@@ -0,0 +1,21 @@
+package com.budget.control.backend.controller.dto.response;
+
+import com.budget.control.backend.batch.BatchItemResult;
+
+import java.util.UUID;
+
+public record BatchItemResponseDTO(
+        int index,
+        int status,
+        UUID id,
+        String message
+) {
+
+    public static BatchItemResponseDTO of(BatchItemResult batchItemResult) {
+        return new BatchItemResponseDTO(
+                batchItemResult.index(),
+                batchItemResult.status(),
+                batchItemResult.id(),
+                batchItemResult.message());
+    }
+}
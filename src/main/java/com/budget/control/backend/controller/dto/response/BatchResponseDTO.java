@@ -0,0 +1,20 @@
+package com.budget.control.backend.controller.dto.response;
+
+import com.budget.control.backend.batch.BatchItemResult;
+
+import java.util.List;
+
+public record BatchResponseDTO(
+        int created,
+        int rejected,
+        List<BatchItemResponseDTO> items
+) {
+
+    public static BatchResponseDTO of(List<BatchItemResult> results) {
+        int created = (int) results.stream().filter(BatchItemResult::isCreated).count();
+        return new BatchResponseDTO(
+                created,
+                results.size() - created,
+                results.stream().map(BatchItemResponseDTO::of).toList());
+    }
+}
@@ -0,0 +1,8 @@
+package com.budget.control.backend.controller.dto.response;
+
+// Outcome of a bulk write by filters, with dryRun the count is the number of transactions that would be affected
+public record BulkResultDTO(
+        long affected,
+        boolean dryRun
+) {
+}
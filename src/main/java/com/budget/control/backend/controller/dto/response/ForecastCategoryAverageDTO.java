@@ -0,0 +1,13 @@
+package com.budget.control.backend.controller.dto.response;
+
+import com.budget.control.backend.type.TransactionKindType;
+
+import java.math.BigDecimal;
+
+public record ForecastCategoryAverageDTO(
+        TransactionKindType kind,
+        String category,
+        // Average per month over the history window, recurring items excluded
+        BigDecimal monthlyAverage
+) {
+}
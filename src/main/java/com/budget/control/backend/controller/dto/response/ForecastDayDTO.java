@@ -0,0 +1,13 @@
+package com.budget.control.backend.controller.dto.response;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public record ForecastDayDTO(
+        LocalDate date,
+        BigDecimal income,
+        BigDecimal expense,
+        // Projected balance at the end of the day
+        BigDecimal balance
+) {
+}
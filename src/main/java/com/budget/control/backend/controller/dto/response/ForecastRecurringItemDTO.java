@@ -0,0 +1,17 @@
+package com.budget.control.backend.controller.dto.response;
+
+import com.budget.control.backend.type.RecurrenceFrequencyType;
+import com.budget.control.backend.type.TransactionKindType;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public record ForecastRecurringItemDTO(
+        TransactionKindType kind,
+        String category,
+        String description,
+        BigDecimal amount,
+        RecurrenceFrequencyType frequency,
+        LocalDate nextOccurrence
+) {
+}
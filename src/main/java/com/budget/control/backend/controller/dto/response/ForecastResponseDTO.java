@@ -0,0 +1,20 @@
+package com.budget.control.backend.controller.dto.response;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+public record ForecastResponseDTO(
+        LocalDate from,
+        LocalDate to,
+        BigDecimal startingBalance,
+        BigDecimal endingBalance,
+        BigDecimal lowestBalance,
+        LocalDate lowestBalanceDate,
+        BigDecimal totalIncome,
+        BigDecimal totalExpense,
+        List<ForecastRecurringItemDTO> recurringItems,
+        List<ForecastCategoryAverageDTO> categoryAverages,
+        List<ForecastDayDTO> days
+) {
+}
@@ -0,0 +1,69 @@
+package com.budget.control.backend.controller.dto.response;
+
+import com.budget.control.backend.model.ImportJobModel;
+import com.budget.control.backend.type.ImportJobStatusType;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+public record ImportJobResponseDTO(
+        UUID id,
+        ImportJobStatusType status,
+        String fileName,
+        long fileSize,
+        long bytesRead,
+        // Percentage of the file read, as of the last committed chunk
+        double progress,
+        long processedEntries,
+        long inserted,
+        long duplicates,
+        long rejected,
+        // Entries handled per second since the job started
+        double entriesPerSecond,
+        // Only the first rejections are listed
+        List<ImportRejectionDTO> rejections,
+        String errorMessage,
+        LocalDateTime createdAt,
+        LocalDateTime startedAt,
+        LocalDateTime finishedAt
+) {
+
+    public static ImportJobResponseDTO of(ImportJobModel importJobModel) {
+        long fileSize = importJobModel.getFileSize();
+        long bytesRead = importJobModel.getBytesRead();
+        double progress = fileSize == 0 || importJobModel.getStatus() == ImportJobStatusType.COMPLETED
+                ? 100.0
+                : Math.min(100.0, Math.round(bytesRead * 1000.0 / fileSize) / 10.0);
+
+        double entriesPerSecond = 0;
+        if (importJobModel.getStartedAt() != null) {
+            LocalDateTime end = importJobModel.getFinishedAt() != null ? importJobModel.getFinishedAt() : LocalDateTime.now();
+            long millis = Duration.between(importJobModel.getStartedAt(), end).toMillis();
+            if (millis > 0) {
+                entriesPerSecond = Math.round(importJobModel.getProcessedEntries() * 10000.0 / millis) / 10.0;
+            }
+        }
+
+        return new ImportJobResponseDTO(
+                importJobModel.getId(),
+                importJobModel.getStatus(),
+                importJobModel.getFileName(),
+                fileSize,
+                bytesRead,
+                progress,
+                importJobModel.getProcessedEntries(),
+                importJobModel.getInserted(),
+                importJobModel.getDuplicates(),
+                importJobModel.getRejected(),
+                entriesPerSecond,
+                importJobModel.getRejections() == null ? List.of() : importJobModel.getRejections().stream()
+                        .map(rejection -> new ImportRejectionDTO(rejection.position(), rejection.reason()))
+                        .toList(),
+                importJobModel.getErrorMessage(),
+                importJobModel.getCreatedAt(),
+                importJobModel.getStartedAt(),
+                importJobModel.getFinishedAt());
+    }
+}
@@ -0,0 +1,8 @@
+package com.budget.control.backend.controller.dto.response;
+
+// Position is the line in a CSV file or the number of the transaction in an OFX file
+public record ImportRejectionDTO(
+        long position,
+        String reason
+) {
+}
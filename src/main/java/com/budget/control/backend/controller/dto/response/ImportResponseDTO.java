@@ -0,0 +1,24 @@
+package com.budget.control.backend.controller.dto.response;
+
+import com.budget.control.backend.importer.ImportSummary;
+
+import java.util.List;
+
+public record ImportResponseDTO(
+        long inserted,
+        long duplicates,
+        long rejected,
+        // Only the first rejections are listed
+        List<ImportRejectionDTO> rejections
+) {
+
+    public static ImportResponseDTO of(ImportSummary importSummary) {
+        return new ImportResponseDTO(
+                importSummary.getInserted(),
+                importSummary.getDuplicates(),
+                importSummary.getRejected(),
+                importSummary.getRejections().stream()
+                        .map(rejection -> new ImportRejectionDTO(rejection.position(), rejection.reason()))
+                        .toList());
+    }
+}
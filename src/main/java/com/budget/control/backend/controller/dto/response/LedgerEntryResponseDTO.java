@@ -0,0 +1,19 @@
+package com.budget.control.backend.controller.dto.response;
+
+import com.budget.control.backend.type.TransactionKindType;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+public record LedgerEntryResponseDTO(
+        UUID id,
+        TransactionKindType kind,
+        String category,
+        String description,
+        LocalDate date,
+        BigDecimal amount,
+        BigDecimal balance,
+        UUID userId
+) {
+}
@@ -0,0 +1,12 @@
+package com.budget.control.backend.controller.dto.response;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+public record LedgerResponseDTO(
+        BigDecimal openingBalance,
+        List<LedgerEntryResponseDTO> content,
+        int size,
+        String nextCursor
+) {
+}
@@ -0,0 +1,18 @@
+package com.budget.control.backend.controller.dto.response;
+
+import com.budget.control.backend.pagination.KeysetCursor;
+import com.budget.control.backend.pagination.KeysetPage;
+
+import java.util.List;
+
+public record PageResponseDTO<T>(
+        List<T> content,
+        int size,
+        String nextCursor
+) {
+
+    public static <T> PageResponseDTO<T> of(KeysetPage<T> page) {
+        KeysetCursor nextCursor = page.nextCursor();
+        return new PageResponseDTO<>(page.content(), page.content().size(), nextCursor == null ? null : nextCursor.encode());
+    }
+}
@@ -0,0 +1,15 @@
+package com.budget.control.backend.controller.dto.response;
+
+import com.budget.control.backend.type.ReportGroupByType;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public record ReportSummaryResponseDTO(
+        LocalDate from,
+        LocalDate to,
+        ReportGroupByType groupBy,
+        List<ReportSummaryRowDTO> rows,
+        ReportSummaryRowDTO total
+) {
+}
@@ -0,0 +1,13 @@
+package com.budget.control.backend.controller.dto.response;
+
+import java.math.BigDecimal;
+
+public record ReportSummaryRowDTO(
+        String key,
+        BigDecimal income,
+        BigDecimal expense,
+        BigDecimal benefit,
+        BigDecimal net,
+        long count
+) {
+}
@@ -1,6 +1,7 @@
 package com.budget.control.backend.controller.dto.response;
 
 import com.budget.control.backend.model.TransactionExpenseModel;
+import com.budget.control.backend.type.RecurrenceFrequencyType;
 import com.budget.control.backend.type.TransactionExpenseType;
 
 import java.math.BigDecimal;
@@ -17,7 +18,11 @@ public record TransactionExpenseResponseDTO (
         Boolean recurrent,
         LocalDateTime createdAt,
         LocalDateTime updatedAt,
-        UUID userId
+        UUID userId,
+        RecurrenceFrequencyType recurrenceFrequency,
+        Integer recurrenceDay,
+        LocalDate nextOccurrence,
+        UUID templateId
 ) {
 
 }
@@ -0,0 +1,22 @@
+package com.budget.control.backend.deserializer;
+
+import com.budget.control.backend.type.EnumLookup;
+import org.springframework.core.convert.converter.Converter;
+
+// Converts a request param to an enum by name, ignoring case and surrounding whitespace, an empty param is no value
+public class EnumLookupConverter<E extends Enum<E>> implements Converter<String, E> {
+
+    private final EnumLookup<E> lookup;
+
+    public EnumLookupConverter(Class<E> type) {
+        this.lookup = EnumLookup.of(type);
+    }
+
+    @Override
+    public E convert(String source) {
+        if (source.isEmpty()) {
+            return null;
+        }
+        return lookup.parse(source);
+    }
+}
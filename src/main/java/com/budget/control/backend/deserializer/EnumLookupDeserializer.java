@@ -0,0 +1,24 @@
+package com.budget.control.backend.deserializer;
+
+import com.budget.control.backend.type.EnumLookup;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+
+import java.io.IOException;
+
+// Reads an enum by name, ignoring case and surrounding whitespace
+// The name is matched straight in the parser text buffer, no String is built for it
+public abstract class EnumLookupDeserializer<E extends Enum<E>> extends JsonDeserializer<E> {
+
+    private final EnumLookup<E> lookup;
+
+    protected EnumLookupDeserializer(Class<E> type) {
+        this.lookup = EnumLookup.of(type);
+    }
+
+    @Override
+    public E deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+        return lookup.parse(p.getTextCharacters(), p.getTextOffset(), p.getTextLength());
+    }
+}
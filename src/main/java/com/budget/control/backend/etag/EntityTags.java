@@ -0,0 +1,117 @@
+package com.budget.control.backend.etag;
+
+import com.budget.control.backend.exception.PreconditionFailedException;
+import com.budget.control.backend.exception.PreconditionRequiredException;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+
+// Strong entity tags (ETag) built from validators that are cheap to read from the database
+// A single resource is identified by id + version (the @Version column), a filtered list by count + max(updatedAt)
+// of the matching rows: every write sets updated_at, so an insert or an update moves the max and a delete lowers the count
+// A keyset page adds the id of its last row: a row deleted from a full page lets the next one in, the count stays the same
+// and whether a next page exists, which decides the nextCursor of the body
+public final class EntityTags {
+
+    // Version expected by an If-Match that lists no tag of the resource, no row ever has it
+    public static final long NO_VERSION = -1L;
+
+    private EntityTags() {
+    }
+
+    // Tag of a single resource
+    public static String forResource(UUID id, Long version) {
+        return "\"" + id + "-" + (version != null ? version : 0L) + "\"";
+    }
+
+    // Tag of a list, from the number of matching rows and the most recent update among them
+    public static String forList(long count, LocalDateTime maxUpdatedAt) {
+        return "\"" + Long.toHexString(count) + "-" + toHex(maxUpdatedAt) + "\"";
+    }
+
+    // Tag of a list from its loaded rows, the same value as forList over the count and max(updatedAt) of the query
+    public static <T> String forList(List<T> rows, Function<T, LocalDateTime> updatedAt) {
+        return forList(rows.size(), maxUpdatedAt(rows, updatedAt));
+    }
+
+    // Tag of one keyset page from its rows, in page order, and whether a row follows them
+    public static <T> String forPage(List<T> rows, boolean hasNext, Function<T, UUID> id, Function<T, LocalDateTime> updatedAt) {
+        UUID lastId = rows.isEmpty() ? null : id.apply(rows.getLast());
+        return "\"" + Long.toHexString(rows.size()) + "-" + toHex(maxUpdatedAt(rows, updatedAt)) + "-" + (lastId != null ? lastId : "")
+                + "-" + (hasNext ? "1" : "0") + "\"";
+    }
+
+    // If-None-Match uses the weak comparison (RFC 9110 13.1.2): W/ prefixes are ignored
+    public static boolean matches(String ifNoneMatch, String entityTag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank() || entityTag == null) {
+            return false;
+        }
+        if (ifNoneMatch.trim().equals("*")) {
+            return true;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals(entityTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Version the client expects from If-Match, null for "*" (any current version)
+    // If-Match uses the strong comparison (RFC 9110 13.1.1): weak tags and tags of other resources never match
+    public static Long expectedVersion(String ifMatch, UUID id) {
+        if (ifMatch == null || ifMatch.isBlank()) {
+            throw new PreconditionRequiredException("The If-Match header is required, send the ETag of the version being updated.");
+        }
+        if (ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String prefix = "\"" + id + "-";
+        for (String candidate : ifMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith(prefix) && tag.endsWith("\"") && tag.length() > prefix.length() + 1) {
+                try {
+                    return Long.parseLong(tag.substring(prefix.length(), tag.length() - 1));
+                } catch (NumberFormatException e) {
+                    // Not a tag issued by this API, it cannot match
+                }
+            }
+        }
+        return NO_VERSION;
+    }
+
+    // Reject the update unless If-Match names the current version of the resource
+    public static void requireMatch(String ifMatch, UUID id, Long currentVersion) {
+        Long expected = expectedVersion(ifMatch, id);
+        if (expected != null && expected != (currentVersion != null ? currentVersion : 0L)) {
+            throw new PreconditionFailedException("The resource was changed by another request, read it again before updating.");
+        }
+    }
+
+    private static <T> LocalDateTime maxUpdatedAt(List<T> rows, Function<T, LocalDateTime> updatedAt) {
+        LocalDateTime max = null;
+        for (T row : rows) {
+            LocalDateTime value = updatedAt.apply(row);
+            if (value != null && (max == null || value.isAfter(max))) {
+                max = value;
+            }
+        }
+        return max;
+    }
+
+    // Microseconds since the epoch, the precision of a PostgreSQL timestamp
+    private static String toHex(LocalDateTime timestamp) {
+        if (timestamp == null) {
+            return "0";
+        }
+        long micros = timestamp.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + timestamp.getNano() / 1_000;
+        return Long.toHexString(micros);
+    }
+}
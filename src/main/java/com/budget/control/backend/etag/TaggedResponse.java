@@ -0,0 +1,6 @@
+package com.budget.control.backend.etag;
+
+// Response body of a single resource with its entity tag, what the by id caches hold
+// Mapped inside the read transaction, so a cached value never needs a persistence context afterwards
+public record TaggedResponse<T>(T body, String entityTag) {
+}
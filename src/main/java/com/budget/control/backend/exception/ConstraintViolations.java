@@ -0,0 +1,29 @@
+package com.budget.control.backend.exception;
+
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.sql.SQLException;
+
+// Identifies which database constraint a write violated, so it can be mapped to the API exceptions
+public final class ConstraintViolations {
+
+    private ConstraintViolations() {
+    }
+
+    public static boolean isViolationOf(DataIntegrityViolationException e, String constraintName) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof org.hibernate.exception.ConstraintViolationException violation
+                    && constraintName.equalsIgnoreCase(violation.getConstraintName())) {
+                return true;
+            }
+            // Fallback on the driver message, unique_violation is SQL state 23505
+            if (cause instanceof SQLException sqlException
+                    && "23505".equals(sqlException.getSQLState())
+                    && sqlException.getMessage() != null
+                    && sqlException.getMessage().contains(constraintName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
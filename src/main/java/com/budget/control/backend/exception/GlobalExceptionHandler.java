@@ -2,10 +2,12 @@ package com.budget.control.backend.exception;
 
 import com.budget.control.backend.controller.dto.error.ErrorField;
 import com.budget.control.backend.controller.dto.error.ErrorResponse;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageConversionException;
 import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -13,6 +15,7 @@ import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 
+import java.sql.SQLTransientConnectionException;
 import java.time.DateTimeException;
 import java.time.LocalDate;
 import java.util.List;
@@ -47,14 +50,71 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Invalid format.");
     }
 
+    // Request param that could not be converted, the enum converters fail with an InvalidFieldException
+    @ExceptionHandler(MethodArgumentTypeMismatchException.class)
+    public ResponseEntity<Object> handleMethodArgumentTypeMismatchException(MethodArgumentTypeMismatchException e) {
+        for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+            if (cause instanceof InvalidFieldException) {
+                ErrorResponse errorResponse = ErrorResponse.invalidFieldResponse(cause.getMessage());
+                return ResponseEntity.status(errorResponse.status()).body(errorResponse);
+            }
+            if (cause instanceof DateTimeException) {
+                return ResponseEntity.badRequest().body("Invalid date format. Expected format is YYYY-MM-DD.");
+            }
+        }
+        ErrorResponse errorResponse = ErrorResponse.invalidFieldResponse("Invalid value provided for " + e.getName() + ": " + e.getValue());
+        return ResponseEntity.status(errorResponse.status()).body(errorResponse);
+    }
+
     @ExceptionHandler(InvalidFieldException.class)
     public ResponseEntity<ErrorResponse> handleInvalidFieldException(InvalidFieldException e) {
         ErrorResponse errorResponse = new ErrorResponse(e.getMessage(), HttpStatus.BAD_REQUEST.value());
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
     }
 
+    // The resource changed since the client read it (If-Match or the @Version check of the update)
+    @ExceptionHandler({PreconditionFailedException.class, ObjectOptimisticLockingFailureException.class})
+    public ResponseEntity<ErrorResponse> handlePreconditionFailedException(RuntimeException e) {
+        String message = e instanceof PreconditionFailedException
+                ? e.getMessage()
+                : "The resource was changed by another request, read it again before updating.";
+        ErrorResponse errorResponse = ErrorResponse.preconditionFailedResponse(message);
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(errorResponse);
+    }
+
+    @ExceptionHandler(PreconditionRequiredException.class)
+    public ResponseEntity<ErrorResponse> handlePreconditionRequiredException(PreconditionRequiredException e) {
+        ErrorResponse errorResponse = ErrorResponse.preconditionRequiredResponse(e.getMessage());
+        return ResponseEntity.status(HttpStatus.PRECONDITION_REQUIRED).body(errorResponse);
+    }
+
+    // Overloaded resource, the client is told when to retry
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<ErrorResponse> handleServiceUnavailableException(ServiceUnavailableException e) {
+        ErrorResponse errorResponse = ErrorResponse.serviceUnavailableResponse(e.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(errorResponse);
+    }
+
+    // Per user limit reached, the client is told when to retry
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<ErrorResponse> handleTooManyRequestsException(TooManyRequestsException e) {
+        ErrorResponse errorResponse = ErrorResponse.tooManyRequestsResponse(e.getMessage());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(errorResponse);
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ErrorResponse> handleGeneralException(Exception e) {
+        // No database connection could be obtained in time, the request can be retried shortly
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLTransientConnectionException) {
+                return handleServiceUnavailableException(
+                        new ServiceUnavailableException("The service is busy, try again later.", 1));
+            }
+        }
         ErrorResponse errorResponse = new ErrorResponse("An unexpected error occurred.", HttpStatus.INTERNAL_SERVER_ERROR.value());
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
     }
@@ -0,0 +1,8 @@
+package com.budget.control.backend.exception;
+
+// The If-Match header names a version that is not the current one, the client must read the resource again
+public class PreconditionFailedException extends RuntimeException {
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,8 @@
+package com.budget.control.backend.exception;
+
+// An update was sent without the If-Match header
+public class PreconditionRequiredException extends RuntimeException {
+    public PreconditionRequiredException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,16 @@
+package com.budget.control.backend.exception;
+
+public class ServiceUnavailableException extends RuntimeException {
+
+    // Seconds the client should wait before retrying, sent as the Retry-After header
+    private final long retryAfterSeconds;
+
+    public ServiceUnavailableException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,38 @@
+package com.budget.control.backend.export;
+
+import com.budget.control.backend.exception.InvalidFieldException;
+import org.springframework.http.MediaType;
+
+public enum ExportFormat {
+    NDJSON("application/x-ndjson", "ndjson"),
+    CSV("text/csv", "csv");
+
+    private final MediaType mediaType;
+    private final String extension;
+
+    ExportFormat(String mediaType, String extension) {
+        this.mediaType = MediaType.parseMediaType(mediaType);
+        this.extension = extension;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    // Resolve the format from the request param, NDJSON when it is not provided
+    public static ExportFormat from(String format) {
+        if (format == null || format.isBlank()) {
+            return NDJSON;
+        }
+        for (ExportFormat exportFormat : values()) {
+            if (exportFormat.name().equalsIgnoreCase(format.trim())) {
+                return exportFormat;
+            }
+        }
+        throw new InvalidFieldException("Invalid value provided for ExportFormat: " + format);
+    }
+}
@@ -0,0 +1,113 @@
+package com.budget.control.backend.export;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.RecordComponent;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+
+// Writes response DTO records one by one to an output stream, nothing is kept after a row is written
+// NDJSON uses the application ObjectMapper, CSV uses the record components as columns
+public class TransactionExportWriter<T extends Record> implements AutoCloseable {
+
+    private final ExportFormat format;
+    private final JsonGenerator jsonGenerator;
+    private final ObjectWriter objectWriter;
+    private final Writer csvWriter;
+    private final Method[] accessors;
+
+    public TransactionExportWriter(ExportFormat format, Class<T> type, OutputStream outputStream, ObjectMapper objectMapper) throws IOException {
+        this.format = format;
+        if (format == ExportFormat.NDJSON) {
+            // The servlet stream is owned by the container, do not close it and let the buffers decide when to flush
+            this.jsonGenerator = objectMapper.getFactory().createGenerator(outputStream)
+                    .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            this.objectWriter = objectMapper.writerFor(type).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+            this.csvWriter = null;
+            this.accessors = null;
+        } else {
+            this.jsonGenerator = null;
+            this.objectWriter = null;
+            this.csvWriter = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+            RecordComponent[] components = type.getRecordComponents();
+            this.accessors = new Method[components.length];
+            for (int i = 0; i < components.length; i++) {
+                accessors[i] = components[i].getAccessor();
+                csvWriter.write(i == 0 ? "" : ",");
+                csvWriter.write(components[i].getName());
+            }
+            csvWriter.write("\r\n");
+        }
+    }
+
+    // Write one row, IO errors are unchecked so it can be used from a Consumer
+    public void write(T row) {
+        try {
+            if (format == ExportFormat.NDJSON) {
+                objectWriter.writeValue(jsonGenerator, row);
+                jsonGenerator.writeRaw('\n');
+            } else {
+                writeCsvRow(row);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeCsvRow(T row) throws IOException {
+        for (int i = 0; i < accessors.length; i++) {
+            if (i > 0) {
+                csvWriter.write(',');
+            }
+            Object value;
+            try {
+                value = accessors[i].invoke(row);
+            } catch (IllegalAccessException | InvocationTargetException e) {
+                throw new IllegalStateException("Cannot read " + accessors[i].getName() + " from " + row.getClass().getSimpleName(), e);
+            }
+            writeCsvValue(value);
+        }
+        csvWriter.write("\r\n");
+    }
+
+    // RFC 4180 quoting, only when the value needs it
+    private void writeCsvValue(Object value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        String text = value instanceof BigDecimal decimal ? decimal.toPlainString() : value.toString();
+        boolean quote = false;
+        for (int i = 0; i < text.length() && !quote; i++) {
+            char c = text.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            csvWriter.write(text);
+            return;
+        }
+        csvWriter.write('"');
+        csvWriter.write(text.replace("\"", "\"\""));
+        csvWriter.write('"');
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (jsonGenerator != null) {
+            jsonGenerator.close();
+        }
+        if (csvWriter != null) {
+            csvWriter.flush();
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.budget.control.backend.forecast;
+
+import com.budget.control.backend.type.RecurrenceFrequencyType;
+import com.budget.control.backend.type.TransactionKindType;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// What the forecast of a user is computed from, read once and cached until the user writes a transaction
+// Amounts are cents in a long so the projection never allocates a BigDecimal
+public record ForecastInputs(
+        // Day the inputs were read, the projection starts the day after
+        LocalDate asOf,
+        // Balance at the end of asOf: income and benefit minus expense
+        long balanceCents,
+        List<RecurringItem> recurringItems,
+        List<CategoryAverage> categoryAverages,
+        // Transactions already entered with a date after asOf, one entry per day
+        List<ScheduledDay> scheduledDays
+) {
+
+    // An amount repeating on a rule: an expense template, or an income seen every month
+    public record RecurringItem(
+            TransactionKindType kind,
+            String category,
+            String description,
+            long amountCents,
+            RecurrenceFrequencyType frequency,
+            Integer day,
+            LocalDate nextOccurrence
+    ) {
+    }
+
+    // Spending or earning of a category outside the recurring items, over the history window
+    // It is spread evenly over the projected days
+    public record CategoryAverage(
+            TransactionKindType kind,
+            String category,
+            long totalCents,
+            int windowDays,
+            int windowMonths
+    ) {
+
+        public long monthlyAverageCents() {
+            return totalCents / windowMonths;
+        }
+    }
+
+    public record ScheduledDay(LocalDate date, long incomeCents, long expenseCents) {
+    }
+}
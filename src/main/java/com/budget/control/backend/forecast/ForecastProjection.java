@@ -0,0 +1,114 @@
+package com.budget.control.backend.forecast;
+
+import com.budget.control.backend.type.TransactionKindType;
+
+import java.time.LocalDate;
+
+// Day by day projection of a balance, on primitive cent arrays indexed by the day since the start
+// Recurring items are added on their occurrences, scheduled transactions on their date, and each
+// category average is spread over the days with the remainder carried, so no cent is lost or invented
+public final class ForecastProjection {
+
+    private final LocalDate from;
+    private final long startingBalanceCents;
+    private final long[] incomeCents;
+    private final long[] expenseCents;
+    private final long[] balanceCents;
+
+    private ForecastProjection(LocalDate from, long startingBalanceCents, int days) {
+        this.from = from;
+        this.startingBalanceCents = startingBalanceCents;
+        this.incomeCents = new long[days];
+        this.expenseCents = new long[days];
+        this.balanceCents = new long[days];
+    }
+
+    // Projection of the months after the day the inputs were read
+    public static ForecastProjection project(ForecastInputs inputs, int months) {
+        LocalDate from = inputs.asOf().plusDays(1);
+        LocalDate to = inputs.asOf().plusMonths(months);
+        int days = (int) (to.toEpochDay() - from.toEpochDay()) + 1;
+        ForecastProjection projection = new ForecastProjection(from, inputs.balanceCents(), days);
+
+        for (ForecastInputs.RecurringItem item : inputs.recurringItems()) {
+            long[] target = projection.target(item.kind());
+            LocalDate occurrence = item.nextOccurrence();
+            // Occurrences up to asOf were already written, or missed
+            while (occurrence.isBefore(from)) {
+                occurrence = item.frequency().next(occurrence, item.day());
+            }
+            while (!occurrence.isAfter(to)) {
+                target[projection.index(occurrence)] += item.amountCents();
+                occurrence = item.frequency().next(occurrence, item.day());
+            }
+        }
+
+        for (ForecastInputs.ScheduledDay scheduledDay : inputs.scheduledDays()) {
+            if (!scheduledDay.date().isBefore(from) && !scheduledDay.date().isAfter(to)) {
+                int index = projection.index(scheduledDay.date());
+                projection.incomeCents[index] += scheduledDay.incomeCents();
+                projection.expenseCents[index] += scheduledDay.expenseCents();
+            }
+        }
+
+        for (ForecastInputs.CategoryAverage average : inputs.categoryAverages()) {
+            long[] target = projection.target(average.kind());
+            long perDay = average.totalCents() / average.windowDays();
+            long remainder = average.totalCents() % average.windowDays();
+            long carried = 0;
+            for (int i = 0; i < days; i++) {
+                long cents = perDay;
+                carried += remainder;
+                if (carried >= average.windowDays()) {
+                    carried -= average.windowDays();
+                    cents++;
+                }
+                target[i] += cents;
+            }
+        }
+
+        long balance = inputs.balanceCents();
+        for (int i = 0; i < days; i++) {
+            balance += projection.incomeCents[i] - projection.expenseCents[i];
+            projection.balanceCents[i] = balance;
+        }
+        return projection;
+    }
+
+    // Income and benefit raise the balance, expense lowers it
+    private long[] target(TransactionKindType kind) {
+        return kind == TransactionKindType.EXPENSE ? expenseCents : incomeCents;
+    }
+
+    private int index(LocalDate date) {
+        return (int) (date.toEpochDay() - from.toEpochDay());
+    }
+
+    public LocalDate from() {
+        return from;
+    }
+
+    public int days() {
+        return balanceCents.length;
+    }
+
+    public LocalDate date(int index) {
+        return from.plusDays(index);
+    }
+
+    public long startingBalanceCents() {
+        return startingBalanceCents;
+    }
+
+    public long incomeCents(int index) {
+        return incomeCents[index];
+    }
+
+    public long expenseCents(int index) {
+        return expenseCents[index];
+    }
+
+    public long balanceCents(int index) {
+        return balanceCents[index];
+    }
+}
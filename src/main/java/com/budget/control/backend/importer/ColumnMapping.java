@@ -0,0 +1,102 @@
+package com.budget.control.backend.importer;
+
+import com.budget.control.backend.exception.InvalidFieldException;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+// How the columns of a CSV statement map to transaction fields, and how its dates and amounts are written
+// Columns are matched by header name, ignoring case; description and category are optional
+public record ColumnMapping(
+        String dateColumn,
+        String amountColumn,
+        String descriptionColumn,
+        String categoryColumn,
+        DateTimeFormatter dateFormatter,
+        char delimiter,
+        char decimalSeparator
+) {
+
+    public static final String DEFAULT_DATE_COLUMN = "date";
+    public static final String DEFAULT_AMOUNT_COLUMN = "amount";
+    public static final String DEFAULT_DESCRIPTION_COLUMN = "description";
+    public static final String DEFAULT_CATEGORY_COLUMN = "category";
+    public static final String DEFAULT_DATE_FORMAT = "yyyy-MM-dd";
+
+    // Mapping from the request values, null or blank values take the defaults
+    public static ColumnMapping of(String dateColumn, String amountColumn, String descriptionColumn, String categoryColumn,
+                                   String dateFormat, String delimiter, String decimalSeparator) {
+        DateTimeFormatter dateFormatter;
+        try {
+            dateFormatter = DateTimeFormatter.ofPattern(orDefault(dateFormat, DEFAULT_DATE_FORMAT));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidFieldException("Invalid date format: " + dateFormat);
+        }
+        char decimal = singleChar(decimalSeparator, '.', "decimalSeparator");
+        if (decimal != '.' && decimal != ',') {
+            throw new InvalidFieldException("decimalSeparator must be '.' or ','");
+        }
+        return new ColumnMapping(
+                orDefault(dateColumn, DEFAULT_DATE_COLUMN),
+                orDefault(amountColumn, DEFAULT_AMOUNT_COLUMN),
+                orDefault(descriptionColumn, DEFAULT_DESCRIPTION_COLUMN),
+                orDefault(categoryColumn, DEFAULT_CATEGORY_COLUMN),
+                dateFormatter,
+                singleChar(delimiter, ',', "delimiter"),
+                decimal);
+    }
+
+    public LocalDate parseDate(String value) {
+        try {
+            return LocalDate.parse(value.trim(), dateFormatter);
+        } catch (DateTimeParseException e) {
+            throw new InvalidFieldException("Invalid date: " + value);
+        }
+    }
+
+    // Accepts grouping separators, a leading currency symbol and accounting negatives such as (12.50)
+    public BigDecimal parseAmount(String value) {
+        String amount = value.trim();
+        boolean negative = amount.startsWith("(") && amount.endsWith(")");
+        if (negative) {
+            amount = amount.substring(1, amount.length() - 1);
+        }
+        char grouping = decimalSeparator == '.' ? ',' : '.';
+        StringBuilder digits = new StringBuilder(amount.length());
+        for (int i = 0; i < amount.length(); i++) {
+            char c = amount.charAt(i);
+            if (c == decimalSeparator) {
+                digits.append('.');
+            } else if (Character.isDigit(c) || c == '-' || c == '+') {
+                digits.append(c);
+            } else if (c != grouping && !Character.isWhitespace(c) && !Character.isLetter(c) && Character.getType(c) != Character.CURRENCY_SYMBOL) {
+                throw new InvalidFieldException("Invalid amount: " + value);
+            }
+        }
+        try {
+            BigDecimal parsed = new BigDecimal(digits.toString());
+            return negative ? parsed.negate() : parsed;
+        } catch (NumberFormatException e) {
+            throw new InvalidFieldException("Invalid amount: " + value);
+        }
+    }
+
+    private static String orDefault(String value, String defaultValue) {
+        return value == null || value.isBlank() ? defaultValue : value.trim();
+    }
+
+    private static char singleChar(String value, char defaultValue, String name) {
+        if (value == null || value.isEmpty()) {
+            return defaultValue;
+        }
+        if ("\\t".equals(value) || "tab".equalsIgnoreCase(value)) {
+            return '\t';
+        }
+        if (value.length() != 1) {
+            throw new InvalidFieldException(name + " must be a single character");
+        }
+        return value.charAt(0);
+    }
+}
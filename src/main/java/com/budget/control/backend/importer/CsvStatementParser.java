@@ -0,0 +1,159 @@
+package com.budget.control.backend.importer;
+
+import com.budget.control.backend.exception.InvalidFieldException;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+// RFC 4180 CSV reader: quoted fields may hold the delimiter, doubled quotes and line breaks
+// The first record is the header, the columns are located through the ColumnMapping
+public class CsvStatementParser implements StatementParser {
+
+    // Guard against a missing closing quote swallowing the rest of the file into one field
+    private static final int MAX_FIELD_LENGTH = 10_000;
+
+    private final ColumnMapping columnMapping;
+
+    // Reader state
+    private Reader reader;
+    private int pushedBack = -2;
+    private long line = 1;
+
+    public CsvStatementParser(ColumnMapping columnMapping) {
+        this.columnMapping = columnMapping;
+    }
+
+    @Override
+    public void parse(Reader reader, StatementRowHandler handler) throws IOException {
+        this.reader = reader;
+        List<String> header = readRecord();
+        if (header == null) {
+            throw new InvalidFieldException("The file is empty.");
+        }
+        int dateIndex = indexOf(header, columnMapping.dateColumn(), true);
+        int amountIndex = indexOf(header, columnMapping.amountColumn(), true);
+        int descriptionIndex = indexOf(header, columnMapping.descriptionColumn(), false);
+        int categoryIndex = indexOf(header, columnMapping.categoryColumn(), false);
+
+        while (true) {
+            long position = line;
+            List<String> record = readRecord();
+            if (record == null) {
+                return;
+            }
+            // Blank line
+            if (record.size() == 1 && record.getFirst().isBlank()) {
+                continue;
+            }
+            try {
+                handler.row(new StatementRow(
+                        position,
+                        columnMapping.parseDate(field(record, dateIndex, columnMapping.dateColumn())),
+                        columnMapping.parseAmount(field(record, amountIndex, columnMapping.amountColumn())),
+                        optionalField(record, descriptionIndex),
+                        optionalField(record, categoryIndex)));
+            } catch (InvalidFieldException e) {
+                handler.rejected(position, e.getMessage());
+            }
+        }
+    }
+
+    private static int indexOf(List<String> header, String column, boolean required) {
+        for (int i = 0; i < header.size(); i++) {
+            if (header.get(i).trim().equalsIgnoreCase(column)) {
+                return i;
+            }
+        }
+        if (required) {
+            throw new InvalidFieldException("Column not found in the header: " + column);
+        }
+        return -1;
+    }
+
+    private static String field(List<String> record, int index, String column) {
+        if (index >= record.size() || record.get(index).isBlank()) {
+            throw new InvalidFieldException("Missing value for column " + column);
+        }
+        return record.get(index);
+    }
+
+    private static String optionalField(List<String> record, int index) {
+        if (index < 0 || index >= record.size() || record.get(index).isBlank()) {
+            return null;
+        }
+        return record.get(index).trim();
+    }
+
+    // Next record, null at the end of the input
+    private List<String> readRecord() throws IOException {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean inQuotes = false;
+        boolean readAny = false;
+
+        while (true) {
+            int c = read();
+            if (c == -1) {
+                if (!readAny) {
+                    return null;
+                }
+                if (inQuotes) {
+                    throw new InvalidFieldException("Unclosed quote at line " + line);
+                }
+                fields.add(field.toString());
+                return fields;
+            }
+            readAny = true;
+
+            if (inQuotes) {
+                if (c == '"') {
+                    int next = read();
+                    if (next == '"') {
+                        field.append('"');
+                    } else {
+                        inQuotes = false;
+                        unread(next);
+                    }
+                } else {
+                    if (c == '\n') {
+                        line++;
+                    }
+                    append(field, (char) c);
+                }
+            } else if (c == '"' && field.isEmpty()) {
+                inQuotes = true;
+            } else if (c == columnMapping.delimiter()) {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n') {
+                line++;
+                fields.add(field.toString());
+                return fields;
+            } else if (c != '\r') {
+                append(field, (char) c);
+            }
+        }
+    }
+
+    private void append(StringBuilder field, char c) {
+        if (field.length() >= MAX_FIELD_LENGTH) {
+            throw new InvalidFieldException("Field longer than " + MAX_FIELD_LENGTH + " characters at line " + line);
+        }
+        field.append(c);
+    }
+
+    private int read() throws IOException {
+        if (pushedBack != -2) {
+            int c = pushedBack;
+            pushedBack = -2;
+            return c;
+        }
+        return reader.read();
+    }
+
+    private void unread(int c) {
+        pushedBack = c;
+    }
+}
@@ -0,0 +1,13 @@
+package com.budget.control.backend.importer;
+
+// Called after each chunk is written, inside the transaction of the chunk
+// entries is the number of parsed entries (rows and rejected lines) handled so far, in file order,
+// so a progress saved here is committed together with the rows of the chunk
+@FunctionalInterface
+public interface ImportCheckpoint {
+
+    ImportCheckpoint NONE = (entries, summary) -> {
+    };
+
+    void committed(long entries, ImportSummary summary);
+}
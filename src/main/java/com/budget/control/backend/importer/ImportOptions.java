@@ -0,0 +1,19 @@
+package com.budget.control.backend.importer;
+
+import com.budget.control.backend.type.TransactionExpenseType;
+import com.budget.control.backend.type.TransactionIncomeType;
+
+import java.nio.charset.Charset;
+import java.util.UUID;
+
+// How a statement file is read and who owns the imported transactions
+// The default categories are used for rows without a category column value, null rejects those rows
+public record ImportOptions(
+        Charset charset,
+        StatementFormat format,
+        ColumnMapping columnMapping,
+        UUID userId,
+        TransactionExpenseType defaultExpenseCategory,
+        TransactionIncomeType defaultIncomeCategory
+) {
+}
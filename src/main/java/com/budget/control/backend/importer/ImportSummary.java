@@ -0,0 +1,62 @@
+package com.budget.control.backend.importer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Counts of an import, only the first rejections are kept with their reason so the summary stays small
+public class ImportSummary {
+
+    public static final int MAX_REJECTIONS_KEPT = 100;
+
+    private long inserted;
+    private long duplicates;
+    private long rejected;
+    private final List<Rejection> rejections = new ArrayList<>();
+
+    public ImportSummary() {
+    }
+
+    // Summary of an import resumed from a checkpoint, the counts go on from the saved ones
+    public ImportSummary(long inserted, long duplicates, long rejected, List<Rejection> rejections) {
+        this.inserted = inserted;
+        this.duplicates = duplicates;
+        this.rejected = rejected;
+        if (rejections != null) {
+            this.rejections.addAll(rejections.subList(0, Math.min(rejections.size(), MAX_REJECTIONS_KEPT)));
+        }
+    }
+
+    public void inserted() {
+        inserted++;
+    }
+
+    public void duplicated() {
+        duplicates++;
+    }
+
+    public void rejected(long position, String reason) {
+        rejected++;
+        if (rejections.size() < MAX_REJECTIONS_KEPT) {
+            rejections.add(new Rejection(position, reason));
+        }
+    }
+
+    public long getInserted() {
+        return inserted;
+    }
+
+    public long getDuplicates() {
+        return duplicates;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public List<Rejection> getRejections() {
+        return rejections;
+    }
+
+    public record Rejection(long position, String reason) {
+    }
+}
@@ -0,0 +1,150 @@
+package com.budget.control.backend.importer;
+
+import com.budget.control.backend.exception.InvalidFieldException;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.Map;
+
+// OFX reader for both the SGML (1.x, leaf elements without closing tags) and the XML (2.x) flavours
+// Only the <STMTTRN> blocks are read: DTPOSTED, TRNAMT, NAME and MEMO, OFX has no category
+public class OfxStatementParser implements StatementParser {
+
+    private static final int MAX_TEXT_LENGTH = 10_000;
+    private static final DateTimeFormatter OFX_DATE = DateTimeFormatter.BASIC_ISO_DATE;
+
+    private Reader reader;
+    private int pushedBack = -2;
+
+    @Override
+    public void parse(Reader reader, StatementRowHandler handler) throws IOException {
+        this.reader = reader;
+        Map<String, String> transaction = null;
+        String currentTag = null;
+        long position = 0;
+        boolean foundOfx = false;
+
+        while (true) {
+            int c = read();
+            if (c == -1) {
+                break;
+            }
+            if (c != '<') {
+                // Text outside a tag: the value of the last opened leaf element, or the OFX 1.x header
+                if (currentTag != null && transaction != null && !Character.isWhitespace(c)) {
+                    unread(c);
+                    transaction.put(currentTag, readText());
+                    currentTag = null;
+                }
+                continue;
+            }
+
+            String tag = readTag();
+            if (tag.startsWith("?") || tag.startsWith("!")) {
+                continue;
+            }
+            foundOfx = true;
+            if (tag.startsWith("/")) {
+                if (tag.equalsIgnoreCase("/STMTTRN") && transaction != null) {
+                    position++;
+                    emit(position, transaction, handler);
+                    transaction = null;
+                }
+                currentTag = null;
+            } else if (tag.equalsIgnoreCase("STMTTRN")) {
+                transaction = new HashMap<>();
+                currentTag = null;
+            } else {
+                currentTag = tag.toUpperCase();
+            }
+        }
+        if (!foundOfx) {
+            throw new InvalidFieldException("The file is not an OFX statement.");
+        }
+    }
+
+    private void emit(long position, Map<String, String> transaction, StatementRowHandler handler) {
+        try {
+            String posted = transaction.get("DTPOSTED");
+            String amount = transaction.get("TRNAMT");
+            if (posted == null || posted.length() < 8) {
+                throw new InvalidFieldException("Missing or invalid DTPOSTED");
+            }
+            if (amount == null || amount.isBlank()) {
+                throw new InvalidFieldException("Missing TRNAMT");
+            }
+            LocalDate date;
+            try {
+                date = LocalDate.parse(posted.substring(0, 8), OFX_DATE);
+            } catch (DateTimeParseException e) {
+                throw new InvalidFieldException("Invalid DTPOSTED: " + posted);
+            }
+            BigDecimal value;
+            try {
+                // Some banks write the decimals with a comma
+                value = new BigDecimal(amount.indexOf('.') < 0 ? amount.replace(',', '.') : amount);
+            } catch (NumberFormatException e) {
+                throw new InvalidFieldException("Invalid TRNAMT: " + amount);
+            }
+            String description = transaction.get("NAME");
+            if (description == null || description.isBlank()) {
+                description = transaction.get("MEMO");
+            }
+            handler.row(new StatementRow(position, date, value, description, null));
+        } catch (InvalidFieldException e) {
+            handler.rejected(position, e.getMessage());
+        }
+    }
+
+    // Tag name up to '>', the '<' was already read
+    private String readTag() throws IOException {
+        StringBuilder tag = new StringBuilder();
+        int c;
+        while ((c = read()) != -1 && c != '>') {
+            if (tag.length() >= MAX_TEXT_LENGTH) {
+                throw new InvalidFieldException("Malformed OFX tag.");
+            }
+            tag.append((char) c);
+        }
+        return tag.toString().trim();
+    }
+
+    // Element text up to the next tag, with the XML entities decoded
+    private String readText() throws IOException {
+        StringBuilder text = new StringBuilder();
+        int c;
+        while ((c = read()) != -1 && c != '<') {
+            if (text.length() >= MAX_TEXT_LENGTH) {
+                throw new InvalidFieldException("OFX value longer than " + MAX_TEXT_LENGTH + " characters.");
+            }
+            text.append((char) c);
+        }
+        if (c == '<') {
+            unread(c);
+        }
+        return text.toString().trim()
+                .replace("&lt;", "<")
+                .replace("&gt;", ">")
+                .replace("&quot;", "\"")
+                .replace("&apos;", "'")
+                .replace("&amp;", "&");
+    }
+
+    private int read() throws IOException {
+        if (pushedBack != -2) {
+            int c = pushedBack;
+            pushedBack = -2;
+            return c;
+        }
+        return reader.read();
+    }
+
+    private void unread(int c) {
+        pushedBack = c;
+    }
+}
@@ -0,0 +1,23 @@
+package com.budget.control.backend.importer;
+
+import com.budget.control.backend.exception.InvalidFieldException;
+
+public enum StatementFormat {
+    CSV,
+    OFX;
+
+    // Format given by the client, or guessed from the file name, CSV when nothing tells otherwise
+    public static StatementFormat from(String value, String fileName) {
+        if (value != null && !value.isBlank()) {
+            try {
+                return StatementFormat.valueOf(value.trim().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw new InvalidFieldException("Invalid value provided for format: " + value);
+            }
+        }
+        if (fileName != null && (fileName.toLowerCase().endsWith(".ofx") || fileName.toLowerCase().endsWith(".qfx"))) {
+            return OFX;
+        }
+        return CSV;
+    }
+}
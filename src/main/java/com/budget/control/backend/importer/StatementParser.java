@@ -0,0 +1,10 @@
+package com.budget.control.backend.importer;
+
+import java.io.IOException;
+import java.io.Reader;
+
+// Incremental statement parser, reads the input once and never holds more than the current entry
+public interface StatementParser {
+
+    void parse(Reader reader, StatementRowHandler handler) throws IOException;
+}
@@ -0,0 +1,9 @@
+package com.budget.control.backend.importer;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+// One parsed statement entry, a negative amount is money going out
+// Position is the line of the record in a CSV file, or the number of the transaction in an OFX file
+public record StatementRow(long position, LocalDate date, BigDecimal amount, String description, String category) {
+}
@@ -0,0 +1,9 @@
+package com.budget.control.backend.importer;
+
+// Receives the entries of a statement as they are parsed, nothing is kept by the parsers
+public interface StatementRowHandler {
+
+    void row(StatementRow row);
+
+    void rejected(long position, String reason);
+}
@@ -4,10 +4,15 @@ import com.budget.control.backend.controller.dto.request.GroupRequestDTO;
 import com.budget.control.backend.controller.dto.response.GroupResponseDTO;
 import com.budget.control.backend.model.GroupModel;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 
 @Mapper(componentModel = "spring")
 public interface GroupMapper {
 
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "createdAt", ignore = true)
+    @Mapping(target = "updatedAt", ignore = true)
+    @Mapping(target = "version", ignore = true)
     GroupModel toRequestEntity(GroupRequestDTO groupRequestDTO);
 
     GroupResponseDTO toResponseDTO(GroupModel groupModel);
@@ -4,10 +4,14 @@ import com.budget.control.backend.controller.dto.request.TransactionBenefitReque
 import com.budget.control.backend.controller.dto.response.TransactionBenefitResponseDTO;
 import com.budget.control.backend.model.TransactionBenefitModel;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 
 @Mapper(componentModel = "spring")
 public interface TransactionBenefitMapper {
 
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "contentHash", ignore = true)
+    @Mapping(target = "version", ignore = true)
     TransactionBenefitModel toRequestEntity(TransactionBenefitRequestDTO transactionBenefitRequestDTO);
 
     TransactionBenefitResponseDTO toResponseDTO(TransactionBenefitModel transactionBenefitModel);
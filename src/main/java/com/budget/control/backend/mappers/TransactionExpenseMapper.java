@@ -4,10 +4,16 @@ import com.budget.control.backend.controller.dto.request.TransactionExpenseReque
 import com.budget.control.backend.controller.dto.response.TransactionExpenseResponseDTO;
 import com.budget.control.backend.model.TransactionExpenseModel;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 
 @Mapper(componentModel = "spring")
 public interface TransactionExpenseMapper {
 
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "contentHash", ignore = true)
+    @Mapping(target = "nextOccurrence", ignore = true)
+    @Mapping(target = "templateId", ignore = true)
+    @Mapping(target = "version", ignore = true)
     TransactionExpenseModel toRequestEntity(TransactionExpenseRequestDTO transactionExpenseRequestDTO);
 
     TransactionExpenseResponseDTO toResponseDTO(TransactionExpenseModel transactionExpenseModel);
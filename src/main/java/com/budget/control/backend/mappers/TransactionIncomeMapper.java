@@ -4,10 +4,14 @@ import com.budget.control.backend.controller.dto.request.TransactionIncomeReques
 import com.budget.control.backend.controller.dto.response.TransactionIncomeResponseDTO;
 import com.budget.control.backend.model.TransactionIncomeModel;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 
 @Mapper(componentModel = "spring")
 public interface TransactionIncomeMapper {
 
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "contentHash", ignore = true)
+    @Mapping(target = "version", ignore = true)
     TransactionIncomeModel toRequestEntity(TransactionIncomeRequestDTO transactionIncomeRequestDTO);
 
     TransactionIncomeResponseDTO toResponseDTO(TransactionIncomeModel transactionIncomeModel);
@@ -16,6 +16,8 @@ public abstract class UserMapper {
 
     @Mapping(source = "encryptedPassword", target = "encryptedPassword")
     @Mapping(target = "groupId", expression = "java(groupRepository.findById(userRequestDTO.groupId()).orElse(null))")
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "version", ignore = true)
     public abstract  UserModel toRequestEntity(UserRequestDTO userRequestDTO);
 
     public abstract UserResponseDTO toResponseDTO(UserModel userModel);
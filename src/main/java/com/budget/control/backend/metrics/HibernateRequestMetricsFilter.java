@@ -0,0 +1,61 @@
+package com.budget.control.backend.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+// Publishes the Hibernate work of each request per endpoint, tagged with the method and the uri template like http.server.requests
+// A request with many more statements than entities loaded, or statements growing with the page size, points to N+1 queries
+@Component
+public class HibernateRequestMetricsFilter extends OncePerRequestFilter {
+
+    // Buckets of the histograms, requests of the same endpoint usually fall in one or two of them
+    // Micrometer only accepts boundaries above 0, a request without any Hibernate work falls in the first bucket
+    private static final double[] BUCKETS = {1, 2, 5, 10, 20, 50, 100, 500};
+
+    private final Meter.MeterProvider<DistributionSummary> statements;
+    private final Meter.MeterProvider<DistributionSummary> entityLoads;
+    private final Meter.MeterProvider<DistributionSummary> flushes;
+
+    public HibernateRequestMetricsFilter(MeterRegistry meterRegistry) {
+        this.statements = DistributionSummary.builder("budget.hibernate.request.statements")
+                .description("JDBC statements executed by a request, a batch counts as one")
+                .serviceLevelObjectives(BUCKETS)
+                .withRegistry(meterRegistry);
+        this.entityLoads = DistributionSummary.builder("budget.hibernate.request.entity.loads")
+                .description("Entities loaded by Hibernate during a request")
+                .serviceLevelObjectives(BUCKETS)
+                .withRegistry(meterRegistry);
+        this.flushes = DistributionSummary.builder("budget.hibernate.request.flushes")
+                .description("Session flushes during a request")
+                .serviceLevelObjectives(BUCKETS)
+                .withRegistry(meterRegistry);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        HibernateRequestStatistics statistics = HibernateRequestStatistics.open();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            HibernateRequestStatistics.close();
+            // The uri template is known once the request was mapped, unmapped requests share one tag as in http.server.requests
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+            String method = request.getMethod();
+            statements.withTags("method", method, "uri", uri).record(statistics.statements());
+            entityLoads.withTags("method", method, "uri", uri).record(statistics.entityLoads());
+            flushes.withTags("method", method, "uri", uri).record(statistics.flushes());
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.budget.control.backend.metrics;
+
+// Hibernate work done by the request running on the current thread: JDBC statements, entities loaded and flushes
+// HibernateRequestMetricsFilter opens the counts when a request starts and publishes them when it ends,
+// the Hibernate listeners add to them, work done outside a request (schedulers, import jobs) is not counted
+public final class HibernateRequestStatistics {
+
+    private static final ThreadLocal<HibernateRequestStatistics> CURRENT = new ThreadLocal<>();
+
+    private long statements;
+    private long entityLoads;
+    private long flushes;
+
+    private HibernateRequestStatistics() {
+    }
+
+    static HibernateRequestStatistics open() {
+        HibernateRequestStatistics statistics = new HibernateRequestStatistics();
+        CURRENT.set(statistics);
+        return statistics;
+    }
+
+    static void close() {
+        CURRENT.remove();
+    }
+
+    static void statementsExecuted(int count) {
+        HibernateRequestStatistics statistics = CURRENT.get();
+        if (statistics != null) {
+            statistics.statements += count;
+        }
+    }
+
+    static void entityLoaded() {
+        HibernateRequestStatistics statistics = CURRENT.get();
+        if (statistics != null) {
+            statistics.entityLoads++;
+        }
+    }
+
+    static void flushed() {
+        HibernateRequestStatistics statistics = CURRENT.get();
+        if (statistics != null) {
+            statistics.flushes++;
+        }
+    }
+
+    long statements() {
+        return statements;
+    }
+
+    long entityLoads() {
+        return entityLoads;
+    }
+
+    long flushes() {
+        return flushes;
+    }
+}
@@ -0,0 +1,23 @@
+package com.budget.control.backend.metrics;
+
+import org.hibernate.BaseSessionEventListener;
+
+// Attached to every Hibernate session (hibernate.session.events.auto), counts the statements and flushes of the request
+// A JDBC batch counts as one statement, it is one round trip
+public class RequestStatisticsSessionListener extends BaseSessionEventListener {
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        HibernateRequestStatistics.statementsExecuted(1);
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        HibernateRequestStatistics.statementsExecuted(1);
+    }
+
+    @Override
+    public void flushEnd(int numberOfEntities, int numberOfCollections) {
+        HibernateRequestStatistics.flushed();
+    }
+}
@@ -4,8 +4,11 @@ import com.fasterxml.jackson.annotation.JsonManagedReference;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.ToString;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 
@@ -18,7 +21,7 @@ public class GroupModel {
 
     @Id
     @Column(name = "id")
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidV7
     private UUID id;
 
     @Column(name = "name", nullable = false, length = 50)
@@ -33,6 +36,21 @@ public class GroupModel {
     @Column(name = "reference_id")
     private UUID referenceId;
 
+    // Nullable so the columns can be added to an existing table, rows written before have no dates
+    @CreatedDate
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    @LastModifiedDate
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    // Optimistic lock, incremented by every update and exposed as the ETag checked by If-Match
+    // The default fills the rows written before the column existed and the inserts done in plain SQL
+    @Version
+    @Column(name = "version", nullable = false, columnDefinition = "bigint default 0")
+    private Long version;
+
     @OneToMany(mappedBy = "groupId", fetch = FetchType.LAZY)
     @JsonManagedReference
     private List<UserModel> users;
@@ -0,0 +1,135 @@
+package com.budget.control.backend.model;
+
+import com.budget.control.backend.importer.ImportSummary;
+import com.budget.control.backend.importer.StatementFormat;
+import com.budget.control.backend.type.ImportJobStatusType;
+import com.budget.control.backend.type.TransactionExpenseType;
+import com.budget.control.backend.type.TransactionIncomeType;
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.ToString;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+// A statement import running in the background, see ImportJobService
+// The uploaded file stays on disk until the job ends, the checkpoint columns are saved in the transaction
+// of every chunk so a job interrupted by a restart resumes after its last committed chunk
+@Entity
+@Table(name = "import_job", indexes = @Index(name = "idx_import_job_user_status", columnList = "user_id, status"))
+@Data
+@ToString
+@EntityListeners(AuditingEntityListener.class)
+public class ImportJobModel {
+
+    @Id
+    @Column(name = "id")
+    @UuidV7
+    private UUID id;
+
+    @Column(name = "user_id")
+    private UUID userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private ImportJobStatusType status;
+
+    // Import options, kept as sent so the job can be rebuilt after a restart
+    @Column(name = "file_name")
+    private String fileName;
+
+    @Column(name = "file_path", nullable = false, length = 500)
+    private String filePath;
+
+    @Column(name = "file_size", nullable = false)
+    private Long fileSize;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "format", nullable = false, length = 10)
+    private StatementFormat format;
+
+    @Column(name = "charset", nullable = false, length = 50)
+    private String charset;
+
+    @Column(name = "date_column", length = 100)
+    private String dateColumn;
+
+    @Column(name = "amount_column", length = 100)
+    private String amountColumn;
+
+    @Column(name = "description_column", length = 100)
+    private String descriptionColumn;
+
+    @Column(name = "category_column", length = 100)
+    private String categoryColumn;
+
+    @Column(name = "date_format", length = 50)
+    private String dateFormat;
+
+    @Column(name = "delimiter", length = 1)
+    private String delimiter;
+
+    @Column(name = "decimal_separator", length = 1)
+    private String decimalSeparator;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "default_expense_category", length = 50)
+    private TransactionExpenseType defaultExpenseCategory;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "default_income_category", length = 50)
+    private TransactionIncomeType defaultIncomeCategory;
+
+    // Checkpoint: parsed entries already handled and the counts at that point
+    @Column(name = "processed_entries", nullable = false)
+    private Long processedEntries = 0L;
+
+    // Bytes of the file read at the checkpoint, approximate because of the read buffer
+    @Column(name = "bytes_read", nullable = false)
+    private Long bytesRead = 0L;
+
+    @Column(name = "inserted", nullable = false)
+    private Long inserted = 0L;
+
+    @Column(name = "duplicates", nullable = false)
+    private Long duplicates = 0L;
+
+    @Column(name = "rejected", nullable = false)
+    private Long rejected = 0L;
+
+    // First rejections only, see ImportSummary.MAX_REJECTIONS_KEPT
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "rejections", columnDefinition = "jsonb")
+    private List<ImportSummary.Rejection> rejections;
+
+    @Column(name = "error_message", length = 500)
+    private String errorMessage;
+
+    @CreatedDate
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @LastModifiedDate
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    // Instance working on the job and until when, another instance takes the job over once the lease expired
+    // Written with the job and then only by the claim and checkpoint statements of ImportJobService
+    @Column(name = "claimed_by", updatable = false)
+    private UUID claimedBy;
+
+    @Column(name = "lease_until", updatable = false)
+    private LocalDateTime leaseUntil;
+}
@@ -0,0 +1,51 @@
+package com.budget.control.backend.model;
+
+import com.budget.control.backend.type.TransactionKindType;
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.ToString;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Per user, month, transaction kind and category totals
+// Kept up to date by the transaction services with deltas, see MonthlyRollupService
+@Entity
+@Table(name = "monthly_rollup", uniqueConstraints = @UniqueConstraint(
+        name = "uk_monthly_rollup_user_month_kind_category",
+        columnNames = {"user_id", "month", "transaction_kind", "category"}))
+@Data
+@ToString
+public class MonthlyRollupModel {
+
+    @Id
+    @Column(name = "id")
+    @UuidV7
+    private UUID id;
+
+    // Transactions without an owner are rolled up under the nil UUID so the unique key never holds a null
+    @Column(name = "user_id", nullable = false)
+    private UUID userId;
+
+    // First day of the month
+    @Column(name = "month", nullable = false)
+    private LocalDate month;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "transaction_kind", nullable = false, length = 20)
+    private TransactionKindType transactionKind;
+
+    @Column(name = "category", nullable = false, length = 50)
+    private String category;
+
+    @Column(name = "total_amount", nullable = false, precision = 20, scale = 2)
+    private BigDecimal totalAmount;
+
+    @Column(name = "transaction_count", nullable = false)
+    private Long transactionCount;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
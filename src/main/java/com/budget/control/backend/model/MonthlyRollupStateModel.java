@@ -0,0 +1,25 @@
+package com.budget.control.backend.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+// Single row written when the monthly rollup was last computed from the transaction tables
+// Until it exists the rollup may miss the transactions written before it, see MonthlyRollupService.isBuilt
+@Entity
+@Table(name = "monthly_rollup_state")
+@Data
+@ToString
+public class MonthlyRollupStateModel {
+
+    public static final int ID = 1;
+
+    @Id
+    @Column(name = "id")
+    private Integer id;
+
+    @Column(name = "built_at", nullable = false)
+    private LocalDateTime builtAt;
+}
@@ -14,15 +14,21 @@ import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
-@Table(name = "transaction_benefit")
+@Table(name = "transaction_benefit",
+        uniqueConstraints = @UniqueConstraint(name = TransactionBenefitModel.CONTENT_HASH_CONSTRAINT, columnNames = "content_hash"),
+        indexes = {
+                @Index(name = "idx_transaction_benefit_user_date", columnList = "user_id, date, id"),
+                @Index(name = "idx_transaction_benefit_date", columnList = "date, id")})
 @Data
 @ToString
 @EntityListeners(AuditingEntityListener.class)
 public class TransactionBenefitModel {
 
+    public static final String CONTENT_HASH_CONSTRAINT = "uk_transaction_benefit_content_hash";
+
     @Id
     @Column(name = "id")
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidV7
     private UUID id;
 
     @Enumerated(EnumType.STRING)
@@ -46,6 +52,24 @@ public class TransactionBenefitModel {
     @Column(name = "updated_at", nullable = false)
     private LocalDateTime updatedAt;
 
+    // Optimistic lock, incremented by every update and exposed as the ETag checked by If-Match
+    // The default fills the rows written before the column existed and the inserts done in plain SQL
+    @Version
+    @Column(name = "version", nullable = false, columnDefinition = "bigint default 0")
+    private Long version;
+
     @Column(name = "user_id")
     private UUID userId;
+
+    // Hash of the fields that identify a duplicate, see TransactionContentHash
+    // Nullable only for duplicates written before the column existed
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
+    // Recomputed on every insert and update, so no write path can skip it
+    @PrePersist
+    @PreUpdate
+    void computeContentHash() {
+        contentHash = TransactionContentHash.of(userId, name, description, amount, date, null);
+    }
 }
@@ -0,0 +1,55 @@
+package com.budget.control.backend.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.util.HexFormat;
+import java.util.StringJoiner;
+import java.util.UUID;
+import java.util.function.UnaryOperator;
+
+// SHA-256 of the fields that make two transactions the same, stored in the content_hash column
+// The column has a unique constraint, so the database rejects duplicates in the same statement as the write
+// The Java and the SQL versions must produce the same value, the SQL one is used to fill rows written before the column existed
+public final class TransactionContentHash {
+
+    private TransactionContentHash() {
+    }
+
+    // Hash of user, type, description, amount (2 decimals) and date, plus recurrent when not null
+    public static String of(UUID userId, Enum<?> name, String description, BigDecimal amount, LocalDate date, Boolean recurrent) {
+        StringJoiner content = new StringJoiner("|");
+        content.add(userId != null ? userId.toString() : "");
+        content.add(name != null ? name.name() : "");
+        content.add(description != null ? description : "");
+        content.add(amount != null ? amount.setScale(2, RoundingMode.HALF_UP).toPlainString() : "");
+        content.add(date != null ? date.toString() : "");
+        if (recurrent != null) {
+            content.add(recurrent.toString());
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content.toString().getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    // Same hash computed by PostgreSQL from the table columns
+    public static String sqlExpression(boolean withRecurrent) {
+        return sqlExpression(UnaryOperator.identity(), withRecurrent);
+    }
+
+    // Same hash with each column read through the given SQL expression, e.g. the new value of a column in an UPDATE
+    // The date is formatted explicitly, date::text follows the DateStyle of the session and LocalDate.toString does not
+    public static String sqlExpression(UnaryOperator<String> column, boolean withRecurrent) {
+        return "encode(sha256(convert_to(concat_ws('|', coalesce((" + column.apply("user_id") + ")::text, ''), "
+                + column.apply("name") + ", coalesce(" + column.apply("description") + ", ''), ("
+                + column.apply("amount") + ")::text, to_char(" + column.apply("date") + ", 'YYYY-MM-DD')"
+                + (withRecurrent ? ", (" + column.apply("recurrent") + ")::text" : "")
+                + "), 'UTF8')), 'hex')";
+    }
+}
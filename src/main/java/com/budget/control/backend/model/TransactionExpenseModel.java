@@ -1,5 +1,6 @@
 package com.budget.control.backend.model;
 
+import com.budget.control.backend.type.RecurrenceFrequencyType;
 import com.budget.control.backend.type.TransactionExpenseType;
 import jakarta.persistence.*;
 import lombok.Data;
@@ -14,15 +15,26 @@ import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
-@Table(name = "transaction_expense")
+@Table(name = "transaction_expense",
+        uniqueConstraints = {
+                @UniqueConstraint(name = TransactionExpenseModel.CONTENT_HASH_CONSTRAINT, columnNames = "content_hash"),
+                @UniqueConstraint(name = TransactionExpenseModel.TEMPLATE_DATE_CONSTRAINT, columnNames = {"template_id", "date"})},
+        indexes = {
+                @Index(name = "idx_transaction_expense_user_date", columnList = "user_id, date, id"),
+                @Index(name = "idx_transaction_expense_date", columnList = "date, id"),
+                @Index(name = "idx_transaction_expense_next_occurrence", columnList = "next_occurrence, id")})
 @Data
 @ToString
 @EntityListeners(AuditingEntityListener.class)
 public class TransactionExpenseModel {
 
+    public static final String CONTENT_HASH_CONSTRAINT = "uk_transaction_expense_content_hash";
+    // One instance per template and date, reruns of the recurrence scheduler cannot insert a period twice
+    public static final String TEMPLATE_DATE_CONSTRAINT = "uk_transaction_expense_template_date";
+
     @Id
     @Column(name = "id")
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidV7
     private UUID id;
 
     @Enumerated(EnumType.STRING)
@@ -49,6 +61,59 @@ public class TransactionExpenseModel {
     @Column(name = "updated_at", nullable = false)
     private LocalDateTime updatedAt;
 
+    // Optimistic lock, incremented by every update and exposed as the ETag checked by If-Match
+    // The default fills the rows written before the column existed and the inserts done in plain SQL
+    @Version
+    @Column(name = "version", nullable = false, columnDefinition = "bigint default 0")
+    private Long version;
+
     @Column(name = "user_id")
     private UUID userId;
+
+    // Hash of the fields that identify a duplicate, see TransactionContentHash
+    // Nullable only for duplicates written before the column existed
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
+    // Recurrence rule, a recurrent expense with a frequency is a template the scheduler copies on every occurrence
+    // See RecurringTransactionService
+    @Enumerated(EnumType.STRING)
+    @Column(name = "recurrence_frequency", length = 10)
+    private RecurrenceFrequencyType recurrenceFrequency;
+
+    // Day of the month of monthly and yearly occurrences, the day of the template date when not given
+    @Column(name = "recurrence_day")
+    private Integer recurrenceDay;
+
+    // Date of the next instance to insert, null when the expense is not a template
+    @Column(name = "next_occurrence")
+    private LocalDate nextOccurrence;
+
+    // Template an instance was copied from
+    @Column(name = "template_id")
+    private UUID templateId;
+
+    // Recomputed on every insert and update, so no write path can skip them
+    @PrePersist
+    @PreUpdate
+    void beforeWrite() {
+        contentHash = TransactionContentHash.of(userId, name, description, amount, date, recurrent);
+        scheduleRecurrence();
+    }
+
+    // A new template starts one period after its own date, which is the first occurrence
+    private void scheduleRecurrence() {
+        if (recurrenceFrequency == null || !Boolean.TRUE.equals(recurrent)) {
+            recurrenceFrequency = null;
+            recurrenceDay = null;
+            nextOccurrence = null;
+            return;
+        }
+        if (recurrenceDay == null && recurrenceFrequency != RecurrenceFrequencyType.WEEKLY) {
+            recurrenceDay = date.getDayOfMonth();
+        }
+        if (nextOccurrence == null) {
+            nextOccurrence = recurrenceFrequency.next(date, recurrenceDay);
+        }
+    }
 }
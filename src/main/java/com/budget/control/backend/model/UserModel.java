@@ -23,7 +23,7 @@ public class UserModel {
 
     @Id
     @Column(name = "id")
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidV7
     private UUID id;
 
     @Column(name = "first_name", nullable = false, length = 50)
@@ -70,6 +70,12 @@ public class UserModel {
     @Column(name = "updated_at", nullable = false)
     private LocalDateTime updatedAt;
 
+    // Optimistic lock, incremented by every update and exposed as the ETag checked by If-Match
+    // The default fills the rows written before the column existed and the inserts done in plain SQL
+    @Version
+    @Column(name = "version", nullable = false, columnDefinition = "bigint default 0")
+    private Long version;
+
     @LastModifiedDate
     @Column(name = "invited_at")
     private LocalDateTime invitedAt;
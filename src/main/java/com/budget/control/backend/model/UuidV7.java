@@ -0,0 +1,16 @@
+package com.budget.control.backend.model;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Identifier generated as a time-ordered UUID version 7, see UuidV7Generator
+// New rows get increasing keys, so inserts append to the right edge of the primary key index
+@IdGeneratorType(UuidV7Generator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface UuidV7 {
+}
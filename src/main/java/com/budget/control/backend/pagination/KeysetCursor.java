@@ -0,0 +1,54 @@
+package com.budget.control.backend.pagination;
+
+import com.budget.control.backend.exception.InvalidFieldException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.UUID;
+
+// Position of the last row of a page, ordered by date then id (both descending)
+// It travels to the client as an opaque base64 string and comes back on the next request
+public record KeysetCursor(LocalDate date, UUID id) {
+
+    // Order used by every keyset paged query, the cursor predicate relies on it
+    public static final Sort SORT = Sort.by(Sort.Order.desc("date"), Sort.Order.desc("id"));
+
+    // Encode the cursor to an opaque url safe string
+    public String encode() {
+        String raw = date + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Decode a cursor received from the client, null or empty means the first page
+    public static KeysetCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            if (separator < 0) {
+                throw new InvalidFieldException("Invalid cursor: " + cursor);
+            }
+            return new KeysetCursor(LocalDate.parse(raw.substring(0, separator)), UUID.fromString(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new InvalidFieldException("Invalid cursor: " + cursor);
+        }
+    }
+
+    // Rows strictly after the cursor in (date desc, id desc) order
+    // (date < cursor.date) or (date = cursor.date and id < cursor.id)
+    public <T> Specification<T> after() {
+        return (root, query, criteriaBuilder) -> criteriaBuilder.or(
+                criteriaBuilder.lessThan(root.<LocalDate>get("date"), date),
+                criteriaBuilder.and(
+                        criteriaBuilder.equal(root.get("date"), date),
+                        criteriaBuilder.lessThan(root.<UUID>get("id"), id)
+                )
+        );
+    }
+}
@@ -0,0 +1,42 @@
+package com.budget.control.backend.pagination;
+
+import com.budget.control.backend.exception.InvalidFieldException;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+
+// One page of a keyset paged query and the cursor pointing after its last row
+public record KeysetPage<T>(List<T> content, KeysetCursor nextCursor) {
+
+    public static final int DEFAULT_LIMIT = 50;
+    public static final int MAX_LIMIT = 500;
+
+    // Resolve the requested page size, falling back to the default one
+    public static int resolveLimit(Integer limit) {
+        if (limit == null) {
+            return DEFAULT_LIMIT;
+        }
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new InvalidFieldException("Limit must be between 1 and " + MAX_LIMIT + ".");
+        }
+        return limit;
+    }
+
+    // Build a page from a query that fetched limit + 1 rows
+    // The extra row only tells that there is a next page, it is never returned
+    public static <T> KeysetPage<T> of(List<T> rows, int limit, Function<T, LocalDate> date, Function<T, UUID> id) {
+        if (rows.size() <= limit) {
+            return new KeysetPage<>(rows, null);
+        }
+        List<T> content = rows.subList(0, limit);
+        T last = content.get(limit - 1);
+        return new KeysetPage<>(content, new KeysetCursor(date.apply(last), id.apply(last)));
+    }
+
+    // Map the content keeping the cursor
+    public <R> KeysetPage<R> map(Function<T, R> mapper) {
+        return new KeysetPage<>(content.stream().map(mapper).toList(), nextCursor);
+    }
+}
@@ -0,0 +1,67 @@
+package com.budget.control.backend.pagination;
+
+import com.budget.control.backend.exception.InvalidFieldException;
+import com.budget.control.backend.type.TransactionKindType;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.UUID;
+
+// Position of the last entry of a ledger page and the running balance after it
+// Ledger entries are ordered by date, then kind, then id (all ascending); carrying the balance
+// in the cursor lets the next page continue the running balance without summing the previous pages
+public record LedgerCursor(LocalDate date, TransactionKindType kind, UUID id, BigDecimal balance) {
+
+    // Order of the rows of each source, kind is constant inside a source
+    public static final Sort SORT = Sort.by(Sort.Order.asc("date"), Sort.Order.asc("id"));
+
+    public String encode() {
+        String raw = date + "|" + kind + "|" + id + "|" + balance.toPlainString();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Decode a cursor received from the client, null or empty means the first page
+    public static LedgerCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+            if (parts.length != 4) {
+                throw new InvalidFieldException("Invalid cursor: " + cursor);
+            }
+            return new LedgerCursor(
+                    LocalDate.parse(parts[0]),
+                    TransactionKindType.valueOf(parts[1]),
+                    UUID.fromString(parts[2]),
+                    new BigDecimal(parts[3]));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new InvalidFieldException("Invalid cursor: " + cursor);
+        }
+    }
+
+    // Rows of the given source that come after the cursor in (date, kind, id) order
+    public <T> Specification<T> after(TransactionKindType sourceKind) {
+        int kindOrder = sourceKind.compareTo(kind);
+        return (root, query, criteriaBuilder) -> {
+            if (kindOrder > 0) {
+                return criteriaBuilder.greaterThanOrEqualTo(root.get("date"), date);
+            }
+            if (kindOrder < 0) {
+                return criteriaBuilder.greaterThan(root.get("date"), date);
+            }
+            return criteriaBuilder.or(
+                    criteriaBuilder.greaterThan(root.get("date"), date),
+                    criteriaBuilder.and(
+                            criteriaBuilder.equal(root.get("date"), date),
+                            criteriaBuilder.greaterThan(root.<UUID>get("id"), id)
+                    )
+            );
+        };
+    }
+}
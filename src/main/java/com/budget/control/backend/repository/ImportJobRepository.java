@@ -0,0 +1,25 @@
+package com.budget.control.backend.repository;
+
+import com.budget.control.backend.model.ImportJobModel;
+import com.budget.control.backend.type.ImportJobStatusType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+public interface ImportJobRepository extends JpaRepository<ImportJobModel, UUID> {
+
+    //Jobs of a user (or without owner when userId is null) in one of the statuses
+    @Query("SELECT COUNT(j) FROM ImportJobModel j WHERE j.status IN :statuses " +
+            "AND ((:userId IS NULL AND j.userId IS NULL) OR j.userId = :userId)")
+    long countByUserAndStatusIn(@Param("userId") UUID userId, @Param("statuses") Collection<ImportJobStatusType> statuses);
+
+    //Jobs in one of the statuses whose lease expired, or that never had one, oldest first
+    @Query("SELECT j FROM ImportJobModel j WHERE j.status IN :statuses " +
+            "AND (j.leaseUntil IS NULL OR j.leaseUntil < :now) ORDER BY j.createdAt")
+    List<ImportJobModel> findUnclaimed(@Param("statuses") Collection<ImportJobStatusType> statuses, @Param("now") LocalDateTime now);
+}
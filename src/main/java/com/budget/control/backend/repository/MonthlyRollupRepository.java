@@ -0,0 +1,40 @@
+package com.budget.control.backend.repository;
+
+import com.budget.control.backend.model.MonthlyRollupModel;
+import com.budget.control.backend.repository.projection.TransactionSummaryProjection;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+public interface MonthlyRollupRepository extends JpaRepository<MonthlyRollupModel, UUID> {
+
+    //Sum and count per category of one transaction kind between two months, optionally for a single user
+    @Query(value = """
+            SELECT r.category AS bucket, SUM(r.total_amount) AS total, CAST(SUM(r.transaction_count) AS bigint) AS count
+            FROM monthly_rollup r
+            WHERE r.transaction_kind = :kind
+              AND r.month BETWEEN :fromMonth AND :toMonth
+              AND (CAST(:userId AS uuid) IS NULL OR r.user_id = CAST(:userId AS uuid))
+            GROUP BY r.category
+            HAVING SUM(r.transaction_count) <> 0
+            """, nativeQuery = true)
+    List<TransactionSummaryProjection> summarizeByCategory(@Param("kind") String kind, @Param("fromMonth") LocalDate fromMonth,
+                                                           @Param("toMonth") LocalDate toMonth, @Param("userId") UUID userId);
+
+    //Sum and count per month of one transaction kind between two months, optionally for a single user
+    @Query(value = """
+            SELECT to_char(r.month, 'YYYY-MM') AS bucket, SUM(r.total_amount) AS total, CAST(SUM(r.transaction_count) AS bigint) AS count
+            FROM monthly_rollup r
+            WHERE r.transaction_kind = :kind
+              AND r.month BETWEEN :fromMonth AND :toMonth
+              AND (CAST(:userId AS uuid) IS NULL OR r.user_id = CAST(:userId AS uuid))
+            GROUP BY 1
+            HAVING SUM(r.transaction_count) <> 0
+            """, nativeQuery = true)
+    List<TransactionSummaryProjection> summarizeByMonth(@Param("kind") String kind, @Param("fromMonth") LocalDate fromMonth,
+                                                        @Param("toMonth") LocalDate toMonth, @Param("userId") UUID userId);
+}
@@ -1,17 +1,45 @@
 package com.budget.control.backend.repository;
 
 import com.budget.control.backend.model.TransactionIncomeModel;
-import com.budget.control.backend.type.TransactionIncomeType;
+import com.budget.control.backend.repository.projection.TransactionSummaryProjection;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
-import java.util.Optional;
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
 
 public interface TransactionIncomeRepository extends JpaRepository<TransactionIncomeModel, UUID>, JpaSpecificationExecutor<TransactionIncomeModel> {
-    //Find transaction income by name and description and amount and date
-    Optional<TransactionIncomeModel> findByNameAndDescriptionAndAmountAndDate(TransactionIncomeType name, String description, BigDecimal amount, LocalDate date);
+    //Sum and count of income transactions per category in a date range, optionally for a single user
+    @Query(value = """
+            SELECT t.name AS bucket, SUM(t.amount) AS total, COUNT(*) AS count
+            FROM transaction_income t
+            WHERE t.date BETWEEN :from AND :to
+              AND (CAST(:userId AS uuid) IS NULL OR t.user_id = CAST(:userId AS uuid))
+            GROUP BY t.name
+            """, nativeQuery = true)
+    List<TransactionSummaryProjection> summarizeByCategory(@Param("from") LocalDate from, @Param("to") LocalDate to, @Param("userId") UUID userId);
 
+    //Sum and count of income transactions per period (date_trunc field) in a date range, optionally for a single user
+    @Query(value = """
+            SELECT to_char(date_trunc(:field, t.date), :pattern) AS bucket, SUM(t.amount) AS total, COUNT(*) AS count
+            FROM transaction_income t
+            WHERE t.date BETWEEN :from AND :to
+              AND (CAST(:userId AS uuid) IS NULL OR t.user_id = CAST(:userId AS uuid))
+            GROUP BY 1
+            """, nativeQuery = true)
+    List<TransactionSummaryProjection> summarizeByPeriod(@Param("field") String field, @Param("pattern") String pattern,
+                                                         @Param("from") LocalDate from, @Param("to") LocalDate to, @Param("userId") UUID userId);
+
+    //Sum of the income amounts before a date, optionally for a single user
+    @Query("SELECT COALESCE(SUM(t.amount), 0) FROM TransactionIncomeModel t WHERE t.date < :date AND (:userId IS NULL OR t.userId = :userId)")
+    BigDecimal sumAmountBefore(@Param("date") LocalDate date, @Param("userId") UUID userId);
+
+    //Content hashes among the given ones that already exist, used by the batch insert to find duplicates in one query
+    @Query("SELECT t.contentHash FROM TransactionIncomeModel t WHERE t.contentHash IN :contentHashes")
+    List<String> findExistingContentHashes(@Param("contentHashes") Collection<String> contentHashes);
 }
@@ -0,0 +1,13 @@
+package com.budget.control.backend.repository.projection;
+
+import java.math.BigDecimal;
+
+// One aggregated row of a summary query: the bucket key (category or period), the sum of the amounts and the number of rows
+public interface TransactionSummaryProjection {
+
+    String getBucket();
+
+    BigDecimal getTotal();
+
+    Long getCount();
+}
@@ -0,0 +1,21 @@
+package com.budget.control.backend.security;
+
+import com.budget.control.backend.type.UserRoleType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.Optional;
+import java.util.UUID;
+
+// Principal set by the token filter, built from the token claims only, no database lookup
+public record AuthenticatedUser(UUID id, UserRoleType role) {
+
+    // User of the current request, empty when no valid access token was sent
+    public static Optional<AuthenticatedUser> current() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser user) {
+            return Optional.of(user);
+        }
+        return Optional.empty();
+    }
+}
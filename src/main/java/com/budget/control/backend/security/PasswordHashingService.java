@@ -0,0 +1,122 @@
+package com.budget.control.backend.security;
+
+import com.budget.control.backend.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Runs the BCrypt hashing and verification on a dedicated, size limited pool
+// The CPU spent on passwords is capped by the pool size, the request threads stay available for the other endpoints
+// Once the queue is full new work fails fast with a 503 instead of piling up
+@Service
+public class PasswordHashingService {
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor executor;
+    private final Duration timeout;
+    private final long retryAfterSeconds;
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+    private final Counter rejectedCounter;
+
+    public PasswordHashingService(
+            PasswordEncoder passwordEncoder,
+            MeterRegistry meterRegistry,
+            @Value("${budget.password-hashing.pool-size:0}") int poolSize,
+            @Value("${budget.password-hashing.queue-capacity:64}") int queueCapacity,
+            @Value("${budget.password-hashing.timeout:5s}") Duration timeout,
+            @Value("${budget.password-hashing.retry-after:2s}") Duration retryAfter
+    ) {
+        this.passwordEncoder = passwordEncoder;
+        this.timeout = timeout;
+        this.retryAfterSeconds = Math.max(1, retryAfter.toSeconds());
+
+        // Default to half of the cores, hashing is pure CPU work
+        int threads = poolSize > 0 ? poolSize : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.encodeTimer = Timer.builder("budget.password.hashing")
+                .description("Time spent hashing or verifying a password, queue wait excluded")
+                .tag("operation", "encode")
+                .register(meterRegistry);
+        this.matchesTimer = Timer.builder("budget.password.hashing")
+                .description("Time spent hashing or verifying a password, queue wait excluded")
+                .tag("operation", "matches")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("budget.password.hashing.rejected")
+                .description("Password operations rejected because the hashing queue was full")
+                .register(meterRegistry);
+        Gauge.builder("budget.password.hashing.queue.size", executor, e -> e.getQueue().size())
+                .description("Password operations waiting for a hashing thread")
+                .register(meterRegistry);
+        Gauge.builder("budget.password.hashing.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Hashing threads currently busy")
+                .register(meterRegistry);
+    }
+
+    // Hash a raw password
+    public String encode(String rawPassword) {
+        return execute(() -> encodeTimer.record(() -> passwordEncoder.encode(rawPassword)));
+    }
+
+    // Verify a raw password against a stored hash
+    public boolean matches(String rawPassword, String encodedPassword) {
+        return execute(() -> matchesTimer.record(() -> passwordEncoder.matches(rawPassword, encodedPassword)));
+    }
+
+    private <T> T execute(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            throw new ServiceUnavailableException("Too many authentication requests, try again later.", retryAfterSeconds);
+        }
+
+        try {
+            return future.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new ServiceUnavailableException("Authentication is taking too long, try again later.", retryAfterSeconds);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Authentication was interrupted, try again later.", retryAfterSeconds);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,67 @@
+package com.budget.control.backend.security;
+
+import com.budget.control.backend.controller.dto.error.ErrorResponse;
+import com.budget.control.backend.exception.InvalidTokenException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+
+// Authenticates requests carrying a "Bearer" access token, without touching the database
+// Requests without a token go through unauthenticated, the authorization rules decide what they can reach
+public class TokenAuthenticationFilter extends OncePerRequestFilter {
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final TokenService tokenService;
+    private final ObjectMapper objectMapper;
+
+    public TokenAuthenticationFilter(TokenService tokenService, ObjectMapper objectMapper) {
+        this.tokenService = tokenService;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String authorization = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (authorization == null || !authorization.regionMatches(true, 0, BEARER_PREFIX, 0, BEARER_PREFIX.length())) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        AuthenticatedUser user;
+        try {
+            user = tokenService
+                    .verify(authorization.substring(BEARER_PREFIX.length()).trim(), TokenService.ACCESS)
+                    .toAuthenticatedUser();
+        } catch (InvalidTokenException e) {
+            // A token that was sent but does not verify is rejected instead of silently ignored
+            var errorDTO = ErrorResponse.unauthorizedResponse(e.getMessage());
+            response.setStatus(errorDTO.status());
+            response.setHeader(HttpHeaders.WWW_AUTHENTICATE, "Bearer error=\"invalid_token\"");
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            objectMapper.writeValue(response.getOutputStream(), errorDTO);
+            return;
+        }
+
+        List<SimpleGrantedAuthority> authorities = user.role() != null
+                ? List.of(new SimpleGrantedAuthority("ROLE_" + user.role().name()))
+                : List.of();
+        SecurityContext context = SecurityContextHolder.createEmptyContext();
+        context.setAuthentication(new UsernamePasswordAuthenticationToken(user, null, authorities));
+        SecurityContextHolder.setContext(context);
+        filterChain.doFilter(request, response);
+    }
+}
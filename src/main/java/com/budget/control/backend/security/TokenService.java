@@ -0,0 +1,176 @@
+package com.budget.control.backend.security;
+
+import com.budget.control.backend.exception.InvalidTokenException;
+import com.budget.control.backend.model.UserModel;
+import com.budget.control.backend.type.UserRoleType;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.UUID;
+
+// Issues and verifies the stateless HMAC-SHA256 signed tokens (JWT compact format, HS256)
+// Verification is a signature check and a small JSON parse, the password is only hashed at login
+@Service
+public class TokenService {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenService.class);
+
+    public static final String ACCESS = "access";
+    public static final String REFRESH = "refresh";
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int MIN_SECRET_BYTES = 32;
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+    // Only one header is ever issued, a token carrying any other header is rejected as is
+    private static final String HEADER = ENCODER.encodeToString(
+            "{\"alg\":\"HS256\",\"typ\":\"JWT\"}".getBytes(StandardCharsets.UTF_8));
+
+    private final ObjectMapper objectMapper;
+    private final SecretKeySpec key;
+    private final Mac prototype;
+    private final Duration accessTokenTtl;
+    private final Duration refreshTokenTtl;
+
+    public TokenService(
+            ObjectMapper objectMapper,
+            @Value("${budget.security.token.secret:}") String secret,
+            @Value("${budget.security.token.access-ttl:15m}") Duration accessTokenTtl,
+            @Value("${budget.security.token.refresh-ttl:7d}") Duration refreshTokenTtl
+    ) {
+        this.objectMapper = objectMapper;
+        this.accessTokenTtl = accessTokenTtl;
+        this.refreshTokenTtl = refreshTokenTtl;
+        this.key = secretKey(secret);
+        this.prototype = createMac(key);
+    }
+
+    // Access and refresh tokens for a user that just proved its credentials
+    public IssuedTokens issue(UserModel userModel) {
+        Instant now = Instant.now();
+        String role = userModel.getRole() != null ? userModel.getRole().name() : null;
+        String accessToken = sign(new TokenClaims(userModel.getId(), role, ACCESS,
+                now.getEpochSecond(), now.plus(accessTokenTtl).getEpochSecond()));
+        String refreshToken = sign(new TokenClaims(userModel.getId(), role, REFRESH,
+                now.getEpochSecond(), now.plus(refreshTokenTtl).getEpochSecond()));
+        return new IssuedTokens(accessToken, refreshToken, accessTokenTtl.toSeconds());
+    }
+
+    // Claims of a token with a valid signature, of the expected type and not expired
+    public TokenClaims verify(String token, String expectedType) {
+        if (token == null) {
+            throw new InvalidTokenException("Missing token.");
+        }
+        int firstDot = token.indexOf('.');
+        int lastDot = token.lastIndexOf('.');
+        if (firstDot < 0 || firstDot == lastDot || !HEADER.equals(token.substring(0, firstDot))) {
+            throw new InvalidTokenException("Malformed token.");
+        }
+
+        byte[] signature;
+        byte[] payload;
+        try {
+            signature = DECODER.decode(token.substring(lastDot + 1));
+            payload = DECODER.decode(token.substring(firstDot + 1, lastDot));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidTokenException("Malformed token.");
+        }
+        // Constant time comparison, the signature is checked before the payload is even parsed
+        byte[] expected = mac(token.substring(0, lastDot));
+        if (!MessageDigest.isEqual(expected, signature)) {
+            throw new InvalidTokenException("Invalid token signature.");
+        }
+
+        TokenClaims claims;
+        try {
+            claims = objectMapper.readValue(payload, TokenClaims.class);
+        } catch (Exception e) {
+            throw new InvalidTokenException("Malformed token.");
+        }
+        if (!expectedType.equals(claims.typ())) {
+            throw new InvalidTokenException("Invalid token type.");
+        }
+        if (Instant.now().getEpochSecond() >= claims.exp()) {
+            throw new InvalidTokenException("Token expired.");
+        }
+        return claims;
+    }
+
+    private String sign(TokenClaims claims) {
+        try {
+            String unsigned = HEADER + "." + ENCODER.encodeToString(objectMapper.writeValueAsBytes(claims));
+            return unsigned + "." + ENCODER.encodeToString(mac(unsigned));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize token claims", e);
+        }
+    }
+
+    // Mac instances are not thread safe, each call works on a clone of the initialized prototype
+    private byte[] mac(String content) {
+        Mac mac;
+        try {
+            mac = (Mac) prototype.clone();
+        } catch (CloneNotSupportedException e) {
+            mac = createMac(key);
+        }
+        return mac.doFinal(content.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static Mac createMac(SecretKeySpec key) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Could not initialize " + ALGORITHM, e);
+        }
+    }
+
+    private static SecretKeySpec secretKey(String secret) {
+        byte[] key;
+        if (secret == null || secret.isBlank()) {
+            // Tokens signed with a random key do not survive a restart and are not accepted by other instances
+            log.warn("budget.security.token.secret is not set, using a random key for this run only");
+            key = new byte[MIN_SECRET_BYTES];
+            new SecureRandom().nextBytes(key);
+        } else {
+            key = secret.getBytes(StandardCharsets.UTF_8);
+            if (key.length < MIN_SECRET_BYTES) {
+                throw new IllegalStateException("budget.security.token.secret must be at least " + MIN_SECRET_BYTES + " bytes");
+            }
+        }
+        return new SecretKeySpec(key, ALGORITHM);
+    }
+
+    // Payload of a token, short claim names as in JWT
+    public record TokenClaims(UUID sub, String role, String typ, long iat, long exp) {
+
+        public AuthenticatedUser toAuthenticatedUser() {
+            UserRoleType userRoleType = null;
+            if (role != null) {
+                try {
+                    userRoleType = UserRoleType.valueOf(role);
+                } catch (IllegalArgumentException e) {
+                    throw new InvalidTokenException("Invalid token role.");
+                }
+            }
+            return new AuthenticatedUser(sub, userRoleType);
+        }
+    }
+
+    public record IssuedTokens(String accessToken, String refreshToken, long expiresIn) {
+    }
+}
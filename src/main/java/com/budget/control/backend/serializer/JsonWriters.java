@@ -0,0 +1,196 @@
+package com.budget.control.backend.serializer;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Writers for the value types of the response DTOs that format straight into a char buffer
+// The output is the same as the default Jackson serializers (JavaTimeModule with WRITE_DATES_AS_TIMESTAMPS off,
+// BigDecimal.toString), values they cannot format exactly fall back to those
+final class JsonWriters {
+
+    // Large enough for any value written here: a UUID (36), a date time with nanoseconds (29), a long amount (21)
+    static final int BUFFER_SIZE = 40;
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private JsonWriters() {
+    }
+
+    // Field names and enum names, encoded once
+    static SerializableString name(String value) {
+        return new SerializedString(value);
+    }
+
+    static SerializableString[] enumNames(Class<? extends Enum<?>> type) {
+        Enum<?>[] constants = type.getEnumConstants();
+        SerializableString[] names = new SerializableString[constants.length];
+        for (Enum<?> constant : constants) {
+            names[constant.ordinal()] = new SerializedString(constant.name());
+        }
+        return names;
+    }
+
+    static void writeEnum(JsonGenerator generator, Enum<?> value, SerializableString[] names) throws IOException {
+        if (value == null) {
+            generator.writeNull();
+        } else {
+            generator.writeString(names[value.ordinal()]);
+        }
+    }
+
+    static void writeString(JsonGenerator generator, String value) throws IOException {
+        if (value == null) {
+            generator.writeNull();
+        } else {
+            generator.writeString(value);
+        }
+    }
+
+    static void writeBoolean(JsonGenerator generator, Boolean value) throws IOException {
+        if (value == null) {
+            generator.writeNull();
+        } else {
+            generator.writeBoolean(value);
+        }
+    }
+
+    static void writeInteger(JsonGenerator generator, Integer value) throws IOException {
+        if (value == null) {
+            generator.writeNull();
+        } else {
+            generator.writeNumber(value);
+        }
+    }
+
+    // 8-4-4-4-12 lower case hex digits
+    static void writeUuid(JsonGenerator generator, UUID value, char[] buffer) throws IOException {
+        if (value == null) {
+            generator.writeNull();
+            return;
+        }
+        long most = value.getMostSignificantBits();
+        long least = value.getLeastSignificantBits();
+        hex(buffer, 0, most >>> 32, 8);
+        buffer[8] = '-';
+        hex(buffer, 9, most >>> 16, 4);
+        buffer[13] = '-';
+        hex(buffer, 14, most, 4);
+        buffer[18] = '-';
+        hex(buffer, 19, least >>> 48, 4);
+        buffer[23] = '-';
+        hex(buffer, 24, least, 12);
+        generator.writeString(buffer, 0, 36);
+    }
+
+    // Plain decimal notation, the same digits as BigDecimal.toString for the scales and magnitudes it writes plainly
+    static void writeAmount(JsonGenerator generator, BigDecimal value, char[] buffer) throws IOException {
+        if (value == null) {
+            generator.writeNull();
+            return;
+        }
+        int scale = value.scale();
+        int precision = value.precision();
+        // toString switches to exponent notation below an adjusted exponent of -6, and a long holds 18 digits
+        if (scale < 0 || scale > 18 || precision > 18 || precision - scale - 1 < -6) {
+            generator.writeNumber(value);
+            return;
+        }
+        long unscaled = value.unscaledValue().longValue();
+        int length = 0;
+        if (unscaled < 0) {
+            buffer[length++] = '-';
+            unscaled = -unscaled;
+        }
+        // Digits are written backwards from the end of the number
+        int digits = Math.max(scale + 1, precision);
+        int end = length + digits + (scale > 0 ? 1 : 0);
+        int position = end;
+        for (int i = 0; i < digits; i++) {
+            if (i == scale && scale > 0) {
+                buffer[--position] = '.';
+            }
+            buffer[--position] = (char) ('0' + unscaled % 10);
+            unscaled /= 10;
+        }
+        generator.writeNumber(buffer, 0, end);
+    }
+
+    // yyyy-MM-dd
+    static void writeDate(JsonGenerator generator, LocalDate value, char[] buffer) throws IOException {
+        if (value == null) {
+            generator.writeNull();
+            return;
+        }
+        if (value.getYear() < 0 || value.getYear() > 9999) {
+            generator.writeString(value.toString());
+            return;
+        }
+        generator.writeString(buffer, 0, date(buffer, 0, value.getYear(), value.getMonthValue(), value.getDayOfMonth()));
+    }
+
+    // yyyy-MM-ddTHH:mm:ss with the fraction of second only when not zero and without its trailing zeros,
+    // as DateTimeFormatter.ISO_LOCAL_DATE_TIME
+    static void writeDateTime(JsonGenerator generator, LocalDateTime value, char[] buffer) throws IOException {
+        if (value == null) {
+            generator.writeNull();
+            return;
+        }
+        if (value.getYear() < 0 || value.getYear() > 9999) {
+            generator.writeString(value.toString());
+            return;
+        }
+        int length = date(buffer, 0, value.getYear(), value.getMonthValue(), value.getDayOfMonth());
+        buffer[length++] = 'T';
+        length = twoDigits(buffer, length, value.getHour());
+        buffer[length++] = ':';
+        length = twoDigits(buffer, length, value.getMinute());
+        buffer[length++] = ':';
+        length = twoDigits(buffer, length, value.getSecond());
+        int nano = value.getNano();
+        if (nano > 0) {
+            buffer[length++] = '.';
+            int digits = 9;
+            while (nano % 10 == 0) {
+                nano /= 10;
+                digits--;
+            }
+            for (int i = length + digits - 1; i >= length; i--) {
+                buffer[i] = (char) ('0' + nano % 10);
+                nano /= 10;
+            }
+            length += digits;
+        }
+        generator.writeString(buffer, 0, length);
+    }
+
+    private static int date(char[] buffer, int offset, int year, int month, int day) {
+        buffer[offset] = (char) ('0' + year / 1000);
+        buffer[offset + 1] = (char) ('0' + year / 100 % 10);
+        buffer[offset + 2] = (char) ('0' + year / 10 % 10);
+        buffer[offset + 3] = (char) ('0' + year % 10);
+        buffer[offset + 4] = '-';
+        twoDigits(buffer, offset + 5, month);
+        buffer[offset + 7] = '-';
+        return twoDigits(buffer, offset + 8, day);
+    }
+
+    private static int twoDigits(char[] buffer, int offset, int value) {
+        buffer[offset] = (char) ('0' + value / 10);
+        buffer[offset + 1] = (char) ('0' + value % 10);
+        return offset + 2;
+    }
+
+    private static void hex(char[] buffer, int offset, long value, int digits) {
+        for (int i = offset + digits - 1; i >= offset; i--) {
+            buffer[i] = HEX[(int) (value & 0xF)];
+            value >>>= 4;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.budget.control.backend.serializer;
+
+import com.budget.control.backend.controller.dto.response.TransactionBenefitResponseDTO;
+import com.budget.control.backend.type.TransactionBenefitType;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+// Writes TransactionBenefitResponseDTO field by field with the names and enum values encoded once,
+// instead of the reflective bean serializer, the JSON is the same
+public class TransactionBenefitResponseSerializer extends StdSerializer<TransactionBenefitResponseDTO> {
+
+    private static final SerializableString ID = JsonWriters.name("id");
+    private static final SerializableString NAME = JsonWriters.name("name");
+    private static final SerializableString DESCRIPTION = JsonWriters.name("description");
+    private static final SerializableString AMOUNT = JsonWriters.name("amount");
+    private static final SerializableString DATE = JsonWriters.name("date");
+    private static final SerializableString CREATED_AT = JsonWriters.name("createdAt");
+    private static final SerializableString UPDATED_AT = JsonWriters.name("updatedAt");
+    private static final SerializableString USER_ID = JsonWriters.name("userId");
+
+    private static final SerializableString[] NAMES = JsonWriters.enumNames(TransactionBenefitType.class);
+
+    public TransactionBenefitResponseSerializer() {
+        super(TransactionBenefitResponseDTO.class);
+    }
+
+    @Override
+    public void serialize(TransactionBenefitResponseDTO value, JsonGenerator generator, SerializerProvider provider) throws IOException {
+        char[] buffer = new char[JsonWriters.BUFFER_SIZE];
+        generator.writeStartObject(value);
+        generator.writeFieldName(ID);
+        JsonWriters.writeUuid(generator, value.id(), buffer);
+        generator.writeFieldName(NAME);
+        JsonWriters.writeEnum(generator, value.name(), NAMES);
+        generator.writeFieldName(DESCRIPTION);
+        JsonWriters.writeString(generator, value.description());
+        generator.writeFieldName(AMOUNT);
+        JsonWriters.writeAmount(generator, value.amount(), buffer);
+        generator.writeFieldName(DATE);
+        JsonWriters.writeDate(generator, value.date(), buffer);
+        generator.writeFieldName(CREATED_AT);
+        JsonWriters.writeDateTime(generator, value.createdAt(), buffer);
+        generator.writeFieldName(UPDATED_AT);
+        JsonWriters.writeDateTime(generator, value.updatedAt(), buffer);
+        generator.writeFieldName(USER_ID);
+        JsonWriters.writeUuid(generator, value.userId(), buffer);
+        generator.writeEndObject();
+    }
+}
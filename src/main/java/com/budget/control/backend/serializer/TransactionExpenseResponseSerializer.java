@@ -0,0 +1,70 @@
+package com.budget.control.backend.serializer;
+
+import com.budget.control.backend.controller.dto.response.TransactionExpenseResponseDTO;
+import com.budget.control.backend.type.RecurrenceFrequencyType;
+import com.budget.control.backend.type.TransactionExpenseType;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+// Writes TransactionExpenseResponseDTO field by field with the names and enum values encoded once,
+// instead of the reflective bean serializer, the JSON is the same
+public class TransactionExpenseResponseSerializer extends StdSerializer<TransactionExpenseResponseDTO> {
+
+    private static final SerializableString ID = JsonWriters.name("id");
+    private static final SerializableString NAME = JsonWriters.name("name");
+    private static final SerializableString DESCRIPTION = JsonWriters.name("description");
+    private static final SerializableString AMOUNT = JsonWriters.name("amount");
+    private static final SerializableString DATE = JsonWriters.name("date");
+    private static final SerializableString RECURRENT = JsonWriters.name("recurrent");
+    private static final SerializableString CREATED_AT = JsonWriters.name("createdAt");
+    private static final SerializableString UPDATED_AT = JsonWriters.name("updatedAt");
+    private static final SerializableString USER_ID = JsonWriters.name("userId");
+    private static final SerializableString RECURRENCE_FREQUENCY = JsonWriters.name("recurrenceFrequency");
+    private static final SerializableString RECURRENCE_DAY = JsonWriters.name("recurrenceDay");
+    private static final SerializableString NEXT_OCCURRENCE = JsonWriters.name("nextOccurrence");
+    private static final SerializableString TEMPLATE_ID = JsonWriters.name("templateId");
+
+    private static final SerializableString[] NAMES = JsonWriters.enumNames(TransactionExpenseType.class);
+    private static final SerializableString[] FREQUENCIES = JsonWriters.enumNames(RecurrenceFrequencyType.class);
+
+    public TransactionExpenseResponseSerializer() {
+        super(TransactionExpenseResponseDTO.class);
+    }
+
+    @Override
+    public void serialize(TransactionExpenseResponseDTO value, JsonGenerator generator, SerializerProvider provider) throws IOException {
+        char[] buffer = new char[JsonWriters.BUFFER_SIZE];
+        generator.writeStartObject(value);
+        generator.writeFieldName(ID);
+        JsonWriters.writeUuid(generator, value.id(), buffer);
+        generator.writeFieldName(NAME);
+        JsonWriters.writeEnum(generator, value.name(), NAMES);
+        generator.writeFieldName(DESCRIPTION);
+        JsonWriters.writeString(generator, value.description());
+        generator.writeFieldName(AMOUNT);
+        JsonWriters.writeAmount(generator, value.amount(), buffer);
+        generator.writeFieldName(DATE);
+        JsonWriters.writeDate(generator, value.date(), buffer);
+        generator.writeFieldName(RECURRENT);
+        JsonWriters.writeBoolean(generator, value.recurrent());
+        generator.writeFieldName(CREATED_AT);
+        JsonWriters.writeDateTime(generator, value.createdAt(), buffer);
+        generator.writeFieldName(UPDATED_AT);
+        JsonWriters.writeDateTime(generator, value.updatedAt(), buffer);
+        generator.writeFieldName(USER_ID);
+        JsonWriters.writeUuid(generator, value.userId(), buffer);
+        generator.writeFieldName(RECURRENCE_FREQUENCY);
+        JsonWriters.writeEnum(generator, value.recurrenceFrequency(), FREQUENCIES);
+        generator.writeFieldName(RECURRENCE_DAY);
+        JsonWriters.writeInteger(generator, value.recurrenceDay());
+        generator.writeFieldName(NEXT_OCCURRENCE);
+        JsonWriters.writeDate(generator, value.nextOccurrence(), buffer);
+        generator.writeFieldName(TEMPLATE_ID);
+        JsonWriters.writeUuid(generator, value.templateId(), buffer);
+        generator.writeEndObject();
+    }
+}
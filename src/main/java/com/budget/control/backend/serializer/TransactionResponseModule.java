@@ -0,0 +1,18 @@
+package com.budget.control.backend.serializer;
+
+import com.budget.control.backend.controller.dto.response.TransactionBenefitResponseDTO;
+import com.budget.control.backend.controller.dto.response.TransactionExpenseResponseDTO;
+import com.budget.control.backend.controller.dto.response.TransactionIncomeResponseDTO;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+
+// Dedicated serializers of the transaction response DTOs, the records written the most by the list endpoints
+// They write every field (nulls included) in the record order, like the default serializer with the default settings
+public class TransactionResponseModule extends SimpleModule {
+
+    public TransactionResponseModule() {
+        super("TransactionResponseModule");
+        addSerializer(TransactionExpenseResponseDTO.class, new TransactionExpenseResponseSerializer());
+        addSerializer(TransactionIncomeResponseDTO.class, new TransactionIncomeResponseSerializer());
+        addSerializer(TransactionBenefitResponseDTO.class, new TransactionBenefitResponseSerializer());
+    }
+}
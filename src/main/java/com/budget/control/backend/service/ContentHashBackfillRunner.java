@@ -0,0 +1,54 @@
+package com.budget.control.backend.service;
+
+import com.budget.control.backend.model.TransactionContentHash;
+import com.budget.control.backend.type.TransactionKindType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+// Fill the content_hash of the transactions written before the column existed
+// When older rows are duplicates of each other only the oldest one gets the hash, the others keep a null hash
+// so the unique constraint can still hold, new writes are checked against all of them
+@Component
+public class ContentHashBackfillRunner implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(ContentHashBackfillRunner.class);
+
+    private static final String BACKFILL_SQL = """
+            UPDATE %1$s t
+            SET content_hash = h.hash
+            FROM (
+                SELECT id, hash, ROW_NUMBER() OVER (PARTITION BY hash ORDER BY created_at, id) AS rn
+                FROM (SELECT id, created_at, %2$s AS hash FROM %1$s WHERE content_hash IS NULL) s
+            ) h
+            WHERE t.id = h.id
+              AND h.rn = 1
+              AND NOT EXISTS (SELECT 1 FROM %1$s e WHERE e.content_hash = h.hash)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ContentHashBackfillRunner(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        for (TransactionKindType kind : TransactionKindType.values()) {
+            String table = kind.getTableName();
+            String hash = TransactionContentHash.sqlExpression(kind == TransactionKindType.EXPENSE);
+            int updated = jdbcTemplate.update(BACKFILL_SQL.formatted(table, hash));
+            if (updated > 0) {
+                log.info("Filled content_hash of {} rows in {}", updated, table);
+            }
+            Integer duplicates = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM " + table + " WHERE content_hash IS NULL", Integer.class);
+            if (duplicates != null && duplicates > 0) {
+                log.warn("{} rows in {} are duplicates written before content_hash existed and were left without a hash", duplicates, table);
+            }
+        }
+    }
+}
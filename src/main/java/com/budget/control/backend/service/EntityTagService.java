@@ -0,0 +1,79 @@
+package com.budget.control.backend.service;
+
+import com.budget.control.backend.etag.EntityTags;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+// Validator queries behind the conditional GETs
+// They read only the version or updated_at (and a count or the ids of one page), so answering 304 costs one small query
+// and no entity is hydrated
+@Timed("budget.service")
+@Service
+@Transactional(readOnly = true)
+public class EntityTagService {
+
+    // Dependency Injection
+    private final EntityManager entityManager;
+
+    public EntityTagService(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    // Tag of a single resource, empty when it does not exist
+    public <T> Optional<String> resourceTag(Class<T> type, UUID id) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = criteriaBuilder.createQuery(Long.class);
+        Root<T> root = query.from(type);
+        query.select(root.get("version")).where(criteriaBuilder.equal(root.get("id"), id));
+        List<Long> version = entityManager.createQuery(query).getResultList();
+        return version.isEmpty() ? Optional.empty() : Optional.of(EntityTags.forResource(id, version.getFirst()));
+    }
+
+    // Tag of the list of rows matching the specification
+    public <T> String listTag(Class<T> type, Specification<T> specification) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = criteriaBuilder.createTupleQuery();
+        Root<T> root = query.from(type);
+        query.multiselect(criteriaBuilder.count(root), criteriaBuilder.greatest(root.<LocalDateTime>get("updatedAt")));
+        Predicate predicate = specification.toPredicate(root, query, criteriaBuilder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        Tuple validator = entityManager.createQuery(query).getSingleResult();
+        return EntityTags.forList(validator.get(0, Long.class), validator.get(1, LocalDateTime.class));
+    }
+
+    // Tag of one page of the rows matching the specification, the first limit rows in the given order
+    // Reads the id and updated_at of those rows and of the one after them, which only tells that a next page exists,
+    // however many rows match after it
+    public <T> String pageTag(Class<T> type, Specification<T> specification, Sort sort, int limit) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = criteriaBuilder.createTupleQuery();
+        Root<T> root = query.from(type);
+        query.multiselect(root.get("id"), root.get("updatedAt"));
+        Predicate predicate = specification.toPredicate(root, query, criteriaBuilder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(QueryUtils.toOrders(sort, root, criteriaBuilder));
+        List<Tuple> rows = entityManager.createQuery(query).setMaxResults(limit + 1).getResultList();
+        boolean hasNext = rows.size() > limit;
+        return EntityTags.forPage(hasNext ? rows.subList(0, limit) : rows, hasNext,
+                row -> row.get(0, UUID.class), row -> row.get(1, LocalDateTime.class));
+    }
+}
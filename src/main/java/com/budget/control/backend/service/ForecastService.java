@@ -0,0 +1,280 @@
+package com.budget.control.backend.service;
+
+import com.budget.control.backend.config.CacheConfig;
+import com.budget.control.backend.controller.dto.response.ForecastCategoryAverageDTO;
+import com.budget.control.backend.controller.dto.response.ForecastDayDTO;
+import com.budget.control.backend.controller.dto.response.ForecastRecurringItemDTO;
+import com.budget.control.backend.controller.dto.response.ForecastResponseDTO;
+import com.budget.control.backend.forecast.ForecastInputs;
+import com.budget.control.backend.forecast.ForecastProjection;
+import com.budget.control.backend.type.RecurrenceFrequencyType;
+import com.budget.control.backend.type.TransactionKindType;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+// Projects the balance of a user day by day over the coming months
+// The inputs (balance, recurring items, category averages, transactions already dated in the future) are read with
+// a few aggregate queries and cached per user, the cache entry is evicted by MonthlyRollupService on every write
+// of that user, so a repeated forecast only runs the in memory projection on long cent arrays
+@Timed("budget.service")
+@Service
+public class ForecastService {
+
+    public static final int MAX_MONTHS = 36;
+
+    // Balance of the months before the current one, from the monthly rollup
+    private static final String ROLLUP_BALANCE_SQL = """
+            SELECT CAST(ROUND(COALESCE(SUM(CASE WHEN transaction_kind = 'EXPENSE' THEN -total_amount ELSE total_amount END), 0) * 100) AS bigint)
+            FROM monthly_rollup
+            WHERE user_id = ? AND month < ?
+            """;
+
+    // Same balance from the transaction tables, while the monthly rollup is not built yet
+    private static final String LIVE_BALANCE_SQL = """
+            SELECT CAST(ROUND((
+                       COALESCE((SELECT SUM(amount) FROM transaction_income WHERE user_id = ? AND date < ?), 0)
+                     + COALESCE((SELECT SUM(amount) FROM transaction_benefit WHERE user_id = ? AND date < ?), 0)
+                     - COALESCE((SELECT SUM(amount) FROM transaction_expense WHERE user_id = ? AND date < ?), 0)
+                   ) * 100) AS bigint)
+            """;
+
+    // Balance of the current month up to the given day, from the transaction tables
+    private static final String MONTH_BALANCE_SQL = """
+            SELECT CAST(ROUND((
+                       COALESCE((SELECT SUM(amount) FROM transaction_income WHERE user_id = ? AND date BETWEEN ? AND ?), 0)
+                     + COALESCE((SELECT SUM(amount) FROM transaction_benefit WHERE user_id = ? AND date BETWEEN ? AND ?), 0)
+                     - COALESCE((SELECT SUM(amount) FROM transaction_expense WHERE user_id = ? AND date BETWEEN ? AND ?), 0)
+                   ) * 100) AS bigint)
+            """;
+
+    // Transactions already entered with a date in the projected range
+    private static final String SCHEDULED_SQL = """
+            SELECT date, CAST(ROUND(SUM(income) * 100) AS bigint) AS income_cents, CAST(ROUND(SUM(expense) * 100) AS bigint) AS expense_cents
+            FROM (
+                SELECT date, amount AS income, 0 AS expense FROM transaction_income WHERE user_id = ? AND date > ? AND date <= ?
+                UNION ALL
+                SELECT date, amount, 0 FROM transaction_benefit WHERE user_id = ? AND date > ? AND date <= ?
+                UNION ALL
+                SELECT date, 0, amount FROM transaction_expense WHERE user_id = ? AND date > ? AND date <= ?
+            ) s
+            GROUP BY date
+            ORDER BY date
+            """;
+
+    // Expense templates, see RecurringTransactionService
+    private static final String EXPENSE_TEMPLATES_SQL = """
+            SELECT name, description, CAST(ROUND(amount * 100) AS bigint) AS cents, recurrence_frequency, recurrence_day, next_occurrence
+            FROM transaction_expense
+            WHERE user_id = ? AND next_occurrence IS NOT NULL
+            """;
+
+    // Expenses flagged recurrent without a rule, entered by hand every month: the last one of each is repeated monthly
+    // The last one may already be dated in the future, it is then a scheduled transaction and the repetition starts after it
+    private static final String RECURRENT_EXPENSES_SQL = """
+            SELECT name, description, CAST(ROUND(amount * 100) AS bigint) AS cents, MAX(date) AS last_date
+            FROM transaction_expense
+            WHERE user_id = ? AND recurrent AND recurrence_frequency IS NULL AND date > ?
+            GROUP BY name, description, amount
+            """;
+
+    // Incomes with the same category, description and amount in enough distinct months of the history,
+    // still seen recently, are taken as a monthly pattern
+    // Like the recurrent expenses, the repetition starts after the last one, future dated copies included
+    private static final String INCOME_PATTERNS_SQL = """
+            SELECT name, description, CAST(ROUND(amount * 100) AS bigint) AS cents, MAX(date) AS last_date,
+                   CAST(ROUND(COALESCE(SUM(amount) FILTER (WHERE date <= ?), 0) * 100) AS bigint) AS window_cents
+            FROM transaction_income
+            WHERE user_id = ? AND date >= ?
+            GROUP BY name, description, amount
+            HAVING COUNT(DISTINCT date_trunc('month', date)) FILTER (WHERE date <= ?) >= ?
+               AND MAX(date) FILTER (WHERE date <= ?) > ?
+            """;
+
+    // Totals per category over the history window, recurring expenses left out
+    private static final String CATEGORY_TOTALS_SQL = """
+            SELECT name, CAST(ROUND(SUM(amount) * 100) AS bigint) AS cents
+            FROM %s
+            WHERE user_id = ? AND date >= ? AND date <= ?%s
+            GROUP BY name
+            """;
+
+    // A recurring item not seen for longer than this is considered stopped
+    private static final int ACTIVE_DAYS = 40;
+
+    // Dependency Injection
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+    private final CacheManager cacheManager;
+    private final MonthlyRollupService monthlyRollupService;
+    private final int historyMonths;
+    private final int incomePatternMonths;
+
+    public ForecastService(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            CacheManager cacheManager,
+            MonthlyRollupService monthlyRollupService,
+            @Value("${budget.forecast.history-months:6}") int historyMonths,
+            @Value("${budget.forecast.income-pattern-months:3}") int incomePatternMonths
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        this.cacheManager = cacheManager;
+        this.monthlyRollupService = monthlyRollupService;
+        this.historyMonths = historyMonths;
+        this.incomePatternMonths = incomePatternMonths;
+    }
+
+    public ForecastResponseDTO getForecast(UUID userId, int months) {
+        ForecastInputs inputs = getInputs(userId);
+        ForecastProjection projection = ForecastProjection.project(inputs, months);
+
+        List<ForecastDayDTO> days = new ArrayList<>(projection.days());
+        long totalIncome = 0;
+        long totalExpense = 0;
+        int lowest = 0;
+        for (int i = 0; i < projection.days(); i++) {
+            totalIncome += projection.incomeCents(i);
+            totalExpense += projection.expenseCents(i);
+            if (projection.balanceCents(i) < projection.balanceCents(lowest)) {
+                lowest = i;
+            }
+            days.add(new ForecastDayDTO(projection.date(i), money(projection.incomeCents(i)),
+                    money(projection.expenseCents(i)), money(projection.balanceCents(i))));
+        }
+        int last = projection.days() - 1;
+
+        return new ForecastResponseDTO(
+                projection.from(),
+                projection.date(last),
+                money(projection.startingBalanceCents()),
+                money(projection.balanceCents(last)),
+                money(projection.balanceCents(lowest)),
+                projection.date(lowest),
+                money(totalIncome),
+                money(totalExpense),
+                inputs.recurringItems().stream()
+                        .map(item -> new ForecastRecurringItemDTO(item.kind(), item.category(), item.description(),
+                                money(item.amountCents()), item.frequency(), item.nextOccurrence()))
+                        .toList(),
+                inputs.categoryAverages().stream()
+                        .map(average -> new ForecastCategoryAverageDTO(average.kind(), average.category(),
+                                money(average.monthlyAverageCents())))
+                        .toList(),
+                days);
+    }
+
+    // Cached inputs of the user, read again when the day changed since they were cached
+    // Until the monthly rollup is built the balance is summed from the transaction tables and not cached,
+    // the build may run on another instance and only clears the forecasts cached there
+    private ForecastInputs getInputs(UUID userId) {
+        LocalDate today = LocalDate.now();
+        Cache cache = cacheManager.getCache(CacheConfig.FORECAST);
+        if (cache == null || !monthlyRollupService.isBuilt()) {
+            return readInputs(userId, today);
+        }
+        ForecastInputs inputs = cache.get(userId, () -> readInputs(userId, today));
+        if (inputs == null || !inputs.asOf().equals(today)) {
+            inputs = readInputs(userId, today);
+            cache.put(userId, inputs);
+        }
+        return inputs;
+    }
+
+    private ForecastInputs readInputs(UUID userId, LocalDate asOf) {
+        return readOnlyTransactionTemplate.execute(status -> {
+            LocalDate monthStart = asOf.withDayOfMonth(1);
+            long balance = (monthlyRollupService.isBuilt()
+                    ? queryCents(ROLLUP_BALANCE_SQL, userId, monthStart)
+                    : queryCents(LIVE_BALANCE_SQL, userId, monthStart, userId, monthStart, userId, monthStart))
+                    + queryCents(MONTH_BALANCE_SQL, userId, monthStart, asOf, userId, monthStart, asOf, userId, monthStart, asOf);
+
+            LocalDate horizon = asOf.plusMonths(MAX_MONTHS);
+            List<ForecastInputs.ScheduledDay> scheduledDays = jdbcTemplate.query(SCHEDULED_SQL,
+                    (resultSet, rowNum) -> new ForecastInputs.ScheduledDay(
+                            resultSet.getObject("date", LocalDate.class),
+                            resultSet.getLong("income_cents"),
+                            resultSet.getLong("expense_cents")),
+                    userId, asOf, horizon, userId, asOf, horizon, userId, asOf, horizon);
+
+            List<ForecastInputs.RecurringItem> recurringItems = new ArrayList<>();
+            jdbcTemplate.query(EXPENSE_TEMPLATES_SQL, resultSet -> {
+                recurringItems.add(new ForecastInputs.RecurringItem(
+                        TransactionKindType.EXPENSE,
+                        resultSet.getString("name"),
+                        resultSet.getString("description"),
+                        resultSet.getLong("cents"),
+                        RecurrenceFrequencyType.valueOf(resultSet.getString("recurrence_frequency")),
+                        resultSet.getObject("recurrence_day", Integer.class),
+                        resultSet.getObject("next_occurrence", LocalDate.class)));
+            }, userId);
+            jdbcTemplate.query(RECURRENT_EXPENSES_SQL, resultSet -> {
+                recurringItems.add(monthlyItem(TransactionKindType.EXPENSE, resultSet.getString("name"),
+                        resultSet.getString("description"), resultSet.getLong("cents"),
+                        resultSet.getObject("last_date", LocalDate.class)));
+            }, userId, asOf.minusDays(ACTIVE_DAYS));
+
+            LocalDate windowStart = asOf.minusMonths(historyMonths).plusDays(1);
+            int windowDays = (int) (asOf.toEpochDay() - windowStart.toEpochDay()) + 1;
+            Map<String, Long> incomePatternCents = new HashMap<>();
+            jdbcTemplate.query(INCOME_PATTERNS_SQL, resultSet -> {
+                String category = resultSet.getString("name");
+                recurringItems.add(monthlyItem(TransactionKindType.INCOME, category,
+                        resultSet.getString("description"), resultSet.getLong("cents"),
+                        resultSet.getObject("last_date", LocalDate.class)));
+                incomePatternCents.merge(category, resultSet.getLong("window_cents"), Long::sum);
+            }, asOf, userId, windowStart, asOf, Math.min(incomePatternMonths, historyMonths), asOf, asOf.minusDays(ACTIVE_DAYS));
+
+            List<ForecastInputs.CategoryAverage> categoryAverages = new ArrayList<>();
+            for (TransactionKindType kind : TransactionKindType.values()) {
+                String filter = kind == TransactionKindType.EXPENSE ? " AND NOT recurrent AND template_id IS NULL" : "";
+                jdbcTemplate.query(CATEGORY_TOTALS_SQL.formatted(kind.getTableName(), filter), resultSet -> {
+                    String category = resultSet.getString("name");
+                    long cents = resultSet.getLong("cents");
+                    // The income already projected by a monthly pattern is not counted twice
+                    if (kind == TransactionKindType.INCOME) {
+                        cents -= incomePatternCents.getOrDefault(category, 0L);
+                    }
+                    if (cents > 0) {
+                        categoryAverages.add(new ForecastInputs.CategoryAverage(kind, category, cents, windowDays, historyMonths));
+                    }
+                }, userId, windowStart, asOf);
+            }
+
+            return new ForecastInputs(asOf, balance, List.copyOf(recurringItems), List.copyOf(categoryAverages),
+                    List.copyOf(scheduledDays));
+        });
+    }
+
+    // Monthly item repeating on the day of its last occurrence
+    private ForecastInputs.RecurringItem monthlyItem(TransactionKindType kind, String category, String description,
+                                                     long cents, LocalDate lastDate) {
+        int day = lastDate.getDayOfMonth();
+        return new ForecastInputs.RecurringItem(kind, category, description, cents, RecurrenceFrequencyType.MONTHLY,
+                day, RecurrenceFrequencyType.MONTHLY.next(lastDate, day));
+    }
+
+    private long queryCents(String sql, Object... args) {
+        Long cents = jdbcTemplate.queryForObject(sql, Long.class, args);
+        return cents != null ? cents : 0;
+    }
+
+    private static BigDecimal money(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+}
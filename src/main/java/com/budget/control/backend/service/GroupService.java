@@ -1,28 +1,51 @@
 package com.budget.control.backend.service;
 
+import com.budget.control.backend.config.CacheConfig;
+import com.budget.control.backend.controller.dto.response.GroupResponseDTO;
+import com.budget.control.backend.etag.EntityTags;
+import com.budget.control.backend.etag.TaggedResponse;
+import com.budget.control.backend.exception.PreconditionFailedException;
+import com.budget.control.backend.mappers.GroupMapper;
 import com.budget.control.backend.model.GroupModel;
 import com.budget.control.backend.repository.GroupRepository;
 import com.budget.control.backend.validator.UUIDValidator;
 import com.budget.control.backend.validator.request.GroupValidatorRequest;
+import io.micrometer.core.annotation.Timed;
 import jakarta.persistence.criteria.Predicate;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
+@Timed("budget.service")
 @Service
 public class GroupService {
 
     private final GroupRepository groupRepository;
     private final GroupValidatorRequest groupValidatorRequest;
     private final UUIDValidator uuidValidator;
+    private final EntityTagService entityTagService;
+    private final GroupMapper groupMapper;
 
-    public GroupService(GroupRepository groupRepository, GroupValidatorRequest groupValidatorRequest, UUIDValidator uuidValidator) {
+    public GroupService(
+            GroupRepository groupRepository,
+            GroupValidatorRequest groupValidatorRequest,
+            UUIDValidator uuidValidator,
+            EntityTagService entityTagService,
+            GroupMapper groupMapper
+    ) {
         this.groupRepository = groupRepository;
         this.groupValidatorRequest = groupValidatorRequest;
         this.uuidValidator = uuidValidator;
+        this.entityTagService = entityTagService;
+        this.groupMapper = groupMapper;
     }
 
     public void saveGroup(GroupModel groupModel) {
@@ -30,15 +53,39 @@ public class GroupService {
         groupRepository.save(groupModel);
     }
 
-    public Optional<GroupModel> getGroupById(UUID groupId) {
+    // Response of a group by id with its entity tag, cached until the group is written
+    @Cacheable(cacheNames = CacheConfig.GROUP, key = "#groupId", unless = "#result == null")
+    @Transactional(readOnly = true)
+    public Optional<TaggedResponse<GroupResponseDTO>> getGroupResponseById(UUID groupId) {
+        uuidValidator.validateUUID(groupId.toString());
+        return groupRepository.findById(groupId)
+                .map(group -> new TaggedResponse<>(groupMapper.toResponseDTO(group), EntityTags.forResource(group.getId(), group.getVersion())));
+    }
+
+    public Optional<GroupModel> getGroupByIdForUpdate(UUID groupId) {
         uuidValidator.validateUUID(groupId.toString());
         return groupRepository.findById(groupId);
     }
 
+    // Validator of the conditional GET of one group, empty when it does not exist
+    public Optional<String> getGroupTag(UUID groupId) {
+        return entityTagService.resourceTag(GroupModel.class, groupId);
+    }
+
+    // Validator of the conditional GET of a filtered list of groups
+    public String getGroupListTag(String name, UUID userId, UUID referenceId) {
+        return entityTagService.listTag(GroupModel.class, buildSpecification(name, userId, referenceId));
+    }
+
     public List<GroupModel> getGroupByNameOrUserIdOrReferenceId(
             String name, UUID userId, UUID referenceId
     ) {
-        return groupRepository.findAll((root, query, criteriaBuilder) -> {
+        return groupRepository.findAll(buildSpecification(name, userId, referenceId));
+    }
+
+    // Dynamic query specification, shared with the list validator of the conditional GET
+    public Specification<GroupModel> buildSpecification(String name, UUID userId, UUID referenceId) {
+        return (root, query, criteriaBuilder) -> {
             List<Predicate> predicates = new ArrayList<>();
             if (name != null) {
                 predicates.add(criteriaBuilder.equal(root.get("name"), name));
@@ -50,17 +97,24 @@ public class GroupService {
                 predicates.add(criteriaBuilder.equal(root.get("referenceId"), referenceId));
             }
             return criteriaBuilder.and(predicates.toArray(new Predicate[0]));
-        });
+        };
     }
 
+    @CacheEvict(cacheNames = CacheConfig.GROUP, key = "#groupModel.id", condition = "#groupModel.id != null")
     public void updateGroupById(GroupModel groupModel){
         if(groupModel.getId() == null){
             throw new IllegalArgumentException("Group ID cannot be null");
         }
         groupValidatorRequest.validate(groupModel);
-        groupRepository.save(groupModel);
+        try {
+            groupRepository.save(groupModel);
+        } catch (ObjectOptimisticLockingFailureException e) {
+            // The row changed since it was read, the @Version check of the update matched no row
+            throw new PreconditionFailedException("Group was changed by another request, read it again before updating.");
+        }
     }
 
+    @CacheEvict(cacheNames = CacheConfig.GROUP, key = "#groupModel.id", condition = "#groupModel.id != null")
     public void deleteGroupById(GroupModel groupModel) {
         if(groupModel.getId() != null){
             uuidValidator.validateUUID(groupModel.getId().toString());
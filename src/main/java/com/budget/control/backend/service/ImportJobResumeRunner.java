@@ -0,0 +1,28 @@
+package com.budget.control.backend.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+// Resume at startup the import jobs interrupted by the previous shutdown
+@Component
+public class ImportJobResumeRunner implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(ImportJobResumeRunner.class);
+
+    private final ImportJobService importJobService;
+
+    public ImportJobResumeRunner(ImportJobService importJobService) {
+        this.importJobService = importJobService;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        int resumed = importJobService.resumePendingJobs();
+        if (resumed > 0) {
+            log.info("Resumed {} import jobs", resumed);
+        }
+    }
+}
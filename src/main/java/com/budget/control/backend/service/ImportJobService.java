@@ -0,0 +1,387 @@
+package com.budget.control.backend.service;
+
+import com.budget.control.backend.exception.InvalidFieldException;
+import com.budget.control.backend.exception.TooManyRequestsException;
+import com.budget.control.backend.importer.ColumnMapping;
+import com.budget.control.backend.importer.ImportOptions;
+import com.budget.control.backend.importer.ImportSummary;
+import com.budget.control.backend.model.ImportJobModel;
+import com.budget.control.backend.repository.ImportJobRepository;
+import com.budget.control.backend.type.ImportJobStatusType;
+import io.micrometer.core.annotation.Timed;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Statement imports running in the background
+// The upload is stored on disk and a job row is queued, a fixed pool of workers imports it in committed chunks
+// Each worker uses one database connection at a time, so imports never take more than `workers` connections
+// of the pool, and a user can only have a few jobs queued or running at once
+// Instances sharing the database count the jobs of a user under a database lock, and a job runs on the instance
+// holding its lease: taken by a conditional update, renewed by every checkpoint, given back on shutdown
+@Timed("budget.service")
+@Service
+public class ImportJobService {
+
+    private static final Logger log = LoggerFactory.getLogger(ImportJobService.class);
+
+    private static final Set<ImportJobStatusType> ACTIVE_STATUSES = EnumSet.of(ImportJobStatusType.QUEUED, ImportJobStatusType.RUNNING);
+
+    // Serializes the count and insert of the jobs of one user across instances, the second key is the hash of the user id
+    private static final int USER_JOBS_LOCK = 0x696d706f;
+    private static final String LOCK_USER_JOBS_SQL = "SELECT pg_advisory_xact_lock(?, hashtext(?))";
+
+    // A queued job goes to the first worker that runs it, a running one only once its lease expired
+    private static final String CLAIM_SQL = """
+            UPDATE import_job
+            SET status = 'RUNNING', claimed_by = ?, lease_until = ?, started_at = COALESCE(started_at, ?), updated_at = ?
+            WHERE id = ? AND (status = 'QUEUED' OR (status = 'RUNNING' AND (claimed_by = ? OR lease_until IS NULL OR lease_until < ?)))
+            """;
+
+    // Renewed in the transaction of every chunk, no row means another instance took the job over
+    private static final String RENEW_LEASE_SQL = """
+            UPDATE import_job SET lease_until = ? WHERE id = ? AND claimed_by = ? AND status = 'RUNNING'
+            """;
+
+    // The jobs of this instance can be taken over at once after a shutdown
+    private static final String RELEASE_SQL = """
+            UPDATE import_job SET lease_until = ? WHERE claimed_by = ? AND status IN ('QUEUED', 'RUNNING')
+            """;
+
+    // Dependency Injection
+    private final ImportJobRepository importJobRepository;
+    private final StatementImportService statementImportService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Path storageDirectory;
+    private final int maxActiveJobsPerUser;
+    private final Duration lease;
+    private final long retryAfterSeconds;
+    private final ThreadPoolExecutor executor;
+
+    // Owner of the leases taken by this instance
+    private final UUID instanceId = UUID.randomUUID();
+
+    // Jobs queued or running on this instance, a job is never queued twice here
+    private final Set<UUID> localJobs = ConcurrentHashMap.newKeySet();
+
+    // Set on shutdown, running jobs stop reading their file and stay RUNNING to be resumed at the next start
+    private volatile boolean stopping;
+
+    public ImportJobService(
+            ImportJobRepository importJobRepository,
+            StatementImportService statementImportService,
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            @Value("${budget.import.storage-dir:${java.io.tmpdir}/budget-imports}") String storageDirectory,
+            @Value("${budget.import.workers:2}") int workers,
+            @Value("${budget.import.queue-capacity:100}") int queueCapacity,
+            @Value("${budget.import.max-active-jobs-per-user:1}") int maxActiveJobsPerUser,
+            @Value("${budget.import.lease:5m}") Duration lease,
+            @Value("${budget.import.retry-after:30s}") Duration retryAfter
+    ) throws IOException {
+        this.importJobRepository = importJobRepository;
+        this.statementImportService = statementImportService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.storageDirectory = Files.createDirectories(Path.of(storageDirectory));
+        this.maxActiveJobsPerUser = maxActiveJobsPerUser;
+        this.lease = lease;
+        this.retryAfterSeconds = Math.max(1, retryAfter.toSeconds());
+
+        // Jobs beyond the workers wait in a bounded queue, a full queue answers the upload with a 429
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "import-worker-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    // Store the uploaded file and queue its job, the job is returned right away with the QUEUED status
+    // The options are checked here so a wrong mapping or charset is answered with a 400, not a failed job
+    public ImportJobModel submit(InputStream content, ImportJobModel importJobModel) throws IOException {
+        toOptions(importJobModel);
+        checkActiveJobs(importJobModel.getUserId());
+
+        Path file = Files.createTempFile(storageDirectory, "import-", ".upload");
+        try {
+            Files.copy(content, file, StandardCopyOption.REPLACE_EXISTING);
+            importJobModel.setFilePath(file.toString());
+            importJobModel.setFileSize(Files.size(file));
+            importJobModel.setStatus(ImportJobStatusType.QUEUED);
+            importJobModel.setClaimedBy(instanceId);
+            importJobModel.setLeaseUntil(LocalDateTime.now().plus(lease));
+
+            // Count and insert under the same database lock so concurrent uploads of a user cannot both pass the limit,
+            // on this instance or another one
+            ImportJobModel queuedJob = transactionTemplate.execute(status -> {
+                jdbcTemplate.queryForList(LOCK_USER_JOBS_SQL, USER_JOBS_LOCK, String.valueOf(importJobModel.getUserId()));
+                checkActiveJobs(importJobModel.getUserId());
+                return importJobRepository.save(importJobModel);
+            });
+            UUID jobId = queuedJob.getId();
+            if (!enqueue(jobId)) {
+                importJobRepository.deleteById(jobId);
+                throw new TooManyRequestsException("Too many imports waiting, try again later.", retryAfterSeconds);
+            }
+            return queuedJob;
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+    }
+
+    // Get import job by id from the database
+    public Optional<ImportJobModel> getImportJobById(UUID importJobId) {
+        return importJobRepository.findById(importJobId);
+    }
+
+    // Queue the jobs left QUEUED or RUNNING without a live lease, by a shutdown or by an instance that stopped
+    // A RUNNING job goes on from its last checkpoint, the chunks it committed are not written twice
+    // Every instance may call this, a job found by several of them is claimed by one only, see run
+    // The ones that do not fit in the queue wait for the next call
+    public int resumePendingJobs() {
+        int resumed = 0;
+        for (ImportJobModel pendingJob : importJobRepository.findUnclaimed(ACTIVE_STATUSES, LocalDateTime.now())) {
+            if (localJobs.contains(pendingJob.getId())) {
+                continue;
+            }
+            if (!enqueue(pendingJob.getId())) {
+                break;
+            }
+            resumed++;
+        }
+        return resumed;
+    }
+
+    // Take over the jobs whose instance stopped without giving them back
+    @Scheduled(initialDelayString = "${budget.import.resume-interval:1m}", fixedDelayString = "${budget.import.resume-interval:1m}")
+    public void resumeAbandonedJobs() {
+        if (stopping) {
+            return;
+        }
+        int resumed = resumePendingJobs();
+        if (resumed > 0) {
+            log.info("Took over {} abandoned import jobs", resumed);
+        }
+    }
+
+    // Queue a job on this instance, false when the queue is full
+    private boolean enqueue(UUID jobId) {
+        if (!localJobs.add(jobId)) {
+            return true;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    run(jobId);
+                } finally {
+                    localJobs.remove(jobId);
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            localJobs.remove(jobId);
+            return false;
+        }
+    }
+
+    private void checkActiveJobs(UUID userId) {
+        if (importJobRepository.countByUserAndStatusIn(userId, ACTIVE_STATUSES) >= maxActiveJobsPerUser) {
+            throw new TooManyRequestsException(
+                    "Too many imports in progress, wait for the current ones to finish.", retryAfterSeconds);
+        }
+    }
+
+    private void run(UUID jobId) {
+        if (stopping) {
+            return;
+        }
+        // Finished, or running on another instance
+        LocalDateTime now = LocalDateTime.now();
+        if (jdbcTemplate.update(CLAIM_SQL, instanceId, now.plus(lease), now, now, jobId, instanceId, now) == 0) {
+            return;
+        }
+        ImportJobModel importJobModel = importJobRepository.findById(jobId).orElse(null);
+        if (importJobModel == null) {
+            return;
+        }
+        if (importJobModel.getProcessedEntries() > 0) {
+            log.info("Resuming import job {} after {} entries", jobId, importJobModel.getProcessedEntries());
+        }
+
+        ImportSummary summary = new ImportSummary(
+                importJobModel.getInserted(), importJobModel.getDuplicates(),
+                importJobModel.getRejected(), importJobModel.getRejections());
+        try (JobInputStream input = new JobInputStream(Files.newInputStream(Path.of(importJobModel.getFilePath())))) {
+            statementImportService.importStatement(input, toOptions(importJobModel), summary,
+                    importJobModel.getProcessedEntries(),
+                    (entries, chunkSummary) -> saveCheckpoint(jobId, entries, input.bytesRead, chunkSummary));
+            finish(jobId, ImportJobStatusType.COMPLETED, null);
+        } catch (InterruptedIOException e) {
+            log.info("Import job {} stopped by the shutdown, it resumes at the next start", jobId);
+        } catch (LeaseLostException e) {
+            log.warn("Import job {} was taken over by another instance, this run stops", jobId);
+        } catch (InvalidFieldException e) {
+            finish(jobId, ImportJobStatusType.FAILED, e.getMessage());
+        } catch (IOException e) {
+            log.warn("Import job {} could not read its file", jobId, e);
+            finish(jobId, ImportJobStatusType.FAILED, "Could not read the file.");
+        } catch (RuntimeException e) {
+            if (stopping) {
+                log.info("Import job {} stopped by the shutdown, it resumes at the next start", jobId);
+                return;
+            }
+            log.error("Import job {} failed", jobId, e);
+            finish(jobId, ImportJobStatusType.FAILED, "An unexpected error occurred.");
+        }
+    }
+
+    // Runs inside the transaction of the chunk, the job row commits together with its rows
+    // The lease is renewed first: when the job was taken over the chunk rolls back and this run stops
+    private void saveCheckpoint(UUID jobId, long entries, long bytesRead, ImportSummary summary) {
+        if (jdbcTemplate.update(RENEW_LEASE_SQL, LocalDateTime.now().plus(lease), jobId, instanceId) == 0) {
+            throw new LeaseLostException();
+        }
+        ImportJobModel importJobModel = importJobRepository.findById(jobId).orElseThrow();
+        importJobModel.setProcessedEntries(entries);
+        importJobModel.setBytesRead(Math.min(bytesRead, importJobModel.getFileSize()));
+        importJobModel.setInserted(summary.getInserted());
+        importJobModel.setDuplicates(summary.getDuplicates());
+        importJobModel.setRejected(summary.getRejected());
+        importJobModel.setRejections(new ArrayList<>(summary.getRejections()));
+    }
+
+    // Only while this instance holds the job, a job taken over is finished by its new instance
+    private void finish(UUID jobId, ImportJobStatusType status, String errorMessage) {
+        try {
+            importJobRepository.findById(jobId)
+                    .filter(importJobModel -> instanceId.equals(importJobModel.getClaimedBy()))
+                    .ifPresent(importJobModel -> {
+                        importJobModel.setStatus(status);
+                        importJobModel.setErrorMessage(errorMessage);
+                        importJobModel.setFinishedAt(LocalDateTime.now());
+                        if (status == ImportJobStatusType.COMPLETED) {
+                            importJobModel.setBytesRead(importJobModel.getFileSize());
+                        }
+                        importJobRepository.save(importJobModel);
+                        deleteFile(importJobModel.getFilePath());
+                    });
+        } catch (RuntimeException e) {
+            log.error("Could not save the end of import job {}", jobId, e);
+        }
+    }
+
+    private void deleteFile(String filePath) {
+        try {
+            Files.deleteIfExists(Path.of(filePath));
+        } catch (IOException e) {
+            log.warn("Could not delete the import file {}", filePath, e);
+        }
+    }
+
+    // Import options of a job, from the values saved with it
+    private ImportOptions toOptions(ImportJobModel importJobModel) {
+        ColumnMapping columnMapping = ColumnMapping.of(
+                importJobModel.getDateColumn(), importJobModel.getAmountColumn(),
+                importJobModel.getDescriptionColumn(), importJobModel.getCategoryColumn(),
+                importJobModel.getDateFormat(), importJobModel.getDelimiter(), importJobModel.getDecimalSeparator());
+        Charset charset;
+        try {
+            charset = Charset.forName(importJobModel.getCharset());
+        } catch (IllegalArgumentException e) {
+            throw new InvalidFieldException("Invalid charset: " + importJobModel.getCharset());
+        }
+        return new ImportOptions(charset, importJobModel.getFormat(), columnMapping, importJobModel.getUserId(),
+                importJobModel.getDefaultExpenseCategory(), importJobModel.getDefaultIncomeCategory());
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        stopping = true;
+        executor.shutdown();
+        // Give the running chunks time to commit, the jobs stop at their next read
+        executor.awaitTermination(30, TimeUnit.SECONDS);
+        try {
+            jdbcTemplate.update(RELEASE_SQL, LocalDateTime.now(), instanceId);
+        } catch (RuntimeException e) {
+            log.warn("Could not give back the import jobs of this instance, they resume once their lease expires", e);
+        }
+    }
+
+    // The lease of the job passed to another instance
+    private static class LeaseLostException extends RuntimeException {
+
+        LeaseLostException() {
+            super("Import job lease lost");
+        }
+    }
+
+    // Counts the bytes read from the job file for the progress, and stops the job once the application is stopping
+    private class JobInputStream extends FilterInputStream {
+
+        private volatile long bytesRead;
+
+        JobInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            checkStopping();
+            int value = super.read();
+            if (value >= 0) {
+                bytesRead++;
+            }
+            return value;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            checkStopping();
+            int count = super.read(buffer, offset, length);
+            if (count > 0) {
+                bytesRead += count;
+            }
+            return count;
+        }
+
+        private void checkStopping() throws InterruptedIOException {
+            if (stopping) {
+                throw new InterruptedIOException("Import stopped by the shutdown");
+            }
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.budget.control.backend.service;
+
+import com.budget.control.backend.controller.dto.response.LedgerEntryResponseDTO;
+import com.budget.control.backend.controller.dto.response.LedgerResponseDTO;
+import com.budget.control.backend.model.TransactionBenefitModel;
+import com.budget.control.backend.model.TransactionExpenseModel;
+import com.budget.control.backend.model.TransactionIncomeModel;
+import com.budget.control.backend.pagination.LedgerCursor;
+import com.budget.control.backend.repository.TransactionBenefitRepository;
+import com.budget.control.backend.repository.TransactionExpenseRepository;
+import com.budget.control.backend.repository.TransactionIncomeRepository;
+import com.budget.control.backend.type.TransactionKindType;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.UUID;
+
+@Timed("budget.service")
+@Service
+public class LedgerService {
+
+    // Dependency Injection
+    private final TransactionIncomeRepository transactionIncomeRepository;
+    private final TransactionExpenseRepository transactionExpenseRepository;
+    private final TransactionBenefitRepository transactionBenefitRepository;
+
+    public LedgerService(
+            TransactionIncomeRepository transactionIncomeRepository,
+            TransactionExpenseRepository transactionExpenseRepository,
+            TransactionBenefitRepository transactionBenefitRepository
+    ) {
+        this.transactionIncomeRepository = transactionIncomeRepository;
+        this.transactionExpenseRepository = transactionExpenseRepository;
+        this.transactionBenefitRepository = transactionBenefitRepository;
+    }
+
+    // One chronological statement of income, expense and benefit with signed amounts and a running balance
+    // Each source returns at most limit + 1 rows already in (date, id) order and a k-way merge on their heads
+    // builds the page, so no more than one page per source is ever held in memory
+    @Transactional(readOnly = true)
+    public LedgerResponseDTO getLedger(LocalDate from, LocalDate to, UUID userId, LedgerCursor cursor, int limit) {
+        // The first page starts from everything that happened before the range, next pages continue from the cursor
+        BigDecimal openingBalance = cursor != null ? cursor.balance() : balanceBefore(from, userId);
+
+        List<Iterator<LedgerEntryResponseDTO>> sources = List.of(
+                fetch(transactionIncomeRepository, TransactionKindType.INCOME, from, to, userId, cursor, limit).stream()
+                        .map(this::toEntry).iterator(),
+                fetch(transactionExpenseRepository, TransactionKindType.EXPENSE, from, to, userId, cursor, limit).stream()
+                        .map(this::toEntry).iterator(),
+                fetch(transactionBenefitRepository, TransactionKindType.BENEFIT, from, to, userId, cursor, limit).stream()
+                        .map(this::toEntry).iterator()
+        );
+
+        // Heads of the sources ordered by (date, kind), inside a source the SQL order is kept
+        PriorityQueue<Head> heads = new PriorityQueue<>(Comparator
+                .comparing((Head head) -> head.entry().date())
+                .thenComparing(head -> head.entry().kind()));
+        for (Iterator<LedgerEntryResponseDTO> source : sources) {
+            if (source.hasNext()) {
+                heads.add(new Head(source.next(), source));
+            }
+        }
+
+        List<LedgerEntryResponseDTO> content = new ArrayList<>(limit);
+        BigDecimal balance = openingBalance;
+        while (content.size() < limit && !heads.isEmpty()) {
+            Head head = heads.poll();
+            LedgerEntryResponseDTO entry = head.entry();
+            balance = balance.add(entry.amount());
+            content.add(new LedgerEntryResponseDTO(entry.id(), entry.kind(), entry.category(), entry.description(),
+                    entry.date(), entry.amount(), balance, entry.userId()));
+            if (head.source().hasNext()) {
+                heads.add(new Head(head.source().next(), head.source()));
+            }
+        }
+
+        // Anything left in a source means there is a next page
+        String nextCursor = null;
+        if (!heads.isEmpty()) {
+            LedgerEntryResponseDTO last = content.getLast();
+            nextCursor = new LedgerCursor(last.date(), last.kind(), last.id(), balance).encode();
+        }
+        return new LedgerResponseDTO(openingBalance, content, content.size(), nextCursor);
+    }
+
+    // Money in (income and benefit) minus money out (expense) before the given date
+    private BigDecimal balanceBefore(LocalDate date, UUID userId) {
+        return transactionIncomeRepository.sumAmountBefore(date, userId)
+                .add(transactionBenefitRepository.sumAmountBefore(date, userId))
+                .subtract(transactionExpenseRepository.sumAmountBefore(date, userId));
+    }
+
+    // One page (plus one row) of a source after the cursor
+    private <T> List<T> fetch(JpaSpecificationExecutor<T> repository, TransactionKindType kind,
+                              LocalDate from, LocalDate to, UUID userId, LedgerCursor cursor, int limit) {
+        Specification<T> specification = (root, query, criteriaBuilder) -> {
+            if (userId == null) {
+                return criteriaBuilder.between(root.get("date"), from, to);
+            }
+            return criteriaBuilder.and(
+                    criteriaBuilder.between(root.get("date"), from, to),
+                    criteriaBuilder.equal(root.get("userId"), userId));
+        };
+        if (cursor != null) {
+            specification = specification.and(cursor.after(kind));
+        }
+        return repository.findBy(specification, query -> query
+                .sortBy(LedgerCursor.SORT)
+                .limit(limit + 1)
+                .all());
+    }
+
+    private LedgerEntryResponseDTO toEntry(Object transaction) {
+        return switch (transaction) {
+            case TransactionIncomeModel income -> new LedgerEntryResponseDTO(income.getId(), TransactionKindType.INCOME,
+                    income.getName().name(), income.getDescription(), income.getDate(), income.getAmount(), null, income.getUserId());
+            case TransactionExpenseModel expense -> new LedgerEntryResponseDTO(expense.getId(), TransactionKindType.EXPENSE,
+                    expense.getName().name(), expense.getDescription(), expense.getDate(), expense.getAmount().negate(), null, expense.getUserId());
+            case TransactionBenefitModel benefit -> new LedgerEntryResponseDTO(benefit.getId(), TransactionKindType.BENEFIT,
+                    benefit.getName().name(), benefit.getDescription(), benefit.getDate(), benefit.getAmount(), null, benefit.getUserId());
+            default -> throw new IllegalArgumentException("Not a transaction: " + transaction);
+        };
+    }
+
+    // Next entry of a source and the rest of it
+    private record Head(LedgerEntryResponseDTO entry, Iterator<LedgerEntryResponseDTO> source) {
+    }
+}
@@ -0,0 +1,34 @@
+package com.budget.control.backend.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+// Rebuild the monthly rollups at startup when the application is started with --rebuild-rollups,
+// or when they were never built, e.g. the first start on a database that already holds transactions
+@Component
+public class MonthlyRollupRebuildRunner implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(MonthlyRollupRebuildRunner.class);
+
+    private final MonthlyRollupService monthlyRollupService;
+
+    public MonthlyRollupRebuildRunner(MonthlyRollupService monthlyRollupService) {
+        this.monthlyRollupService = monthlyRollupService;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (args.containsOption("rebuild-rollups")) {
+            log.info("Rebuilding monthly rollups from the transaction tables");
+        } else if (!monthlyRollupService.isBuilt()) {
+            log.info("Monthly rollups were never built, building them from the transaction tables");
+        } else {
+            return;
+        }
+        monthlyRollupService.rebuild();
+        log.info("Monthly rollups rebuilt");
+    }
+}
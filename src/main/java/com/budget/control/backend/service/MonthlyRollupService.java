@@ -0,0 +1,225 @@
+package com.budget.control.backend.service;
+
+import com.budget.control.backend.config.CacheConfig;
+import com.budget.control.backend.model.MonthlyRollupStateModel;
+import com.budget.control.backend.type.TransactionKindType;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+
+@Timed("budget.service")
+@Service
+public class MonthlyRollupService {
+
+    // Owner used for transactions without a user, the rollup unique key cannot hold a null
+    public static final UUID NO_USER = new UUID(0L, 0L);
+
+    // Add a delta to a rollup row, creating it when the month has no row yet
+    // The conflict path makes concurrent writers on the same month safe without locking in the application
+    private static final String UPSERT_SQL = """
+            INSERT INTO monthly_rollup (id, user_id, month, transaction_kind, category, total_amount, transaction_count, updated_at)
+            VALUES (gen_random_uuid(), ?, ?, ?, ?, ?, ?, now())
+            ON CONFLICT (user_id, month, transaction_kind, category)
+            DO UPDATE SET total_amount = monthly_rollup.total_amount + EXCLUDED.total_amount,
+                          transaction_count = monthly_rollup.transaction_count + EXCLUDED.transaction_count,
+                          updated_at = now()
+            """;
+
+    // Recompute the rollup of one transaction table from scratch
+    private static final String REBUILD_SQL = """
+            INSERT INTO monthly_rollup (id, user_id, month, transaction_kind, category, total_amount, transaction_count, updated_at)
+            SELECT gen_random_uuid(), COALESCE(t.user_id, CAST('%s' AS uuid)), CAST(date_trunc('month', t.date) AS date), '%s', t.name,
+                   SUM(t.amount), COUNT(*), now()
+            FROM %s t
+            GROUP BY 2, 3, 5
+            """;
+
+    // Marks the rollup as built from the transaction tables
+    private static final String MARK_BUILT_SQL = """
+            INSERT INTO monthly_rollup_state (id, built_at)
+            VALUES (?, now())
+            ON CONFLICT (id) DO UPDATE SET built_at = now()
+            """;
+
+    // Key of the advisory lock held while rebuilding, instances starting together rebuild one after the other
+    private static final long REBUILD_LOCK = 0x6d6f6e74686c79L;
+
+    // Dependency Injection
+    // Plain JDBC on purpose: it shares the JPA transaction and connection but never triggers a Hibernate flush,
+    // so a snapshot taken before an update still reads the stored values
+    private final JdbcTemplate jdbcTemplate;
+    private final CacheManager cacheManager;
+    // Once built the rollup stays built, every write keeps it up to date
+    private volatile boolean built;
+
+    public MonthlyRollupService(JdbcTemplate jdbcTemplate, CacheManager cacheManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.cacheManager = cacheManager;
+    }
+
+    // Stored values of a transaction that count for the rollup, null when the row does not exist
+    @Transactional(propagation = Propagation.MANDATORY)
+    public RollupEntry snapshot(TransactionKindType kind, UUID transactionId) {
+        List<RollupEntry> entries = jdbcTemplate.query(
+                "SELECT user_id, date, name, amount FROM " + kind.getTableName() + " WHERE id = ?",
+                (resultSet, rowNum) -> new RollupEntry(
+                        resultSet.getObject("user_id", UUID.class),
+                        resultSet.getObject("date", LocalDate.class),
+                        resultSet.getString("name"),
+                        resultSet.getBigDecimal("amount")),
+                transactionId);
+        return entries.isEmpty() ? null : entries.getFirst();
+    }
+
+    // A transaction was created
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onCreated(TransactionKindType kind, RollupEntry created) {
+        applyDelta(kind, created, created.amount(), 1);
+    }
+
+    // Many transactions were created at once
+    // Entries of the same user, month and category are summed first, then one batched upsert is sent per rollup row
+    // Rows are touched in a fixed order so two concurrent batches cannot deadlock on each other
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onCreatedAll(TransactionKindType kind, List<RollupEntry> created) {
+        Map<RollupKey, RollupDelta> deltas = new HashMap<>();
+        for (RollupEntry entry : created) {
+            deltas.computeIfAbsent(new RollupKey(entry.rollupUserId(), entry.month(), entry.category()), key -> new RollupDelta())
+                    .add(entry.amount());
+        }
+        created.stream().map(RollupEntry::userId).distinct().forEach(this::evictForecast);
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        List<RollupKey> keys = new ArrayList<>(deltas.keySet());
+        keys.sort(Comparator.comparing(RollupKey::userId).thenComparing(RollupKey::month).thenComparing(RollupKey::category));
+        List<Object[]> batchArgs = new ArrayList<>(keys.size());
+        for (RollupKey key : keys) {
+            RollupDelta delta = deltas.get(key);
+            batchArgs.add(new Object[]{key.userId(), key.month(), kind.name(), key.category(), delta.amount, delta.count});
+        }
+        jdbcTemplate.batchUpdate(UPSERT_SQL, batchArgs);
+    }
+
+    // A transaction was updated, the old values are subtracted and the new ones added
+    // When user, month and category did not change only the amount difference is applied
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onUpdated(TransactionKindType kind, RollupEntry before, RollupEntry after) {
+        if (before == null) {
+            onCreated(kind, after);
+            return;
+        }
+        evictForecast(before.userId());
+        evictForecast(after.userId());
+        if (before.sameBucket(after)) {
+            BigDecimal difference = after.amount().subtract(before.amount());
+            if (difference.signum() != 0) {
+                applyDelta(kind, after, difference, 0);
+            }
+            return;
+        }
+        applyDelta(kind, before, before.amount().negate(), -1);
+        applyDelta(kind, after, after.amount(), 1);
+    }
+
+    // A transaction was deleted
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onDeleted(TransactionKindType kind, RollupEntry deleted) {
+        if (deleted != null) {
+            applyDelta(kind, deleted, deleted.amount().negate(), -1);
+        }
+    }
+
+    // Whether the rollup was computed from the transaction tables at least once
+    // Before that it only holds the writes made since it was introduced, and reports must not read it
+    public boolean isBuilt() {
+        if (!built) {
+            built = Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                    "SELECT EXISTS (SELECT 1 FROM monthly_rollup_state WHERE id = ?)", Boolean.class, MonthlyRollupStateModel.ID));
+        }
+        return built;
+    }
+
+    // Repair: drop every rollup row and recompute them from the transaction tables, in a single transaction
+    @Transactional
+    public void rebuild() {
+        jdbcTemplate.execute("SELECT pg_advisory_xact_lock(" + REBUILD_LOCK + ")");
+        jdbcTemplate.update("DELETE FROM monthly_rollup");
+        for (TransactionKindType kind : TransactionKindType.values()) {
+            jdbcTemplate.update(REBUILD_SQL.formatted(NO_USER, kind.name(), kind.getTableName()));
+        }
+        jdbcTemplate.update(MARK_BUILT_SQL, MonthlyRollupStateModel.ID);
+        Cache cache = cacheManager.getCache(CacheConfig.FORECAST);
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+
+    // Every transaction write goes through the rollup, so this is where the forecast of its user goes stale
+    // The cache manager is transaction aware, the entry is evicted once the write commits
+    public void evictForecast(UUID userId) {
+        Cache cache = cacheManager.getCache(CacheConfig.FORECAST);
+        if (cache != null && userId != null) {
+            cache.evict(userId);
+        }
+    }
+
+    private void applyDelta(TransactionKindType kind, RollupEntry entry, BigDecimal amount, int count) {
+        evictForecast(entry.userId());
+        jdbcTemplate.update(UPSERT_SQL,
+                entry.rollupUserId(),
+                entry.month(),
+                kind.name(),
+                entry.category(),
+                amount,
+                count);
+    }
+
+    // Rollup row a transaction counts for
+    private record RollupKey(UUID userId, LocalDate month, String category) {
+    }
+
+    // Amount and count accumulated for one rollup row
+    private static final class RollupDelta {
+        private BigDecimal amount = BigDecimal.ZERO;
+        private int count;
+
+        void add(BigDecimal value) {
+            amount = amount.add(value);
+            count++;
+        }
+    }
+
+    // The values of a transaction the rollup depends on
+    public record RollupEntry(UUID userId, LocalDate date, String category, BigDecimal amount) {
+
+        public LocalDate month() {
+            return date.withDayOfMonth(1);
+        }
+
+        public UUID rollupUserId() {
+            return userId != null ? userId : NO_USER;
+        }
+
+        boolean sameBucket(RollupEntry other) {
+            return Objects.equals(userId, other.userId)
+                    && month().equals(other.month())
+                    && category.equals(other.category);
+        }
+    }
+}
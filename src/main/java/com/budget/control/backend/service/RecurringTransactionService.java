@@ -0,0 +1,202 @@
+package com.budget.control.backend.service;
+
+import com.budget.control.backend.config.CacheConfig;
+import com.budget.control.backend.model.TransactionContentHash;
+import com.budget.control.backend.model.UuidV7Generator;
+import com.budget.control.backend.type.RecurrenceFrequencyType;
+import com.budget.control.backend.type.TransactionKindType;
+import io.micrometer.core.annotation.Timed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+
+// Inserts the instances of the recurring expense templates when their occurrence comes
+// Templates are claimed a page at a time with FOR UPDATE SKIP LOCKED, then all the instances of the page are
+// written by one INSERT ... SELECT from arrays and the templates advanced by one UPDATE, so the number of
+// statements depends on the number of pages and not on the number of templates
+// The (template_id, date) unique constraint and ON CONFLICT DO NOTHING make a period inserted once,
+// whatever the reruns or the number of nodes running the scheduler
+@Timed("budget.service")
+@Service
+public class RecurringTransactionService {
+
+    private static final Logger log = LoggerFactory.getLogger(RecurringTransactionService.class);
+
+    // Due templates, locked for the page transaction, the ones locked by another node are skipped
+    private static final String CLAIM_SQL = """
+            SELECT id, user_id, recurrence_frequency, recurrence_day, next_occurrence
+            FROM transaction_expense
+            WHERE next_occurrence <= ?
+            ORDER BY next_occurrence, id
+            LIMIT ?
+            FOR UPDATE SKIP LOCKED
+            """;
+
+    // Copy the templates on the given dates and add the inserted rows to the monthly rollup
+    // Occurrences already inserted, or entered by hand with the same content, hit a unique constraint and are skipped
+    private static final String INSERT_SQL = """
+            WITH occurrence AS (
+                SELECT o.id, o.template_id, o.date, t.name, t.description, t.amount, t.user_id, false AS recurrent
+                FROM unnest(CAST(? AS uuid[]), CAST(? AS uuid[]), CAST(? AS date[])) AS o(id, template_id, date)
+                JOIN transaction_expense t ON t.id = o.template_id
+            ), inserted AS (
+                INSERT INTO transaction_expense (id, name, description, amount, date, recurrent, user_id, template_id,
+                                                 content_hash, created_at, updated_at)
+                SELECT id, name, description, amount, date, recurrent, user_id, template_id, %s, now(), now()
+                FROM occurrence
+                ON CONFLICT DO NOTHING
+                RETURNING user_id, date, name, amount
+            ), rollup AS (
+                INSERT INTO monthly_rollup (id, user_id, month, transaction_kind, category, total_amount, transaction_count, updated_at)
+                SELECT gen_random_uuid(), COALESCE(user_id, CAST('%s' AS uuid)), CAST(date_trunc('month', date) AS date), '%s', name,
+                       SUM(amount), COUNT(*), now()
+                FROM inserted
+                GROUP BY 2, 3, 5
+                ORDER BY 2, 3, 5
+                ON CONFLICT (user_id, month, transaction_kind, category)
+                DO UPDATE SET total_amount = monthly_rollup.total_amount + EXCLUDED.total_amount,
+                              transaction_count = monthly_rollup.transaction_count + EXCLUDED.transaction_count,
+                              updated_at = now()
+            )
+            SELECT COUNT(*) FROM inserted
+            """.formatted(TransactionContentHash.sqlExpression(true), MonthlyRollupService.NO_USER, TransactionKindType.EXPENSE.name());
+
+    private static final String ADVANCE_SQL = """
+            UPDATE transaction_expense t
+            SET next_occurrence = n.next_occurrence, version = t.version + 1, updated_at = now()
+            FROM unnest(CAST(? AS uuid[]), CAST(? AS date[])) AS n(id, next_occurrence)
+            WHERE t.id = n.id
+            """;
+
+    // Dependency Injection
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final CacheManager cacheManager;
+    private final int pageSize;
+    private final int maxOccurrencesPerTemplate;
+
+    public RecurringTransactionService(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            CacheManager cacheManager,
+            @Value("${budget.recurrence.page-size:1000}") int pageSize,
+            @Value("${budget.recurrence.max-occurrences-per-template:100}") int maxOccurrencesPerTemplate
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.cacheManager = cacheManager;
+        this.pageSize = pageSize;
+        this.maxOccurrencesPerTemplate = maxOccurrencesPerTemplate;
+    }
+
+    @Scheduled(cron = "${budget.recurrence.cron:0 15 0 * * *}")
+    public void materializeDueOccurrences() {
+        long inserted = materialize(LocalDate.now());
+        if (inserted > 0) {
+            log.info("Inserted {} recurring expense instances", inserted);
+        }
+    }
+
+    // Insert every occurrence up to the given date, returns the number of rows inserted
+    // Each page is its own transaction, the locks are held only while the page is written
+    // A template catching up on many periods gets maxOccurrencesPerTemplate of them per page and comes back
+    // in a later page, every page moves its templates forward so the loop ends
+    public long materialize(LocalDate until) {
+        long inserted = 0;
+        while (true) {
+            PageResult page = transactionTemplate.execute(status -> materializePage(until));
+            if (page == null || page.templates() == 0) {
+                return inserted;
+            }
+            inserted += page.inserted();
+        }
+    }
+
+    private PageResult materializePage(LocalDate until) {
+        List<DueTemplate> templates = jdbcTemplate.query(CLAIM_SQL,
+                (resultSet, rowNum) -> new DueTemplate(
+                        resultSet.getObject("id", UUID.class),
+                        resultSet.getObject("user_id", UUID.class),
+                        RecurrenceFrequencyType.valueOf(resultSet.getString("recurrence_frequency")),
+                        resultSet.getObject("recurrence_day", Integer.class),
+                        resultSet.getObject("next_occurrence", LocalDate.class)),
+                until, pageSize);
+        if (templates.isEmpty()) {
+            return new PageResult(0, 0);
+        }
+
+        List<UUID> instanceIds = new ArrayList<>();
+        List<UUID> instanceTemplateIds = new ArrayList<>();
+        List<Date> instanceDates = new ArrayList<>();
+        UUID[] templateIds = new UUID[templates.size()];
+        Date[] nextOccurrences = new Date[templates.size()];
+        for (int i = 0; i < templates.size(); i++) {
+            DueTemplate template = templates.get(i);
+            LocalDate occurrence = template.nextOccurrence();
+            for (int count = 0; !occurrence.isAfter(until) && count < maxOccurrencesPerTemplate; count++) {
+                instanceIds.add(UuidV7Generator.next());
+                instanceTemplateIds.add(template.id());
+                instanceDates.add(Date.valueOf(occurrence));
+                occurrence = template.frequency().next(occurrence, template.day());
+            }
+            templateIds[i] = template.id();
+            nextOccurrences[i] = Date.valueOf(occurrence);
+        }
+
+        Long inserted = jdbcTemplate.execute((Connection connection) -> {
+            try (PreparedStatement statement = connection.prepareStatement(INSERT_SQL)) {
+                statement.setArray(1, connection.createArrayOf("uuid", instanceIds.toArray()));
+                statement.setArray(2, connection.createArrayOf("uuid", instanceTemplateIds.toArray()));
+                statement.setArray(3, connection.createArrayOf("date", instanceDates.toArray()));
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    resultSet.next();
+                    return resultSet.getLong(1);
+                }
+            }
+        });
+        jdbcTemplate.execute((Connection connection) -> {
+            try (PreparedStatement statement = connection.prepareStatement(ADVANCE_SQL)) {
+                statement.setArray(1, connection.createArrayOf("uuid", templateIds));
+                statement.setArray(2, connection.createArrayOf("date", nextOccurrences));
+                return statement.executeUpdate();
+            }
+        });
+
+        // The cached templates still show the old next occurrence and the forecasts of their users miss the new rows,
+        // both are evicted once the page commits
+        Cache cache = cacheManager.getCache(CacheConfig.TRANSACTION_EXPENSE);
+        if (cache != null) {
+            for (UUID templateId : templateIds) {
+                cache.evict(templateId);
+            }
+        }
+        Cache forecastCache = cacheManager.getCache(CacheConfig.FORECAST);
+        if (forecastCache != null) {
+            templates.stream().map(DueTemplate::userId).filter(Objects::nonNull).distinct().forEach(forecastCache::evict);
+        }
+        return new PageResult(templates.size(), inserted != null ? inserted : 0);
+    }
+
+    private record DueTemplate(UUID id, UUID userId, RecurrenceFrequencyType frequency, Integer day, LocalDate nextOccurrence) {
+    }
+
+    private record PageResult(int templates, long inserted) {
+    }
+}
@@ -0,0 +1,136 @@
+package com.budget.control.backend.service;
+
+import com.budget.control.backend.controller.dto.response.ReportSummaryResponseDTO;
+import com.budget.control.backend.controller.dto.response.ReportSummaryRowDTO;
+import com.budget.control.backend.repository.MonthlyRollupRepository;
+import com.budget.control.backend.repository.TransactionBenefitRepository;
+import com.budget.control.backend.repository.TransactionExpenseRepository;
+import com.budget.control.backend.repository.TransactionIncomeRepository;
+import com.budget.control.backend.repository.projection.TransactionSummaryProjection;
+import com.budget.control.backend.type.ReportGroupByType;
+import com.budget.control.backend.type.TransactionKindType;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+@Timed("budget.service")
+@Service
+public class ReportService {
+
+    // Dependency Injection
+    private final TransactionIncomeRepository transactionIncomeRepository;
+    private final TransactionExpenseRepository transactionExpenseRepository;
+    private final TransactionBenefitRepository transactionBenefitRepository;
+    private final MonthlyRollupRepository monthlyRollupRepository;
+    private final MonthlyRollupService monthlyRollupService;
+
+    public ReportService(
+            TransactionIncomeRepository transactionIncomeRepository,
+            TransactionExpenseRepository transactionExpenseRepository,
+            TransactionBenefitRepository transactionBenefitRepository,
+            MonthlyRollupRepository monthlyRollupRepository,
+            MonthlyRollupService monthlyRollupService
+    ) {
+        this.transactionIncomeRepository = transactionIncomeRepository;
+        this.transactionExpenseRepository = transactionExpenseRepository;
+        this.transactionBenefitRepository = transactionBenefitRepository;
+        this.monthlyRollupRepository = monthlyRollupRepository;
+        this.monthlyRollupService = monthlyRollupService;
+    }
+
+    // Summary of income, expense and benefit side by side, grouped by category, month or day
+    // Ranges made of whole months are answered from the monthly rollup (one row per month and category),
+    // anything else, or any range while the rollup was never built, is aggregated by the database
+    // with one GROUP BY query per transaction table
+    @Transactional(readOnly = true)
+    public ReportSummaryResponseDTO getSummary(LocalDate from, LocalDate to, ReportGroupByType groupBy, UUID userId) {
+        List<TransactionSummaryProjection> income;
+        List<TransactionSummaryProjection> expense;
+        List<TransactionSummaryProjection> benefit;
+        if (groupBy != ReportGroupByType.DAY && coversWholeMonths(from, to) && monthlyRollupService.isBuilt()) {
+            income = summarizeRollup(TransactionKindType.INCOME, from, to, groupBy, userId);
+            expense = summarizeRollup(TransactionKindType.EXPENSE, from, to, groupBy, userId);
+            benefit = summarizeRollup(TransactionKindType.BENEFIT, from, to, groupBy, userId);
+        } else if (groupBy == ReportGroupByType.CATEGORY) {
+            income = transactionIncomeRepository.summarizeByCategory(from, to, userId);
+            expense = transactionExpenseRepository.summarizeByCategory(from, to, userId);
+            benefit = transactionBenefitRepository.summarizeByCategory(from, to, userId);
+        } else {
+            income = transactionIncomeRepository.summarizeByPeriod(groupBy.getTruncField(), groupBy.getPattern(), from, to, userId);
+            expense = transactionExpenseRepository.summarizeByPeriod(groupBy.getTruncField(), groupBy.getPattern(), from, to, userId);
+            benefit = transactionBenefitRepository.summarizeByPeriod(groupBy.getTruncField(), groupBy.getPattern(), from, to, userId);
+        }
+
+        // Merge the three results by bucket key, sorted so periods come out in chronological order
+        Map<String, SummaryAccumulator> rows = new TreeMap<>();
+        SummaryAccumulator total = new SummaryAccumulator();
+        for (TransactionSummaryProjection row : income) {
+            rows.computeIfAbsent(row.getBucket(), key -> new SummaryAccumulator()).addIncome(row);
+            total.addIncome(row);
+        }
+        for (TransactionSummaryProjection row : expense) {
+            rows.computeIfAbsent(row.getBucket(), key -> new SummaryAccumulator()).addExpense(row);
+            total.addExpense(row);
+        }
+        for (TransactionSummaryProjection row : benefit) {
+            rows.computeIfAbsent(row.getBucket(), key -> new SummaryAccumulator()).addBenefit(row);
+            total.addBenefit(row);
+        }
+
+        List<ReportSummaryRowDTO> response = rows.entrySet().stream()
+                .map(entry -> entry.getValue().toRow(entry.getKey()))
+                .toList();
+        return new ReportSummaryResponseDTO(from, to, groupBy, response, total.toRow(null));
+    }
+
+    // The rollup only knows whole months
+    private boolean coversWholeMonths(LocalDate from, LocalDate to) {
+        return from.getDayOfMonth() == 1 && to.equals(to.with(TemporalAdjusters.lastDayOfMonth()));
+    }
+
+    private List<TransactionSummaryProjection> summarizeRollup(
+            TransactionKindType kind, LocalDate from, LocalDate to, ReportGroupByType groupBy, UUID userId
+    ) {
+        LocalDate toMonth = to.withDayOfMonth(1);
+        if (groupBy == ReportGroupByType.CATEGORY) {
+            return monthlyRollupRepository.summarizeByCategory(kind.name(), from, toMonth, userId);
+        }
+        return monthlyRollupRepository.summarizeByMonth(kind.name(), from, toMonth, userId);
+    }
+
+    // Running sums of one bucket
+    private static final class SummaryAccumulator {
+        private BigDecimal income = BigDecimal.ZERO;
+        private BigDecimal expense = BigDecimal.ZERO;
+        private BigDecimal benefit = BigDecimal.ZERO;
+        private long count;
+
+        void addIncome(TransactionSummaryProjection row) {
+            income = income.add(row.getTotal());
+            count += row.getCount();
+        }
+
+        void addExpense(TransactionSummaryProjection row) {
+            expense = expense.add(row.getTotal());
+            count += row.getCount();
+        }
+
+        void addBenefit(TransactionSummaryProjection row) {
+            benefit = benefit.add(row.getTotal());
+            count += row.getCount();
+        }
+
+        // Net is what came in (income and benefit) minus what went out (expense)
+        ReportSummaryRowDTO toRow(String key) {
+            return new ReportSummaryRowDTO(key, income, expense, benefit, income.add(benefit).subtract(expense), count);
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package com.budget.control.backend.service;
+
+import com.budget.control.backend.batch.BatchItemResult;
+import com.budget.control.backend.exception.InvalidFieldException;
+import com.budget.control.backend.importer.CsvStatementParser;
+import com.budget.control.backend.importer.ImportCheckpoint;
+import com.budget.control.backend.importer.ImportOptions;
+import com.budget.control.backend.importer.ImportSummary;
+import com.budget.control.backend.importer.OfxStatementParser;
+import com.budget.control.backend.importer.StatementFormat;
+import com.budget.control.backend.importer.StatementParser;
+import com.budget.control.backend.importer.StatementRow;
+import com.budget.control.backend.importer.StatementRowHandler;
+import com.budget.control.backend.model.TransactionExpenseModel;
+import com.budget.control.backend.model.TransactionIncomeModel;
+import com.budget.control.backend.type.EnumLookup;
+import com.budget.control.backend.type.TransactionExpenseType;
+import com.budget.control.backend.type.TransactionIncomeType;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+// Imports a bank statement: negative amounts become expense transactions and positive ones income transactions
+// The file is parsed as it is read and saved in fixed size chunks through the batch inserts,
+// each chunk in its own transaction, so the heap used does not depend on the size of the file
+@Timed("budget.service")
+@Service
+public class StatementImportService {
+
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+    private static final EnumLookup<TransactionExpenseType> EXPENSE_CATEGORIES = EnumLookup.of(TransactionExpenseType.class);
+    private static final EnumLookup<TransactionIncomeType> INCOME_CATEGORIES = EnumLookup.of(TransactionIncomeType.class);
+
+    // Dependency Injection
+    private final TransactionExpenseService transactionExpenseService;
+    private final TransactionIncomeService transactionIncomeService;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+
+    public StatementImportService(
+            TransactionExpenseService transactionExpenseService,
+            TransactionIncomeService transactionIncomeService,
+            EntityManager entityManager,
+            PlatformTransactionManager transactionManager,
+            @Value("${budget.import.chunk-size:1000}") int chunkSize
+    ) {
+        this.transactionExpenseService = transactionExpenseService;
+        this.transactionIncomeService = transactionIncomeService;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+    }
+
+    public ImportSummary importStatement(InputStream inputStream, ImportOptions options) throws IOException {
+        return importStatement(inputStream, options, new ImportSummary(), 0, ImportCheckpoint.NONE);
+    }
+
+    // Resumable import: the first skippedEntries entries were committed by an earlier run and are only parsed again,
+    // summary holds the counts saved with them and checkpoint is called in the transaction of every chunk
+    public ImportSummary importStatement(InputStream inputStream, ImportOptions options, ImportSummary summary,
+                                         long skippedEntries, ImportCheckpoint checkpoint) throws IOException {
+        ChunkWriter writer = new ChunkWriter(summary, options, skippedEntries, checkpoint);
+        StatementParser parser = options.format() == StatementFormat.OFX
+                ? new OfxStatementParser()
+                : new CsvStatementParser(options.columnMapping());
+
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(inputStream, options.charset()), READ_BUFFER_SIZE)) {
+            parser.parse(reader, writer);
+        }
+        writer.flush();
+        return summary;
+    }
+
+    // Maps the parsed rows to transactions and saves them a chunk at a time
+    // Expenses and incomes of a chunk are written in the same transaction, so every entry before the
+    // checkpoint is either saved or counted and a resumed import can start right after it
+    private class ChunkWriter implements StatementRowHandler {
+
+        private final ImportSummary summary;
+        private final UUID userId;
+        private final TransactionExpenseType defaultExpenseCategory;
+        private final TransactionIncomeType defaultIncomeCategory;
+        private final long skippedEntries;
+        private final ImportCheckpoint checkpoint;
+
+        private final List<TransactionExpenseModel> expenses = new ArrayList<>();
+        private final List<Long> expensePositions = new ArrayList<>();
+        private final List<TransactionIncomeModel> incomes = new ArrayList<>();
+        private final List<Long> incomePositions = new ArrayList<>();
+        private long entries;
+        private long checkpointedEntries;
+
+        ChunkWriter(ImportSummary summary, ImportOptions options, long skippedEntries, ImportCheckpoint checkpoint) {
+            this.summary = summary;
+            this.userId = options.userId();
+            this.defaultExpenseCategory = options.defaultExpenseCategory();
+            this.defaultIncomeCategory = options.defaultIncomeCategory();
+            this.skippedEntries = skippedEntries;
+            this.checkpoint = checkpoint;
+            this.checkpointedEntries = skippedEntries;
+        }
+
+        @Override
+        public void row(StatementRow row) {
+            if (++entries <= skippedEntries) {
+                return;
+            }
+            try {
+                if (row.amount().signum() < 0) {
+                    expenses.add(toExpense(row));
+                    expensePositions.add(row.position());
+                } else if (row.amount().signum() > 0) {
+                    incomes.add(toIncome(row));
+                    incomePositions.add(row.position());
+                } else {
+                    summary.rejected(row.position(), "Amount cannot be zero");
+                }
+            } catch (InvalidFieldException e) {
+                summary.rejected(row.position(), e.getMessage());
+            }
+            if (expenses.size() + incomes.size() >= chunkSize) {
+                flush();
+            }
+        }
+
+        @Override
+        public void rejected(long position, String reason) {
+            if (++entries <= skippedEntries) {
+                return;
+            }
+            summary.rejected(position, reason);
+        }
+
+        // Write the buffered chunk and the checkpoint in one transaction
+        void flush() {
+            if (entries <= checkpointedEntries) {
+                return;
+            }
+            transactionTemplate.executeWithoutResult(status -> {
+                if (!expenses.isEmpty()) {
+                    record(transactionExpenseService.saveTransactionExpenseBatch(expenses), expensePositions);
+                }
+                if (!incomes.isEmpty()) {
+                    record(transactionIncomeService.saveTransactionIncomeBatch(incomes), incomePositions);
+                }
+                checkpoint.committed(entries, summary);
+            });
+            checkpointedEntries = entries;
+            expenses.clear();
+            expensePositions.clear();
+            incomes.clear();
+            incomePositions.clear();
+            // With open session in view the persistence context outlives the chunk transactions, drop the saved entities
+            entityManager.clear();
+        }
+
+        private void record(List<BatchItemResult> results, List<Long> positions) {
+            for (BatchItemResult result : results) {
+                if (result.isCreated()) {
+                    summary.inserted();
+                } else if (result.status() == 409) {
+                    summary.duplicated();
+                } else {
+                    summary.rejected(positions.get(result.index()), result.message());
+                }
+            }
+        }
+
+        private TransactionExpenseModel toExpense(StatementRow row) {
+            TransactionExpenseModel transactionExpenseModel = new TransactionExpenseModel();
+            transactionExpenseModel.setName(category(row, EXPENSE_CATEGORIES, defaultExpenseCategory));
+            transactionExpenseModel.setDescription(description(row));
+            transactionExpenseModel.setAmount(row.amount().negate());
+            transactionExpenseModel.setDate(row.date());
+            transactionExpenseModel.setRecurrent(false);
+            transactionExpenseModel.setUserId(userId);
+            return transactionExpenseModel;
+        }
+
+        private TransactionIncomeModel toIncome(StatementRow row) {
+            TransactionIncomeModel transactionIncomeModel = new TransactionIncomeModel();
+            transactionIncomeModel.setName(category(row, INCOME_CATEGORIES, defaultIncomeCategory));
+            transactionIncomeModel.setDescription(description(row));
+            transactionIncomeModel.setAmount(row.amount());
+            transactionIncomeModel.setDate(row.date());
+            transactionIncomeModel.setUserId(userId);
+            return transactionIncomeModel;
+        }
+
+        // Category column value matched to the enum ("Car rental" -> CAR_RENTAL), or the default category
+        // Matched in place by the shared enum lookup, no upper-cased copy of the value is made per row
+        private <E extends Enum<E>> E category(StatementRow row, EnumLookup<E> categories, E defaultCategory) {
+            if (row.category() != null) {
+                E category = categories.findLabel(row.category());
+                if (category != null) {
+                    return category;
+                }
+                if (defaultCategory == null) {
+                    throw new InvalidFieldException("Unknown category: " + row.category());
+                }
+            }
+            if (defaultCategory == null) {
+                throw new InvalidFieldException("Missing category and no default category given");
+            }
+            return defaultCategory;
+        }
+
+        // Descriptions longer than the column are cut instead of rejecting the row
+        private String description(StatementRow row) {
+            String description = row.description();
+            return description != null && description.length() > 255 ? description.substring(0, 255) : description;
+        }
+    }
+}
@@ -1,21 +1,51 @@
 package com.budget.control.backend.service;
 
+import com.budget.control.backend.batch.BatchItemResult;
+import com.budget.control.backend.batch.Batches;
+import com.budget.control.backend.config.CacheConfig;
+import com.budget.control.backend.controller.dto.response.TransactionBenefitResponseDTO;
+import com.budget.control.backend.etag.EntityTags;
+import com.budget.control.backend.etag.TaggedResponse;
+import com.budget.control.backend.exception.ConstraintViolations;
+import com.budget.control.backend.exception.DuplicatedRegisterException;
+import com.budget.control.backend.exception.InvalidFieldException;
+import com.budget.control.backend.exception.NonAuthorizedException;
+import com.budget.control.backend.exception.NullFieldException;
+import com.budget.control.backend.exception.PreconditionFailedException;
+import com.budget.control.backend.mappers.TransactionBenefitMapper;
+import com.budget.control.backend.model.TransactionContentHash;
 import com.budget.control.backend.model.TransactionBenefitModel;
+import com.budget.control.backend.pagination.KeysetCursor;
+import com.budget.control.backend.pagination.KeysetPage;
 import com.budget.control.backend.repository.TransactionBenefitRepository;
+import com.budget.control.backend.service.MonthlyRollupService.RollupEntry;
 import com.budget.control.backend.type.TransactionBenefitType;
+import com.budget.control.backend.type.TransactionKindType;
 import com.budget.control.backend.validator.UUIDValidator;
 import com.budget.control.backend.validator.request.TransactionBenefitValidatorRequest;
+import io.micrometer.core.annotation.Timed;
 import jakarta.persistence.criteria.Predicate;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
 
+@Timed("budget.service")
 @Service
 public class TransactionBenefitService {
 
@@ -23,36 +53,169 @@ public class TransactionBenefitService {
     private final TransactionBenefitRepository transactionBenefitRepository;
     private final TransactionBenefitValidatorRequest transactionBenefitValidatorRequest;
     private final UUIDValidator uuidValidator;
+    private final TransactionStreamService transactionStreamService;
+    private final MonthlyRollupService monthlyRollupService;
+    private final TransactionPatcher transactionPatcher;
+    private final TransactionBulkWriter transactionBulkWriter;
+    private final EntityTagService entityTagService;
+    private final TransactionBenefitMapper transactionBenefitMapper;
 
     //Constructor Injection
     public TransactionBenefitService(
             TransactionBenefitRepository transactionBenefitRepository,
             TransactionBenefitValidatorRequest transactionBenefitValidatorRequest,
-            UUIDValidator uuidValidator
+            UUIDValidator uuidValidator,
+            TransactionStreamService transactionStreamService,
+            MonthlyRollupService monthlyRollupService,
+            TransactionPatcher transactionPatcher,
+            TransactionBulkWriter transactionBulkWriter,
+            EntityTagService entityTagService,
+            TransactionBenefitMapper transactionBenefitMapper
     ) {
         this.transactionBenefitRepository = transactionBenefitRepository;
         this.transactionBenefitValidatorRequest =  transactionBenefitValidatorRequest;
         this.uuidValidator = uuidValidator;
+        this.transactionStreamService = transactionStreamService;
+        this.monthlyRollupService = monthlyRollupService;
+        this.transactionPatcher = transactionPatcher;
+        this.transactionBulkWriter = transactionBulkWriter;
+        this.entityTagService = entityTagService;
+        this.transactionBenefitMapper = transactionBenefitMapper;
     }
 
     // Save benefit transaction
+    @Transactional
     public void saveTransactionBenefit(TransactionBenefitModel transactionBenefitModel) {
         transactionBenefitValidatorRequest.validate(transactionBenefitModel);
-        transactionBenefitRepository.save(transactionBenefitModel);
+        saveAndCheckDuplicated(transactionBenefitModel);
+        monthlyRollupService.onCreated(TransactionKindType.BENEFIT, toRollupEntry(transactionBenefitModel));
     }
 
-    // Get benefit transaction by id
-    public Optional<TransactionBenefitModel> getTransactionBenefitById(UUID transactionBenefitID) {
+    // Save many benefit transactions at once, each item gets its own status
+    // Items are validated in memory, duplicates are found with one set based query per chunk of hashes
+    // and the remaining rows are written with JDBC batch inserts and a single batched rollup update
+    @Transactional
+    public List<BatchItemResult> saveTransactionBenefitBatch(List<TransactionBenefitModel> transactionBenefitModels) {
+        BatchItemResult[] results = new BatchItemResult[transactionBenefitModels.size()];
+        Map<String, Integer> pending = new LinkedHashMap<>();
+
+        for (int index = 0; index < transactionBenefitModels.size(); index++) {
+            TransactionBenefitModel transactionBenefitModel = transactionBenefitModels.get(index);
+            if (transactionBenefitModel == null) {
+                results[index] = BatchItemResult.nullField(index, "Transaction benefit cannot be null");
+                continue;
+            }
+            try {
+                transactionBenefitValidatorRequest.validate(transactionBenefitModel);
+            } catch (NullFieldException e) {
+                results[index] = BatchItemResult.nullField(index, e.getMessage());
+                continue;
+            } catch (InvalidFieldException e) {
+                results[index] = BatchItemResult.invalidField(index, e.getMessage());
+                continue;
+            }
+            String contentHash = TransactionContentHash.of(
+                    transactionBenefitModel.getUserId(), transactionBenefitModel.getName(), transactionBenefitModel.getDescription(),
+                    transactionBenefitModel.getAmount(), transactionBenefitModel.getDate(), null);
+            if (pending.putIfAbsent(contentHash, index) != null) {
+                results[index] = BatchItemResult.duplicated(index, "Transaction benefit is repeated in the batch");
+            }
+        }
+
+        Set<String> existing = Batches.lookupInChunks(pending.keySet(), transactionBenefitRepository::findExistingContentHashes);
+        List<TransactionBenefitModel> toInsert = new ArrayList<>(pending.size());
+        for (Map.Entry<String, Integer> entry : pending.entrySet()) {
+            if (existing.contains(entry.getKey())) {
+                results[entry.getValue()] = BatchItemResult.duplicated(entry.getValue(), "Transaction benefit already exists");
+            } else {
+                toInsert.add(transactionBenefitModels.get(entry.getValue()));
+            }
+        }
+
+        if (!toInsert.isEmpty()) {
+            try {
+                transactionBenefitRepository.saveAllAndFlush(toInsert);
+            } catch (DataIntegrityViolationException e) {
+                // Only reachable when a concurrent request inserted one of the rows after the lookup
+                if (ConstraintViolations.isViolationOf(e, TransactionBenefitModel.CONTENT_HASH_CONSTRAINT)) {
+                    throw new DuplicatedRegisterException("A transaction benefit of the batch was created concurrently, retry the batch");
+                }
+                throw e;
+            }
+            monthlyRollupService.onCreatedAll(TransactionKindType.BENEFIT, toInsert.stream().map(this::toRollupEntry).toList());
+        }
+        for (Map.Entry<String, Integer> entry : pending.entrySet()) {
+            if (results[entry.getValue()] == null) {
+                results[entry.getValue()] = BatchItemResult.created(entry.getValue(), transactionBenefitModels.get(entry.getValue()).getId());
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    // Response of a benefit transaction by id with its entity tag, cached until the benefit is written
+    @Cacheable(cacheNames = CacheConfig.TRANSACTION_BENEFIT, key = "#transactionBenefitID", unless = "#result == null")
+    @Transactional(readOnly = true)
+    public Optional<TaggedResponse<TransactionBenefitResponseDTO>> getTransactionBenefitResponseById(UUID transactionBenefitID) {
+        uuidValidator.validateUUID(transactionBenefitID.toString());
+        return transactionBenefitRepository.findById(transactionBenefitID)
+                .map(transaction -> new TaggedResponse<>(transactionBenefitMapper.toResponseDTO(transaction), EntityTags.forResource(transaction.getId(), transaction.getVersion())));
+    }
+
+    // Get benefit transaction by id from the database, for callers that modify or delete the returned entity
+    public Optional<TransactionBenefitModel> getTransactionBenefitByIdForUpdate(UUID transactionBenefitID) {
         uuidValidator.validateUUID(transactionBenefitID.toString());
         return transactionBenefitRepository.findById(transactionBenefitID);
     }
 
-    // Dynamic query to get benefit transaction by filters
-    public List<TransactionBenefitModel> getTransactionBenefitByNameOrDescriptionOrAmountOrDate (
+    // Dynamic query to get a page of benefit transactions by filters
+    // Keyset pagination on (date, id), the cost of a page does not depend on how deep the client is
+    public KeysetPage<TransactionBenefitModel> getTransactionBenefitByNameOrDescriptionOrAmountOrDate (
+            TransactionBenefitType name, String description, BigDecimal amount, LocalDate date, LocalDate startDate, LocalDate endDate,
+            KeysetCursor cursor, int limit
+    ) {
+        Specification<TransactionBenefitModel> specification = buildSpecification(name, description, amount, date, startDate, endDate);
+        if (cursor != null) {
+            specification = specification.and(cursor.after());
+        }
+
+        // Fetch one extra row to know if there is a next page
+        List<TransactionBenefitModel> rows = transactionBenefitRepository.findBy(specification, query -> query
+                .sortBy(KeysetCursor.SORT)
+                .limit(limit + 1)
+                .all());
+        return KeysetPage.of(rows, limit, TransactionBenefitModel::getDate, TransactionBenefitModel::getId);
+    }
+
+    // Stream benefit transactions by filters without loading the whole result, used by the exports
+    public void streamTransactionBenefitByNameOrDescriptionOrAmountOrDate(
+            TransactionBenefitType name, String description, BigDecimal amount, LocalDate date, LocalDate startDate, LocalDate endDate,
+            Consumer<TransactionBenefitModel> consumer
+    ) {
+        transactionStreamService.stream(TransactionBenefitModel.class, buildSpecification(name, description, amount, date, startDate, endDate), consumer);
+    }
+
+    // Validator of the conditional GET of one benefit transaction, empty when it does not exist
+    public Optional<String> getTransactionBenefitTag(UUID transactionBenefitId) {
+        return entityTagService.resourceTag(TransactionBenefitModel.class, transactionBenefitId);
+    }
+
+    // Validator of the conditional GET of a page of benefit transactions: count, last update and last id of its rows
+    public String getTransactionBenefitPageTag(
+            TransactionBenefitType name, String description, BigDecimal amount, LocalDate date, LocalDate startDate, LocalDate endDate,
+            KeysetCursor cursor, int limit
+    ) {
+        Specification<TransactionBenefitModel> specification = buildSpecification(name, description, amount, date, startDate, endDate);
+        if (cursor != null) {
+            specification = specification.and(cursor.after());
+        }
+        return entityTagService.pageTag(TransactionBenefitModel.class, specification, KeysetCursor.SORT, limit);
+    }
+
+    // Dynamic query specification shared by every filtered read
+    public Specification<TransactionBenefitModel> buildSpecification(
             TransactionBenefitType name, String description, BigDecimal amount, LocalDate date, LocalDate startDate, LocalDate endDate
     ) {
-        // Dynamic query specification
-        Specification<TransactionBenefitModel> specification = (root, query, criteriaBuilder) -> {
+        return (root, query, criteriaBuilder) -> {
             List<Predicate> predicates = new ArrayList<>();
 
             // Filter by name (enum type)
@@ -84,25 +247,145 @@ public class TransactionBenefitService {
             //Combine predicates using And Logic
             return criteriaBuilder.and(predicates.toArray(new Predicate[0]));
         };
-
-        // Use the repository to execute the dynamic query
-        return transactionBenefitRepository.findAll(specification);
     }
 
     // Update transaction benefit
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.TRANSACTION_BENEFIT, key = "#transactionBenefitModel.id", condition = "#transactionBenefitModel.id != null")
     public void updateTransactionBenefit(TransactionBenefitModel transactionBenefitModel) {
         if (transactionBenefitModel.getId() == null) {
             throw new IllegalArgumentException("Transaction ID cannot be null");
         }
+        // Stored values before the update, read before anything is flushed
+        RollupEntry before = monthlyRollupService.snapshot(TransactionKindType.BENEFIT, transactionBenefitModel.getId());
         transactionBenefitValidatorRequest.validate(transactionBenefitModel);
-        transactionBenefitRepository.save(transactionBenefitModel);
+        saveAndCheckDuplicated(transactionBenefitModel);
+        monthlyRollupService.onUpdated(TransactionKindType.BENEFIT, before, toRollupEntry(transactionBenefitModel));
+    }
+
+    // Partial update of a benefit transaction: only the non-null fields of the model are written, in one statement
+    // When userId is given the transaction must belong to that user, returns false when no transaction matched
+    // When expectedVersion is given (If-Match) the update only applies to that version, otherwise PreconditionFailedException
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.TRANSACTION_BENEFIT, key = "#transactionBenefitId")
+    public boolean patchTransactionBenefitById(
+            UUID transactionBenefitId, UUID userId, Long expectedVersion, TransactionBenefitModel transactionBenefitModel
+    ) {
+        TransactionPatcher.Patch patch = toPatch(transactionBenefitModel);
+        try {
+            return transactionPatcher.patch(TransactionKindType.BENEFIT, transactionBenefitId, userId, expectedVersion, patch);
+        } catch (DataIntegrityViolationException e) {
+            if (ConstraintViolations.isViolationOf(e, TransactionBenefitModel.CONTENT_HASH_CONSTRAINT)) {
+                throw new DuplicatedRegisterException("Transaction benefit already exists.");
+            }
+            throw e;
+        }
+    }
+
+    // Partial update of every benefit transaction matching the filters, in set based statements
+    // With dryRun nothing is written and the number of matching transactions is returned
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.TRANSACTION_BENEFIT, allEntries = true, condition = "!#dryRun")
+    public long patchTransactionBenefitByFilters(
+            TransactionBenefitType name, String description, BigDecimal amount, LocalDate date, LocalDate startDate, LocalDate endDate,
+            UUID userId, TransactionBenefitModel transactionBenefitModel, boolean dryRun
+    ) {
+        TransactionPatcher.Patch patch = toPatch(transactionBenefitModel);
+        Specification<TransactionBenefitModel> specification = buildBulkSpecification(name, description, amount, date, startDate, endDate, userId);
+        if (dryRun) {
+            return transactionBulkWriter.count(TransactionBenefitModel.class, specification);
+        }
+        try {
+            return transactionBulkWriter.patchAll(TransactionKindType.BENEFIT, TransactionBenefitModel.class, specification, patch);
+        } catch (DataIntegrityViolationException e) {
+            if (ConstraintViolations.isViolationOf(e, TransactionBenefitModel.CONTENT_HASH_CONSTRAINT)) {
+                throw new DuplicatedRegisterException("The update would make two transaction benefits identical.");
+            }
+            throw e;
+        }
+    }
+
+    // Delete every benefit transaction matching the filters, in set based statements
+    // With dryRun nothing is deleted and the number of matching transactions is returned
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.TRANSACTION_BENEFIT, allEntries = true, condition = "!#dryRun")
+    public long deleteTransactionBenefitByFilters(
+            TransactionBenefitType name, String description, BigDecimal amount, LocalDate date, LocalDate startDate, LocalDate endDate,
+            UUID userId, boolean dryRun
+    ) {
+        Specification<TransactionBenefitModel> specification = buildBulkSpecification(name, description, amount, date, startDate, endDate, userId);
+        if (dryRun) {
+            return transactionBulkWriter.count(TransactionBenefitModel.class, specification);
+        }
+        return transactionBulkWriter.deleteAll(TransactionKindType.BENEFIT, TransactionBenefitModel.class, specification);
     }
 
     // Delete transaction benefit by ID
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.TRANSACTION_BENEFIT, key = "#transactionBenefitModel.id", condition = "#transactionBenefitModel.id != null")
     public void deleteTransactionBenefitById(TransactionBenefitModel transactionBenefitModel) {
         if (transactionBenefitModel.getId() != null ) {
             uuidValidator.validateUUID(transactionBenefitModel.getId().toString());
         }
+        RollupEntry before = transactionBenefitModel.getId() != null
+                ? monthlyRollupService.snapshot(TransactionKindType.BENEFIT, transactionBenefitModel.getId())
+                : null;
         transactionBenefitRepository.delete(transactionBenefitModel);
+        monthlyRollupService.onDeleted(TransactionKindType.BENEFIT, before);
+    }
+
+    // Columns of a partial update, the non-null fields of the model
+    private TransactionPatcher.Patch toPatch(TransactionBenefitModel transactionBenefitModel) {
+        transactionBenefitValidatorRequest.validatePatch(transactionBenefitModel);
+        TransactionPatcher.Patch patch = new TransactionPatcher.Patch()
+                .set("name", "varchar", transactionBenefitModel.getName() != null ? transactionBenefitModel.getName().name() : null)
+                .set("description", "varchar", transactionBenefitModel.getDescription())
+                .set("amount", "numeric(18, 2)", transactionBenefitModel.getAmount())
+                .set("date", "date", transactionBenefitModel.getDate());
+        if (patch.isEmpty()) {
+            throw new InvalidFieldException("No field to update.");
+        }
+        return patch;
+    }
+
+    // Filters of a bulk write, at least one is required so a request without filters cannot touch every row
+    // Always scoped to the transactions of userId, a missing owner never widens the filters to every user
+    private Specification<TransactionBenefitModel> buildBulkSpecification(
+            TransactionBenefitType name, String description, BigDecimal amount, LocalDate date, LocalDate startDate, LocalDate endDate, UUID userId
+    ) {
+        if (name == null && (description == null || description.isEmpty()) && amount == null && date == null
+                && startDate == null && endDate == null) {
+            throw new InvalidFieldException("At least one filter is required.");
+        }
+        if (userId == null) {
+            throw new NonAuthorizedException("Bulk writes require an authenticated user.");
+        }
+        Specification<TransactionBenefitModel> specification = buildSpecification(name, description, amount, date, startDate, endDate);
+        return specification.and((root, query, criteriaBuilder) -> criteriaBuilder.equal(root.get("userId"), userId));
+    }
+
+    // Write the row in a single statement, a duplicate is rejected by the content_hash unique constraint
+    // Flushed right away so the violation surfaces here and not at commit
+    private void saveAndCheckDuplicated(TransactionBenefitModel transactionBenefitModel) {
+        try {
+            transactionBenefitRepository.saveAndFlush(transactionBenefitModel);
+        } catch (DataIntegrityViolationException e) {
+            if (ConstraintViolations.isViolationOf(e, TransactionBenefitModel.CONTENT_HASH_CONSTRAINT)) {
+                throw new DuplicatedRegisterException("Transaction benefit already exists");
+            }
+            throw e;
+        } catch (ObjectOptimisticLockingFailureException e) {
+            // The row changed since it was read, the @Version check of the update matched no row
+            throw new PreconditionFailedException("Transaction benefit was changed by another request, read it again before updating.");
+        }
+    }
+
+    // Values of the transaction the monthly rollup depends on
+    private RollupEntry toRollupEntry(TransactionBenefitModel transactionBenefitModel) {
+        return new RollupEntry(
+                transactionBenefitModel.getUserId(),
+                transactionBenefitModel.getDate(),
+                transactionBenefitModel.getName().name(),
+                transactionBenefitModel.getAmount());
     }
 }
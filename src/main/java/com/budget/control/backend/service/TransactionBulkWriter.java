@@ -0,0 +1,105 @@
+package com.budget.control.backend.service;
+
+import com.budget.control.backend.type.TransactionKindType;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.UUID;
+
+// Delete or patch every transaction matching a filter specification with set based statements
+// The matching ids are read and locked by one query, then the rows are written by id chunks of chunkSize,
+// each chunk one statement that also applies its monthly rollup deltas
+// The lock keeps the rollup exact: a row cannot change between the two steps, and rows inserted meanwhile are not touched
+@Component
+public class TransactionBulkWriter {
+
+    private static final String DELETE_SQL = """
+            WITH deleted AS (
+                DELETE FROM %1$s WHERE id = ANY(CAST(? AS uuid[]))
+                RETURNING user_id, date, name, amount
+            ), rollup AS (
+                INSERT INTO monthly_rollup (id, user_id, month, transaction_kind, category, total_amount, transaction_count, updated_at)
+                SELECT gen_random_uuid(), COALESCE(user_id, CAST('%3$s' AS uuid)), CAST(date_trunc('month', date) AS date), '%2$s', name,
+                       -SUM(amount), -COUNT(*), now()
+                FROM deleted
+                GROUP BY 2, 3, 5
+                ORDER BY 2, 3, 5
+                ON CONFLICT (user_id, month, transaction_kind, category)
+                DO UPDATE SET total_amount = monthly_rollup.total_amount + EXCLUDED.total_amount,
+                              transaction_count = monthly_rollup.transaction_count + EXCLUDED.transaction_count,
+                              updated_at = now()
+            )
+            SELECT user_id, COUNT(*) AS deleted FROM deleted GROUP BY user_id
+            """;
+
+    // Dependency Injection
+    private final EntityManager entityManager;
+    private final TransactionPatcher transactionPatcher;
+    private final int chunkSize;
+
+    public TransactionBulkWriter(
+            EntityManager entityManager,
+            TransactionPatcher transactionPatcher,
+            @Value("${budget.bulk.chunk-size:10000}") int chunkSize
+    ) {
+        this.entityManager = entityManager;
+        this.transactionPatcher = transactionPatcher;
+        this.chunkSize = chunkSize;
+    }
+
+    // Number of transactions matching the specification, for the dry runs
+    @Transactional(propagation = Propagation.MANDATORY)
+    public <T> long count(Class<T> type, Specification<T> specification) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = criteriaBuilder.createQuery(Long.class);
+        Root<T> root = query.from(type);
+        query.select(criteriaBuilder.count(root)).where(specification.toPredicate(root, query, criteriaBuilder));
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    // Delete the transactions matching the specification, returns the number of rows deleted
+    @Transactional(propagation = Propagation.MANDATORY)
+    public <T> long deleteAll(TransactionKindType kind, Class<T> type, Specification<T> specification) {
+        List<UUID> ids = lockIds(type, specification);
+        long deleted = 0;
+        String sql = DELETE_SQL.formatted(kind.getTableName(), kind.name(), MonthlyRollupService.NO_USER);
+        for (int from = 0; from < ids.size(); from += chunkSize) {
+            List<UUID> chunk = ids.subList(from, Math.min(from + chunkSize, ids.size()));
+            // One argument, the whole chunk bound as the uuid[] parameter (List.of(array) would spread it)
+            Object[] args = {chunk.toArray(new UUID[0])};
+            deleted += transactionPatcher.updateAndEvict(sql, List.of(args));
+        }
+        return deleted;
+    }
+
+    // Write the patch on the transactions matching the specification, returns the number of rows updated
+    @Transactional(propagation = Propagation.MANDATORY)
+    public <T> long patchAll(TransactionKindType kind, Class<T> type, Specification<T> specification, TransactionPatcher.Patch patch) {
+        List<UUID> ids = lockIds(type, specification);
+        long updated = 0;
+        for (int from = 0; from < ids.size(); from += chunkSize) {
+            updated += transactionPatcher.patchAll(kind, ids.subList(from, Math.min(from + chunkSize, ids.size())), null, patch);
+        }
+        return updated;
+    }
+
+    // Ids of the matching rows, locked until the transaction ends (SELECT ... FOR UPDATE)
+    private <T> List<UUID> lockIds(Class<T> type, Specification<T> specification) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<UUID> query = criteriaBuilder.createQuery(UUID.class);
+        Root<T> root = query.from(type);
+        query.select(root.get("id")).where(specification.toPredicate(root, query, criteriaBuilder));
+        return entityManager.createQuery(query)
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .getResultList();
+    }
+}
@@ -1,21 +1,51 @@
 package com.budget.control.backend.service;
 
+import com.budget.control.backend.batch.BatchItemResult;
+import com.budget.control.backend.batch.Batches;
+import com.budget.control.backend.config.CacheConfig;
+import com.budget.control.backend.controller.dto.response.TransactionExpenseResponseDTO;
+import com.budget.control.backend.etag.EntityTags;
+import com.budget.control.backend.etag.TaggedResponse;
+import com.budget.control.backend.exception.ConstraintViolations;
+import com.budget.control.backend.exception.DuplicatedRegisterException;
+import com.budget.control.backend.exception.InvalidFieldException;
+import com.budget.control.backend.exception.NonAuthorizedException;
+import com.budget.control.backend.exception.NullFieldException;
+import com.budget.control.backend.exception.PreconditionFailedException;
+import com.budget.control.backend.mappers.TransactionExpenseMapper;
+import com.budget.control.backend.model.TransactionContentHash;
 import com.budget.control.backend.model.TransactionExpenseModel;
+import com.budget.control.backend.pagination.KeysetCursor;
+import com.budget.control.backend.pagination.KeysetPage;
 import com.budget.control.backend.repository.TransactionExpenseRepository;
+import com.budget.control.backend.service.MonthlyRollupService.RollupEntry;
 import com.budget.control.backend.type.TransactionExpenseType;
+import com.budget.control.backend.type.TransactionKindType;
 import com.budget.control.backend.validator.UUIDValidator;
 import com.budget.control.backend.validator.request.TransactionExpenseValidatorRequest;
+import io.micrometer.core.annotation.Timed;
 import jakarta.persistence.criteria.Predicate;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
 
+@Timed("budget.service")
 @Service
 public class TransactionExpenseService {
 
@@ -23,34 +53,167 @@ public class TransactionExpenseService {
     private final TransactionExpenseRepository transactionExpenseRepository;
     private final TransactionExpenseValidatorRequest transactionExpenseValidatorRequest;
     private final UUIDValidator uuidValidator;
+    private final TransactionStreamService transactionStreamService;
+    private final MonthlyRollupService monthlyRollupService;
+    private final TransactionPatcher transactionPatcher;
+    private final TransactionBulkWriter transactionBulkWriter;
+    private final EntityTagService entityTagService;
+    private final TransactionExpenseMapper transactionExpenseMapper;
 
     public TransactionExpenseService(
             TransactionExpenseRepository transactionExpenseRepository,
             TransactionExpenseValidatorRequest transactionExpenseValidatorRequest,
-            UUIDValidator uuidValidator) {
+            UUIDValidator uuidValidator,
+            TransactionStreamService transactionStreamService,
+            MonthlyRollupService monthlyRollupService,
+            TransactionPatcher transactionPatcher,
+            TransactionBulkWriter transactionBulkWriter,
+            EntityTagService entityTagService,
+            TransactionExpenseMapper transactionExpenseMapper) {
         this.transactionExpenseRepository = transactionExpenseRepository;
         this.transactionExpenseValidatorRequest = transactionExpenseValidatorRequest;
         this.uuidValidator = uuidValidator;
+        this.transactionStreamService = transactionStreamService;
+        this.monthlyRollupService = monthlyRollupService;
+        this.transactionPatcher = transactionPatcher;
+        this.transactionBulkWriter = transactionBulkWriter;
+        this.entityTagService = entityTagService;
+        this.transactionExpenseMapper = transactionExpenseMapper;
     }
 
     // Save expense transaction
+    @Transactional
     public void saveTransactionExpense(TransactionExpenseModel transactionExpenseModel) {
         transactionExpenseValidatorRequest.validate(transactionExpenseModel);
-        transactionExpenseRepository.save(transactionExpenseModel);
+        saveAndCheckDuplicated(transactionExpenseModel);
+        monthlyRollupService.onCreated(TransactionKindType.EXPENSE, toRollupEntry(transactionExpenseModel));
     }
 
-    // Get expense transaction by id
-    public Optional<TransactionExpenseModel> getTransactionExpenseById(UUID transactionExpenseId) {
+    // Save many expense transactions at once, each item gets its own status
+    // Items are validated in memory, duplicates are found with one set based query per chunk of hashes
+    // and the remaining rows are written with JDBC batch inserts and a single batched rollup update
+    @Transactional
+    public List<BatchItemResult> saveTransactionExpenseBatch(List<TransactionExpenseModel> transactionExpenseModels) {
+        BatchItemResult[] results = new BatchItemResult[transactionExpenseModels.size()];
+        Map<String, Integer> pending = new LinkedHashMap<>();
+
+        for (int index = 0; index < transactionExpenseModels.size(); index++) {
+            TransactionExpenseModel transactionExpenseModel = transactionExpenseModels.get(index);
+            if (transactionExpenseModel == null) {
+                results[index] = BatchItemResult.nullField(index, "Transaction expense cannot be null");
+                continue;
+            }
+            try {
+                transactionExpenseValidatorRequest.validate(transactionExpenseModel);
+            } catch (NullFieldException e) {
+                results[index] = BatchItemResult.nullField(index, e.getMessage());
+                continue;
+            } catch (InvalidFieldException e) {
+                results[index] = BatchItemResult.invalidField(index, e.getMessage());
+                continue;
+            }
+            String contentHash = TransactionContentHash.of(
+                    transactionExpenseModel.getUserId(), transactionExpenseModel.getName(), transactionExpenseModel.getDescription(),
+                    transactionExpenseModel.getAmount(), transactionExpenseModel.getDate(), transactionExpenseModel.getRecurrent());
+            if (pending.putIfAbsent(contentHash, index) != null) {
+                results[index] = BatchItemResult.duplicated(index, "Transaction expense is repeated in the batch");
+            }
+        }
+
+        Set<String> existing = Batches.lookupInChunks(pending.keySet(), transactionExpenseRepository::findExistingContentHashes);
+        List<TransactionExpenseModel> toInsert = new ArrayList<>(pending.size());
+        for (Map.Entry<String, Integer> entry : pending.entrySet()) {
+            if (existing.contains(entry.getKey())) {
+                results[entry.getValue()] = BatchItemResult.duplicated(entry.getValue(), "Transaction expense already exists");
+            } else {
+                toInsert.add(transactionExpenseModels.get(entry.getValue()));
+            }
+        }
+
+        if (!toInsert.isEmpty()) {
+            try {
+                transactionExpenseRepository.saveAllAndFlush(toInsert);
+            } catch (DataIntegrityViolationException e) {
+                // Only reachable when a concurrent request inserted one of the rows after the lookup
+                if (ConstraintViolations.isViolationOf(e, TransactionExpenseModel.CONTENT_HASH_CONSTRAINT)) {
+                    throw new DuplicatedRegisterException("A transaction expense of the batch was created concurrently, retry the batch");
+                }
+                throw e;
+            }
+            monthlyRollupService.onCreatedAll(TransactionKindType.EXPENSE, toInsert.stream().map(this::toRollupEntry).toList());
+        }
+        for (Map.Entry<String, Integer> entry : pending.entrySet()) {
+            if (results[entry.getValue()] == null) {
+                results[entry.getValue()] = BatchItemResult.created(entry.getValue(), transactionExpenseModels.get(entry.getValue()).getId());
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    // Response of an expense transaction by id with its entity tag, cached until the expense is written
+    @Cacheable(cacheNames = CacheConfig.TRANSACTION_EXPENSE, key = "#transactionExpenseId", unless = "#result == null")
+    @Transactional(readOnly = true)
+    public Optional<TaggedResponse<TransactionExpenseResponseDTO>> getTransactionExpenseResponseById(UUID transactionExpenseId) {
+        uuidValidator.validateUUID(transactionExpenseId.toString());
+        return transactionExpenseRepository.findById(transactionExpenseId)
+                .map(transaction -> new TaggedResponse<>(transactionExpenseMapper.toResponseDTO(transaction), EntityTags.forResource(transaction.getId(), transaction.getVersion())));
+    }
+
+    // Get expense transaction by id from the database, for callers that modify or delete the returned entity
+    public Optional<TransactionExpenseModel> getTransactionExpenseByIdForUpdate(UUID transactionExpenseId) {
         uuidValidator.validateUUID(transactionExpenseId.toString());
         return transactionExpenseRepository.findById(transactionExpenseId);
     }
 
-    // Dynamic query to get expense transaction by filters
-    public List<TransactionExpenseModel> getTransactionExpenseByNameOrDescriptionOrAmountOrDateOrRecurrent(
+    // Dynamic query to get a page of expense transactions by filters
+    // Keyset pagination on (date, id), the cost of a page does not depend on how deep the client is
+    public KeysetPage<TransactionExpenseModel> getTransactionExpenseByNameOrDescriptionOrAmountOrDateOrRecurrent(
+            TransactionExpenseType name, String description, BigDecimal amount, LocalDate date, LocalDate startDate, LocalDate endDate, Boolean recurrent,
+            KeysetCursor cursor, int limit
+    ) {
+        Specification<TransactionExpenseModel> specification = buildSpecification(name, description, amount, date, startDate, endDate, recurrent);
+        if (cursor != null) {
+            specification = specification.and(cursor.after());
+        }
+
+        // Fetch one extra row to know if there is a next page
+        List<TransactionExpenseModel> rows = transactionExpenseRepository.findBy(specification, query -> query
+                .sortBy(KeysetCursor.SORT)
+                .limit(limit + 1)
+                .all());
+        return KeysetPage.of(rows, limit, TransactionExpenseModel::getDate, TransactionExpenseModel::getId);
+    }
+
+    // Stream expense transactions by filters without loading the whole result, used by the exports
+    public void streamTransactionExpenseByNameOrDescriptionOrAmountOrDateOrRecurrent(
+            TransactionExpenseType name, String description, BigDecimal amount, LocalDate date, LocalDate startDate, LocalDate endDate, Boolean recurrent,
+            Consumer<TransactionExpenseModel> consumer
+    ) {
+        transactionStreamService.stream(TransactionExpenseModel.class, buildSpecification(name, description, amount, date, startDate, endDate, recurrent), consumer);
+    }
+
+    // Validator of the conditional GET of one expense transaction, empty when it does not exist
+    public Optional<String> getTransactionExpenseTag(UUID transactionExpenseId) {
+        return entityTagService.resourceTag(TransactionExpenseModel.class, transactionExpenseId);
+    }
+
+    // Validator of the conditional GET of a page of expense transactions: count, last update and last id of its rows
+    public String getTransactionExpensePageTag(
+            TransactionExpenseType name, String description, BigDecimal amount, LocalDate date, LocalDate startDate, LocalDate endDate, Boolean recurrent,
+            KeysetCursor cursor, int limit
+    ) {
+        Specification<TransactionExpenseModel> specification = buildSpecification(name, description, amount, date, startDate, endDate, recurrent);
+        if (cursor != null) {
+            specification = specification.and(cursor.after());
+        }
+        return entityTagService.pageTag(TransactionExpenseModel.class, specification, KeysetCursor.SORT, limit);
+    }
+
+    // Dynamic query specification shared by every filtered read
+    public Specification<TransactionExpenseModel> buildSpecification(
             TransactionExpenseType name, String description, BigDecimal amount, LocalDate date, LocalDate startDate, LocalDate endDate, Boolean recurrent
     ) {
-        // Dynamic query specification
-        Specification<TransactionExpenseModel> specification = (root, query, criteriaBuilder) -> {
+        return (root, query, criteriaBuilder) -> {
             List<Predicate> predicates = new ArrayList<>();
 
             // Filter by name (enum type)
@@ -86,25 +249,153 @@ public class TransactionExpenseService {
             // Combine predicates using And Logic
             return criteriaBuilder.and(predicates.toArray(new Predicate[0]));
         };
-
-        // Use the repository to execute the dynamic query
-        return transactionExpenseRepository.findAll(specification);
     }
 
     // Update transaction expense
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.TRANSACTION_EXPENSE, key = "#transactionExpenseModel.id", condition = "#transactionExpenseModel.id != null")
     public void updateTransactionExpense (TransactionExpenseModel transactionExpenseModel) {
         if (transactionExpenseModel.getId() == null) {
             throw new IllegalArgumentException("Transaction ID cannot be null.");
         }
+        // Stored values before the update, read before anything is flushed
+        RollupEntry before = monthlyRollupService.snapshot(TransactionKindType.EXPENSE, transactionExpenseModel.getId());
         transactionExpenseValidatorRequest.validate(transactionExpenseModel);
-        transactionExpenseRepository.save(transactionExpenseModel);
+        saveAndCheckDuplicated(transactionExpenseModel);
+        monthlyRollupService.onUpdated(TransactionKindType.EXPENSE, before, toRollupEntry(transactionExpenseModel));
+    }
+
+    // Partial update of an expense transaction: only the non-null fields of the model are written, in one statement
+    // When userId is given the transaction must belong to that user, returns false when no transaction matched
+    // When expectedVersion is given (If-Match) the update only applies to that version, otherwise PreconditionFailedException
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.TRANSACTION_EXPENSE, key = "#transactionExpenseId")
+    public boolean patchTransactionExpenseById(
+            UUID transactionExpenseId, UUID userId, Long expectedVersion, TransactionExpenseModel transactionExpenseModel
+    ) {
+        TransactionPatcher.Patch patch = toPatch(transactionExpenseModel);
+        try {
+            return transactionPatcher.patch(TransactionKindType.EXPENSE, transactionExpenseId, userId, expectedVersion, patch);
+        } catch (DataIntegrityViolationException e) {
+            if (ConstraintViolations.isViolationOf(e, TransactionExpenseModel.CONTENT_HASH_CONSTRAINT)) {
+                throw new DuplicatedRegisterException("Transaction expense already exists.");
+            }
+            throw e;
+        }
+    }
+
+    // Partial update of every expense transaction matching the filters, in set based statements
+    // With dryRun nothing is written and the number of matching transactions is returned
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.TRANSACTION_EXPENSE, allEntries = true, condition = "!#dryRun")
+    public long patchTransactionExpenseByFilters(
+            TransactionExpenseType name, String description, BigDecimal amount, LocalDate date, LocalDate startDate, LocalDate endDate, Boolean recurrent,
+            UUID userId, TransactionExpenseModel transactionExpenseModel, boolean dryRun
+    ) {
+        TransactionPatcher.Patch patch = toPatch(transactionExpenseModel);
+        Specification<TransactionExpenseModel> specification = buildBulkSpecification(name, description, amount, date, startDate, endDate, recurrent, userId);
+        if (dryRun) {
+            return transactionBulkWriter.count(TransactionExpenseModel.class, specification);
+        }
+        try {
+            return transactionBulkWriter.patchAll(TransactionKindType.EXPENSE, TransactionExpenseModel.class, specification, patch);
+        } catch (DataIntegrityViolationException e) {
+            if (ConstraintViolations.isViolationOf(e, TransactionExpenseModel.CONTENT_HASH_CONSTRAINT)) {
+                throw new DuplicatedRegisterException("The update would make two transaction expenses identical.");
+            }
+            throw e;
+        }
+    }
+
+    // Delete every expense transaction matching the filters, in set based statements
+    // With dryRun nothing is deleted and the number of matching transactions is returned
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.TRANSACTION_EXPENSE, allEntries = true, condition = "!#dryRun")
+    public long deleteTransactionExpenseByFilters(
+            TransactionExpenseType name, String description, BigDecimal amount, LocalDate date, LocalDate startDate, LocalDate endDate, Boolean recurrent,
+            UUID userId, boolean dryRun
+    ) {
+        Specification<TransactionExpenseModel> specification = buildBulkSpecification(name, description, amount, date, startDate, endDate, recurrent, userId);
+        if (dryRun) {
+            return transactionBulkWriter.count(TransactionExpenseModel.class, specification);
+        }
+        return transactionBulkWriter.deleteAll(TransactionKindType.EXPENSE, TransactionExpenseModel.class, specification);
     }
 
     // Delete transaction expense by ID
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.TRANSACTION_EXPENSE, key = "#transactionExpenseModel.id", condition = "#transactionExpenseModel.id != null")
     public void deleteTransactionExpenseById(TransactionExpenseModel transactionExpenseModel) {
         if (transactionExpenseModel.getId() != null) {
             uuidValidator.validateUUID(transactionExpenseModel.getId().toString());
         }
+        RollupEntry before = transactionExpenseModel.getId() != null
+                ? monthlyRollupService.snapshot(TransactionKindType.EXPENSE, transactionExpenseModel.getId())
+                : null;
         transactionExpenseRepository.delete(transactionExpenseModel);
+        monthlyRollupService.onDeleted(TransactionKindType.EXPENSE, before);
+    }
+
+    // Columns of a partial update, the non-null fields of the model
+    private TransactionPatcher.Patch toPatch(TransactionExpenseModel transactionExpenseModel) {
+        transactionExpenseValidatorRequest.validatePatch(transactionExpenseModel);
+        TransactionPatcher.Patch patch = new TransactionPatcher.Patch()
+                .set("name", "varchar", transactionExpenseModel.getName() != null ? transactionExpenseModel.getName().name() : null)
+                .set("description", "varchar", transactionExpenseModel.getDescription())
+                .set("amount", "numeric(18, 2)", transactionExpenseModel.getAmount())
+                .set("date", "date", transactionExpenseModel.getDate())
+                .set("recurrent", "boolean", transactionExpenseModel.getRecurrent());
+        // An expense that stops being recurrent is no longer a template
+        if (Boolean.FALSE.equals(transactionExpenseModel.getRecurrent())) {
+            patch.also("recurrence_frequency = NULL")
+                    .also("recurrence_day = NULL")
+                    .also("next_occurrence = NULL");
+        }
+        if (patch.isEmpty()) {
+            throw new InvalidFieldException("No field to update.");
+        }
+        return patch;
+    }
+
+    // Filters of a bulk write, at least one is required so a request without filters cannot touch every row
+    // Always scoped to the transactions of userId, a missing owner never widens the filters to every user
+    private Specification<TransactionExpenseModel> buildBulkSpecification(
+            TransactionExpenseType name, String description, BigDecimal amount, LocalDate date, LocalDate startDate, LocalDate endDate, Boolean recurrent,
+            UUID userId
+    ) {
+        if (name == null && (description == null || description.isEmpty()) && amount == null && date == null
+                && startDate == null && endDate == null && recurrent == null) {
+            throw new InvalidFieldException("At least one filter is required.");
+        }
+        if (userId == null) {
+            throw new NonAuthorizedException("Bulk writes require an authenticated user.");
+        }
+        Specification<TransactionExpenseModel> specification = buildSpecification(name, description, amount, date, startDate, endDate, recurrent);
+        return specification.and((root, query, criteriaBuilder) -> criteriaBuilder.equal(root.get("userId"), userId));
+    }
+
+    // Write the row in a single statement, a duplicate is rejected by the content_hash unique constraint
+    // Flushed right away so the violation surfaces here and not at commit
+    private void saveAndCheckDuplicated(TransactionExpenseModel transactionExpenseModel) {
+        try {
+            transactionExpenseRepository.saveAndFlush(transactionExpenseModel);
+        } catch (DataIntegrityViolationException e) {
+            if (ConstraintViolations.isViolationOf(e, TransactionExpenseModel.CONTENT_HASH_CONSTRAINT)) {
+                throw new DuplicatedRegisterException("Transaction expense already exists.");
+            }
+            throw e;
+        } catch (ObjectOptimisticLockingFailureException e) {
+            // The row changed since it was read, the @Version check of the update matched no row
+            throw new PreconditionFailedException("Transaction expense was changed by another request, read it again before updating.");
+        }
+    }
+
+    // Values of the transaction the monthly rollup depends on
+    private RollupEntry toRollupEntry(TransactionExpenseModel transactionExpenseModel) {
+        return new RollupEntry(
+                transactionExpenseModel.getUserId(),
+                transactionExpenseModel.getDate(),
+                transactionExpenseModel.getName().name(),
+                transactionExpenseModel.getAmount());
     }
 }
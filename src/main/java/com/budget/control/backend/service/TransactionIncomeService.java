@@ -1,22 +1,52 @@
 package com.budget.control.backend.service;
 
+import com.budget.control.backend.batch.BatchItemResult;
+import com.budget.control.backend.batch.Batches;
+import com.budget.control.backend.config.CacheConfig;
+import com.budget.control.backend.controller.dto.response.TransactionIncomeResponseDTO;
+import com.budget.control.backend.etag.EntityTags;
+import com.budget.control.backend.etag.TaggedResponse;
+import com.budget.control.backend.exception.ConstraintViolations;
+import com.budget.control.backend.exception.DuplicatedRegisterException;
+import com.budget.control.backend.exception.InvalidFieldException;
+import com.budget.control.backend.exception.NonAuthorizedException;
+import com.budget.control.backend.exception.NullFieldException;
+import com.budget.control.backend.exception.PreconditionFailedException;
+import com.budget.control.backend.mappers.TransactionIncomeMapper;
+import com.budget.control.backend.model.TransactionContentHash;
 import com.budget.control.backend.model.TransactionIncomeModel;
+import com.budget.control.backend.pagination.KeysetCursor;
+import com.budget.control.backend.pagination.KeysetPage;
 import com.budget.control.backend.repository.TransactionIncomeRepository;
+import com.budget.control.backend.service.MonthlyRollupService.RollupEntry;
 import com.budget.control.backend.type.TransactionIncomeType;
+import com.budget.control.backend.type.TransactionKindType;
 import com.budget.control.backend.validator.UUIDValidator;
 import com.budget.control.backend.validator.request.TransactionIncomeValidatorRequest;
+import io.micrometer.core.annotation.Timed;
 import jakarta.persistence.criteria.Predicate;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 
+@Timed("budget.service")
 @Service
 public class TransactionIncomeService {
 
@@ -24,35 +54,168 @@ public class TransactionIncomeService {
     private final TransactionIncomeRepository transactionIncomeRepository;
     private final TransactionIncomeValidatorRequest transactionIncomeValidatorRequest;
     private final UUIDValidator uuidValidator;
+    private final TransactionStreamService transactionStreamService;
+    private final MonthlyRollupService monthlyRollupService;
+    private final TransactionPatcher transactionPatcher;
+    private final TransactionBulkWriter transactionBulkWriter;
+    private final EntityTagService entityTagService;
+    private final TransactionIncomeMapper transactionIncomeMapper;
 
     //Constructor Injection
     public TransactionIncomeService(
             TransactionIncomeRepository transactionIncomeRepository,
             TransactionIncomeValidatorRequest transactionIncomeValidatorRequest,
-            UUIDValidator uuidValidator) {
+            UUIDValidator uuidValidator,
+            TransactionStreamService transactionStreamService,
+            MonthlyRollupService monthlyRollupService,
+            TransactionPatcher transactionPatcher,
+            TransactionBulkWriter transactionBulkWriter,
+            EntityTagService entityTagService,
+            TransactionIncomeMapper transactionIncomeMapper) {
         this.transactionIncomeRepository = transactionIncomeRepository;
         this.transactionIncomeValidatorRequest = transactionIncomeValidatorRequest;
         this.uuidValidator = uuidValidator;
+        this.transactionStreamService = transactionStreamService;
+        this.monthlyRollupService = monthlyRollupService;
+        this.transactionPatcher = transactionPatcher;
+        this.transactionBulkWriter = transactionBulkWriter;
+        this.entityTagService = entityTagService;
+        this.transactionIncomeMapper = transactionIncomeMapper;
     }
 
     //Save income transaction
+    @Transactional
     public void saveTransactionIncome(TransactionIncomeModel transactionIncomeModel) {
         transactionIncomeValidatorRequest.validate(transactionIncomeModel);
-        transactionIncomeRepository.save(transactionIncomeModel);
+        saveAndCheckDuplicated(transactionIncomeModel);
+        monthlyRollupService.onCreated(TransactionKindType.INCOME, toRollupEntry(transactionIncomeModel));
     }
 
-    //Get income transaction by id
-    public Optional<TransactionIncomeModel> getTransactionIncomeById(UUID transactionIncomeID) {
+    //Save many income transactions at once, each item gets its own status
+    //Items are validated in memory, duplicates are found with one set based query per chunk of hashes
+    //and the remaining rows are written with JDBC batch inserts and a single batched rollup update
+    @Transactional
+    public List<BatchItemResult> saveTransactionIncomeBatch(List<TransactionIncomeModel> transactionIncomeModels) {
+        BatchItemResult[] results = new BatchItemResult[transactionIncomeModels.size()];
+        Map<String, Integer> pending = new LinkedHashMap<>();
+
+        for (int index = 0; index < transactionIncomeModels.size(); index++) {
+            TransactionIncomeModel transactionIncomeModel = transactionIncomeModels.get(index);
+            if (transactionIncomeModel == null) {
+                results[index] = BatchItemResult.nullField(index, "Transaction income cannot be null");
+                continue;
+            }
+            try {
+                transactionIncomeValidatorRequest.validate(transactionIncomeModel);
+            } catch (NullFieldException e) {
+                results[index] = BatchItemResult.nullField(index, e.getMessage());
+                continue;
+            } catch (InvalidFieldException e) {
+                results[index] = BatchItemResult.invalidField(index, e.getMessage());
+                continue;
+            }
+            String contentHash = TransactionContentHash.of(
+                    transactionIncomeModel.getUserId(), transactionIncomeModel.getName(), transactionIncomeModel.getDescription(),
+                    transactionIncomeModel.getAmount(), transactionIncomeModel.getDate(), null);
+            if (pending.putIfAbsent(contentHash, index) != null) {
+                results[index] = BatchItemResult.duplicated(index, "Transaction income is repeated in the batch");
+            }
+        }
+
+        Set<String> existing = Batches.lookupInChunks(pending.keySet(), transactionIncomeRepository::findExistingContentHashes);
+        List<TransactionIncomeModel> toInsert = new ArrayList<>(pending.size());
+        for (Map.Entry<String, Integer> entry : pending.entrySet()) {
+            if (existing.contains(entry.getKey())) {
+                results[entry.getValue()] = BatchItemResult.duplicated(entry.getValue(), "Transaction income already exists");
+            } else {
+                toInsert.add(transactionIncomeModels.get(entry.getValue()));
+            }
+        }
+
+        if (!toInsert.isEmpty()) {
+            try {
+                transactionIncomeRepository.saveAllAndFlush(toInsert);
+            } catch (DataIntegrityViolationException e) {
+                //Only reachable when a concurrent request inserted one of the rows after the lookup
+                if (ConstraintViolations.isViolationOf(e, TransactionIncomeModel.CONTENT_HASH_CONSTRAINT)) {
+                    throw new DuplicatedRegisterException("A transaction income of the batch was created concurrently, retry the batch");
+                }
+                throw e;
+            }
+            monthlyRollupService.onCreatedAll(TransactionKindType.INCOME, toInsert.stream().map(this::toRollupEntry).toList());
+        }
+        for (Map.Entry<String, Integer> entry : pending.entrySet()) {
+            if (results[entry.getValue()] == null) {
+                results[entry.getValue()] = BatchItemResult.created(entry.getValue(), transactionIncomeModels.get(entry.getValue()).getId());
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    // Response of an income transaction by id with its entity tag, cached until the income is written
+    @Cacheable(cacheNames = CacheConfig.TRANSACTION_INCOME, key = "#transactionIncomeID", unless = "#result == null")
+    @Transactional(readOnly = true)
+    public Optional<TaggedResponse<TransactionIncomeResponseDTO>> getTransactionIncomeResponseById(UUID transactionIncomeID) {
+        uuidValidator.validateUUID(transactionIncomeID.toString());
+        return transactionIncomeRepository.findById(transactionIncomeID)
+                .map(transaction -> new TaggedResponse<>(transactionIncomeMapper.toResponseDTO(transaction), EntityTags.forResource(transaction.getId(), transaction.getVersion())));
+    }
+
+    //Get income transaction by id from the database, for callers that modify or delete the returned entity
+    public Optional<TransactionIncomeModel> getTransactionIncomeByIdForUpdate(UUID transactionIncomeID) {
         uuidValidator.validateUUID(transactionIncomeID.toString());
         return transactionIncomeRepository.findById(transactionIncomeID);
     }
 
-    //Dynamic query to get income transaction by filters
-    public List<TransactionIncomeModel> getTransactionIncomeByNameOrDescriptionOrAmountOrDate(
-            TransactionIncomeType name, String description, BigDecimal amount, LocalDate date, LocalDate startDate, LocalDate endDate){
+    //Dynamic query to get a page of income transactions by filters
+    //Keyset pagination on (date, id), the cost of a page does not depend on how deep the client is
+    public KeysetPage<TransactionIncomeModel> getTransactionIncomeByNameOrDescriptionOrAmountOrDate(
+            TransactionIncomeType name, String description, BigDecimal amount, LocalDate date, LocalDate startDate, LocalDate endDate,
+            KeysetCursor cursor, int limit
+    ) {
+        Specification<TransactionIncomeModel> specification = buildSpecification(name, description, amount, date, startDate, endDate);
+        if (cursor != null) {
+            specification = specification.and(cursor.after());
+        }
+
+        //Fetch one extra row to know if there is a next page
+        List<TransactionIncomeModel> rows = transactionIncomeRepository.findBy(specification, query -> query
+                .sortBy(KeysetCursor.SORT)
+                .limit(limit + 1)
+                .all());
+        return KeysetPage.of(rows, limit, TransactionIncomeModel::getDate, TransactionIncomeModel::getId);
+    }
+
+    //Stream income transactions by filters without loading the whole result, used by the exports
+    public void streamTransactionIncomeByNameOrDescriptionOrAmountOrDate(
+            TransactionIncomeType name, String description, BigDecimal amount, LocalDate date, LocalDate startDate, LocalDate endDate,
+            Consumer<TransactionIncomeModel> consumer
+    ) {
+        transactionStreamService.stream(TransactionIncomeModel.class, buildSpecification(name, description, amount, date, startDate, endDate), consumer);
+    }
+
+    //Validator of the conditional GET of one income transaction, empty when it does not exist
+    public Optional<String> getTransactionIncomeTag(UUID transactionIncomeId) {
+        return entityTagService.resourceTag(TransactionIncomeModel.class, transactionIncomeId);
+    }
+
+    //Validator of the conditional GET of a page of income transactions: count, last update and last id of its rows
+    public String getTransactionIncomePageTag(
+            TransactionIncomeType name, String description, BigDecimal amount, LocalDate date, LocalDate startDate, LocalDate endDate,
+            KeysetCursor cursor, int limit
+    ) {
+        Specification<TransactionIncomeModel> specification = buildSpecification(name, description, amount, date, startDate, endDate);
+        if (cursor != null) {
+            specification = specification.and(cursor.after());
+        }
+        return entityTagService.pageTag(TransactionIncomeModel.class, specification, KeysetCursor.SORT, limit);
+    }
 
-        //Dynamic query specification
-        Specification<TransactionIncomeModel> specification = (root, query, criteriaBuilder) -> {
+    //Dynamic query specification shared by every filtered read
+    public Specification<TransactionIncomeModel> buildSpecification(
+            TransactionIncomeType name, String description, BigDecimal amount, LocalDate date, LocalDate startDate, LocalDate endDate
+    ) {
+        return (root, query, criteriaBuilder) -> {
             List<Predicate> predicates = new ArrayList<>();
 
             //Filter by name (enum type)
@@ -84,27 +247,146 @@ public class TransactionIncomeService {
             //Combine predicates using And Logic
             return criteriaBuilder.and(predicates.toArray(new Predicate[0]));
         };
-
-        //Use the repository to execute the dynamic query
-        return transactionIncomeRepository.findAll(specification);
-
     }
 
     // Update transaction income
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.TRANSACTION_INCOME, key = "#transactionIncomeModel.id", condition = "#transactionIncomeModel.id != null")
     public void updateTransactionIncome(TransactionIncomeModel transactionIncomeModel){
         if (transactionIncomeModel.getId() == null) {
             throw new IllegalArgumentException("Transaction ID cannot be null");
         }
+        // Stored values before the update, read before anything is flushed
+        RollupEntry before = monthlyRollupService.snapshot(TransactionKindType.INCOME, transactionIncomeModel.getId());
         transactionIncomeValidatorRequest.validate(transactionIncomeModel);
-        transactionIncomeRepository.save(transactionIncomeModel);
+        saveAndCheckDuplicated(transactionIncomeModel);
+        monthlyRollupService.onUpdated(TransactionKindType.INCOME, before, toRollupEntry(transactionIncomeModel));
+    }
+
+
+    //Partial update of an income transaction: only the non-null fields of the model are written, in one statement
+    //When userId is given the transaction must belong to that user, returns false when no transaction matched
+    //When expectedVersion is given (If-Match) the update only applies to that version, otherwise PreconditionFailedException
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.TRANSACTION_INCOME, key = "#transactionIncomeId")
+    public boolean patchTransactionIncomeById(
+            UUID transactionIncomeId, UUID userId, Long expectedVersion, TransactionIncomeModel transactionIncomeModel
+    ) {
+        TransactionPatcher.Patch patch = toPatch(transactionIncomeModel);
+        try {
+            return transactionPatcher.patch(TransactionKindType.INCOME, transactionIncomeId, userId, expectedVersion, patch);
+        } catch (DataIntegrityViolationException e) {
+            if (ConstraintViolations.isViolationOf(e, TransactionIncomeModel.CONTENT_HASH_CONSTRAINT)) {
+                throw new DuplicatedRegisterException("Transaction income already exists.");
+            }
+            throw e;
+        }
     }
 
+    //Partial update of every income transaction matching the filters, in set based statements
+    //With dryRun nothing is written and the number of matching transactions is returned
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.TRANSACTION_INCOME, allEntries = true, condition = "!#dryRun")
+    public long patchTransactionIncomeByFilters(
+            TransactionIncomeType name, String description, BigDecimal amount, LocalDate date, LocalDate startDate, LocalDate endDate,
+            UUID userId, TransactionIncomeModel transactionIncomeModel, boolean dryRun
+    ) {
+        TransactionPatcher.Patch patch = toPatch(transactionIncomeModel);
+        Specification<TransactionIncomeModel> specification = buildBulkSpecification(name, description, amount, date, startDate, endDate, userId);
+        if (dryRun) {
+            return transactionBulkWriter.count(TransactionIncomeModel.class, specification);
+        }
+        try {
+            return transactionBulkWriter.patchAll(TransactionKindType.INCOME, TransactionIncomeModel.class, specification, patch);
+        } catch (DataIntegrityViolationException e) {
+            if (ConstraintViolations.isViolationOf(e, TransactionIncomeModel.CONTENT_HASH_CONSTRAINT)) {
+                throw new DuplicatedRegisterException("The update would make two transaction incomes identical.");
+            }
+            throw e;
+        }
+    }
+
+    //Delete every income transaction matching the filters, in set based statements
+    //With dryRun nothing is deleted and the number of matching transactions is returned
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.TRANSACTION_INCOME, allEntries = true, condition = "!#dryRun")
+    public long deleteTransactionIncomeByFilters(
+            TransactionIncomeType name, String description, BigDecimal amount, LocalDate date, LocalDate startDate, LocalDate endDate,
+            UUID userId, boolean dryRun
+    ) {
+        Specification<TransactionIncomeModel> specification = buildBulkSpecification(name, description, amount, date, startDate, endDate, userId);
+        if (dryRun) {
+            return transactionBulkWriter.count(TransactionIncomeModel.class, specification);
+        }
+        return transactionBulkWriter.deleteAll(TransactionKindType.INCOME, TransactionIncomeModel.class, specification);
+    }
 
     // Delete transaction income by ID
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.TRANSACTION_INCOME, key = "#transactionIncomeModel.id", condition = "#transactionIncomeModel.id != null")
     public void deleteTransactionIncomeById(TransactionIncomeModel transactionIncomeModel) {
         if (transactionIncomeModel.getId() != null){
             uuidValidator.validateUUID(transactionIncomeModel.getId().toString());
         }
+        RollupEntry before = transactionIncomeModel.getId() != null
+                ? monthlyRollupService.snapshot(TransactionKindType.INCOME, transactionIncomeModel.getId())
+                : null;
         transactionIncomeRepository.delete(transactionIncomeModel);
+        monthlyRollupService.onDeleted(TransactionKindType.INCOME, before);
+    }
+
+    //Columns of a partial update, the non-null fields of the model
+    private TransactionPatcher.Patch toPatch(TransactionIncomeModel transactionIncomeModel) {
+        transactionIncomeValidatorRequest.validatePatch(transactionIncomeModel);
+        TransactionPatcher.Patch patch = new TransactionPatcher.Patch()
+                .set("name", "varchar", transactionIncomeModel.getName() != null ? transactionIncomeModel.getName().name() : null)
+                .set("description", "varchar", transactionIncomeModel.getDescription())
+                .set("amount", "numeric(18, 2)", transactionIncomeModel.getAmount())
+                .set("date", "date", transactionIncomeModel.getDate());
+        if (patch.isEmpty()) {
+            throw new InvalidFieldException("No field to update.");
+        }
+        return patch;
+    }
+
+    //Filters of a bulk write, at least one is required so a request without filters cannot touch every row
+    //Always scoped to the transactions of userId, a missing owner never widens the filters to every user
+    private Specification<TransactionIncomeModel> buildBulkSpecification(
+            TransactionIncomeType name, String description, BigDecimal amount, LocalDate date, LocalDate startDate, LocalDate endDate, UUID userId
+    ) {
+        if (name == null && (description == null || description.isEmpty()) && amount == null && date == null
+                && startDate == null && endDate == null) {
+            throw new InvalidFieldException("At least one filter is required.");
+        }
+        if (userId == null) {
+            throw new NonAuthorizedException("Bulk writes require an authenticated user.");
+        }
+        Specification<TransactionIncomeModel> specification = buildSpecification(name, description, amount, date, startDate, endDate);
+        return specification.and((root, query, criteriaBuilder) -> criteriaBuilder.equal(root.get("userId"), userId));
+    }
+
+    //Write the row in a single statement, a duplicate is rejected by the content_hash unique constraint
+    //Flushed right away so the violation surfaces here and not at commit
+    private void saveAndCheckDuplicated(TransactionIncomeModel transactionIncomeModel) {
+        try {
+            transactionIncomeRepository.saveAndFlush(transactionIncomeModel);
+        } catch (DataIntegrityViolationException e) {
+            if (ConstraintViolations.isViolationOf(e, TransactionIncomeModel.CONTENT_HASH_CONSTRAINT)) {
+                throw new DuplicatedRegisterException("Transaction income already exists");
+            }
+            throw e;
+        } catch (ObjectOptimisticLockingFailureException e) {
+            // The row changed since it was read, the @Version check of the update matched no row
+            throw new PreconditionFailedException("Transaction income was changed by another request, read it again before updating.");
+        }
+    }
+
+    // Values of the transaction the monthly rollup depends on
+    private RollupEntry toRollupEntry(TransactionIncomeModel transactionIncomeModel) {
+        return new RollupEntry(
+                transactionIncomeModel.getUserId(),
+                transactionIncomeModel.getDate(),
+                transactionIncomeModel.getName().name(),
+                transactionIncomeModel.getAmount());
     }
 }
@@ -0,0 +1,195 @@
+package com.budget.control.backend.service;
+
+import com.budget.control.backend.exception.PreconditionFailedException;
+import com.budget.control.backend.model.TransactionContentHash;
+import com.budget.control.backend.type.TransactionKindType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.UUID;
+
+// Partial update of transactions in a single statement
+// The old rows are locked and read, only the given columns and the content hash are written, and the monthly
+// rollup moves the amounts from the old buckets to the new ones, all in one round trip
+// No row comes back for an id that does not exist or belongs to another user
+// Every patched row gets its version incremented, so the ETag clients hold for it stops matching
+@Component
+public class TransactionPatcher {
+
+    // Columns a patch may write, the column names are put in the SQL so they never come from the client
+    private static final Set<String> PATCHABLE_COLUMNS = Set.of("name", "description", "amount", "date", "recurrent");
+
+    private static final String PATCH_SQL = """
+            WITH patch AS (
+                SELECT %1$s
+            ), old AS (
+                SELECT id, user_id, date, name, amount FROM %2$s WHERE id = ANY(CAST(? AS uuid[]))%3$s FOR UPDATE
+            ), updated AS (
+                UPDATE %2$s t
+                SET %4$s, content_hash = %5$s, version = t.version + 1, updated_at = now()
+                FROM old, patch
+                WHERE t.id = old.id
+                RETURNING t.user_id, t.date, t.name, t.amount, old.date AS old_date, old.name AS old_name, old.amount AS old_amount
+            ), rollup AS (
+                INSERT INTO monthly_rollup (id, user_id, month, transaction_kind, category, total_amount, transaction_count, updated_at)
+                SELECT gen_random_uuid(), d.user_id, d.month, '%6$s', d.category, SUM(d.amount), SUM(d.count), now()
+                FROM (
+                    SELECT COALESCE(user_id, CAST('%7$s' AS uuid)) AS user_id, CAST(date_trunc('month', date) AS date) AS month,
+                           name AS category, amount, 1 AS count
+                    FROM updated
+                    UNION ALL
+                    SELECT COALESCE(user_id, CAST('%7$s' AS uuid)), CAST(date_trunc('month', old_date) AS date),
+                           old_name, -old_amount, -1
+                    FROM updated
+                ) d
+                GROUP BY d.user_id, d.month, d.category
+                HAVING SUM(d.amount) <> 0 OR SUM(d.count) <> 0
+                ORDER BY d.user_id, d.month, d.category
+                ON CONFLICT (user_id, month, transaction_kind, category)
+                DO UPDATE SET total_amount = monthly_rollup.total_amount + EXCLUDED.total_amount,
+                              transaction_count = monthly_rollup.transaction_count + EXCLUDED.transaction_count,
+                              updated_at = now()
+            )
+            SELECT user_id, COUNT(*) AS updated FROM updated GROUP BY user_id
+            """;
+
+    // Dependency Injection
+    private final JdbcTemplate jdbcTemplate;
+    private final MonthlyRollupService monthlyRollupService;
+
+    public TransactionPatcher(JdbcTemplate jdbcTemplate, MonthlyRollupService monthlyRollupService) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.monthlyRollupService = monthlyRollupService;
+    }
+
+    // Write the columns of the patch on the transaction, only when it belongs to userId if one is given
+    // and only when its version is expectedVersion if one is given (conditional update, no row lock held in between)
+    // Returns false when no transaction matched, throws PreconditionFailedException when it exists with another version
+    @Transactional(propagation = Propagation.MANDATORY)
+    public boolean patch(TransactionKindType kind, UUID id, UUID userId, Long expectedVersion, Patch patch) {
+        if (write(kind, List.of(id), userId, expectedVersion, patch) > 0) {
+            return true;
+        }
+        if (expectedVersion != null && exists(kind, id, userId)) {
+            throw new PreconditionFailedException("The transaction was changed by another request, read it again before updating.");
+        }
+        return false;
+    }
+
+    // Write the columns of the patch on every transaction of the list, returns the number of rows updated
+    @Transactional(propagation = Propagation.MANDATORY)
+    public long patchAll(TransactionKindType kind, Collection<UUID> ids, UUID userId, Patch patch) {
+        return write(kind, ids, userId, null, patch);
+    }
+
+    private long write(TransactionKindType kind, Collection<UUID> ids, UUID userId, Long expectedVersion, Patch patch) {
+        if (patch.columns.isEmpty()) {
+            throw new IllegalArgumentException("A patch needs at least one column.");
+        }
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        StringJoiner patchValues = new StringJoiner(", ");
+        StringJoiner assignments = new StringJoiner(", ");
+        List<Object> args = new ArrayList<>();
+        for (PatchColumn column : patch.columns) {
+            patchValues.add("CAST(? AS " + column.sqlType() + ") AS " + column.name());
+            assignments.add(column.name() + " = patch." + column.name());
+            args.add(column.value());
+        }
+        for (String assignment : patch.extraAssignments) {
+            assignments.add(assignment);
+        }
+        args.add(ids.toArray(new UUID[0]));
+        StringBuilder conditions = new StringBuilder();
+        if (userId != null) {
+            conditions.append(" AND user_id = ?");
+            args.add(userId);
+        }
+        if (expectedVersion != null) {
+            conditions.append(" AND version = ?");
+            args.add(expectedVersion);
+        }
+
+        String hash = TransactionContentHash.sqlExpression(
+                column -> patch.has(column) ? "patch." + column : "t." + column, kind == TransactionKindType.EXPENSE);
+        String sql = PATCH_SQL.formatted(patchValues, kind.getTableName(), conditions,
+                assignments, hash, kind.name(), MonthlyRollupService.NO_USER);
+
+        return updateAndEvict(sql, args);
+    }
+
+    private boolean exists(TransactionKindType kind, UUID id, UUID userId) {
+        String sql = "SELECT EXISTS (SELECT 1 FROM " + kind.getTableName() + " WHERE id = ?" + (userId != null ? " AND user_id = ?" : "") + ")";
+        Object[] args = userId != null ? new Object[]{id, userId} : new Object[]{id};
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(sql, Boolean.class, args));
+    }
+
+    // Run a statement returning (user_id, updated) rows, evict the forecasts of those users and return the total
+    long updateAndEvict(String sql, List<Object> args) {
+        long total = 0;
+        List<OwnerCount> owners = jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql);
+            for (int i = 0; i < args.size(); i++) {
+                Object arg = args.get(i);
+                if (arg instanceof UUID[] uuids) {
+                    statement.setArray(i + 1, connection.createArrayOf("uuid", uuids));
+                } else {
+                    statement.setObject(i + 1, arg);
+                }
+            }
+            return statement;
+        }, (resultSet, rowNum) -> new OwnerCount(resultSet.getObject(1, UUID.class), resultSet.getLong(2)));
+        for (OwnerCount owner : owners) {
+            monthlyRollupService.evictForecast(owner.userId());
+            total += owner.count();
+        }
+        return total;
+    }
+
+    // Columns to write, in the order they are added
+    public static final class Patch {
+
+        private final List<PatchColumn> columns = new ArrayList<>();
+        private final List<String> extraAssignments = new ArrayList<>();
+
+        // Write a column when the value is not null, sqlType is the type the parameter is cast to
+        public Patch set(String column, String sqlType, Object value) {
+            if (!PATCHABLE_COLUMNS.contains(column)) {
+                throw new IllegalArgumentException("Column cannot be patched: " + column);
+            }
+            if (value != null) {
+                columns.add(new PatchColumn(column, sqlType, value));
+            }
+            return this;
+        }
+
+        // Extra SQL assignment written with the patch, it can read the new values as patch.<column>
+        public Patch also(String assignment) {
+            extraAssignments.add(assignment);
+            return this;
+        }
+
+        public boolean has(String column) {
+            return columns.stream().anyMatch(patchColumn -> patchColumn.name().equals(column));
+        }
+
+        public boolean isEmpty() {
+            return columns.isEmpty();
+        }
+    }
+
+    private record PatchColumn(String name, String sqlType, Object value) {
+    }
+
+    private record OwnerCount(UUID userId, long count) {
+    }
+}
@@ -0,0 +1,63 @@
+package com.budget.control.backend.service;
+
+import com.budget.control.backend.pagination.KeysetCursor;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+@Timed("budget.service")
+@Service
+public class TransactionStreamService {
+
+    // Dependency Injection
+    private final EntityManager entityManager;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+    private final int fetchSize;
+
+    public TransactionStreamService(
+            EntityManager entityManager,
+            PlatformTransactionManager transactionManager,
+            @Value("${budget.export.fetch-size:500}") int fetchSize
+    ) {
+        this.entityManager = entityManager;
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        this.fetchSize = fetchSize;
+    }
+
+    // Stream every row matching the specification to the consumer, in the keyset order (date desc, id desc)
+    // The JDBC driver reads through a server side cursor of fetchSize rows and each entity is detached
+    // after being consumed, so the memory used does not depend on the number of rows
+    // It opens its own transaction because it usually runs outside the request thread (StreamingResponseBody)
+    public <T> void stream(Class<T> type, Specification<T> specification, Consumer<T> consumer) {
+        readOnlyTransactionTemplate.executeWithoutResult(status -> {
+            CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+            CriteriaQuery<T> query = criteriaBuilder.createQuery(type);
+            Root<T> root = query.from(type);
+            query.where(specification.toPredicate(root, query, criteriaBuilder));
+            query.orderBy(QueryUtils.toOrders(KeysetCursor.SORT, root, criteriaBuilder));
+
+            try (Stream<T> rows = entityManager.createQuery(query)
+                    .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                    .setHint(HibernateHints.HINT_READ_ONLY, true)
+                    .getResultStream()) {
+                rows.forEach(row -> {
+                    consumer.accept(row);
+                    entityManager.detach(row);
+                });
+            }
+        });
+    }
+}
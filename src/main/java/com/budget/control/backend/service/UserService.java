@@ -1,14 +1,26 @@
 package com.budget.control.backend.service;
 
+import com.budget.control.backend.config.CacheConfig;
+import com.budget.control.backend.controller.dto.response.UserResponseDTO;
+import com.budget.control.backend.etag.EntityTags;
+import com.budget.control.backend.etag.TaggedResponse;
+import com.budget.control.backend.exception.PreconditionFailedException;
+import com.budget.control.backend.mappers.UserMapper;
 import com.budget.control.backend.model.UserModel;
 import com.budget.control.backend.repository.UserRepository;
+import com.budget.control.backend.security.PasswordHashingService;
 import com.budget.control.backend.type.UserRoleType;
 import com.budget.control.backend.validator.UUIDValidator;
 import com.budget.control.backend.validator.request.UserValidatorRequest;
+import io.micrometer.core.annotation.Timed;
 import jakarta.persistence.criteria.Predicate;
+import org.hibernate.Hibernate;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.jpa.domain.Specification;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
@@ -16,6 +28,7 @@ import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
+@Timed("budget.service")
 @Service
 public class UserService {
 
@@ -23,43 +36,88 @@ public class UserService {
     private final UserRepository userRepository;
     private final UserValidatorRequest userValidatorRequest;
     private final UUIDValidator uuidValidator;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
+    private final EntityTagService entityTagService;
+    private final UserMapper userMapper;
 
     //Constructor Injection
     public UserService(
             UserRepository userRepository,
             UserValidatorRequest userValidatorRequest,
             UUIDValidator uuidValidator,
-            PasswordEncoder passwordEncoder
+            PasswordHashingService passwordHashingService,
+            EntityTagService entityTagService,
+            UserMapper userMapper
     ) {
         this.userRepository = userRepository;
         this.userValidatorRequest = userValidatorRequest;
         this.uuidValidator = uuidValidator;
-        this.passwordEncoder = passwordEncoder;
+        this.passwordHashingService = passwordHashingService;
+        this.entityTagService = entityTagService;
+        this.userMapper = userMapper;
     }
 
     // Save user
     public void saveUser(UserModel userModel) {
         userValidatorRequest.validate(userModel);
 
-        // Encrypt password
-        String hashedPassword = passwordEncoder.encode(userModel.getEncryptedPassword());
+        // Encrypt password, on the bounded hashing pool
+        String hashedPassword = passwordHashingService.encode(userModel.getEncryptedPassword());
         userModel.setEncryptedPassword(hashedPassword);
         userRepository.save(userModel);
     }
 
+    // Response of a user by id with its entity tag, cached until the user is written
+    @Cacheable(cacheNames = CacheConfig.USER, key = "#userID", unless = "#result == null")
+    @Transactional(readOnly = true)
+    public Optional<TaggedResponse<UserResponseDTO>> getUserResponseById(UUID userID) {
+        uuidValidator.validateUUID(userID.toString());
+        return userRepository.findById(userID)
+                .map(user -> {
+                    // The group is serialized with its users, loaded now while the session is open
+                    if (user.getGroupId() != null) {
+                        Hibernate.initialize(user.getGroupId().getUsers());
+                    }
+                    return new TaggedResponse<>(userMapper.toResponseDTO(user), EntityTags.forResource(user.getId(), user.getVersion()));
+                });
+    }
+
     // Get user by id
     public Optional<UserModel> getUserById(UUID userID){
         uuidValidator.validateUUID(userID.toString());
         return  userRepository.findById(userID);
     }
 
+    // Get user by id from the database, for callers that modify or delete the returned entity
+    public Optional<UserModel> getUserByIdForUpdate(UUID userID){
+        uuidValidator.validateUUID(userID.toString());
+        return  userRepository.findById(userID);
+    }
+
+    // Validator of the conditional GET of one user, empty when it does not exist
+    public Optional<String> getUserTag(UUID userID) {
+        return entityTagService.resourceTag(UserModel.class, userID);
+    }
+
+    // Validator of the conditional GET of a filtered list of users
+    public String getUserListTag(
+            String firstName, String lastName, String email, String cpf, LocalDate dateOfBirth, UserRoleType role
+    ) {
+        return entityTagService.listTag(UserModel.class, buildSpecification(firstName, lastName, email, cpf, dateOfBirth, role));
+    }
+
     // Dynamic query to get user by filters
     public List<UserModel> getUserByFirstNameOrLastNameOrEmailOrCpfOrDateOfBirthOrRole(
             String firstName, String lastName, String email, String cpf, LocalDate dateOfBirth, UserRoleType role
     ){
-        // Dynamic query specification
-        Specification<UserModel> specification = (root, query, criteriaBuilder) -> {
+        return userRepository.findAll(buildSpecification(firstName, lastName, email, cpf, dateOfBirth, role));
+    }
+
+    // Dynamic query specification, shared with the list validator of the conditional GET
+    public Specification<UserModel> buildSpecification(
+            String firstName, String lastName, String email, String cpf, LocalDate dateOfBirth, UserRoleType role
+    ){
+        return (root, query, criteriaBuilder) -> {
             List<Predicate> predicates = new ArrayList<>();
 
             // Filter by first name
@@ -88,18 +146,24 @@ public class UserService {
             }
             return criteriaBuilder.and(predicates.toArray(new Predicate[0]));
         };
-        return userRepository.findAll(specification);
     }
 
+    @CacheEvict(cacheNames = CacheConfig.USER, key = "#userModel.id", condition = "#userModel.id != null")
     public void updateUserById(UserModel userModel){
         if (userModel.getId() == null) {
             throw new IllegalArgumentException("User ID cannot be null");
         }
         userValidatorRequest.validate(userModel);
-        userRepository.save(userModel);
+        try {
+            userRepository.save(userModel);
+        } catch (ObjectOptimisticLockingFailureException e) {
+            // The row changed since it was read, the @Version check of the update matched no row
+            throw new PreconditionFailedException("User was changed by another request, read it again before updating.");
+        }
     }
 
     // Delete user
+    @CacheEvict(cacheNames = CacheConfig.USER, key = "#userModel.id", condition = "#userModel.id != null")
     public void deleteUserById(UserModel userModel){
         if (userModel.getId() != null) {
             uuidValidator.validateUUID(userModel.getId().toString());
@@ -107,9 +171,9 @@ public class UserService {
         userRepository.delete(userModel);
     }
 
-    // Validate password
+    // Validate password, on the bounded hashing pool
     public boolean validatePassword(String rawPassword, String encryptedPassword) {
-        return passwordEncoder.matches(rawPassword, encryptedPassword);
+        return passwordHashingService.matches(rawPassword, encryptedPassword);
     }
 
     public Optional<UserModel> authenticateUser(String email, String rawPassword) {
@@ -0,0 +1,164 @@
+package com.budget.control.backend.type;
+
+import com.budget.control.backend.exception.InvalidFieldException;
+
+import java.lang.reflect.Array;
+
+// Case-insensitive lookup of enum constants by name, shared by the Jackson deserializers and the request param converters
+// The table is built once per enum: an open addressing hash table of the upper case names, probed with a hash
+// folded while it is computed, so a lookup neither trims, upper-cases nor copies the text and allocates nothing
+// Constant names are ASCII, so only a-z are folded, any other character must match exactly
+public final class EnumLookup<E extends Enum<E>> {
+
+    private static final ClassValue<EnumLookup<?>> LOOKUPS = new ClassValue<>() {
+        @Override
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        protected EnumLookup<?> computeValue(Class<?> type) {
+            return new EnumLookup(type);
+        }
+    };
+
+    private final String typeName;
+    private final E[] constants;
+    private final char[][] names;
+    private final int mask;
+
+    @SuppressWarnings("unchecked")
+    private EnumLookup(Class<E> type) {
+        E[] values = type.getEnumConstants();
+        int capacity = Integer.highestOneBit(Math.max(values.length, 1) * 4 - 1) << 1;
+        this.typeName = type.getSimpleName();
+        this.constants = (E[]) Array.newInstance(type, capacity);
+        this.names = new char[capacity][];
+        this.mask = capacity - 1;
+        for (E value : values) {
+            char[] name = value.name().toCharArray();
+            for (int i = 0; i < name.length; i++) {
+                name[i] = fold(name[i]);
+            }
+            int slot = hash(name, 0, name.length) & mask;
+            while (constants[slot] != null) {
+                slot = (slot + 1) & mask;
+            }
+            constants[slot] = value;
+            names[slot] = name;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <E extends Enum<E>> EnumLookup<E> of(Class<E> type) {
+        return (EnumLookup<E>) LOOKUPS.get(type);
+    }
+
+    // Constant named by the text, ignoring case and surrounding whitespace, null when there is none
+    public E find(CharSequence text) {
+        return find(text, false);
+    }
+
+    // Same as find(CharSequence) for a human label, where spaces and hyphens stand for underscores ("Car rental" -> CAR_RENTAL)
+    public E findLabel(CharSequence text) {
+        return find(text, true);
+    }
+
+    private E find(CharSequence text, boolean label) {
+        int start = 0;
+        int end = text.length();
+        while (start < end && text.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && text.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + fold(text.charAt(i), label);
+        }
+        int length = end - start;
+        for (int slot = spread(hash) & mask; constants[slot] != null; slot = (slot + 1) & mask) {
+            char[] name = names[slot];
+            if (name.length == length && regionMatches(name, text, start, label)) {
+                return constants[slot];
+            }
+        }
+        return null;
+    }
+
+    // Same as find(CharSequence) over a region of a buffer, for the parser text buffer
+    public E find(char[] chars, int offset, int length) {
+        int start = offset;
+        int end = offset + length;
+        while (start < end && chars[start] <= ' ') {
+            start++;
+        }
+        while (end > start && chars[end - 1] <= ' ') {
+            end--;
+        }
+        for (int slot = hash(chars, start, end) & mask; constants[slot] != null; slot = (slot + 1) & mask) {
+            char[] name = names[slot];
+            if (name.length == end - start && regionMatches(name, chars, start)) {
+                return constants[slot];
+            }
+        }
+        return null;
+    }
+
+    // Constant named by the text, throws an InvalidFieldException naming the enum when there is none
+    public E parse(CharSequence text) {
+        E value = find(text);
+        if (value == null) {
+            throw invalidValue(text.toString());
+        }
+        return value;
+    }
+
+    public E parse(char[] chars, int offset, int length) {
+        E value = find(chars, offset, length);
+        if (value == null) {
+            throw invalidValue(new String(chars, offset, length));
+        }
+        return value;
+    }
+
+    private InvalidFieldException invalidValue(String text) {
+        return new InvalidFieldException("Invalid value provided for " + typeName + ": " + text.trim().toUpperCase());
+    }
+
+    private static int hash(char[] chars, int start, int end) {
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + fold(chars[i]);
+        }
+        return spread(hash);
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private static char fold(char c) {
+        return c >= 'a' && c <= 'z' ? (char) (c - ('a' - 'A')) : c;
+    }
+
+    // Constant names hold no space nor hyphen, so folding them to underscores only matters for labels
+    private static char fold(char c, boolean label) {
+        return label && (c == ' ' || c == '-') ? '_' : fold(c);
+    }
+
+    private static boolean regionMatches(char[] name, CharSequence text, int start, boolean label) {
+        for (int i = 0; i < name.length; i++) {
+            if (name[i] != fold(text.charAt(start + i), label)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean regionMatches(char[] name, char[] chars, int start) {
+        for (int i = 0; i < name.length; i++) {
+            if (name[i] != fold(chars[start + i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,13 @@
+package com.budget.control.backend.type;
+
+public enum ImportJobStatusType {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED;
+
+    // Jobs still holding an import slot of their user
+    public boolean isActive() {
+        return this == QUEUED || this == RUNNING;
+    }
+}
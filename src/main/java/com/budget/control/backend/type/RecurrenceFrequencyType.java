@@ -0,0 +1,26 @@
+package com.budget.control.backend.type;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+
+public enum RecurrenceFrequencyType {
+    WEEKLY,
+    MONTHLY,
+    YEARLY;
+
+    // Occurrence after the given one
+    // Monthly and yearly occurrences fall on dayOfMonth, or on the last day of shorter months,
+    // so a rule anchored on the 31st goes Jan 31, Feb 28, Mar 31 instead of drifting to the 28th
+    public LocalDate next(LocalDate occurrence, Integer dayOfMonth) {
+        int day = dayOfMonth != null ? dayOfMonth : occurrence.getDayOfMonth();
+        return switch (this) {
+            case WEEKLY -> occurrence.plusWeeks(1);
+            case MONTHLY -> atDay(YearMonth.from(occurrence).plusMonths(1), day);
+            case YEARLY -> atDay(YearMonth.from(occurrence).plusYears(1), day);
+        };
+    }
+
+    private static LocalDate atDay(YearMonth month, int day) {
+        return month.atDay(Math.min(day, month.lengthOfMonth()));
+    }
+}
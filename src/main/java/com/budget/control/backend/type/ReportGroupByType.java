@@ -0,0 +1,24 @@
+package com.budget.control.backend.type;
+
+public enum ReportGroupByType {
+    CATEGORY(null, null),
+    MONTH("month", "YYYY-MM"),
+    DAY("day", "YYYY-MM-DD");
+
+    // PostgreSQL date_trunc field and to_char pattern of the period buckets
+    private final String truncField;
+    private final String pattern;
+
+    ReportGroupByType(String truncField, String pattern) {
+        this.truncField = truncField;
+        this.pattern = pattern;
+    }
+
+    public String getTruncField() {
+        return truncField;
+    }
+
+    public String getPattern() {
+        return pattern;
+    }
+}
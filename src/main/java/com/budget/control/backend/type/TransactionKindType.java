@@ -0,0 +1,18 @@
+package com.budget.control.backend.type;
+
+public enum TransactionKindType {
+    INCOME("transaction_income"),
+    EXPENSE("transaction_expense"),
+    BENEFIT("transaction_benefit");
+
+    // Table holding the transactions of this kind
+    private final String tableName;
+
+    TransactionKindType(String tableName) {
+        this.tableName = tableName;
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+}
@@ -1,51 +1,26 @@
 package com.budget.control.backend.validator.request;
 
-import com.budget.control.backend.exception.DuplicatedRegisterException;
 import com.budget.control.backend.exception.InvalidFieldException;
 import com.budget.control.backend.exception.NullFieldException;
 import com.budget.control.backend.model.TransactionBenefitModel;
-import com.budget.control.backend.repository.TransactionBenefitRepository;
 import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
-import java.util.Optional;
 
 @Component
 public class TransactionBenefitValidatorRequest {
 
-    // Dependency Injection
-    private final TransactionBenefitRepository transactionBenefitRepository;
-
-    // Constructor
-    public TransactionBenefitValidatorRequest(TransactionBenefitRepository transactionBenefitRepository){
-        this.transactionBenefitRepository = transactionBenefitRepository;
-    }
-
     // Validate Method
+    // Duplicates are rejected by the content_hash unique constraint when the row is written
     public void validate(TransactionBenefitModel transactionBenefitModel) {
-        if (isTransactionBenefitDuplicated(transactionBenefitModel)) {
-            throw new DuplicatedRegisterException("Transaction benefit already exists");
-        }
         isTransactionBenefitNull(transactionBenefitModel);
         isTransactionAmountOnBounds(transactionBenefitModel);
     }
 
-    // Check if the transaction benefit is duplicated
-    // If the transaction benefit is duplicated return true
-    // If receives a TransactionBenefitModel object and checks if there is a transaction benefit with the same name, description, amount and date
-    // If the transaction id is null, it knows the transaction income is new and checks if there is a transaction benefit with the same name, description, amount and date
-    private boolean isTransactionBenefitDuplicated(TransactionBenefitModel transactionBenefitModel) {
-        Optional<TransactionBenefitModel> transactionBenefitModelOptional = transactionBenefitRepository.findByNameAndDescriptionAndAmountAndDate(
-                transactionBenefitModel.getName(),
-                transactionBenefitModel.getDescription(),
-                transactionBenefitModel.getAmount(),
-                transactionBenefitModel.getDate()
-        );
-        if (transactionBenefitModel.getId() == null) {
-            return transactionBenefitModelOptional.isPresent();
-        }
-        return transactionBenefitModelOptional.isPresent() && !transactionBenefitModel.getId().equals(transactionBenefitModelOptional.get().getId());
+    // Validate a partial update, only the fields given are checked
+    public void validatePatch(TransactionBenefitModel transactionBenefitModel) {
+        isTransactionAmountOnBounds(transactionBenefitModel);
     }
 
     // Check if the transaction non-null fields is null
@@ -1,52 +1,30 @@
 package com.budget.control.backend.validator.request;
 
-import com.budget.control.backend.exception.DuplicatedRegisterException;
 import com.budget.control.backend.exception.InvalidFieldException;
 import com.budget.control.backend.exception.NullFieldException;
 import com.budget.control.backend.model.TransactionExpenseModel;
-import com.budget.control.backend.repository.TransactionExpenseRepository;
 import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
-import java.util.Optional;
 
 @Component
 public class TransactionExpenseValidatorRequest {
 
-    // Dependency Injection
-    private final TransactionExpenseRepository transactionExpenseRepository;
-
-    // Constructor
-    public TransactionExpenseValidatorRequest(TransactionExpenseRepository transactionExpenseRepository) {
-        this.transactionExpenseRepository = transactionExpenseRepository;
-    }
-
     // Validate Method
+    // Duplicates are rejected by the content_hash unique constraint when the row is written
     public void validate(TransactionExpenseModel transactionExpenseModel) {
-        if (isTransactionExpenseDuplicated(transactionExpenseModel)) {
-            throw new DuplicatedRegisterException("Transaction expense already exists.");
-        }
         isTransactionExpenseNull(transactionExpenseModel);
         isTransactionAmountOnBounds(transactionExpenseModel);
+        isRecurrenceRuleValid(transactionExpenseModel);
     }
 
-    //Check if the transaction expense is duplicated
-    //If the transaction expense is duplicated, return true
-    //It receives a TransactionExpenseModel object and checks if there is a transaction expense with the same name, description, amount, date and recurrent
-    //If the transaction id is null, it knows the transaction expense is new and checks if there is a transaction expense with the same name, description, amount, date and recurrent
-    private boolean isTransactionExpenseDuplicated(TransactionExpenseModel transactionExpenseModel) {
-        Optional<TransactionExpenseModel> transactionExpenseModelOptional = transactionExpenseRepository.findByNameAndDescriptionAndAmountAndDateAndRecurrent(
-                transactionExpenseModel.getName(),
-                transactionExpenseModel.getDescription(),
-                transactionExpenseModel.getAmount(),
-                transactionExpenseModel.getDate(),
-                transactionExpenseModel.getRecurrent()
-        );
-        if (transactionExpenseModel.getId() == null) {
-            return transactionExpenseModelOptional.isPresent();
+    // Validate a partial update, only the fields given are checked
+    public void validatePatch(TransactionExpenseModel transactionExpenseModel) {
+        isTransactionAmountOnBounds(transactionExpenseModel);
+        if (transactionExpenseModel.getRecurrenceFrequency() != null || transactionExpenseModel.getRecurrenceDay() != null) {
+            throw new InvalidFieldException("The recurrence rule can only be changed with PUT.");
         }
-        return  transactionExpenseModelOptional.isPresent() && !transactionExpenseModel.getId().equals(transactionExpenseModelOptional.get().getId());
     }
 
     // Check if the transaction non-null fields is null
@@ -93,4 +71,21 @@ public class TransactionExpenseValidatorRequest {
             }
         }
     }
+
+    // Checks the recurrence rule of a template
+    private void isRecurrenceRuleValid(TransactionExpenseModel transactionExpenseModel) {
+        if (transactionExpenseModel.getRecurrenceFrequency() == null) {
+            if (transactionExpenseModel.getRecurrenceDay() != null) {
+                throw new InvalidFieldException("Transaction recurrence day requires a recurrence frequency.");
+            }
+            return;
+        }
+        if (!Boolean.TRUE.equals(transactionExpenseModel.getRecurrent())) {
+            throw new InvalidFieldException("Transaction recurrence frequency requires recurrent to be true.");
+        }
+        Integer recurrenceDay = transactionExpenseModel.getRecurrenceDay();
+        if (recurrenceDay != null && (recurrenceDay < 1 || recurrenceDay > 31)) {
+            throw new InvalidFieldException("Transaction recurrence day must be between 1 and 31.");
+        }
+    }
 }
@@ -1,50 +1,26 @@
 package com.budget.control.backend.validator.request;
 
-import com.budget.control.backend.exception.DuplicatedRegisterException;
 import com.budget.control.backend.exception.InvalidFieldException;
 import com.budget.control.backend.exception.NullFieldException;
 import com.budget.control.backend.model.TransactionIncomeModel;
-import com.budget.control.backend.repository.TransactionIncomeRepository;
 import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
-import java.util.Optional;
 
 @Component
 public class TransactionIncomeValidatorRequest {
 
-    // Dependency Injection
-    private final TransactionIncomeRepository transactionIncomeRepository;
-
-    // Constructor
-    public TransactionIncomeValidatorRequest(TransactionIncomeRepository transactionIncomeRepository) {
-        this.transactionIncomeRepository = transactionIncomeRepository;
-    }
-
     // Validate Method
+    // Duplicates are rejected by the content_hash unique constraint when the row is written
     public void validate(TransactionIncomeModel transactionIncomeModel) {
-        if (isTransactionIncomeDuplicated(transactionIncomeModel)) {
-            throw new DuplicatedRegisterException("Transaction income already exists");
-        }
         isTransactionIncomeNull(transactionIncomeModel);
         isTransactionAmountOnBounds(transactionIncomeModel);
     }
 
-    //Check if the transaction income is duplicated
-    //If the transaction income is duplicated, return true
-    //It receives a TransactionIncomeModel object and checks if there is a transaction income with the same name, description, amount and date
-    //If the transaction id is null, it knows the transaction income is new and checks if there is a transaction income with the same name, description, amount and date
-    private boolean isTransactionIncomeDuplicated(TransactionIncomeModel transactionIncomeModel) {
-        Optional<TransactionIncomeModel> transactionIncomeModelOptional = transactionIncomeRepository.findByNameAndDescriptionAndAmountAndDate(
-                transactionIncomeModel.getName(),
-                transactionIncomeModel.getDescription(),
-                transactionIncomeModel.getAmount(),
-                transactionIncomeModel.getDate());
-        if (transactionIncomeModel.getId() == null) {
-            return transactionIncomeModelOptional.isPresent();
-        }
-        return transactionIncomeModelOptional.isPresent() && !transactionIncomeModel.getId().equals(transactionIncomeModelOptional.get().getId());
+    //Validate a partial update, only the fields given are checked
+    public void validatePatch(TransactionIncomeModel transactionIncomeModel) {
+        isTransactionAmountOnBounds(transactionIncomeModel);
     }
 
     //Check if the transaction non-null fields is null
@@ -0,0 +1,101 @@
+package com.budget.control.backend.etag;
+
+import com.budget.control.backend.exception.PreconditionFailedException;
+import com.budget.control.backend.exception.PreconditionRequiredException;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class EntityTagsTest {
+
+    private static final UUID ID = UUID.fromString("0190a5f4-2b7e-7c3d-8f00-000000000001");
+    private static final UUID OTHER_ID = UUID.fromString("0190a5f4-2b7e-7c3d-8f00-000000000002");
+    private static final LocalDateTime UPDATED_AT = LocalDateTime.of(2025, 3, 14, 15, 9, 26, 535_897_000);
+
+    @Test
+    void resourceTagChangesWithTheVersion() {
+        String tag = EntityTags.forResource(ID, 4L);
+        assertEquals(tag, EntityTags.forResource(ID, 4L));
+        assertNotEquals(tag, EntityTags.forResource(ID, 5L));
+        assertTrue(tag.startsWith("\"") && tag.endsWith("\""));
+    }
+
+    @Test
+    void listTagChangesWithTheCountAndTheLastUpdate() {
+        assertNotEquals(EntityTags.forList(3, UPDATED_AT), EntityTags.forList(2, UPDATED_AT));
+        assertNotEquals(EntityTags.forList(3, UPDATED_AT), EntityTags.forList(3, UPDATED_AT.plusNanos(1_000)));
+        assertEquals(EntityTags.forList(0, null), EntityTags.forList(0, null));
+    }
+
+    @Test
+    void listTagFromTheRowsMatchesTheValidatorQuery() {
+        List<LocalDateTime> rows = List.of(UPDATED_AT.minusDays(1), UPDATED_AT, UPDATED_AT.minusHours(1));
+
+        assertEquals(EntityTags.forList(3, UPDATED_AT), EntityTags.forList(rows, Function.identity()));
+        assertEquals(EntityTags.forList(0, null), EntityTags.forList(List.<LocalDateTime>of(), Function.identity()));
+    }
+
+    @Test
+    void pageTagChangesWhenARowSlidesIntoTheFullPage() {
+        record Row(UUID id, LocalDateTime updatedAt) {
+        }
+        Row first = new Row(ID, UPDATED_AT);
+        Row second = new Row(OTHER_ID, UPDATED_AT.minusDays(1));
+        Row next = new Row(UUID.fromString("0190a5f4-2b7e-7c3d-8f00-000000000003"), UPDATED_AT.minusDays(2));
+        String tag = EntityTags.forPage(List.of(first, second), false, Row::id, Row::updatedAt);
+
+        assertEquals(tag, EntityTags.forPage(List.of(first, second), false, Row::id, Row::updatedAt));
+        // second deleted, next takes its place: same count and same last update, only the last id tells them apart
+        assertNotEquals(tag, EntityTags.forPage(List.of(first, next), false, Row::id, Row::updatedAt));
+        assertNotEquals(tag, EntityTags.forPage(List.of(first, new Row(OTHER_ID, UPDATED_AT.plusNanos(1_000))), false, Row::id, Row::updatedAt));
+        assertNotEquals(tag, EntityTags.forPage(List.of(first), false, Row::id, Row::updatedAt));
+        assertEquals("\"0-0--0\"", EntityTags.forPage(List.<Row>of(), false, Row::id, Row::updatedAt));
+    }
+
+    @Test
+    void pageTagChangesWhenANextPageAppears() {
+        record Row(UUID id, LocalDateTime updatedAt) {
+        }
+        List<Row> page = List.of(new Row(ID, UPDATED_AT), new Row(OTHER_ID, UPDATED_AT.minusDays(1)));
+
+        // A row inserted after the full page leaves its rows unchanged but gives the body a nextCursor
+        assertNotEquals(EntityTags.forPage(page, false, Row::id, Row::updatedAt), EntityTags.forPage(page, true, Row::id, Row::updatedAt));
+    }
+
+    @Test
+    void ifNoneMatchUsesTheWeakComparison() {
+        String tag = EntityTags.forResource(ID, 4L);
+        assertTrue(EntityTags.matches(tag, tag));
+        assertTrue(EntityTags.matches("W/" + tag, tag));
+        assertTrue(EntityTags.matches("\"other\", " + tag, tag));
+        assertTrue(EntityTags.matches("*", tag));
+        assertFalse(EntityTags.matches("\"other\"", tag));
+        assertFalse(EntityTags.matches(null, tag));
+    }
+
+    @Test
+    void ifMatchReadsTheVersionOfTheResource() {
+        assertEquals(4L, EntityTags.expectedVersion(EntityTags.forResource(ID, 4L), ID));
+        assertNull(EntityTags.expectedVersion("*", ID));
+        assertEquals(EntityTags.NO_VERSION, EntityTags.expectedVersion("W/" + EntityTags.forResource(ID, 4L), ID));
+        assertEquals(EntityTags.NO_VERSION, EntityTags.expectedVersion(EntityTags.forResource(OTHER_ID, 4L), ID));
+        assertThrows(PreconditionRequiredException.class, () -> EntityTags.expectedVersion(null, ID));
+    }
+
+    @Test
+    void requireMatchRejectsAStaleVersion() {
+        assertDoesNotThrow(() -> EntityTags.requireMatch(EntityTags.forResource(ID, 4L), ID, 4L));
+        assertThrows(PreconditionFailedException.class, () -> EntityTags.requireMatch(EntityTags.forResource(ID, 3L), ID, 4L));
+    }
+}
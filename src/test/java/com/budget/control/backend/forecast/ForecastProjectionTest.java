@@ -0,0 +1,76 @@
+package com.budget.control.backend.forecast;
+
+import com.budget.control.backend.type.RecurrenceFrequencyType;
+import com.budget.control.backend.type.TransactionKindType;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ForecastProjectionTest {
+
+    private static final LocalDate AS_OF = LocalDate.of(2025, 1, 15);
+
+    @Test
+    void recurringItemsFallOnTheirOccurrences() {
+        ForecastInputs inputs = new ForecastInputs(AS_OF, 100_000,
+                List.of(new ForecastInputs.RecurringItem(TransactionKindType.EXPENSE, "RENT", null, 50_000,
+                                RecurrenceFrequencyType.MONTHLY, 1, LocalDate.of(2025, 2, 1)),
+                        new ForecastInputs.RecurringItem(TransactionKindType.INCOME, "SALARY", null, 80_000,
+                                RecurrenceFrequencyType.MONTHLY, 5, LocalDate.of(2025, 2, 5))),
+                List.of(), List.of());
+
+        ForecastProjection projection = ForecastProjection.project(inputs, 3);
+
+        assertEquals(LocalDate.of(2025, 1, 16), projection.from());
+        assertEquals(LocalDate.of(2025, 4, 15), projection.date(projection.days() - 1));
+        int rentDay = (int) (LocalDate.of(2025, 2, 1).toEpochDay() - projection.from().toEpochDay());
+        assertEquals(50_000, projection.expenseCents(rentDay));
+        assertEquals(50_000, projection.balanceCents(rentDay));
+        // Three rents and three salaries in the range
+        assertEquals(100_000 - 3 * 50_000 + 3 * 80_000, projection.balanceCents(projection.days() - 1));
+    }
+
+    @Test
+    void pastOccurrencesAreSkipped() {
+        ForecastInputs inputs = new ForecastInputs(AS_OF, 0,
+                List.of(new ForecastInputs.RecurringItem(TransactionKindType.EXPENSE, "GYM", null, 1_000,
+                        RecurrenceFrequencyType.WEEKLY, null, LocalDate.of(2025, 1, 1))),
+                List.of(), List.of());
+
+        ForecastProjection projection = ForecastProjection.project(inputs, 1);
+
+        // Jan 22 and 29, Feb 5 and 12, the Jan 1, 8 and 15 occurrences are not in the future
+        assertEquals(-4_000, projection.balanceCents(projection.days() - 1));
+    }
+
+    @Test
+    void categoryAveragesKeepEveryCent() {
+        ForecastInputs inputs = new ForecastInputs(AS_OF, 0, List.of(),
+                List.of(new ForecastInputs.CategoryAverage(TransactionKindType.EXPENSE, "FOOD", 1_000, 30, 1)),
+                List.of());
+
+        ForecastProjection projection = ForecastProjection.project(inputs, 1);
+
+        // 31 days of a 30 day average: the whole total plus one day of it
+        long total = -projection.balanceCents(projection.days() - 1);
+        assertTrue(total == 1_033 || total == 1_034, "Unexpected total " + total);
+        for (int i = 0; i < projection.days(); i++) {
+            assertTrue(projection.expenseCents(i) == 33 || projection.expenseCents(i) == 34);
+        }
+    }
+
+    @Test
+    void scheduledDaysOutsideTheRangeAreIgnored() {
+        ForecastInputs inputs = new ForecastInputs(AS_OF, 0, List.of(), List.of(),
+                List.of(new ForecastInputs.ScheduledDay(LocalDate.of(2025, 1, 20), 500, 200),
+                        new ForecastInputs.ScheduledDay(LocalDate.of(2026, 1, 20), 9_999, 0)));
+
+        ForecastProjection projection = ForecastProjection.project(inputs, 1);
+
+        assertEquals(300, projection.balanceCents(projection.days() - 1));
+    }
+}
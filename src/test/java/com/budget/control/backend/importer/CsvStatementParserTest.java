@@ -0,0 +1,141 @@
+package com.budget.control.backend.importer;
+
+import com.budget.control.backend.exception.InvalidFieldException;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CsvStatementParserTest {
+
+    private static final ColumnMapping DEFAULT_MAPPING = ColumnMapping.of(null, null, null, null, null, null, null);
+
+    @Test
+    void readsTheMappedColumnsInAnyOrder() throws IOException {
+        RecordingRowHandler handler = parse(DEFAULT_MAPPING, """
+                Category,Amount,Date,Ignored,Description
+                food,-12.50,2025-03-04,x,Lunch
+                ,1000,2025-03-05,y,
+                """);
+
+        assertEquals(2, handler.rows.size());
+        assertEquals(new StatementRow(2, LocalDate.of(2025, 3, 4), new BigDecimal("-12.50"), "Lunch", "food"), handler.rows.get(0));
+        assertEquals(new StatementRow(3, LocalDate.of(2025, 3, 5), new BigDecimal("1000"), null, null), handler.rows.get(1));
+    }
+
+    @Test
+    void quotedFieldsHoldDelimitersQuotesAndLineBreaks() throws IOException {
+        RecordingRowHandler handler = parse(DEFAULT_MAPPING,
+                "date,amount,description\r\n"
+                        + "2025-03-04,\"1,234.56\",\"Rent, March\"\r\n"
+                        + "2025-03-05,-3,\"The \"\"corner\"\" shop\"\r\n"
+                        + "2025-03-06,-4,\"First line\nsecond line\"\r\n"
+                        + "2025-03-07,-5,Last\r\n");
+
+        assertEquals(4, handler.rows.size());
+        assertEquals(new BigDecimal("1234.56"), handler.rows.get(0).amount());
+        assertEquals("Rent, March", handler.rows.get(0).description());
+        assertEquals("The \"corner\" shop", handler.rows.get(1).description());
+        assertEquals("First line\nsecond line", handler.rows.get(2).description());
+        // Positions are the line where the record starts, the quoted line break moved the next one down
+        assertEquals(4, handler.rows.get(2).position());
+        assertEquals(6, handler.rows.get(3).position());
+        assertTrue(handler.rejected.isEmpty());
+    }
+
+    @Test
+    void blankLinesAreSkipped() throws IOException {
+        RecordingRowHandler handler = parse(DEFAULT_MAPPING, "date,amount\n\n2025-03-04,1\n   \n\r\n2025-03-05,2\n\n");
+
+        assertEquals(2, handler.rows.size());
+        assertEquals(3, handler.rows.get(0).position());
+        assertEquals(6, handler.rows.get(1).position());
+        assertTrue(handler.rejected.isEmpty());
+    }
+
+    @Test
+    void invalidRowsAreRejectedWithTheirLine() throws IOException {
+        RecordingRowHandler handler = parse(DEFAULT_MAPPING, """
+                date,amount
+                2025-13-01,1
+                2025-03-04,
+                2025-03-05,12abc%
+                2025-03-06,7
+                """);
+
+        assertEquals(1, handler.rows.size());
+        assertEquals(Map.of(
+                2L, "Invalid date: 2025-13-01",
+                3L, "Missing value for column amount",
+                4L, "Invalid amount: 12abc%"), handler.rejected);
+    }
+
+    @Test
+    void customDelimiterDecimalSeparatorAndDateFormat() throws IOException {
+        ColumnMapping mapping = ColumnMapping.of("Data", "Valor", "Historico", null, "dd/MM/yyyy", ";", ",");
+
+        RecordingRowHandler handler = parse(mapping, """
+                Data;Historico;Valor
+                04/03/2025;Mercado;R$ 1.234,56
+                05/03/2025;"Taxa; anual";(12,50)
+                """);
+
+        assertEquals(new StatementRow(2, LocalDate.of(2025, 3, 4), new BigDecimal("1234.56"), "Mercado", null), handler.rows.get(0));
+        assertEquals(new StatementRow(3, LocalDate.of(2025, 3, 5), new BigDecimal("-12.50"), "Taxa; anual", null), handler.rows.get(1));
+    }
+
+    @Test
+    void unclosedQuoteFailsTheFile() {
+        InvalidFieldException e = assertThrows(InvalidFieldException.class, () -> parse(DEFAULT_MAPPING,
+                "date,amount,description\n2025-03-04,1,\"never closed\n2025-03-05,2,next\n"));
+
+        assertEquals("Unclosed quote at line 4", e.getMessage());
+    }
+
+    @Test
+    void fieldsAreLimitedInLength() throws IOException {
+        String longField = "x".repeat(10_001);
+
+        InvalidFieldException quoted = assertThrows(InvalidFieldException.class, () -> parse(DEFAULT_MAPPING,
+                "date,amount,description\n2025-03-04,1,\"" + longField + "\"\n"));
+        InvalidFieldException unquoted = assertThrows(InvalidFieldException.class, () -> parse(DEFAULT_MAPPING,
+                "date,amount,description\n2025-03-04,1," + longField + "\n"));
+
+        assertEquals("Field longer than 10000 characters at line 2", quoted.getMessage());
+        assertEquals("Field longer than 10000 characters at line 2", unquoted.getMessage());
+        // The limit itself is accepted
+        assertEquals(1, parse(DEFAULT_MAPPING, "date,amount,description\n2025-03-04,1," + "x".repeat(10_000) + "\n").rows.size());
+    }
+
+    @Test
+    void headerProblemsFailTheFile() {
+        InvalidFieldException empty = assertThrows(InvalidFieldException.class, () -> parse(DEFAULT_MAPPING, ""));
+        InvalidFieldException missing = assertThrows(InvalidFieldException.class, () -> parse(DEFAULT_MAPPING, "date,value\n2025-03-04,1\n"));
+
+        assertEquals("The file is empty.", empty.getMessage());
+        assertEquals("Column not found in the header: amount", missing.getMessage());
+    }
+
+    @Test
+    void lastRecordWithoutLineBreakIsRead() throws IOException {
+        RecordingRowHandler handler = parse(DEFAULT_MAPPING, "date,amount,description\n2025-03-04,1,\"end\"");
+
+        assertEquals(1, handler.rows.size());
+        assertEquals("end", handler.rows.getFirst().description());
+        assertNull(handler.rows.getFirst().category());
+    }
+
+    private static RecordingRowHandler parse(ColumnMapping mapping, String csv) throws IOException {
+        RecordingRowHandler handler = new RecordingRowHandler();
+        new CsvStatementParser(mapping).parse(new StringReader(csv), handler);
+        return handler;
+    }
+}
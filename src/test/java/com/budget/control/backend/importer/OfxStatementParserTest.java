@@ -0,0 +1,171 @@
+package com.budget.control.backend.importer;
+
+import com.budget.control.backend.exception.InvalidFieldException;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class OfxStatementParserTest {
+
+    // OFX 1.x: SGML header, leaf elements are not closed
+    private static final String SGML = """
+            OFXHEADER:100
+            DATA:OFXSGML
+            VERSION:102
+            ENCODING:USASCII
+            CHARSET:1252
+
+            <OFX>
+            <BANKMSGSRSV1>
+            <STMTTRNRS>
+            <STMTRS>
+            <CURDEF>BRL
+            <BANKTRANLIST>
+            <DTSTART>20250301
+            <STMTTRN>
+            <TRNTYPE>DEBIT
+            <DTPOSTED>20250304120000[-3:BRT]
+            <TRNAMT>-12.50
+            <FITID>1
+            <NAME>Corner shop
+            </STMTTRN>
+            <STMTTRN>
+            <TRNTYPE>CREDIT
+            <DTPOSTED>20250305
+            <TRNAMT>1000.00
+            <FITID>2
+            <MEMO>Salary
+            </STMTTRN>
+            </BANKTRANLIST>
+            </STMTRS>
+            </STMTTRNRS>
+            </BANKMSGSRSV1>
+            </OFX>
+            """;
+
+    // OFX 2.x: XML declaration and processing instruction, every element is closed
+    private static final String XML = """
+            <?xml version="1.0" encoding="UTF-8"?>
+            <?OFX OFXHEADER="200" VERSION="220" SECURITY="NONE" OLDFILEUID="NONE" NEWFILEUID="NONE"?>
+            <OFX>
+              <BANKMSGSRSV1><STMTTRNRS><STMTRS>
+                <CURDEF>BRL</CURDEF>
+                <BANKTRANLIST>
+                  <DTSTART>20250301</DTSTART>
+                  <STMTTRN>
+                    <TRNTYPE>DEBIT</TRNTYPE>
+                    <DTPOSTED>20250304120000.000[-3:BRT]</DTPOSTED>
+                    <TRNAMT>-12.50</TRNAMT>
+                    <FITID>1</FITID>
+                    <NAME>Corner shop</NAME>
+                  </STMTTRN>
+                  <STMTTRN><TRNTYPE>CREDIT</TRNTYPE><DTPOSTED>20250305</DTPOSTED><TRNAMT>1000.00</TRNAMT><FITID>2</FITID><MEMO>Salary</MEMO></STMTTRN>
+                </BANKTRANLIST>
+              </STMTRS></STMTTRNRS></BANKMSGSRSV1>
+            </OFX>
+            """;
+
+    @Test
+    void sgmlAndXmlGiveTheSameRows() throws IOException {
+        RecordingRowHandler sgml = parse(SGML);
+        RecordingRowHandler xml = parse(XML);
+
+        List<StatementRow> expected = List.of(
+                new StatementRow(1, LocalDate.of(2025, 3, 4), new BigDecimal("-12.50"), "Corner shop", null),
+                new StatementRow(2, LocalDate.of(2025, 3, 5), new BigDecimal("1000.00"), "Salary", null));
+        assertEquals(expected, sgml.rows);
+        assertEquals(expected, xml.rows);
+        assertTrue(sgml.rejected.isEmpty());
+        assertTrue(xml.rejected.isEmpty());
+    }
+
+    @Test
+    void commaIsAcceptedAsTheDecimalSeparator() throws IOException {
+        RecordingRowHandler handler = parse(transactions(
+                "<DTPOSTED>20250304<TRNAMT>-12,50<NAME>Comma",
+                "<DTPOSTED>20250305<TRNAMT>7.25<NAME>Point",
+                "<DTPOSTED>20250306<TRNAMT>1.234,56<NAME>Both"));
+
+        assertEquals(new BigDecimal("-12.50"), handler.rows.get(0).amount());
+        assertEquals(new BigDecimal("7.25"), handler.rows.get(1).amount());
+        // With a point present the comma is not read as decimals, the value is rejected rather than misread
+        assertEquals(Map.of(3L, "Invalid TRNAMT: 1.234,56"), handler.rejected);
+    }
+
+    @Test
+    void entitiesAreDecoded() throws IOException {
+        RecordingRowHandler handler = parse(transactions(
+                "<DTPOSTED>20250304<TRNAMT>-1<NAME>Tom &amp; Jerry &lt;Ltd&gt; &quot;Q&quot; &apos;A&apos;",
+                "<DTPOSTED>20250305<TRNAMT>-2<NAME>Literal &amp;lt; stays encoded once</NAME>"));
+
+        assertEquals("Tom & Jerry <Ltd> \"Q\" 'A'", handler.rows.get(0).description());
+        assertEquals("Literal &lt; stays encoded once", handler.rows.get(1).description());
+    }
+
+    @Test
+    void nameFallsBackToMemo() throws IOException {
+        RecordingRowHandler handler = parse(transactions(
+                "<DTPOSTED>20250304<TRNAMT>-1<NAME> <MEMO>From memo",
+                "<DTPOSTED>20250305<TRNAMT>-2<NAME>Name<MEMO>Memo"));
+
+        assertEquals("From memo", handler.rows.get(0).description());
+        assertEquals("Name", handler.rows.get(1).description());
+    }
+
+    @Test
+    void invalidTransactionsAreRejectedWithTheirNumber() throws IOException {
+        RecordingRowHandler handler = parse(transactions(
+                "<TRNAMT>-1<NAME>No date",
+                "<DTPOSTED>20250230<TRNAMT>-1",
+                "<DTPOSTED>20250304<NAME>No amount",
+                "<DTPOSTED>20250304<TRNAMT>ten",
+                "<DTPOSTED>20250304<TRNAMT>-5"));
+
+        assertEquals(1, handler.rows.size());
+        assertEquals(5, handler.rows.getFirst().position());
+        assertEquals(Map.of(
+                1L, "Missing or invalid DTPOSTED",
+                2L, "Invalid DTPOSTED: 20250230",
+                3L, "Missing TRNAMT",
+                4L, "Invalid TRNAMT: ten"), handler.rejected);
+    }
+
+    @Test
+    void valuesAreLimitedInLength() {
+        InvalidFieldException e = assertThrows(InvalidFieldException.class,
+                () -> parse(transactions("<DTPOSTED>20250304<TRNAMT>-1<NAME>" + "x".repeat(10_001))));
+
+        assertEquals("OFX value longer than 10000 characters.", e.getMessage());
+    }
+
+    @Test
+    void filesWithoutOfxElementsAreRefused() {
+        InvalidFieldException e = assertThrows(InvalidFieldException.class, () -> parse("date,amount\n2025-03-04,1\n"));
+
+        assertEquals("The file is not an OFX statement.", e.getMessage());
+    }
+
+    // SGML statement with one <STMTTRN> per body
+    private static String transactions(String... bodies) {
+        StringBuilder ofx = new StringBuilder("OFXHEADER:100\n\n<OFX><BANKTRANLIST>\n");
+        for (String body : bodies) {
+            ofx.append("<STMTTRN>").append(body).append("\n</STMTTRN>\n");
+        }
+        return ofx.append("</BANKTRANLIST></OFX>\n").toString();
+    }
+
+    private static RecordingRowHandler parse(String ofx) throws IOException {
+        RecordingRowHandler handler = new RecordingRowHandler();
+        new OfxStatementParser().parse(new StringReader(ofx), handler);
+        return handler;
+    }
+}
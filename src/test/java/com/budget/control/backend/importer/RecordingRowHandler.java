@@ -0,0 +1,23 @@
+package com.budget.control.backend.importer;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Keeps what a parser hands over, in order, for the assertions
+class RecordingRowHandler implements StatementRowHandler {
+
+    final List<StatementRow> rows = new ArrayList<>();
+    final Map<Long, String> rejected = new LinkedHashMap<>();
+
+    @Override
+    public void row(StatementRow row) {
+        rows.add(row);
+    }
+
+    @Override
+    public void rejected(long position, String reason) {
+        rejected.put(position, reason);
+    }
+}
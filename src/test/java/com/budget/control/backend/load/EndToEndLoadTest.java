@@ -0,0 +1,99 @@
+package com.budget.control.backend.load;
+
+import com.budget.control.backend.BudgetControlApiApplication;
+import com.budget.control.backend.service.MonthlyRollupService;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Throughput and latency of the whole stack, HTTP to PostgreSQL, without a shared environment
+// PostgreSQL runs embedded in the test JVM (real PostgreSQL binaries, the services use PostgreSQL specific SQL),
+// the schema is created by Hibernate and LoadDataset seeds it, see there for the dataset size properties
+// Run with: mvn test -Pload -Dtest=EndToEndLoadTest, tuned with
+// -Dload.clients (default 64), -Dload.warmup-seconds (30), -Dload.duration-seconds (60), -Dload.pool-size (10),
+// -Dload.virtual-threads (false)
+// The histograms are written to target/load as one .hgrm file per endpoint
+// -Dload.p99-threshold-ms fails the test when the p99 of any endpoint is above it, -Dload.p99-threshold-ms.<endpoint>
+// overrides it for one endpoint, e.g. -D"load.p99-threshold-ms.GET /reports/summary"=250
+@Tag("load")
+public class EndToEndLoadTest {
+
+    private static final int CLIENTS = Integer.getInteger("load.clients", 64);
+    private static final Duration WARMUP = Duration.ofSeconds(Integer.getInteger("load.warmup-seconds", 30));
+    private static final Duration DURATION = Duration.ofSeconds(Integer.getInteger("load.duration-seconds", 60));
+    private static final Path OUTPUT = Path.of("target", "load");
+
+    @Test
+    void mixedWorkload() throws Exception {
+        try (EmbeddedPostgres postgres = EmbeddedPostgres.builder().start();
+             ConfigurableApplicationContext context = new SpringApplicationBuilder(BudgetControlApiApplication.class)
+                     // Command line arguments, so they win over an application.yml in the working directory
+                     .run("--server.port=0",
+                             "--spring.datasource.url=" + postgres.getJdbcUrl("postgres", "postgres"),
+                             "--spring.datasource.username=postgres",
+                             "--spring.datasource.password=postgres",
+                             "--spring.datasource.driver-class-name=org.postgresql.Driver",
+                             "--spring.datasource.hikari.maximum-pool-size=" + Integer.getInteger("load.pool-size", 10),
+                             "--spring.threads.virtual.enabled=" + Boolean.getBoolean("load.virtual-threads"),
+                             "--spring.jpa.hibernate.ddl-auto=update",
+                             "--spring.jpa.show-sql=false",
+                             "--spring.jpa.properties.hibernate.format_sql=false",
+                             "--spring.jpa.properties.hibernate.use_sql_comments=false")) {
+            JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+            long seedBegin = System.nanoTime();
+            LoadDataset dataset = LoadDataset.seed(jdbcTemplate);
+            context.getBean(MonthlyRollupService.class).rebuild();
+            jdbcTemplate.execute("ANALYZE");
+            System.out.printf("Dataset seeded in %.1f s%n", (System.nanoTime() - seedBegin) / 1_000_000_000.0);
+
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            try (ExecutorService clientThreads = Executors.newVirtualThreadPerTaskExecutor()) {
+                HttpClient httpClient = HttpClient.newBuilder()
+                        .version(HttpClient.Version.HTTP_1_1)
+                        .connectTimeout(Duration.ofSeconds(10))
+                        .executor(clientThreads)
+                        .build();
+                LoadWorkload workload = new LoadWorkload(httpClient, URI.create("http://localhost:" + port), dataset);
+
+                // Warm up the JIT, the connection pool and the caches, this run is not reported
+                workload.run(CLIENTS, WARMUP);
+                LoadReport report = workload.run(CLIENTS, DURATION);
+
+                System.out.printf("%d clients for %d s%n", CLIENTS, DURATION.toSeconds());
+                report.print(System.out);
+                report.write(OUTPUT);
+
+                assertEquals(0, report.errors(), "Requests failed during the run");
+                assertP99WithinThresholds(report);
+            }
+        }
+    }
+
+    private void assertP99WithinThresholds(LoadReport report) {
+        String threshold = System.getProperty("load.p99-threshold-ms");
+        List<String> regressions = new ArrayList<>();
+        for (String name : report.names()) {
+            String endpointThreshold = System.getProperty("load.p99-threshold-ms." + name, threshold);
+            if (endpointThreshold != null && report.p99Millis(name) > Double.parseDouble(endpointThreshold)) {
+                regressions.add(String.format("%s p99 %.2f ms > %s ms", name, report.p99Millis(name), endpointThreshold));
+            }
+        }
+        assertTrue(regressions.isEmpty(), "p99 above the threshold: " + regressions);
+    }
+}
@@ -0,0 +1,209 @@
+package com.budget.control.backend.load;
+
+import com.budget.control.backend.model.TransactionContentHash;
+import com.budget.control.backend.type.TransactionBenefitType;
+import com.budget.control.backend.type.TransactionExpenseType;
+import com.budget.control.backend.type.TransactionIncomeType;
+import com.budget.control.backend.type.TransactionKindType;
+import com.budget.control.backend.type.UserRoleType;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+// Users, groups and transactions seeded straight in SQL, PostgreSQL generates the rows with generate_series
+// Sizes come from system properties so a run is scaled without code changes:
+// -Dload.users (default 1000), -Dload.groups (100), -Dload.transactions (1000000) and -Dload.seed (0.42)
+// Transactions are 70% expenses, 25% incomes and 5% benefits over the last two years, more of them in recent months.
+// Categories and amounts follow the weights below, and a few users own most of the rows.
+// The same sizes and seed give the same dataset
+final class LoadDataset {
+
+    private static final int CHUNK_SIZE = 250_000;
+    private static final int DAYS = 730;
+    private static final int SAMPLE_SIZE = 10_000;
+
+    // Category, weight (share of the rows), typical amount and, for expenses, whether it is a recurring bill
+    private record Category(String name, int weight, BigDecimal amount, boolean recurrent) {
+    }
+
+    private static final Map<TransactionKindType, List<Category>> CATEGORIES = new EnumMap<>(TransactionKindType.class);
+
+    static {
+        List<Category> expenses = new ArrayList<>();
+        Map<TransactionExpenseType, Category> common = Map.ofEntries(
+                expense(TransactionExpenseType.GROCERY, 20, "85.00", false),
+                expense(TransactionExpenseType.FOODS_AND_DRINKS, 18, "25.00", false),
+                expense(TransactionExpenseType.GAS, 10, "60.00", false),
+                expense(TransactionExpenseType.PUBLIC_TRANSPORTATION, 6, "4.50", false),
+                expense(TransactionExpenseType.ENTERTAINMENT, 5, "40.00", false),
+                expense(TransactionExpenseType.STREAMING, 4, "15.99", true),
+                expense(TransactionExpenseType.CREDIT_CARD, 3, "500.00", true),
+                expense(TransactionExpenseType.ELECTRICITY, 3, "120.00", true),
+                expense(TransactionExpenseType.WATER, 3, "45.00", true),
+                expense(TransactionExpenseType.INTERNET, 3, "60.00", true),
+                expense(TransactionExpenseType.PHONE, 3, "45.00", true),
+                expense(TransactionExpenseType.RENT, 3, "1400.00", true),
+                expense(TransactionExpenseType.MEDICINE_COSTS, 3, "30.00", false),
+                expense(TransactionExpenseType.GYM_MEMBERSHIP, 2, "50.00", true),
+                expense(TransactionExpenseType.GIFTS, 2, "60.00", false));
+        for (TransactionExpenseType type : TransactionExpenseType.values()) {
+            expenses.add(common.getOrDefault(type, new Category(type.name(), 1, new BigDecimal("100.00"), false)));
+        }
+        CATEGORIES.put(TransactionKindType.EXPENSE, expenses);
+        CATEGORIES.put(TransactionKindType.INCOME, List.of(
+                category(TransactionIncomeType.SALARY, 60, "5200.00"),
+                category(TransactionIncomeType.FREELANCE, 20, "900.00"),
+                category(TransactionIncomeType.SALE, 10, "300.00"),
+                category(TransactionIncomeType.BONUS, 5, "2500.00"),
+                category(TransactionIncomeType.REAL_STATE, 5, "1500.00")));
+        CATEGORIES.put(TransactionKindType.BENEFIT, List.of(
+                category(TransactionBenefitType.GROCERY, 35, "600.00"),
+                category(TransactionBenefitType.HEALTH_INSURANCE, 20, "350.00"),
+                category(TransactionBenefitType.GAS, 15, "200.00"),
+                category(TransactionBenefitType.DENTAL_INSURANCE, 10, "60.00"),
+                category(TransactionBenefitType.GYM_MEMBERSHIP, 10, "90.00"),
+                category(TransactionBenefitType.PET_INSURANCE, 10, "40.00")));
+    }
+
+    private static final String GROUP_SQL = """
+            INSERT INTO groups (id, name, description, user_id, created_at, updated_at, version)
+            SELECT md5('load-group-' || g)::uuid, 'Group ' || g, 'Load test group', md5('load-user-' || g)::uuid,
+                   now(), now(), 0
+            FROM generate_series(1, ?) g
+            """;
+
+    private static final String USER_SQL = """
+            INSERT INTO user_authentication (id, first_name, last_name, birth_date, cpf, email, encrypted_password,
+                                             user_authenticated, role, created_at, updated_at, version, group_id)
+            SELECT md5('load-user-' || g)::uuid, 'User', 'Load ' || g, date '1970-01-01' + (g % 15000),
+                   lpad(g::text, 11, '0'), 'user' || g || '@load.test', ?, true, ?, now(), now(), 0,
+                   md5('load-group-' || (1 + g % ?))::uuid
+            FROM generate_series(1, ?) g
+            """;
+
+    // s holds the generated row, the content hash is computed from it as TransactionContentHash does
+    // power(random(), 2) makes the first users own most rows, power(random(), 1.3) puts more rows in recent months
+    private static final String TRANSACTION_SQL = """
+            INSERT INTO %1$s (id, name, description, amount, date, %2$s user_id, content_hash, created_at, updated_at, version)
+            SELECT s.id, s.name, s.description, s.amount, s.date, %3$s s.user_id, %4$s,
+                   s.date + (s.g %% 86400) * interval '1 second', s.date + (s.g %% 86400) * interval '1 second', 0
+            FROM (
+                SELECT c.g,
+                       md5('load-%1$s-' || c.g)::uuid AS id,
+                       (?::text[])[c.k] AS name,
+                       lower(replace((?::text[])[c.k], '_', ' ')) || ' ' || c.g AS description,
+                       round((?::numeric[])[c.k] * exp(random() - 0.5)::numeric, 2)::numeric(18, 2) AS amount,
+                       current_date - (power(random(), 1.3) * ?)::int AS date,
+                       (?::boolean[])[c.k] AS recurrent,
+                       md5('load-user-' || (1 + floor(power(random(), 2) * ?))::int)::uuid AS user_id
+                FROM (SELECT g, 1 + floor(random() * ?)::int AS k FROM generate_series(?, ?) g) c
+            ) s
+            """;
+
+    private final List<UUID> userIds;
+    private final List<UUID> expenseIds;
+
+    private LoadDataset(List<UUID> userIds, List<UUID> expenseIds) {
+        this.userIds = userIds;
+        this.expenseIds = expenseIds;
+    }
+
+    // Seed an empty schema, the monthly rollups must be rebuilt afterwards
+    static LoadDataset seed(JdbcTemplate jdbcTemplate) {
+        int users = Integer.getInteger("load.users", 1_000);
+        int groups = Math.min(Integer.getInteger("load.groups", 100), users);
+        long transactions = Long.getLong("load.transactions", 1_000_000L);
+        double seed = Double.parseDouble(System.getProperty("load.seed", "0.42"));
+        String encryptedPassword = new BCryptPasswordEncoder().encode("load-password");
+
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            // random() is seeded per connection, so every statement runs on this one
+            try (PreparedStatement statement = connection.prepareStatement("SELECT setseed(?)")) {
+                statement.setDouble(1, seed);
+                statement.execute();
+            }
+            try (PreparedStatement statement = connection.prepareStatement(GROUP_SQL)) {
+                statement.setInt(1, groups);
+                statement.executeUpdate();
+            }
+            try (PreparedStatement statement = connection.prepareStatement(USER_SQL)) {
+                statement.setString(1, encryptedPassword);
+                statement.setInt(2, UserRoleType.USER.ordinal());
+                statement.setInt(3, groups);
+                statement.setInt(4, users);
+                statement.executeUpdate();
+            }
+            insertTransactions(connection, TransactionKindType.EXPENSE, transactions * 70 / 100, users);
+            insertTransactions(connection, TransactionKindType.INCOME, transactions * 25 / 100, users);
+            insertTransactions(connection, TransactionKindType.BENEFIT, transactions * 5 / 100, users);
+            return null;
+        });
+
+        List<UUID> userIds = jdbcTemplate.queryForList(
+                "SELECT id FROM user_authentication ORDER BY random() LIMIT " + SAMPLE_SIZE, UUID.class);
+        List<UUID> expenseIds = jdbcTemplate.queryForList(
+                "SELECT id FROM transaction_expense ORDER BY random() LIMIT " + SAMPLE_SIZE, UUID.class);
+        return new LoadDataset(userIds, expenseIds);
+    }
+
+    private static void insertTransactions(Connection connection, TransactionKindType kind, long count, int users)
+            throws SQLException {
+        // Each category repeated by its weight, a uniform pick in these arrays follows the weights
+        List<String> names = new ArrayList<>();
+        List<BigDecimal> amounts = new ArrayList<>();
+        List<Boolean> recurrents = new ArrayList<>();
+        for (Category category : CATEGORIES.get(kind)) {
+            for (int i = 0; i < category.weight(); i++) {
+                names.add(category.name());
+                amounts.add(category.amount());
+                recurrents.add(category.recurrent());
+            }
+        }
+
+        boolean withRecurrent = kind == TransactionKindType.EXPENSE;
+        String sql = TRANSACTION_SQL.formatted(kind.getTableName(),
+                withRecurrent ? "recurrent," : "",
+                withRecurrent ? "s.recurrent," : "",
+                TransactionContentHash.sqlExpression(column -> "s." + column, withRecurrent));
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setArray(1, connection.createArrayOf("text", names.toArray()));
+            statement.setArray(2, connection.createArrayOf("text", names.toArray()));
+            statement.setArray(3, connection.createArrayOf("numeric", amounts.toArray()));
+            statement.setInt(4, DAYS);
+            statement.setArray(5, connection.createArrayOf("boolean", recurrents.toArray()));
+            statement.setInt(6, users);
+            statement.setInt(7, names.size());
+            for (long from = 1; from <= count; from += CHUNK_SIZE) {
+                statement.setLong(8, from);
+                statement.setLong(9, Math.min(from + CHUNK_SIZE - 1, count));
+                statement.executeUpdate();
+            }
+        }
+    }
+
+    private static Map.Entry<TransactionExpenseType, Category> expense(TransactionExpenseType type, int weight, String amount, boolean recurrent) {
+        return Map.entry(type, new Category(type.name(), weight, new BigDecimal(amount), recurrent));
+    }
+
+    private static Category category(Enum<?> type, int weight, String amount) {
+        return new Category(type.name(), weight, new BigDecimal(amount), false);
+    }
+
+    List<UUID> userIds() {
+        return userIds;
+    }
+
+    List<UUID> expenseIds() {
+        return expenseIds;
+    }
+}
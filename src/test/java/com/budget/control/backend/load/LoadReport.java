@@ -0,0 +1,88 @@
+package com.budget.control.backend.load;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Latency histogram and error count per endpoint of one load run, latencies are recorded in microseconds
+// The clients are closed loop (a client waits for its response before the next request), so the latencies
+// do not include the time requests would have waited had they been sent at a fixed rate
+final class LoadReport {
+
+    private static final long HIGHEST_LATENCY = TimeUnit.MINUTES.toMicros(1);
+
+    private final Map<String, Endpoint> endpoints = new LinkedHashMap<>();
+    private Duration elapsed = Duration.ZERO;
+
+    LoadReport(List<String> names) {
+        for (String name : names) {
+            endpoints.put(name, new Endpoint());
+        }
+    }
+
+    private static final class Endpoint {
+        private final Histogram histogram = new ConcurrentHistogram(HIGHEST_LATENCY, 3);
+        private final LongAdder errors = new LongAdder();
+    }
+
+    void record(String name, long latencyNanos, boolean error) {
+        Endpoint endpoint = endpoints.get(name);
+        endpoint.histogram.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(latencyNanos), HIGHEST_LATENCY));
+        if (error) {
+            endpoint.errors.increment();
+        }
+    }
+
+    void finish(Duration elapsed) {
+        this.elapsed = elapsed;
+    }
+
+    long errors() {
+        return endpoints.values().stream().mapToLong(endpoint -> endpoint.errors.sum()).sum();
+    }
+
+    double p99Millis(String name) {
+        return endpoints.get(name).histogram.getValueAtPercentile(99) / 1000.0;
+    }
+
+    List<String> names() {
+        return new ArrayList<>(endpoints.keySet());
+    }
+
+    void print(PrintStream out) {
+        double seconds = elapsed.toNanos() / 1_000_000_000.0;
+        out.printf("%-36s %9s %7s %10s %8s %8s %8s %8s %8s%n",
+                "endpoint", "requests", "errors", "req/s", "p50(ms)", "p90(ms)", "p99(ms)", "p99.9(ms)", "max(ms)");
+        for (Map.Entry<String, Endpoint> entry : endpoints.entrySet()) {
+            Histogram histogram = entry.getValue().histogram;
+            out.printf("%-36s %9d %7d %10.1f %8.2f %8.2f %8.2f %8.2f %8.2f%n",
+                    entry.getKey(), histogram.getTotalCount(), entry.getValue().errors.sum(),
+                    histogram.getTotalCount() / seconds,
+                    histogram.getValueAtPercentile(50) / 1000.0, histogram.getValueAtPercentile(90) / 1000.0,
+                    histogram.getValueAtPercentile(99) / 1000.0, histogram.getValueAtPercentile(99.9) / 1000.0,
+                    histogram.getMaxValue() / 1000.0);
+        }
+    }
+
+    // One percentile distribution file per endpoint (values in milliseconds), readable by the HdrHistogram plotter
+    void write(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        for (Map.Entry<String, Endpoint> entry : endpoints.entrySet()) {
+            String fileName = entry.getKey().replaceAll("[^A-Za-z0-9]+", "_").replaceAll("^_|_$", "") + ".hgrm";
+            try (PrintStream out = new PrintStream(Files.newOutputStream(directory.resolve(fileName)))) {
+                entry.getValue().histogram.outputPercentileDistribution(out, 1000.0);
+            }
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.budget.control.backend.load;
+
+import com.budget.control.backend.type.TransactionExpenseType;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+// Mixed read and write traffic over the controllers at a fixed number of clients, each request picks an operation by weight
+// Reads are 80% of the traffic: pages, filtered searches, reads by id, the report summary and the ledger
+// Writes are 20%: new expenses and partial updates of seeded ones
+// A response is an error when its status is 400 or above, except 404 (an empty page or filter is a valid answer)
+final class LoadWorkload {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(60);
+    private static final TransactionExpenseType[] EXPENSE_TYPES = TransactionExpenseType.values();
+
+    private record Operation(String name, int weight, Function<ThreadLocalRandom, HttpRequest> request) {
+    }
+
+    private final HttpClient httpClient;
+    private final URI baseUri;
+    private final List<Operation> operations = new ArrayList<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private int totalWeight;
+
+    LoadWorkload(HttpClient httpClient, URI baseUri, LoadDataset dataset) {
+        this.httpClient = httpClient;
+        this.baseUri = baseUri;
+        List<UUID> expenseIds = dataset.expenseIds();
+        List<UUID> userIds = dataset.userIds();
+
+        add("GET /transaction-expense", 25, random -> get("/transaction-expense?limit=20"));
+        add("GET /transaction-expense?name&dates", 15, random -> {
+            LocalDate startDate = LocalDate.now().minusDays(random.nextInt(700));
+            return get("/transaction-expense?limit=20&name=" + EXPENSE_TYPES[random.nextInt(EXPENSE_TYPES.length)].name().toLowerCase()
+                    + "&startDate=" + startDate + "&endDate=" + startDate.plusDays(30));
+        });
+        add("GET /transaction-expense/{id}", 15, random -> get("/transaction-expense/" + pick(random, expenseIds)));
+        add("GET /transaction-income", 5, random -> get("/transaction-income?limit=20"));
+        add("GET /reports/summary", 10, random -> get("/reports/summary?groupBy=category&userId=" + pick(random, userIds)));
+        add("GET /ledger", 5, random -> get("/ledger?limit=50&from=" + LocalDate.now().minusDays(90)
+                + "&to=" + LocalDate.now() + "&userId=" + pick(random, userIds)));
+        add("GET /user/{id}", 5, random -> get("/user/" + pick(random, userIds)));
+        add("POST /transaction-expense", 12, random -> send("POST", "/transaction-expense", """
+                {"name":"%s","description":"load %d","amount":%d.%02d,"date":"%s","recurrent":false}"""
+                .formatted(EXPENSE_TYPES[random.nextInt(EXPENSE_TYPES.length)], sequence.incrementAndGet(),
+                        1 + random.nextInt(500), random.nextInt(100), LocalDate.now().minusDays(random.nextInt(60)))));
+        // If-Match: * updates whatever version is stored, concurrent patches of the same row do not fail
+        add("PATCH /transaction-expense/{id}", 8, random -> HttpRequest.newBuilder(uri("/transaction-expense/" + pick(random, expenseIds)))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Content-Type", "application/json")
+                .header("If-Match", "*")
+                .method("PATCH", HttpRequest.BodyPublishers.ofString(
+                        "{\"description\":\"patched " + sequence.incrementAndGet() + "\"}"))
+                .build());
+    }
+
+    List<String> names() {
+        return operations.stream().map(Operation::name).toList();
+    }
+
+    // Runs the clients until the duration has elapsed, every client sends its next request as soon as the previous one answered
+    LoadReport run(int clients, Duration duration) throws InterruptedException {
+        LoadReport report = new LoadReport(names());
+        CountDownLatch start = new CountDownLatch(1);
+        long begin;
+        try (ExecutorService clientThreads = Executors.newVirtualThreadPerTaskExecutor()) {
+            begin = System.nanoTime();
+            long deadline = begin + duration.toNanos();
+            for (int client = 0; client < clients; client++) {
+                clientThreads.execute(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    try {
+                        start.await();
+                        while (System.nanoTime() < deadline) {
+                            Operation operation = pick(random);
+                            HttpRequest request = operation.request().apply(random);
+                            long sent = System.nanoTime();
+                            boolean error;
+                            try {
+                                int status = httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                                error = status >= 400 && status != 404;
+                            } catch (IOException e) {
+                                error = true;
+                            }
+                            report.record(operation.name(), System.nanoTime() - sent, error);
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+            }
+            start.countDown();
+        }
+        report.finish(Duration.ofNanos(System.nanoTime() - begin));
+        return report;
+    }
+
+    private void add(String name, int weight, Function<ThreadLocalRandom, HttpRequest> request) {
+        operations.add(new Operation(name, weight, request));
+        totalWeight += weight;
+    }
+
+    private Operation pick(ThreadLocalRandom random) {
+        int value = random.nextInt(totalWeight);
+        for (Operation operation : operations) {
+            value -= operation.weight();
+            if (value < 0) {
+                return operation;
+            }
+        }
+        throw new IllegalStateException("Weights do not add up to " + totalWeight);
+    }
+
+    private static UUID pick(ThreadLocalRandom random, List<UUID> ids) {
+        return ids.get(random.nextInt(ids.size()));
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(uri(path)).timeout(REQUEST_TIMEOUT).GET().build();
+    }
+
+    private HttpRequest send(String method, String path, String json) {
+        return HttpRequest.newBuilder(uri(path))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Content-Type", "application/json")
+                .method(method, HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+
+    private URI uri(String path) {
+        return baseUri.resolve(path);
+    }
+}
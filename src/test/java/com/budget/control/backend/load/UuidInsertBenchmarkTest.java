@@ -0,0 +1,69 @@
+package com.budget.control.backend.load;
+
+import com.budget.control.backend.model.UuidV7Generator;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+// Insert throughput and primary key index size of random (v4) against time-ordered (v7) UUID keys
+// Rows default to 10 million, override with -Duuid.benchmark.rows, run with: mvn test -Pload
+@Tag("load")
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+public class UuidInsertBenchmarkTest {
+
+    private static final int ROWS = Integer.getInteger("uuid.benchmark.rows", 10_000_000);
+    private static final int BATCH_SIZE = 5_000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void compareV4AndV7Keys() {
+        Result v4 = insert("uuid_benchmark_v4", UUID::randomUUID);
+        Result v7 = insert("uuid_benchmark_v7", UuidV7Generator::next);
+
+        System.out.println("keys  rows        seconds  rows/s      index size");
+        System.out.println(v4.format("v4"));
+        System.out.println(v7.format("v7"));
+    }
+
+    private Result insert(String table, Supplier<UUID> ids) {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + table);
+        jdbcTemplate.execute("CREATE TABLE " + table + " (id uuid PRIMARY KEY, amount numeric(18,2) NOT NULL, created_at timestamp NOT NULL DEFAULT now())");
+        try {
+            String sql = "INSERT INTO " + table + " (id, amount) VALUES (?, ?)";
+            long begin = System.nanoTime();
+            List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+            for (int i = 0; i < ROWS; i++) {
+                batch.add(new Object[]{ids.get(), i % 10_000});
+                if (batch.size() == BATCH_SIZE) {
+                    jdbcTemplate.batchUpdate(sql, batch);
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                jdbcTemplate.batchUpdate(sql, batch);
+            }
+            double seconds = (System.nanoTime() - begin) / 1_000_000_000.0;
+            String indexSize = jdbcTemplate.queryForObject(
+                    "SELECT pg_size_pretty(pg_relation_size('" + table + "_pkey'))", String.class);
+            return new Result(seconds, indexSize);
+        } finally {
+            jdbcTemplate.execute("DROP TABLE IF EXISTS " + table);
+        }
+    }
+
+    private record Result(double seconds, String indexSize) {
+
+        String format(String keys) {
+            return String.format("%-4s  %-10d  %7.1f  %-10.0f  %s", keys, ROWS, seconds, ROWS / seconds, indexSize);
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.budget.control.backend.load;
+
+import com.budget.control.backend.BudgetControlApiApplication;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Compares throughput and p99 latency of the platform thread pool and the virtual thread mode
+// Needs the same database as the other tests, run with: mvn test -Pload
+@Tag("load")
+public class VirtualThreadLoadTest {
+
+    private static final int CLIENTS = 2000;
+    private static final int REQUESTS_PER_CLIENT = 20;
+    private static final int WARMUP_CLIENTS = 100;
+    private static final String PATH = "/transaction-expense?limit=20";
+
+    @Test
+    void compareThroughputAndP99() throws Exception {
+        LoadResult platform = run(false);
+        LoadResult virtual = run(true);
+
+        System.out.println("mode      requests  rejected  errors  throughput(req/s)  p50(ms)  p99(ms)");
+        System.out.println(platform.format());
+        System.out.println(virtual.format());
+
+        assertTrue(platform.completed() > 0, "No request completed with platform threads");
+        assertTrue(virtual.completed() > 0, "No request completed with virtual threads");
+    }
+
+    private LoadResult run(boolean virtualThreads) throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(BudgetControlApiApplication.class)
+                .properties(
+                        "server.port=0",
+                        "spring.threads.virtual.enabled=" + virtualThreads,
+                        "spring.jpa.show-sql=false")
+                .run()) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            URI uri = URI.create("http://localhost:" + port + PATH);
+
+            try (ExecutorService clientThreads = Executors.newVirtualThreadPerTaskExecutor()) {
+                HttpClient httpClient = HttpClient.newBuilder()
+                        .version(HttpClient.Version.HTTP_1_1)
+                        .connectTimeout(Duration.ofSeconds(10))
+                        .executor(clientThreads)
+                        .build();
+
+                // Warm up the JIT, the connection pool and the caches before measuring
+                load(httpClient, clientThreads, uri, WARMUP_CLIENTS, virtualThreads);
+                return load(httpClient, clientThreads, uri, CLIENTS, virtualThreads);
+            }
+        }
+    }
+
+    private LoadResult load(HttpClient httpClient, ExecutorService clientThreads, URI uri, int clients, boolean virtualThreads)
+            throws InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(60)).GET().build();
+        long[] latencies = new long[clients * REQUESTS_PER_CLIENT];
+        AtomicLong rejected = new AtomicLong();
+        AtomicLong errors = new AtomicLong();
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(clients);
+
+        for (int client = 0; client < clients; client++) {
+            int offset = client * REQUESTS_PER_CLIENT;
+            clientThreads.execute(() -> {
+                try {
+                    start.await();
+                    for (int i = 0; i < REQUESTS_PER_CLIENT; i++) {
+                        long begin = System.nanoTime();
+                        try {
+                            int status = httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                            if (status == 503) {
+                                rejected.incrementAndGet();
+                            } else if (status >= 500) {
+                                errors.incrementAndGet();
+                            }
+                        } catch (Exception e) {
+                            errors.incrementAndGet();
+                        }
+                        latencies[offset + i] = System.nanoTime() - begin;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        done.await();
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - begin);
+        return new LoadResult(virtualThreads, latencies, rejected.get(), errors.get(), elapsed);
+    }
+
+    private record LoadResult(boolean virtualThreads, long[] latencies, long rejected, long errors, Duration elapsed) {
+
+        long completed() {
+            return latencies.length - rejected - errors;
+        }
+
+        double throughput() {
+            return latencies.length / (elapsed.toNanos() / 1_000_000_000.0);
+        }
+
+        double percentileMillis(double percentile) {
+            long[] sorted = latencies.clone();
+            Arrays.sort(sorted);
+            int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+            return sorted[Math.max(0, index)] / 1_000_000.0;
+        }
+
+        String format() {
+            return String.format("%-8s  %8d  %8d  %6d  %17.1f  %7.1f  %7.1f",
+                    virtualThreads ? "virtual" : "platform",
+                    latencies.length, rejected, errors, throughput(),
+                    percentileMillis(50), percentileMillis(99));
+        }
+    }
+}
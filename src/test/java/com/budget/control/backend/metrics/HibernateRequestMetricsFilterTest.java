@@ -0,0 +1,54 @@
+package com.budget.control.backend.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class HibernateRequestMetricsFilterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final HibernateRequestMetricsFilter filter = new HibernateRequestMetricsFilter(meterRegistry);
+
+    @Test
+    void recordsTheHibernateWorkOfTheRequestPerEndpoint() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/transaction-expense/0190a5c6-0000-7000-8000-000000000000");
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse resp) {
+                req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/transaction-expense/{id}");
+                HibernateRequestStatistics.statementsExecuted(1);
+                HibernateRequestStatistics.statementsExecuted(1);
+                HibernateRequestStatistics.entityLoaded();
+                HibernateRequestStatistics.flushed();
+            }
+        }));
+
+        assertEquals(2, summary("budget.hibernate.request.statements", "/transaction-expense/{id}").totalAmount());
+        assertEquals(1, summary("budget.hibernate.request.entity.loads", "/transaction-expense/{id}").totalAmount());
+        assertEquals(1, summary("budget.hibernate.request.flushes", "/transaction-expense/{id}").totalAmount());
+    }
+
+    @Test
+    void ignoresWorkDoneOutsideARequest() throws Exception {
+        HibernateRequestStatistics.statementsExecuted(1);
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/unknown"), new MockHttpServletResponse(), new MockFilterChain());
+
+        DistributionSummary statements = summary("budget.hibernate.request.statements", "UNKNOWN");
+        assertEquals(1, statements.count());
+        assertEquals(0, statements.totalAmount());
+    }
+
+    private DistributionSummary summary(String name, String uri) {
+        return meterRegistry.get(name).tag("method", "GET").tag("uri", uri).summary();
+    }
+}
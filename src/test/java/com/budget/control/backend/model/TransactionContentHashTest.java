@@ -0,0 +1,94 @@
+package com.budget.control.backend.model;
+
+import com.budget.control.backend.type.TransactionExpenseType;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assumptions.abort;
+
+public class TransactionContentHashTest {
+
+    private static final UUID USER_ID = UUID.fromString("0190a5f4-2b7e-7c3d-8f00-000000000001");
+
+    private record Row(UUID userId, TransactionExpenseType name, String description, BigDecimal amount, LocalDate date, Boolean recurrent) {
+
+        String javaHash(boolean withRecurrent) {
+            return TransactionContentHash.of(userId, name, description, amount, date, withRecurrent ? recurrent : null);
+        }
+    }
+
+    private static final List<Row> ROWS = List.of(
+            new Row(USER_ID, TransactionExpenseType.BOOKS, "Café | bakery", new BigDecimal("1234.5"), LocalDate.of(2025, 3, 4), false),
+            new Row(USER_ID, TransactionExpenseType.BOOKS, null, new BigDecimal("0.1"), LocalDate.of(999, 12, 31), null),
+            new Row(null, TransactionExpenseType.ELECTRICITY, "", new BigDecimal("-7.005"), LocalDate.of(2024, 2, 29), true));
+
+    // Digests of the joined content, e.g. printf '%s' '...|BOOKS|Café | bakery|1234.50|2025-03-04|false' | sha256sum
+    @Test
+    void hashesTheDocumentedContent() {
+        assertEquals("8560ee57f2cd0759432554fcbf9c803757ef77760721fd754bdc5974572742a2", ROWS.get(0).javaHash(true));
+        assertEquals("a04485780d2f862b309f0423a05dcca05dfe8b4f7b947f31919a6486e62350e3", ROWS.get(1).javaHash(true));
+    }
+
+    @Test
+    void recurrentIsPartOfTheContentOnlyWhenSet() {
+        Row row = ROWS.get(0);
+
+        assertNotEquals(row.javaHash(true), row.javaHash(false));
+        assertEquals(TransactionContentHash.of(USER_ID, TransactionExpenseType.BOOKS, "Café | bakery", new BigDecimal("1234.50"),
+                LocalDate.of(2025, 3, 4), false), row.javaHash(true));
+    }
+
+    // The SQL expression over the same columns gives the Java hash
+    // Needs the embedded PostgreSQL binaries, the test is skipped where they cannot start
+    @Test
+    void sqlExpressionMatchesTheJavaHash() throws IOException {
+        EmbeddedPostgres postgres;
+        try {
+            postgres = EmbeddedPostgres.builder().start();
+        } catch (IOException | IllegalStateException e) {
+            abort("Embedded PostgreSQL could not start: " + e.getMessage());
+            return;
+        }
+        try (postgres) {
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(postgres.getPostgresDatabase());
+            for (Row row : ROWS) {
+                for (boolean withRecurrent : List.of(true, false)) {
+                    String sql = "SELECT " + TransactionContentHash.sqlExpression(withRecurrent)
+                            + " FROM (SELECT CAST(? AS uuid) AS user_id, CAST(? AS varchar(50)) AS name, CAST(? AS varchar) AS description,"
+                            + " CAST(? AS numeric(18, 2)) AS amount, CAST(? AS date) AS date, CAST(? AS boolean) AS recurrent) t";
+                    String sqlHash = jdbcTemplate.execute((ConnectionCallback<String>) connection -> sqlHash(connection, sql, row));
+                    assertEquals(row.javaHash(withRecurrent), sqlHash, row + (withRecurrent ? " with recurrent" : ""));
+                }
+            }
+        }
+    }
+
+    private static String sqlHash(Connection connection, String sql, Row row) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setObject(1, row.userId());
+            statement.setString(2, row.name().name());
+            statement.setString(3, row.description());
+            statement.setBigDecimal(4, row.amount());
+            statement.setObject(5, row.date());
+            statement.setObject(6, row.recurrent());
+            try (ResultSet resultSet = statement.executeQuery()) {
+                resultSet.next();
+                return resultSet.getString(1);
+            }
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.budget.control.backend.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class UuidV7GeneratorTest {
+
+    @Test
+    void versionVariantAndTimestamp() {
+        long before = System.currentTimeMillis();
+        UUID uuid = UuidV7Generator.next();
+        long after = System.currentTimeMillis();
+
+        assertEquals(7, uuid.version());
+        assertEquals(2, uuid.variant());
+        long timestamp = uuid.getMostSignificantBits() >>> 16;
+        // The counter may have carried the timestamp slightly ahead of the clock
+        assertTrue(timestamp >= before && timestamp <= after + 1000, "Unexpected timestamp " + timestamp);
+    }
+
+    @Test
+    void strictlyIncreasingInOneThread() {
+        UUID previous = UuidV7Generator.next();
+        for (int i = 0; i < 100_000; i++) {
+            UUID current = UuidV7Generator.next();
+            assertTrue(compareUnsigned(previous, current) < 0, previous + " is not before " + current);
+            previous = current;
+        }
+    }
+
+    @Test
+    void uniqueAndIncreasingPerThreadAcrossThreads() throws Exception {
+        int threads = 8;
+        int perThread = 50_000;
+        List<Callable<List<UUID>>> tasks = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            tasks.add(() -> {
+                List<UUID> uuids = new ArrayList<>(perThread);
+                for (int i = 0; i < perThread; i++) {
+                    uuids.add(UuidV7Generator.next());
+                }
+                return uuids;
+            });
+        }
+
+        Set<UUID> all = new HashSet<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+            for (Future<List<UUID>> future : executor.invokeAll(tasks)) {
+                List<UUID> uuids = future.get();
+                for (int i = 1; i < uuids.size(); i++) {
+                    assertTrue(compareUnsigned(uuids.get(i - 1), uuids.get(i)) < 0);
+                }
+                all.addAll(uuids);
+            }
+        }
+        assertEquals(threads * perThread, all.size());
+    }
+
+    // Byte order comparison, as PostgreSQL orders uuid values (UUID.compareTo compares signed longs)
+    private static int compareUnsigned(UUID a, UUID b) {
+        int most = Long.compareUnsigned(a.getMostSignificantBits(), b.getMostSignificantBits());
+        return most != 0 ? most : Long.compareUnsigned(a.getLeastSignificantBits(), b.getLeastSignificantBits());
+    }
+}
@@ -0,0 +1,60 @@
+package com.budget.control.backend.pagination;
+
+import com.budget.control.backend.exception.InvalidFieldException;
+import com.budget.control.backend.type.TransactionKindType;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Base64;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class LedgerCursorTest {
+
+    private static final UUID ID = UUID.fromString("0190a5f4-2b7e-7c3d-8f00-000000000001");
+
+    @Test
+    void roundTripKeepsEveryField() {
+        LedgerCursor cursor = new LedgerCursor(LocalDate.of(2025, 2, 28), TransactionKindType.BENEFIT, ID, new BigDecimal("-1250.50"));
+
+        LedgerCursor decoded = LedgerCursor.decode(cursor.encode());
+
+        assertEquals(cursor, decoded);
+        // The scale of the balance is kept, the next page continues with the same running balance text
+        assertEquals("-1250.50", decoded.balance().toPlainString());
+    }
+
+    @Test
+    void encodedCursorIsUrlSafe() {
+        String encoded = new LedgerCursor(LocalDate.of(2025, 1, 1), TransactionKindType.INCOME, ID, new BigDecimal("1E+3")).encode();
+
+        assertEquals(encoded, encoded.replaceAll("[^A-Za-z0-9_-]", ""));
+        assertEquals(new BigDecimal("1000"), LedgerCursor.decode(encoded).balance());
+    }
+
+    @Test
+    void missingCursorIsTheFirstPage() {
+        assertNull(LedgerCursor.decode(null));
+        assertNull(LedgerCursor.decode(""));
+        assertNull(LedgerCursor.decode("  "));
+    }
+
+    @Test
+    void malformedCursorsAreInvalidFields() {
+        assertThrows(InvalidFieldException.class, () -> LedgerCursor.decode("not base64!"));
+        assertThrows(InvalidFieldException.class, () -> LedgerCursor.decode(encode("2025-01-01|INCOME|" + ID)));
+        assertThrows(InvalidFieldException.class, () -> LedgerCursor.decode(encode("2025-01-01|TRANSFER|" + ID + "|0")));
+        assertThrows(InvalidFieldException.class, () -> LedgerCursor.decode(encode("2025-13-01|INCOME|" + ID + "|0")));
+        assertThrows(InvalidFieldException.class, () -> LedgerCursor.decode(encode("2025-01-01|INCOME|not-a-uuid|0")));
+        assertThrows(InvalidFieldException.class, () -> LedgerCursor.decode(encode("2025-01-01|INCOME|" + ID + "|ten")));
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,136 @@
+package com.budget.control.backend.security;
+
+import com.budget.control.backend.controller.dto.error.ErrorResponse;
+import com.budget.control.backend.exception.GlobalExceptionHandler;
+import com.budget.control.backend.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PasswordHashingServiceTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CountDownLatch started = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private PasswordHashingService passwordHashingService;
+
+    @AfterEach
+    void shutdown() {
+        release.countDown();
+        if (passwordHashingService != null) {
+            passwordHashingService.shutdown();
+        }
+    }
+
+    @Test
+    void hashesOnThePool() {
+        passwordHashingService = service(new PlainEncoder(), Duration.ofSeconds(5));
+
+        assertEquals("hashed:secret", passwordHashingService.encode("secret"));
+        assertTrue(passwordHashingService.matches("secret", "hashed:secret"));
+        assertEquals(1, meterRegistry.get("budget.password.hashing").tag("operation", "encode").timer().count());
+    }
+
+    @Test
+    void fullQueueFailsFastWithRetryAfter() throws Exception {
+        passwordHashingService = service(new BlockingEncoder(), Duration.ofSeconds(30));
+
+        // One call holds the only hashing thread, the next one waits in the single queue slot
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> passwordHashingService.encode("first"));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> passwordHashingService.encode("second"));
+        waitForQueueSize(1);
+
+        ServiceUnavailableException e = assertThrows(ServiceUnavailableException.class,
+                () -> passwordHashingService.encode("third"));
+        assertEquals(2, e.getRetryAfterSeconds());
+        assertEquals(1, meterRegistry.get("budget.password.hashing.rejected").counter().count());
+
+        // The error handler turns it into a 503 that tells the client when to come back
+        ResponseEntity<ErrorResponse> response = new GlobalExceptionHandler().handleServiceUnavailableException(e);
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+        assertEquals("2", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        assertEquals(503, response.getBody().status());
+
+        // The accepted calls still complete once the thread is free
+        release.countDown();
+        assertEquals("hashed:first", running.get(5, TimeUnit.SECONDS));
+        assertEquals("hashed:second", queued.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void slowHashingTimesOutWithRetryAfter() throws Exception {
+        passwordHashingService = service(new BlockingEncoder(), Duration.ofMillis(100));
+
+        ServiceUnavailableException e = assertThrows(ServiceUnavailableException.class,
+                () -> passwordHashingService.matches("secret", "hashed:secret"));
+
+        assertEquals("Authentication is taking too long, try again later.", e.getMessage());
+        assertEquals(2, e.getRetryAfterSeconds());
+    }
+
+    private PasswordHashingService service(PasswordEncoder passwordEncoder, Duration timeout) {
+        return new PasswordHashingService(passwordEncoder, meterRegistry, 1, 1, timeout, Duration.ofSeconds(2));
+    }
+
+    private void waitForQueueSize(int size) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.get("budget.password.hashing.queue.size").gauge().value() < size) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError("The hashing queue never reached " + size);
+            }
+            Thread.sleep(5);
+        }
+    }
+
+    private static class PlainEncoder implements PasswordEncoder {
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            return "hashed:" + rawPassword;
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return encode(rawPassword).equals(encodedPassword);
+        }
+    }
+
+    // Holds the hashing thread until the test releases it
+    private class BlockingEncoder extends PlainEncoder {
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            await();
+            return super.encode(rawPassword);
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            await();
+            return super.matches(rawPassword, encodedPassword);
+        }
+
+        private void await() {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
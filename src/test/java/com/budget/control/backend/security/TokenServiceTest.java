@@ -0,0 +1,126 @@
+package com.budget.control.backend.security;
+
+import com.budget.control.backend.exception.InvalidTokenException;
+import com.budget.control.backend.model.UserModel;
+import com.budget.control.backend.security.TokenService.IssuedTokens;
+import com.budget.control.backend.security.TokenService.TokenClaims;
+import com.budget.control.backend.type.UserRoleType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class TokenServiceTest {
+
+    private static final String SECRET = "0123456789abcdef0123456789abcdef";
+    private static final UUID USER_ID = UUID.fromString("0190a5f4-2b7e-7c3d-8f00-000000000001");
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final TokenService tokenService = tokenService(SECRET, Duration.ofMinutes(15));
+
+    @Test
+    void issuedTokensVerifyWithTheirOwnType() {
+        IssuedTokens tokens = tokenService.issue(user());
+
+        TokenClaims access = tokenService.verify(tokens.accessToken(), TokenService.ACCESS);
+        TokenClaims refresh = tokenService.verify(tokens.refreshToken(), TokenService.REFRESH);
+
+        assertEquals(USER_ID, access.sub());
+        assertEquals("ADMIN", access.role());
+        assertEquals(UserRoleType.ADMIN, access.toAuthenticatedUser().role());
+        assertEquals(USER_ID, refresh.sub());
+        assertEquals(900, tokens.expiresIn());
+    }
+
+    @Test
+    void accessAndRefreshTokensAreNotInterchangeable() {
+        IssuedTokens tokens = tokenService.issue(user());
+
+        InvalidTokenException refreshAsAccess = assertThrows(InvalidTokenException.class,
+                () -> tokenService.verify(tokens.refreshToken(), TokenService.ACCESS));
+        InvalidTokenException accessAsRefresh = assertThrows(InvalidTokenException.class,
+                () -> tokenService.verify(tokens.accessToken(), TokenService.REFRESH));
+
+        assertEquals("Invalid token type.", refreshAsAccess.getMessage());
+        assertEquals("Invalid token type.", accessAsRefresh.getMessage());
+    }
+
+    @Test
+    void expiredTokensAreRejected() {
+        // A zero lifetime expires in the second the token is issued
+        TokenService expiring = tokenService(SECRET, Duration.ZERO);
+        String accessToken = expiring.issue(user()).accessToken();
+
+        InvalidTokenException e = assertThrows(InvalidTokenException.class,
+                () -> expiring.verify(accessToken, TokenService.ACCESS));
+
+        assertEquals("Token expired.", e.getMessage());
+    }
+
+    @Test
+    void tamperedPayloadFailsTheSignatureCheck() {
+        String accessToken = tokenService.issue(user()).accessToken();
+        String[] parts = accessToken.split("\\.");
+        // Same claims with the role raised, signed part changed but the signature kept
+        String payload = new String(Base64.getUrlDecoder().decode(parts[1]), StandardCharsets.UTF_8)
+                .replace("\"role\":\"ADMIN\"", "\"role\":\"MODERATOR\"");
+        String tampered = parts[0] + "." + encode(payload) + "." + parts[2];
+
+        InvalidTokenException e = assertThrows(InvalidTokenException.class,
+                () -> tokenService.verify(tampered, TokenService.ACCESS));
+
+        assertEquals("Invalid token signature.", e.getMessage());
+    }
+
+    @Test
+    void tokensSignedWithAnotherKeyAreRejected() {
+        String foreign = tokenService("fedcba9876543210fedcba9876543210", Duration.ofMinutes(15))
+                .issue(user()).accessToken();
+
+        InvalidTokenException e = assertThrows(InvalidTokenException.class,
+                () -> tokenService.verify(foreign, TokenService.ACCESS));
+
+        assertEquals("Invalid token signature.", e.getMessage());
+    }
+
+    @Test
+    void malformedTokensAreRejected() {
+        String accessToken = tokenService.issue(user()).accessToken();
+        String[] parts = accessToken.split("\\.");
+
+        assertThrows(InvalidTokenException.class, () -> tokenService.verify(null, TokenService.ACCESS));
+        assertThrows(InvalidTokenException.class, () -> tokenService.verify("", TokenService.ACCESS));
+        assertThrows(InvalidTokenException.class, () -> tokenService.verify(parts[0] + "." + parts[1], TokenService.ACCESS));
+        // Only the HS256 header that is issued is accepted, alg none included
+        assertThrows(InvalidTokenException.class, () -> tokenService.verify(
+                encode("{\"alg\":\"none\",\"typ\":\"JWT\"}") + "." + parts[1] + ".", TokenService.ACCESS));
+        assertThrows(InvalidTokenException.class, () -> tokenService.verify(
+                parts[0] + "." + parts[1] + ".not*base64", TokenService.ACCESS));
+    }
+
+    @Test
+    void shortSecretsAreRefused() {
+        assertThrows(IllegalStateException.class, () -> tokenService("too short", Duration.ofMinutes(15)));
+    }
+
+    private TokenService tokenService(String secret, Duration accessTokenTtl) {
+        return new TokenService(objectMapper, secret, accessTokenTtl, Duration.ofDays(7));
+    }
+
+    private static UserModel user() {
+        UserModel userModel = new UserModel();
+        userModel.setId(USER_ID);
+        userModel.setRole(UserRoleType.ADMIN);
+        return userModel;
+    }
+
+    private static String encode(String json) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
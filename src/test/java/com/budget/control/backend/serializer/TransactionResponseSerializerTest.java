@@ -0,0 +1,71 @@
+package com.budget.control.backend.serializer;
+
+import com.budget.control.backend.controller.dto.response.TransactionBenefitResponseDTO;
+import com.budget.control.backend.controller.dto.response.TransactionExpenseResponseDTO;
+import com.budget.control.backend.controller.dto.response.TransactionIncomeResponseDTO;
+import com.budget.control.backend.type.RecurrenceFrequencyType;
+import com.budget.control.backend.type.TransactionBenefitType;
+import com.budget.control.backend.type.TransactionExpenseType;
+import com.budget.control.backend.type.TransactionIncomeType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// The dedicated serializers must write exactly what the default bean serializer writes
+public class TransactionResponseSerializerTest {
+
+    private final ObjectMapper defaultMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    private final ObjectMapper dedicatedMapper = defaultMapper.copy()
+            .registerModule(new TransactionResponseModule());
+
+    @Test
+    void expenseMatchesTheDefaultSerializer() throws Exception {
+        LocalDateTime createdAt = LocalDateTime.of(2025, 3, 14, 15, 9, 26, 535_897_000);
+        assertSameJson(new TransactionExpenseResponseDTO(
+                UUID.randomUUID(), TransactionExpenseType.values()[0], "Rent \"March\" \u00e9", new BigDecimal("1250.50"),
+                LocalDate.of(2025, 3, 1), true, createdAt, createdAt.withNano(0), UUID.randomUUID(),
+                RecurrenceFrequencyType.MONTHLY, 1, LocalDate.of(2025, 4, 1), null));
+    }
+
+    @Test
+    void nullFieldsAreWritten() throws Exception {
+        assertSameJson(new TransactionExpenseResponseDTO(
+                UUID.randomUUID(), null, null, null, null, null, null, null, null, null, null, null, null));
+    }
+
+    @Test
+    void incomeAndBenefitMatchTheDefaultSerializer() throws Exception {
+        LocalDateTime createdAt = LocalDateTime.of(2025, 1, 2, 0, 0);
+        assertSameJson(new TransactionIncomeResponseDTO(
+                UUID.randomUUID(), TransactionIncomeType.values()[0], "Salary", new BigDecimal("5000.00"),
+                LocalDate.of(2025, 1, 2), createdAt, createdAt.plusNanos(120_000_000), UUID.randomUUID()));
+        assertSameJson(new TransactionBenefitResponseDTO(
+                UUID.randomUUID(), TransactionBenefitType.GAS, "Card", new BigDecimal("-0.05"),
+                LocalDate.of(2025, 1, 2), createdAt, createdAt, null));
+    }
+
+    @Test
+    void amountsKeepTheBigDecimalNotation() throws Exception {
+        for (String amount : List.of("0", "0.00", "0.05", "12.30", "-7.5", "1E+3", "0.0000001", "0.000001",
+                "123456789012345678", "1234567890123456789.12")) {
+            assertSameJson(new TransactionIncomeResponseDTO(
+                    null, null, null, new BigDecimal(amount), null, null, null, null));
+        }
+    }
+
+    private void assertSameJson(Object value) throws Exception {
+        assertEquals(defaultMapper.writeValueAsString(value), dedicatedMapper.writeValueAsString(value));
+        assertEquals(defaultMapper.writeValueAsString(List.of(value, value)), dedicatedMapper.writeValueAsString(List.of(value, value)));
+    }
+}
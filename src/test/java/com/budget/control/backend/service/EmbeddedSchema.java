@@ -0,0 +1,102 @@
+package com.budget.control.backend.service;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy;
+import org.hibernate.boot.registry.StandardServiceRegistry;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.orm.jpa.vendor.HibernateJpaDialect;
+import org.springframework.transaction.TransactionManager;
+import org.springframework.transaction.annotation.AnnotationTransactionAttributeSource;
+import org.springframework.transaction.interceptor.MatchAlwaysTransactionAttributeSource;
+import org.springframework.transaction.interceptor.TransactionInterceptor;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assumptions.abort;
+
+// Embedded PostgreSQL holding the tables of the given entities, created by Hibernate from their mappings
+// JDBC and JPA share the transactions of one manager, as in the application
+// Aborts the calling test where the embedded binaries cannot start
+class EmbeddedSchema implements AutoCloseable {
+
+    private final EmbeddedPostgres postgres;
+    private final SessionFactory entityManagerFactory;
+    final DataSource dataSource;
+    final JdbcTemplate jdbcTemplate;
+    final JpaTransactionManager transactionManager;
+    final TransactionTemplate transactionTemplate;
+
+    private EmbeddedSchema(EmbeddedPostgres postgres, Class<?>... entities) {
+        this.postgres = postgres;
+        this.dataSource = postgres.getPostgresDatabase();
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.entityManagerFactory = createSchema(dataSource, entities);
+        this.transactionManager = new JpaTransactionManager(entityManagerFactory);
+        this.transactionManager.setDataSource(dataSource);
+        this.transactionManager.setJpaDialect(new HibernateJpaDialect());
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    static EmbeddedSchema start(Class<?>... entities) {
+        EmbeddedPostgres postgres;
+        try {
+            postgres = EmbeddedPostgres.builder().start();
+        } catch (IOException | IllegalStateException e) {
+            abort("Embedded PostgreSQL could not start: " + e.getMessage());
+            return null;
+        }
+        return new EmbeddedSchema(postgres, entities);
+    }
+
+    // Spring Data repository over the entities, every method runs in a transaction or joins the current one
+    <R> R repository(Class<R> repositoryInterface) {
+        JpaRepositoryFactory factory = new JpaRepositoryFactory(SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory));
+        factory.addRepositoryProxyPostProcessor((proxyFactory, repositoryInformation) -> proxyFactory.addAdvice(
+                new TransactionInterceptor((TransactionManager) transactionManager, new MatchAlwaysTransactionAttributeSource())));
+        return factory.getRepository(repositoryInterface);
+    }
+
+    // Proxy of a service whose @Transactional methods run in the transactions of the schema, as the application context does
+    @SuppressWarnings("unchecked")
+    <T> T transactional(T service) {
+        ProxyFactory proxyFactory = new ProxyFactory(service);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAdvice(new TransactionInterceptor((TransactionManager) transactionManager, new AnnotationTransactionAttributeSource()));
+        return (T) proxyFactory.getProxy();
+    }
+
+    // Same naming as the application, so the tables match the native SQL of the services
+    private static SessionFactory createSchema(DataSource dataSource, Class<?>... entities) {
+        StandardServiceRegistry registry = new StandardServiceRegistryBuilder()
+                .applySetting(AvailableSettings.JAKARTA_NON_JTA_DATASOURCE, dataSource)
+                .applySetting(AvailableSettings.HBM2DDL_AUTO, "create")
+                .applySetting(AvailableSettings.PHYSICAL_NAMING_STRATEGY, new CamelCaseToUnderscoresNamingStrategy())
+                .build();
+        MetadataSources sources = new MetadataSources(registry);
+        for (Class<?> entity : entities) {
+            sources.addAnnotatedClass(entity);
+        }
+        try {
+            return sources.buildMetadata().buildSessionFactory();
+        } catch (RuntimeException e) {
+            StandardServiceRegistryBuilder.destroy(registry);
+            throw e;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        entityManagerFactory.close();
+        postgres.close();
+    }
+}
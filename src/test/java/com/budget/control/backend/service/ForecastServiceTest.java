@@ -0,0 +1,92 @@
+package com.budget.control.backend.service;
+
+import com.budget.control.backend.config.CacheConfig;
+import com.budget.control.backend.controller.dto.response.ForecastDayDTO;
+import com.budget.control.backend.controller.dto.response.ForecastRecurringItemDTO;
+import com.budget.control.backend.controller.dto.response.ForecastResponseDTO;
+import com.budget.control.backend.model.MonthlyRollupModel;
+import com.budget.control.backend.model.MonthlyRollupStateModel;
+import com.budget.control.backend.model.TransactionBenefitModel;
+import com.budget.control.backend.model.TransactionExpenseModel;
+import com.budget.control.backend.model.TransactionIncomeModel;
+import com.budget.control.backend.type.TransactionKindType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ForecastServiceTest {
+
+    private final UUID userId = UUID.randomUUID();
+    private EmbeddedSchema schema;
+    private MonthlyRollupService monthlyRollupService;
+    private ForecastService forecastService;
+
+    @BeforeEach
+    void start() {
+        schema = EmbeddedSchema.start(TransactionExpenseModel.class, TransactionIncomeModel.class, TransactionBenefitModel.class,
+                MonthlyRollupModel.class, MonthlyRollupStateModel.class);
+        ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager(CacheConfig.FORECAST);
+        monthlyRollupService = new MonthlyRollupService(schema.jdbcTemplate, cacheManager);
+        forecastService = new ForecastService(schema.jdbcTemplate, schema.transactionManager, cacheManager, monthlyRollupService, 6, 3);
+    }
+
+    @AfterEach
+    void stop() throws IOException {
+        if (schema != null) {
+            schema.close();
+        }
+    }
+
+    @Test
+    void balanceIsSummedLiveAndNotCachedUntilTheRollupIsBuilt() {
+        LocalDate lastMonth = LocalDate.now().withDayOfMonth(1).minusMonths(1);
+        insert("transaction_income", "SALARY", null, "1000.00", lastMonth, null);
+
+        assertEquals(new BigDecimal("1000.00"), forecastService.getForecast(userId, 1).startingBalance());
+
+        // Written behind the service, seen because the live result was not cached
+        insert("transaction_income", "BONUS", null, "50.00", lastMonth, null);
+        assertEquals(new BigDecimal("1050.00"), forecastService.getForecast(userId, 1).startingBalance());
+
+        // Once built the balance comes from the rollup and the inputs are cached
+        schema.transactionTemplate.executeWithoutResult(status -> monthlyRollupService.rebuild());
+        insert("transaction_income", "SALE", null, "7.00", lastMonth, null);
+        assertEquals(new BigDecimal("1050.00"), forecastService.getForecast(userId, 1).startingBalance());
+    }
+
+    @Test
+    void manualRecurrentExpenseRepeatsAfterItsFutureCopy() {
+        LocalDate past = LocalDate.now().minusDays(20);
+        LocalDate future = past.plusMonths(2);
+        insert("transaction_expense", "ATM_FEES", "Rent", "100.00", past, true);
+        insert("transaction_expense", "ATM_FEES", "Rent", "100.00", future, true);
+
+        ForecastResponseDTO forecast = forecastService.getForecast(userId, 4);
+
+        ForecastRecurringItemDTO item = forecast.recurringItems().getFirst();
+        assertEquals(TransactionKindType.EXPENSE, item.kind());
+        assertEquals(future.plusMonths(1), item.nextOccurrence());
+        // The copy already entered is counted once, as a scheduled transaction
+        ForecastDayDTO futureDay = forecast.days().stream().filter(day -> day.date().equals(future)).findFirst().orElseThrow();
+        assertEquals(new BigDecimal("100.00"), futureDay.expense());
+        // The repetition starts after the copy, nothing is projected before it
+        ForecastDayDTO betweenDay = forecast.days().stream().filter(day -> day.date().equals(past.plusMonths(1))).findFirst().orElseThrow();
+        assertEquals(new BigDecimal("0.00"), betweenDay.expense());
+    }
+
+    private void insert(String table, String name, String description, String amount, LocalDate date, Boolean recurrent) {
+        String recurrentColumn = recurrent != null ? ", recurrent" : "";
+        String recurrentValue = recurrent != null ? ", " + recurrent : "";
+        schema.jdbcTemplate.update("INSERT INTO " + table + " (id, name, description, amount, date, created_at, updated_at, version, user_id"
+                        + recurrentColumn + ") VALUES (gen_random_uuid(), ?, ?, CAST(? AS numeric), ?, now(), now(), 0, ?" + recurrentValue + ")",
+                name, description, amount, date, userId);
+    }
+}
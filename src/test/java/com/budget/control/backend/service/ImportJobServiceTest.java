@@ -0,0 +1,262 @@
+package com.budget.control.backend.service;
+
+import com.budget.control.backend.exception.TooManyRequestsException;
+import com.budget.control.backend.importer.ImportCheckpoint;
+import com.budget.control.backend.importer.ImportSummary;
+import com.budget.control.backend.importer.StatementFormat;
+import com.budget.control.backend.model.ImportJobModel;
+import com.budget.control.backend.repository.ImportJobRepository;
+import com.budget.control.backend.type.ImportJobStatusType;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.stubbing.Answer;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ImportJobServiceTest {
+
+    private static EmbeddedSchema schema;
+    private static ImportJobRepository importJobRepository;
+
+    @TempDir
+    Path storageDirectory;
+
+    private final StatementImportService statementImportService = mock(StatementImportService.class);
+    private final List<ImportJobService> services = new ArrayList<>();
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @BeforeAll
+    static void start() {
+        schema = EmbeddedSchema.start(ImportJobModel.class);
+        importJobRepository = schema.repository(ImportJobRepository.class);
+    }
+
+    @AfterAll
+    static void stop() throws IOException {
+        if (schema != null) {
+            schema.close();
+        }
+    }
+
+    @BeforeEach
+    void clean() {
+        schema.jdbcTemplate.update("DELETE FROM import_job");
+    }
+
+    @AfterEach
+    void shutdown() throws InterruptedException {
+        release.countDown();
+        for (ImportJobService service : services) {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void resumedJobSkipsTheCommittedEntries() throws Exception {
+        CountDownLatch chunkCommitted = new CountDownLatch(1);
+        List<Long> resumedFrom = new ArrayList<>();
+        when(statementImportService.importStatement(any(), any(), any(), anyLong(), any()))
+                .thenAnswer(importing((input, summary, checkpoint) -> {
+                    // One chunk of two entries is committed, then the job reads on until the shutdown stops it
+                    summary.inserted();
+                    summary.inserted();
+                    commit(checkpoint, 2, summary);
+                    chunkCommitted.countDown();
+                    readUntilStopped(input);
+                }))
+                .thenAnswer(invocation -> {
+                    resumedFrom.add(invocation.getArgument(3));
+                    ImportSummary summary = invocation.getArgument(2);
+                    resumedFrom.add(summary.getInserted());
+                    return summary;
+                });
+        ImportJobService first = service(1, 10, 1);
+        UUID jobId = first.submit(content(), job(UUID.randomUUID())).getId();
+        assertTrue(chunkCommitted.await(10, TimeUnit.SECONDS));
+
+        first.shutdown();
+
+        // Left RUNNING at its checkpoint, and given back so the next instance takes it at once
+        ImportJobModel stopped = importJobRepository.findById(jobId).orElseThrow();
+        assertEquals(ImportJobStatusType.RUNNING, stopped.getStatus());
+        assertEquals(2, stopped.getProcessedEntries());
+        assertFalse(stopped.getLeaseUntil().isAfter(LocalDateTime.now()));
+
+        ImportJobService second = service(1, 10, 1);
+        assertEquals(1, second.resumePendingJobs());
+        waitFor(() -> importJobRepository.findById(jobId).orElseThrow().getStatus() == ImportJobStatusType.COMPLETED);
+
+        // The committed entries are skipped and their counts carried over
+        assertEquals(List.of(2L, 2L), resumedFrom);
+        assertEquals(2, importJobRepository.findById(jobId).orElseThrow().getInserted());
+    }
+
+    @Test
+    void jobIsTakenOverOnlyOnceItsLeaseExpired() throws Exception {
+        CountDownLatch chunkCommitted = new CountDownLatch(1);
+        CountDownLatch takenOver = new CountDownLatch(1);
+        CountDownLatch firstStopped = new CountDownLatch(1);
+        List<String> nextChunk = new ArrayList<>();
+        List<Long> resumedFrom = new ArrayList<>();
+        when(statementImportService.importStatement(any(), any(), any(), anyLong(), any()))
+                .thenAnswer(importing((input, summary, checkpoint) -> {
+                    try {
+                        commit(checkpoint, 2, summary);
+                        chunkCommitted.countDown();
+                        takenOver.await(10, TimeUnit.SECONDS);
+                        commit(checkpoint, 4, summary);
+                        nextChunk.add("committed");
+                    } catch (RuntimeException e) {
+                        nextChunk.add(e.getClass().getSimpleName());
+                        throw e;
+                    } finally {
+                        firstStopped.countDown();
+                    }
+                }))
+                .thenAnswer(invocation -> {
+                    resumedFrom.add(invocation.getArgument(3));
+                    return invocation.getArgument(2);
+                });
+        ImportJobService first = service(1, 10, 1);
+        ImportJobService second = service(1, 10, 1);
+        UUID jobId = first.submit(content(), job(UUID.randomUUID())).getId();
+        assertTrue(chunkCommitted.await(10, TimeUnit.SECONDS));
+
+        // Running with a live lease: not resumed by the other instance
+        assertEquals(0, second.resumePendingJobs());
+
+        // The first instance stopped answering, its lease expires
+        schema.jdbcTemplate.update("UPDATE import_job SET lease_until = ? WHERE id = ?", LocalDateTime.now().minusMinutes(1), jobId);
+        assertEquals(1, second.resumePendingJobs());
+        waitFor(() -> importJobRepository.findById(jobId).orElseThrow().getStatus() == ImportJobStatusType.COMPLETED);
+        takenOver.countDown();
+        assertTrue(firstStopped.await(10, TimeUnit.SECONDS));
+
+        // The second instance went on from the checkpoint, the next chunk of the first one was refused and rolled back
+        assertEquals(List.of(2L), resumedFrom);
+        assertEquals(List.of("LeaseLostException"), nextChunk);
+        ImportJobModel job = importJobRepository.findById(jobId).orElseThrow();
+        assertEquals(ImportJobStatusType.COMPLETED, job.getStatus());
+        assertEquals(2, job.getProcessedEntries());
+    }
+
+    @Test
+    void activeJobLimitHoldsAcrossInstances() throws Exception {
+        when(statementImportService.importStatement(any(), any(), any(), anyLong(), any()))
+                .thenAnswer(importing((input, summary, checkpoint) -> release.await(10, TimeUnit.SECONDS)));
+        UUID userId = UUID.randomUUID();
+        service(1, 10, 1).submit(content(), job(userId));
+
+        TooManyRequestsException e = assertThrows(TooManyRequestsException.class,
+                () -> service(1, 10, 1).submit(content(), job(userId)));
+
+        assertEquals("Too many imports in progress, wait for the current ones to finish.", e.getMessage());
+        assertEquals(30, e.getRetryAfterSeconds());
+    }
+
+    @Test
+    void fullQueueIsAnsweredWithTooManyRequests() throws Exception {
+        when(statementImportService.importStatement(any(), any(), any(), anyLong(), any()))
+                .thenAnswer(importing((input, summary, checkpoint) -> release.await(10, TimeUnit.SECONDS)));
+        ImportJobService service = service(1, 1, 10);
+        UUID running = service.submit(content(), job(UUID.randomUUID())).getId();
+        waitFor(() -> importJobRepository.findById(running).orElseThrow().getStatus() == ImportJobStatusType.RUNNING);
+        service.submit(content(), job(UUID.randomUUID()));
+
+        assertThrows(TooManyRequestsException.class, () -> service.submit(content(), job(UUID.randomUUID())));
+
+        // The refused job is not left behind
+        assertEquals(2, importJobRepository.count());
+        try (Stream<Path> files = Files.list(storageDirectory)) {
+            assertEquals(2, files.count());
+        }
+    }
+
+    private ImportJobService service(int workers, int queueCapacity, int maxActiveJobsPerUser) throws IOException {
+        ImportJobService service = new ImportJobService(importJobRepository, statementImportService, schema.jdbcTemplate,
+                schema.transactionManager, storageDirectory.toString(), workers, queueCapacity, maxActiveJobsPerUser,
+                Duration.ofMinutes(5), Duration.ofSeconds(30));
+        services.add(service);
+        return service;
+    }
+
+    private static ImportJobModel job(UUID userId) {
+        ImportJobModel importJobModel = new ImportJobModel();
+        importJobModel.setUserId(userId);
+        importJobModel.setFormat(StatementFormat.CSV);
+        importJobModel.setCharset("UTF-8");
+        // Set by the auditing listener in the application
+        importJobModel.setCreatedAt(LocalDateTime.now());
+        importJobModel.setUpdatedAt(LocalDateTime.now());
+        return importJobModel;
+    }
+
+    private static InputStream content() {
+        return new ByteArrayInputStream("date,amount\n2025-03-04,1\n".getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Chunk transaction of StatementImportService, the checkpoint commits with it
+    private static void commit(ImportCheckpoint checkpoint, long entries, ImportSummary summary) {
+        schema.transactionTemplate.executeWithoutResult(status -> checkpoint.committed(entries, summary));
+    }
+
+    private static void readUntilStopped(InputStream input) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (System.nanoTime() < deadline) {
+            input.read();
+            Thread.sleep(5);
+        }
+        throw new AssertionError("The job was never stopped");
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError("Condition not reached");
+            }
+            Thread.sleep(10);
+        }
+    }
+
+    private static Answer<ImportSummary> importing(Import body) {
+        return invocation -> {
+            ImportSummary summary = invocation.getArgument(2);
+            body.run(invocation.getArgument(0), summary, invocation.getArgument(4));
+            return summary;
+        };
+    }
+
+    // Body of a mocked import, given the job file, the summary and the checkpoint
+    @FunctionalInterface
+    private interface Import {
+        void run(InputStream input, ImportSummary summary, ImportCheckpoint checkpoint) throws Exception;
+    }
+}
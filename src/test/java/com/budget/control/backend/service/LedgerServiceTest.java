@@ -0,0 +1,352 @@
+package com.budget.control.backend.service;
+
+import com.budget.control.backend.controller.dto.response.LedgerEntryResponseDTO;
+import com.budget.control.backend.controller.dto.response.LedgerResponseDTO;
+import com.budget.control.backend.model.TransactionBenefitModel;
+import com.budget.control.backend.model.TransactionExpenseModel;
+import com.budget.control.backend.model.TransactionIncomeModel;
+import com.budget.control.backend.pagination.LedgerCursor;
+import com.budget.control.backend.repository.TransactionBenefitRepository;
+import com.budget.control.backend.repository.TransactionExpenseRepository;
+import com.budget.control.backend.repository.TransactionIncomeRepository;
+import com.budget.control.backend.type.TransactionBenefitType;
+import com.budget.control.backend.type.TransactionExpenseType;
+import com.budget.control.backend.type.TransactionIncomeType;
+import com.budget.control.backend.type.TransactionKindType;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.repository.query.FluentQuery;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// The repositories are mocked, the specifications built by the service and by LedgerCursor are evaluated
+// on the rows in memory (see Criteria below), so the cursor conditions under test are the real ones
+public class LedgerServiceTest {
+
+    private static final UUID USER = new UUID(0L, 1L);
+    private static final UUID OTHER_USER = new UUID(0L, 2L);
+    private static final LocalDate FROM = LocalDate.of(2025, 3, 1);
+    private static final LocalDate TO = LocalDate.of(2025, 3, 31);
+
+    private final List<TransactionIncomeModel> incomes = new ArrayList<>();
+    private final List<TransactionExpenseModel> expenses = new ArrayList<>();
+    private final List<TransactionBenefitModel> benefits = new ArrayList<>();
+    private long sequence;
+    private LedgerService ledgerService;
+
+    @BeforeEach
+    void setUp() {
+        TransactionIncomeRepository incomeRepository = mock(TransactionIncomeRepository.class);
+        TransactionExpenseRepository expenseRepository = mock(TransactionExpenseRepository.class);
+        TransactionBenefitRepository benefitRepository = mock(TransactionBenefitRepository.class);
+        stub(incomeRepository, incomes);
+        stub(expenseRepository, expenses);
+        stub(benefitRepository, benefits);
+        when(incomeRepository.sumAmountBefore(any(), any()))
+                .thenAnswer(invocation -> sumBefore(incomes, invocation.getArgument(0), invocation.getArgument(1)));
+        when(expenseRepository.sumAmountBefore(any(), any()))
+                .thenAnswer(invocation -> sumBefore(expenses, invocation.getArgument(0), invocation.getArgument(1)));
+        when(benefitRepository.sumAmountBefore(any(), any()))
+                .thenAnswer(invocation -> sumBefore(benefits, invocation.getArgument(0), invocation.getArgument(1)));
+        ledgerService = new LedgerService(incomeRepository, expenseRepository, benefitRepository);
+    }
+
+    @Test
+    void mergesTheThreeKindsInDateKindAndIdOrderWithARunningBalance() {
+        income(FROM.minusDays(1), "1000.00", USER);
+        expense(FROM.minusDays(1), "200.00", USER);
+        UUID benefit = benefit(FROM.plusDays(2), "50.00", USER);
+        UUID laterExpense = expense(FROM.plusDays(1), "30.00", USER);
+        UUID firstIncome = income(FROM.plusDays(1), "50.00", USER);
+        UUID secondIncome = income(FROM.plusDays(1), "50.00", USER);
+        UUID earlyExpense = expense(FROM, "5.00", USER);
+        income(FROM, "999.00", OTHER_USER);
+        income(TO.plusDays(1), "999.00", USER);
+
+        LedgerResponseDTO page = ledgerService.getLedger(FROM, TO, USER, null, 50);
+
+        assertEquals(new BigDecimal("800.00"), page.openingBalance());
+        // Incomes of the same day come in id order
+        UUID lowerIncome = firstIncome.compareTo(secondIncome) < 0 ? firstIncome : secondIncome;
+        UUID higherIncome = lowerIncome == firstIncome ? secondIncome : firstIncome;
+        assertEquals(List.of(earlyExpense, lowerIncome, higherIncome, laterExpense, benefit), ids(page.content()));
+        assertEquals(List.of(new BigDecimal("-5.00"), new BigDecimal("50.00"), new BigDecimal("50.00"),
+                new BigDecimal("-30.00"), new BigDecimal("50.00")), page.content().stream().map(LedgerEntryResponseDTO::amount).toList());
+        assertEquals(List.of(new BigDecimal("795.00"), new BigDecimal("845.00"), new BigDecimal("895.00"),
+                new BigDecimal("865.00"), new BigDecimal("915.00")), page.content().stream().map(LedgerEntryResponseDTO::balance).toList());
+        assertNull(page.nextCursor());
+    }
+
+    @Test
+    void tiesOnTheSameDateFollowTheKindOrderAcrossPages() {
+        UUID benefit = benefit(FROM, "3.00", USER);
+        UUID expense = expense(FROM, "2.00", USER);
+        UUID income = income(FROM, "1.00", USER);
+
+        List<LedgerEntryResponseDTO> entries = readAllPages(1);
+
+        assertEquals(List.of(income, expense, benefit), ids(entries));
+        assertEquals(List.of(TransactionKindType.INCOME, TransactionKindType.EXPENSE, TransactionKindType.BENEFIT),
+                entries.stream().map(LedgerEntryResponseDTO::kind).toList());
+        assertEquals(new BigDecimal("2.00"), entries.getLast().balance());
+    }
+
+    @Test
+    void everyPageSizeReadsTheSameLedgerAsOnePage() {
+        // Ties on every day across the three kinds and inside each kind, plus days with a single kind
+        for (int day = 0; day < 6; day++) {
+            LocalDate date = FROM.plusDays(day);
+            for (int i = 0; i <= day % 3; i++) {
+                income(date, (day + 1) + "0.00", USER);
+                expense(date, (day + 2) + ".25", USER);
+            }
+            if (day % 2 == 0) {
+                benefit(date, "7.10", USER);
+                benefit(date, "1.90", USER);
+            }
+        }
+        income(FROM.minusDays(3), "500.00", USER);
+        expense(TO, "0.01", USER);
+
+        LedgerResponseDTO single = ledgerService.getLedger(FROM, TO, USER, null, 1000);
+        int total = single.content().size();
+        assertNull(single.nextCursor());
+
+        for (int limit = 1; limit <= total + 1; limit++) {
+            List<LedgerEntryResponseDTO> paged = readAllPages(limit);
+            assertEquals(ids(single.content()), ids(paged), "limit " + limit);
+            assertEquals(single.content().stream().map(LedgerEntryResponseDTO::balance).toList(),
+                    paged.stream().map(LedgerEntryResponseDTO::balance).toList(), "limit " + limit);
+        }
+    }
+
+    @Test
+    void pageEndingExactlyAtTheLastEntryHasNoCursor() {
+        income(FROM, "1.00", USER);
+        expense(FROM, "1.00", USER);
+        benefit(FROM.plusDays(1), "1.00", USER);
+        benefit(FROM.plusDays(1), "1.00", USER);
+
+        LedgerResponseDTO first = ledgerService.getLedger(FROM, TO, USER, null, 2);
+        assertNotNull(first.nextCursor());
+        LedgerResponseDTO second = ledgerService.getLedger(FROM, TO, USER, LedgerCursor.decode(first.nextCursor()), 2);
+
+        assertEquals(2, second.size());
+        assertNull(second.nextCursor());
+        assertEquals(first.content().getLast().balance(), second.openingBalance());
+    }
+
+    // Follows the cursors until the last page, checking every page on the way
+    private List<LedgerEntryResponseDTO> readAllPages(int limit) {
+        List<LedgerEntryResponseDTO> entries = new ArrayList<>();
+        Set<UUID> seen = new HashSet<>();
+        LedgerCursor cursor = null;
+        do {
+            LedgerResponseDTO page = ledgerService.getLedger(FROM, TO, USER, cursor, limit);
+            assertFalse(page.content().isEmpty(), "a cursor led to an empty page");
+            assertTrue(page.size() <= limit);
+            for (LedgerEntryResponseDTO entry : page.content()) {
+                assertTrue(seen.add(entry.id()), "entry read twice: " + entry.id());
+            }
+            entries.addAll(page.content());
+            cursor = LedgerCursor.decode(page.nextCursor());
+        } while (cursor != null);
+        return entries;
+    }
+
+    private UUID income(LocalDate date, String amount, UUID userId) {
+        TransactionIncomeModel income = new TransactionIncomeModel();
+        income.setId(newId());
+        income.setName(TransactionIncomeType.SALARY);
+        income.setDate(date);
+        income.setAmount(new BigDecimal(amount));
+        income.setUserId(userId);
+        incomes.add(income);
+        return income.getId();
+    }
+
+    private UUID expense(LocalDate date, String amount, UUID userId) {
+        TransactionExpenseModel expense = new TransactionExpenseModel();
+        expense.setId(newId());
+        expense.setName(TransactionExpenseType.GROCERY);
+        expense.setDate(date);
+        expense.setAmount(new BigDecimal(amount));
+        expense.setUserId(userId);
+        expenses.add(expense);
+        return expense.getId();
+    }
+
+    private UUID benefit(LocalDate date, String amount, UUID userId) {
+        TransactionBenefitModel benefit = new TransactionBenefitModel();
+        benefit.setId(newId());
+        benefit.setName(TransactionBenefitType.GROCERY);
+        benefit.setDate(date);
+        benefit.setAmount(new BigDecimal(amount));
+        benefit.setUserId(userId);
+        benefits.add(benefit);
+        return benefit.getId();
+    }
+
+    // Ids are not in insertion order on purpose, small positive values sort the same in Java and in PostgreSQL
+    private UUID newId() {
+        sequence++;
+        return new UUID(0L, sequence * 7919 % 100_003);
+    }
+
+    private static List<UUID> ids(List<LedgerEntryResponseDTO> entries) {
+        return entries.stream().map(LedgerEntryResponseDTO::id).toList();
+    }
+
+    private static <T> BigDecimal sumBefore(List<T> rows, LocalDate date, UUID userId) {
+        return rows.stream()
+                .filter(row -> ((LocalDate) Criteria.property(row, "date")).isBefore(date))
+                .filter(row -> userId == null || userId.equals(Criteria.property(row, "userId")))
+                .map(row -> (BigDecimal) Criteria.property(row, "amount"))
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    // findBy answers with the rows matching the specification, in the requested order and up to the requested limit
+    @SuppressWarnings("unchecked")
+    private static <T> void stub(JpaSpecificationExecutor<T> repository, List<T> rows) {
+        when(repository.findBy(any(), any())).thenAnswer(invocation -> {
+            java.util.function.Predicate<Object> matches = Criteria.evaluate(invocation.getArgument(0));
+            Function<FluentQuery.FetchableFluentQuery<T>, Object> queryFunction = invocation.getArgument(1);
+            AtomicReference<Sort> sort = new AtomicReference<>(Sort.unsorted());
+            AtomicInteger limit = new AtomicInteger(Integer.MAX_VALUE);
+            FluentQuery.FetchableFluentQuery<T> query = mock(FluentQuery.FetchableFluentQuery.class);
+            when(query.sortBy(any())).thenAnswer(sortBy -> {
+                sort.set(sortBy.getArgument(0));
+                return query;
+            });
+            when(query.limit(anyInt())).thenAnswer(limitBy -> {
+                limit.set(limitBy.getArgument(0));
+                return query;
+            });
+            when(query.all()).thenAnswer(all -> rows.stream()
+                    .filter(matches)
+                    .sorted(Criteria.comparator(sort.get()))
+                    .limit(limit.get())
+                    .toList());
+            return queryFunction.apply(query);
+        });
+    }
+
+    // Just enough of the JPA criteria API to run the ledger specifications on objects,
+    // an attribute path reads the property through its getter
+    private static final class Criteria {
+
+        // A path or a predicate: its value for a row
+        private record Expression(Function<Object, Object> value) implements InvocationHandler {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                return switch (method.getName()) {
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "toString" -> "Expression";
+                    default -> throw new UnsupportedOperationException(method.getName());
+                };
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        static java.util.function.Predicate<Object> evaluate(Specification<?> specification) {
+            Root<Object> root = proxy(Root.class, (proxy, method, args) -> {
+                if (method.getName().equals("get") && args.length == 1 && args[0] instanceof String attribute) {
+                    return proxy(Path.class, new Expression(row -> property(row, attribute)));
+                }
+                throw new UnsupportedOperationException(method.getName());
+            });
+            CriteriaBuilder criteriaBuilder = proxy(CriteriaBuilder.class, (proxy, method, args) -> predicate(switch (method.getName()) {
+                case "and" -> row -> operands(args).stream().allMatch(operand -> (Boolean) value(operand, row));
+                case "or" -> row -> operands(args).stream().anyMatch(operand -> (Boolean) value(operand, row));
+                case "equal" -> row -> Objects.equals(value(args[0], row), value(args[1], row));
+                case "greaterThan" -> row -> compare(value(args[0], row), value(args[1], row)) > 0;
+                case "greaterThanOrEqualTo" -> row -> compare(value(args[0], row), value(args[1], row)) >= 0;
+                case "between" -> row -> compare(value(args[0], row), value(args[1], row)) >= 0
+                        && compare(value(args[0], row), value(args[2], row)) <= 0;
+                default -> throw new UnsupportedOperationException(method.getName());
+            }));
+            Predicate predicate = ((Specification<Object>) specification).toPredicate(root, null, criteriaBuilder);
+            return row -> predicate == null || (Boolean) value(predicate, row);
+        }
+
+        // Ascending orders only, the ledger never sorts descending
+        static Comparator<Object> comparator(Sort sort) {
+            Comparator<Object> comparator = (left, right) -> 0;
+            for (Sort.Order order : sort) {
+                assertTrue(order.isAscending());
+                comparator = comparator.thenComparing((left, right) ->
+                        compare(property(left, order.getProperty()), property(right, order.getProperty())));
+            }
+            return comparator;
+        }
+
+        static Object property(Object row, String attribute) {
+            try {
+                return row.getClass().getMethod("get" + Character.toUpperCase(attribute.charAt(0)) + attribute.substring(1)).invoke(row);
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("No property " + attribute + " on " + row.getClass().getSimpleName(), e);
+            }
+        }
+
+        private static Predicate predicate(Function<Object, Object> value) {
+            return proxy(Predicate.class, new Expression(value));
+        }
+
+        // and/or are called with two expressions or with a varargs array
+        private static List<Object> operands(Object[] args) {
+            return args.length == 1 && args[0] instanceof Object[] array ? Arrays.asList(array) : Arrays.asList(args);
+        }
+
+        // A criteria expression is evaluated on the row, anything else is a literal
+        private static Object value(Object operand, Object row) {
+            if (operand != null && Proxy.isProxyClass(operand.getClass())
+                    && Proxy.getInvocationHandler(operand) instanceof Expression expression) {
+                return expression.value().apply(row);
+            }
+            return operand;
+        }
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        private static int compare(Object left, Object right) {
+            return ((Comparable) left).compareTo(right);
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <P> P proxy(Class<?> type, InvocationHandler handler) {
+            return (P) Proxy.newProxyInstance(LedgerServiceTest.class.getClassLoader(), new Class<?>[]{type}, handler);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.budget.control.backend.service;
+
+import com.budget.control.backend.model.TransactionExpenseModel;
+import com.budget.control.backend.type.TransactionKindType;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.criteria.CriteriaQuery;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class TransactionBulkWriterTest {
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void deleteBindsEachChunkAsOneArrayParameter() {
+        List<UUID> ids = List.of(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID());
+        EntityManager entityManager = mock(EntityManager.class, RETURNS_DEEP_STUBS);
+        when(entityManager.createQuery(any(CriteriaQuery.class)).setLockMode(LockModeType.PESSIMISTIC_WRITE).getResultList())
+                .thenReturn(ids);
+        TransactionPatcher transactionPatcher = mock(TransactionPatcher.class);
+        when(transactionPatcher.updateAndEvict(anyString(), any())).thenReturn(2L, 1L);
+
+        long deleted = new TransactionBulkWriter(entityManager, transactionPatcher, 2)
+                .deleteAll(TransactionKindType.EXPENSE, TransactionExpenseModel.class, (root, query, criteriaBuilder) -> null);
+
+        // The statement has a single ANY(CAST(? AS uuid[])) parameter, the chunk must not be spread into one argument per id
+        ArgumentCaptor<List<Object>> args = ArgumentCaptor.forClass(List.class);
+        verify(transactionPatcher, times(2)).updateAndEvict(anyString(), args.capture());
+        assertEquals(1, args.getAllValues().get(0).size());
+        assertArrayEquals(new UUID[]{ids.get(0), ids.get(1)}, (UUID[]) args.getAllValues().get(0).getFirst());
+        assertEquals(1, args.getAllValues().get(1).size());
+        assertArrayEquals(new UUID[]{ids.get(2)}, (UUID[]) args.getAllValues().get(1).getFirst());
+        assertEquals(3, deleted);
+    }
+}
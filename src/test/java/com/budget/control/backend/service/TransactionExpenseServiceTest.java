@@ -0,0 +1,60 @@
+package com.budget.control.backend.service;
+
+import com.budget.control.backend.exception.NonAuthorizedException;
+import com.budget.control.backend.model.TransactionExpenseModel;
+import com.budget.control.backend.type.TransactionKindType;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Root;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+public class TransactionExpenseServiceTest {
+
+    private final TransactionBulkWriter transactionBulkWriter = mock(TransactionBulkWriter.class);
+    private final TransactionExpenseService transactionExpenseService = new TransactionExpenseService(
+            null, null, null, null, null, null, transactionBulkWriter, null, null);
+
+    @Test
+    void bulkWritesWithoutAnOwnerAreRefused() {
+        assertThrows(NonAuthorizedException.class, () -> transactionExpenseService.deleteTransactionExpenseByFilters(
+                null, null, null, null, null, null, false, null, false));
+        assertThrows(NonAuthorizedException.class, () -> transactionExpenseService.deleteTransactionExpenseByFilters(
+                null, null, null, null, null, null, false, null, true));
+
+        verifyNoInteractions(transactionBulkWriter);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void bulkWritesAreScopedToTheOwner() {
+        UUID userId = UUID.randomUUID();
+        when(transactionBulkWriter.deleteAll(eq(TransactionKindType.EXPENSE), eq(TransactionExpenseModel.class), any())).thenReturn(4L);
+
+        assertEquals(4, transactionExpenseService.deleteTransactionExpenseByFilters(
+                null, null, null, null, null, null, false, userId, false));
+
+        // The filters the writer receives always carry the user_id predicate
+        ArgumentCaptor<Specification<TransactionExpenseModel>> specification = ArgumentCaptor.forClass(Specification.class);
+        verify(transactionBulkWriter).deleteAll(eq(TransactionKindType.EXPENSE), eq(TransactionExpenseModel.class), specification.capture());
+        Root<TransactionExpenseModel> root = mock(Root.class, RETURNS_DEEP_STUBS);
+        CriteriaBuilder criteriaBuilder = mock(CriteriaBuilder.class, RETURNS_DEEP_STUBS);
+        Path<Object> userIdPath = root.get("userId");
+        specification.getValue().toPredicate(root, mock(CriteriaQuery.class), criteriaBuilder);
+        verify(criteriaBuilder).equal(userIdPath, userId);
+    }
+}
@@ -0,0 +1,158 @@
+package com.budget.control.backend.service;
+
+import com.budget.control.backend.config.CacheConfig;
+import com.budget.control.backend.controller.TransactionIncomeController;
+import com.budget.control.backend.controller.dto.request.TransactionIncomeRequestDTO;
+import com.budget.control.backend.etag.EntityTags;
+import com.budget.control.backend.mappers.TransactionIncomeMapperImpl;
+import com.budget.control.backend.model.MonthlyRollupModel;
+import com.budget.control.backend.model.MonthlyRollupStateModel;
+import com.budget.control.backend.model.TransactionBenefitModel;
+import com.budget.control.backend.model.TransactionContentHash;
+import com.budget.control.backend.model.TransactionExpenseModel;
+import com.budget.control.backend.model.TransactionIncomeModel;
+import com.budget.control.backend.type.TransactionIncomeType;
+import com.budget.control.backend.validator.UUIDValidator;
+import com.budget.control.backend.validator.request.TransactionIncomeValidatorRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class TransactionPatcherTest {
+
+    private static final LocalDate JANUARY = LocalDate.of(2025, 1, 1);
+    private static final LocalDate FEBRUARY = LocalDate.of(2025, 2, 1);
+
+    private static EmbeddedSchema schema;
+    private static MonthlyRollupService monthlyRollupService;
+    private static TransactionIncomeController transactionIncomeController;
+
+    private final UUID userId = UUID.randomUUID();
+
+    @BeforeAll
+    static void start() {
+        // The rollup rebuild reads the three transaction tables
+        schema = EmbeddedSchema.start(TransactionExpenseModel.class, TransactionIncomeModel.class, TransactionBenefitModel.class,
+                MonthlyRollupModel.class, MonthlyRollupStateModel.class);
+        monthlyRollupService = new MonthlyRollupService(schema.jdbcTemplate, new ConcurrentMapCacheManager(CacheConfig.FORECAST));
+        TransactionPatcher transactionPatcher = new TransactionPatcher(schema.jdbcTemplate, monthlyRollupService);
+        TransactionIncomeService transactionIncomeService = schema.transactional(new TransactionIncomeService(
+                null, new TransactionIncomeValidatorRequest(), new UUIDValidator(), null, monthlyRollupService, transactionPatcher,
+                null, null, null));
+        transactionIncomeController = new TransactionIncomeController(
+                transactionIncomeService, new UUIDValidator(), new TransactionIncomeMapperImpl(), new ObjectMapper());
+    }
+
+    @AfterAll
+    static void stop() throws IOException {
+        if (schema != null) {
+            schema.close();
+        }
+    }
+
+    @BeforeEach
+    void clean() {
+        schema.jdbcTemplate.update("DELETE FROM transaction_income");
+        schema.jdbcTemplate.update("DELETE FROM monthly_rollup");
+    }
+
+    @Test
+    void dateChangeMovesTheAmountToTheRollupOfTheNewMonth() {
+        UUID moved = insert("Acme", "100.00", JANUARY.withDayOfMonth(15));
+        insert("Acme", "40.00", JANUARY.withDayOfMonth(20));
+        rebuildRollup();
+
+        ResponseEntity<Object> response = patch(moved, EntityTags.forResource(moved, 0L), FEBRUARY.withDayOfMonth(3));
+
+        assertEquals(HttpStatus.NO_CONTENT, response.getStatusCode());
+        StoredIncome row = row(moved);
+        assertEquals(FEBRUARY.withDayOfMonth(3), row.date());
+        assertEquals(1L, row.version());
+        assertEquals(TransactionContentHash.of(userId, TransactionIncomeType.SALARY, "Acme",
+                new BigDecimal("100.00"), FEBRUARY.withDayOfMonth(3), null), row.contentHash());
+        // Both buckets are written by the same statement: the old month loses the amount, the new one gains it
+        assertEquals(List.of(new BigDecimal("40.00"), 1L), rollup(JANUARY));
+        assertEquals(List.of(new BigDecimal("100.00"), 1L), rollup(FEBRUARY));
+    }
+
+    @Test
+    void patchMakingTwoTransactionsIdenticalIsAConflict() {
+        insert("Acme", "100.00", JANUARY.withDayOfMonth(15));
+        UUID duplicated = insert("Acme", "100.00", JANUARY.withDayOfMonth(16));
+        rebuildRollup();
+
+        ResponseEntity<Object> response = patch(duplicated, EntityTags.forResource(duplicated, 0L), JANUARY.withDayOfMonth(15));
+
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+        // The statement is rolled back with its rollup changes
+        StoredIncome row = row(duplicated);
+        assertEquals(JANUARY.withDayOfMonth(16), row.date());
+        assertEquals(0L, row.version());
+        assertEquals(List.of(new BigDecimal("200.00"), 2L), rollup(JANUARY));
+    }
+
+    @Test
+    void staleIfMatchIsAFailedPrecondition() {
+        UUID transaction = insert("Acme", "100.00", JANUARY.withDayOfMonth(15));
+        rebuildRollup();
+        String readTag = EntityTags.forResource(transaction, 0L);
+        assertEquals(HttpStatus.NO_CONTENT, patch(transaction, readTag, FEBRUARY.withDayOfMonth(3)).getStatusCode());
+
+        // A second client still holds the tag of version 0
+        ResponseEntity<Object> response = patch(transaction, readTag, JANUARY.withDayOfMonth(20));
+
+        assertEquals(HttpStatus.PRECONDITION_FAILED, response.getStatusCode());
+        StoredIncome row = row(transaction);
+        assertEquals(FEBRUARY.withDayOfMonth(3), row.date());
+        assertEquals(1L, row.version());
+        assertEquals(List.of(new BigDecimal("0.00"), 0L), rollup(JANUARY));
+        assertEquals(List.of(new BigDecimal("100.00"), 1L), rollup(FEBRUARY));
+    }
+
+    private ResponseEntity<Object> patch(UUID id, String ifMatch, LocalDate date) {
+        return transactionIncomeController.patchTransactionIncomeById(id.toString(), ifMatch,
+                new TransactionIncomeRequestDTO(null, null, null, date));
+    }
+
+    private UUID insert(String description, String amount, LocalDate date) {
+        UUID id = UUID.randomUUID();
+        schema.jdbcTemplate.update("INSERT INTO transaction_income (id, name, description, amount, date, created_at, updated_at, version, "
+                        + "user_id, content_hash) VALUES (?, 'SALARY', ?, CAST(? AS numeric), ?, now(), now(), 0, ?, ?)",
+                id, description, amount, date, userId, TransactionContentHash.of(userId,
+                        TransactionIncomeType.SALARY, description, new BigDecimal(amount), date, null));
+        return id;
+    }
+
+    private static void rebuildRollup() {
+        schema.transactionTemplate.executeWithoutResult(status -> monthlyRollupService.rebuild());
+    }
+
+    private static StoredIncome row(UUID id) {
+        return schema.jdbcTemplate.queryForObject("SELECT date, version, content_hash FROM transaction_income WHERE id = ?",
+                (resultSet, rowNum) -> new StoredIncome(resultSet.getObject(1, LocalDate.class), resultSet.getLong(2), resultSet.getString(3)), id);
+    }
+
+    // Total and count of the SALARY income bucket of the month, zero when it has no row
+    private List<Object> rollup(LocalDate month) {
+        return schema.jdbcTemplate.query("SELECT total_amount, transaction_count FROM monthly_rollup "
+                        + "WHERE user_id = ? AND month = ? AND transaction_kind = 'INCOME' AND category = 'SALARY'",
+                        (resultSet, rowNum) -> List.<Object>of(resultSet.getBigDecimal(1), resultSet.getLong(2)), userId, month)
+                .stream().findFirst().orElse(List.of(new BigDecimal("0.00"), 0L));
+    }
+
+    private record StoredIncome(LocalDate date, long version, String contentHash) {
+    }
+}
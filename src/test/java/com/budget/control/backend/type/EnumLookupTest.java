@@ -0,0 +1,61 @@
+package com.budget.control.backend.type;
+
+import com.budget.control.backend.exception.InvalidFieldException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class EnumLookupTest {
+
+    @Test
+    void findsEveryConstantIgnoringCase() {
+        EnumLookup<TransactionExpenseType> lookup = EnumLookup.of(TransactionExpenseType.class);
+        for (TransactionExpenseType value : TransactionExpenseType.values()) {
+            assertSame(value, lookup.find(value.name()));
+            assertSame(value, lookup.find(value.name().toLowerCase()));
+        }
+        assertSame(TransactionExpenseType.FOODS_AND_DRINKS, lookup.find("Foods_And_Drinks"));
+    }
+
+    @Test
+    void ignoresSurroundingWhitespace() {
+        EnumLookup<UserRoleType> lookup = EnumLookup.of(UserRoleType.class);
+        assertSame(UserRoleType.ADMIN, lookup.find("  admin\t"));
+        char[] buffer = "{\" Moderator \"}".toCharArray();
+        assertSame(UserRoleType.MODERATOR, lookup.find(buffer, 2, 11));
+    }
+
+    @Test
+    void findsNothingForOtherNames() {
+        EnumLookup<TransactionIncomeType> lookup = EnumLookup.of(TransactionIncomeType.class);
+        assertNull(lookup.find(""));
+        assertNull(lookup.find("   "));
+        assertNull(lookup.find("SALARYX"));
+        assertNull(lookup.find("SALAR"));
+    }
+
+    @Test
+    void labelsStandForTheUnderscoredNames() {
+        EnumLookup<TransactionExpenseType> lookup = EnumLookup.of(TransactionExpenseType.class);
+        assertSame(TransactionExpenseType.FOODS_AND_DRINKS, lookup.findLabel(" Foods and drinks "));
+        assertSame(TransactionExpenseType.FOODS_AND_DRINKS, lookup.findLabel("foods-and-drinks"));
+        assertSame(TransactionExpenseType.FOODS_AND_DRINKS, lookup.findLabel("FOODS_AND_DRINKS"));
+        // Only labels fold the separators, a param or a body names the constant
+        assertNull(lookup.find("Foods and drinks"));
+    }
+
+    @Test
+    void parseNamesTheEnumOfAnInvalidValue() {
+        EnumLookup<TransactionBenefitType> lookup = EnumLookup.of(TransactionBenefitType.class);
+        InvalidFieldException exception = assertThrows(InvalidFieldException.class, () -> lookup.parse(" unknown "));
+        assertEquals("Invalid value provided for TransactionBenefitType: UNKNOWN", exception.getMessage());
+    }
+
+    @Test
+    void buildsOneTablePerEnum() {
+        assertSame(EnumLookup.of(UserRoleType.class), EnumLookup.of(UserRoleType.class));
+    }
+}
@@ -0,0 +1,34 @@
+package com.budget.control.backend.type;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class RecurrenceFrequencyTypeTest {
+
+    @Test
+    void weeklyAddsSevenDays() {
+        assertEquals(LocalDate.of(2025, 1, 3), RecurrenceFrequencyType.WEEKLY.next(LocalDate.of(2024, 12, 27), null));
+    }
+
+    @Test
+    void monthlyKeepsTheAnchorDayAfterShortMonths() {
+        LocalDate february = RecurrenceFrequencyType.MONTHLY.next(LocalDate.of(2025, 1, 31), 31);
+        assertEquals(LocalDate.of(2025, 2, 28), february);
+        assertEquals(LocalDate.of(2025, 3, 31), RecurrenceFrequencyType.MONTHLY.next(february, 31));
+    }
+
+    @Test
+    void monthlyMovesToTheDayOfMonth() {
+        assertEquals(LocalDate.of(2025, 2, 5), RecurrenceFrequencyType.MONTHLY.next(LocalDate.of(2025, 1, 20), 5));
+    }
+
+    @Test
+    void yearlyHandlesLeapDays() {
+        LocalDate nextYear = RecurrenceFrequencyType.YEARLY.next(LocalDate.of(2024, 2, 29), 29);
+        assertEquals(LocalDate.of(2025, 2, 28), nextYear);
+        assertEquals(LocalDate.of(2028, 2, 29), RecurrenceFrequencyType.YEARLY.next(LocalDate.of(2027, 2, 28), 29));
+    }
+}